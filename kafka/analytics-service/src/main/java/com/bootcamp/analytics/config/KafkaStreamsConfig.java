@@ -2,6 +2,7 @@ package com.bootcamp.analytics.config;
 
 import com.bootcamp.analytics.model.OrderEvent;
 import com.bootcamp.analytics.model.UserEvent;
+import com.bootcamp.events.kafka.EventJsonSerde;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.kafka.common.serialization.Serde;
@@ -48,7 +49,8 @@ public class KafkaStreamsConfig {
         props.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
         props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
-        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        // Event topics may carry JSON or binary events; values are always read as JSON text
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, EventJsonSerde.class.getName());
         props.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, "exactly_once_v2");
         props.put(StreamsConfig.REPLICATION_FACTOR_CONFIG, 1);
         props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, 2);
@@ -12,13 +12,16 @@ import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Component
@@ -50,6 +53,8 @@ public class NotificationTasklet implements Tasklet {
                     .collect(Collectors.toList());
             List<InventoryItem> outOfStockItems = inventoryItemRepository.findOutOfStockItems();
             
+            List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>();
+            
             // Calculate total inventory value
             BigDecimal totalValue = allItems.stream()
                     .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
@@ -65,7 +70,7 @@ public class NotificationTasklet implements Tasklet {
             summaryNotification.put("totalValue", totalValue);
             
             // Send summary notification
-            kafkaTemplate.send(notificationTopic, "summary", summaryNotification);
+            sends.add(send("summary", summaryNotification));
             logger.info("Sent summary notification: {} items, {} low stock, {} out of stock, total value: {}", 
                        allItems.size(), lowStockItems.size(), outOfStockItems.size(), totalValue);
             
@@ -81,7 +86,7 @@ public class NotificationTasklet implements Tasklet {
                 lowStockNotification.put("unitPrice", item.getUnitPrice());
                 lowStockNotification.put("supplier", item.getSupplier());
                 
-                kafkaTemplate.send(notificationTopic, "low-stock", lowStockNotification);
+                sends.add(send(item.getProductCode(), lowStockNotification));
                 logger.info("Sent low stock notification for: {} - {} (Quantity: {})", 
                            item.getProductCode(), item.getProductName(), item.getQuantity());
             }
@@ -96,11 +101,14 @@ public class NotificationTasklet implements Tasklet {
                 outOfStockNotification.put("unitPrice", item.getUnitPrice());
                 outOfStockNotification.put("supplier", item.getSupplier());
                 
-                kafkaTemplate.send(notificationTopic, "out-of-stock", outOfStockNotification);
+                sends.add(send(item.getProductCode(), outOfStockNotification));
                 logger.info("Sent out of stock notification for: {} - {}", 
                            item.getProductCode(), item.getProductName());
             }
             
+            // Wait for the broker acknowledgements so that a failed send fails the step
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+            
             // Update contribution statistics
             contribution.incrementReadCount();
             contribution.incrementWriteCount(1 + lowStockItems.size() + outOfStockItems.size());
@@ -114,4 +122,19 @@ public class NotificationTasklet implements Tasklet {
         
         return RepeatStatus.FINISHED;
     }
+    
+    /**
+     * Send a notification keyed so that all notifications of one product share a partition
+     */
+    private CompletableFuture<SendResult<String, Object>> send(String key, Map<String, Object> notification) {
+        return kafkaTemplate.send(notificationTopic, key, notification)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        logger.error("Failed to send {} notification with key {}: {}", notification.get("type"), key, error.getMessage());
+                    } else {
+                        logger.debug("Sent {} notification with key {} to partition {} at offset {}", notification.get("type"), key,
+                                result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+                    }
+                });
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,382 @@
+package com.bootcamp.events;
+
+import com.bootcamp.events.EventSchema.Field;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Binary Event Codec
+ *
+ * Versioned, schema-driven binary encoding of events. Events are either
+ * property maps (the same structure Jackson produces for the JSON form)
+ * or event objects, which are read through their getters and created
+ * through their {@code @JsonCreator} constructor or setters.
+ *
+ * Message layout:
+ * <pre>
+ * [0x00 magic] [format version] [varint schema id] [varint schema version] [record]
+ * record = [varint presence bitmap] [present fields in schema order]
+ * </pre>
+ * JSON documents never start with a zero byte, so readers can tell the two
+ * formats apart from the first byte and accept both during a migration.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public final class BinaryEventCodec {
+
+    /** First byte of every binary message */
+    public static final byte MAGIC = 0x00;
+
+    /** Version of the message layout (header and encoding rules) */
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private BinaryEventCodec() {
+    }
+
+    /**
+     * Check whether a payload uses the binary format
+     *
+     * @param data the record value
+     * @return true for binary messages, false for JSON (or empty) payloads
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC && data[1] == FORMAT_VERSION;
+    }
+
+    /**
+     * Encode an event
+     *
+     * @param event the event object, or its properties keyed by JSON property name
+     * @return the binary message, or null if the event has no schema or does not fit it
+     */
+    public static byte[] encode(Object event) {
+        Object eventType = event instanceof Map
+                ? ((Map<?, ?>) event).get("eventType")
+                : EventBinding.of(event.getClass()).get(event, "eventType");
+        EventSchema schema = EventSchemas.forEventType(asString(eventType));
+        if (schema == null) {
+            return null;
+        }
+        Output out = new Output(128);
+        out.writeByte(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeVarLong(schema.getId());
+        out.writeVarLong(schema.getVersion());
+        return writeRecord(schema, event, out) ? out.toByteArray() : null;
+    }
+
+    /**
+     * Decode a binary message
+     *
+     * @param data the binary message
+     * @return the event properties, keyed by JSON property name, with timestamps as ISO strings
+     * @throws IllegalArgumentException if the message is not binary or was written with an unknown schema
+     */
+    public static Map<String, Object> decode(byte[] data) {
+        Input in = new Input(data, 2);
+        EventSchema schema = readHeader(in);
+        return toMap(schema, readRecord(schema, in));
+    }
+
+    /**
+     * Decode a binary message into an event object
+     *
+     * @param data the binary message
+     * @param eventClass resolves the class of an event type, or null to get the property map
+     * @return the event object, or its properties as returned by {@link #decode(byte[])}
+     * @throws IllegalArgumentException if the message cannot be decoded or does not fit the event class
+     */
+    public static Object decode(byte[] data, Function<String, Class<?>> eventClass) {
+        Input in = new Input(data, 2);
+        EventSchema schema = readHeader(in);
+        Object[] values = readRecord(schema, in);
+        Class<?> type = eventClass.apply(asString(values[0]));
+        return type == null || Map.class.isAssignableFrom(type)
+                ? toMap(schema, values)
+                : EventBinding.of(type).create(schema, values);
+    }
+
+    /**
+     * Convert decoded field values to a property map
+     *
+     * @param schema the schema the values were decoded with
+     * @param values the field values in schema order
+     * @return the properties keyed by field name, with timestamps as ISO strings
+     */
+    static Map<String, Object> toMap(EventSchema schema, Object[] values) {
+        List<Field> fields = schema.getFields();
+        Map<String, Object> record = new LinkedHashMap<>(fields.size() * 2);
+        for (int i = 0; i < fields.size(); i++) {
+            Object value = values[i];
+            if (value instanceof LocalDateTime) {
+                value = TIMESTAMP_FORMAT.format((LocalDateTime) value);
+            } else if (value != null && fields.get(i).getType() == EventSchema.FieldType.RECORD_LIST) {
+                List<?> records = (List<?>) value;
+                List<Map<String, Object>> maps = new ArrayList<>(records.size());
+                for (Object nested : records) {
+                    maps.add(toMap(fields.get(i).getRecordSchema(), (Object[]) nested));
+                }
+                value = maps;
+            }
+            record.put(fields.get(i).getName(), value);
+        }
+        return record;
+    }
+
+    private static EventSchema readHeader(Input in) {
+        if (!isBinary(in.data)) {
+            throw new IllegalArgumentException("Not a binary event message");
+        }
+        int id = (int) in.readVarLong();
+        int version = (int) in.readVarLong();
+        EventSchema schema = EventSchemas.forIdAndVersion(id, version);
+        if (schema == null) {
+            throw new IllegalArgumentException("Unknown event schema " + id + " version " + version);
+        }
+        return schema;
+    }
+
+    private static boolean writeRecord(EventSchema schema, Object record, Output out) {
+        List<Field> fields = schema.getFields();
+        Object[] values;
+        if (record instanceof Map) {
+            values = new Object[fields.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = ((Map<?, ?>) record).get(fields.get(i).getName());
+            }
+        } else {
+            values = EventBinding.of(record.getClass()).read(record, schema);
+        }
+        long presence = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                presence |= 1L << i;
+            }
+        }
+        out.writeVarLong(presence);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null && !writeField(fields.get(i), values[i], out)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean writeField(Field field, Object value, Output out) {
+        switch (field.getType()) {
+            case STRING:
+                out.writeString(asString(value));
+                return true;
+            case LONG:
+            case INT:
+                if (!(value instanceof Number) || value instanceof BigDecimal) {
+                    return false;
+                }
+                out.writeVarLong(zigZag(((Number) value).longValue()));
+                return true;
+            case DECIMAL:
+                BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+                out.writeVarLong(zigZag(decimal.scale()));
+                out.writeBytes(decimal.unscaledValue().toByteArray());
+                return true;
+            case TIMESTAMP:
+                LocalDateTime timestamp = value instanceof LocalDateTime
+                        ? (LocalDateTime) value
+                        : LocalDateTime.parse(value.toString(), TIMESTAMP_FORMAT);
+                out.writeVarLong(zigZag(timestamp.toEpochSecond(ZoneOffset.UTC)));
+                out.writeVarLong(timestamp.getNano());
+                return true;
+            case ENUM:
+                int index = field.getSymbols().indexOf(asString(value));
+                if (index < 0) {
+                    return false;
+                }
+                out.writeVarLong(index);
+                return true;
+            case RECORD_LIST:
+                if (!(value instanceof List)) {
+                    return false;
+                }
+                List<Object> records = (List<Object>) value;
+                out.writeVarLong(records.size());
+                for (Object record : records) {
+                    if (record == null || !writeRecord(field.getRecordSchema(), record, out)) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static Object[] readRecord(EventSchema schema, Input in) {
+        List<Field> fields = schema.getFields();
+        Object[] values = new Object[fields.size()];
+        long presence = in.readVarLong();
+        for (int i = 0; i < values.length; i++) {
+            if ((presence & (1L << i)) != 0) {
+                values[i] = readField(fields.get(i), in);
+            }
+        }
+        return values;
+    }
+
+    private static Object readField(Field field, Input in) {
+        switch (field.getType()) {
+            case STRING:
+                return in.readString();
+            case LONG:
+                return unZigZag(in.readVarLong());
+            case INT:
+                return (int) unZigZag(in.readVarLong());
+            case DECIMAL:
+                int scale = (int) unZigZag(in.readVarLong());
+                return new BigDecimal(new BigInteger(in.readBytes()), scale);
+            case TIMESTAMP:
+                long seconds = unZigZag(in.readVarLong());
+                int nanos = (int) in.readVarLong();
+                return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+            case ENUM:
+                return field.getSymbols().get((int) in.readVarLong());
+            case RECORD_LIST:
+                int count = (int) in.readVarLong();
+                List<Object[]> records = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    records.add(readRecord(field.getRecordSchema(), in));
+                }
+                return records;
+            default:
+                throw new IllegalArgumentException("Unsupported field type: " + field.getType());
+        }
+    }
+
+    private static String asString(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        return value == null ? null : value.toString();
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Growable output buffer
+     */
+    private static final class Output {
+        private byte[] buffer;
+        private int size;
+
+        Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int additional) {
+            if (size + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+            }
+        }
+    }
+
+    /**
+     * Sequential reader over a message
+     */
+    private static final class Input {
+        private final byte[] data;
+        private int position;
+
+        Input(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                if (position >= data.length) {
+                    throw new IllegalArgumentException("Truncated binary event message");
+                }
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+                if (shift > 63) {
+                    throw new IllegalArgumentException("Malformed varint in binary event message");
+                }
+            }
+        }
+
+        byte[] readBytes() {
+            int length = (int) readVarLong();
+            if (length < 0 || position + length > data.length) {
+                throw new IllegalArgumentException("Truncated binary event message");
+            }
+            byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length < 0 || position + length > data.length) {
+                throw new IllegalArgumentException("Truncated binary event message");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
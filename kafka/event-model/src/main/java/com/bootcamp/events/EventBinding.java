@@ -0,0 +1,320 @@
+package com.bootcamp.events;
+
+import com.bootcamp.events.EventSchema.Field;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.BeanUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event Binding
+ *
+ * Reads the schema fields of an event object through its getters and
+ * creates event objects from decoded field values, so the binary codec
+ * works on the event classes without converting them to and from
+ * property maps first.
+ *
+ * Objects are created through the constructor annotated with
+ * {@link JsonCreator}, or else the no-argument constructor, followed by
+ * the setters of the remaining fields; the same rules Jackson applies to
+ * the JSON form. Accessors are resolved once per class and schema.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+final class EventBinding {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private static final ClassValue<EventBinding> BINDINGS = new ClassValue<>() {
+        @Override
+        protected EventBinding computeValue(Class<?> type) {
+            return new EventBinding(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final Map<String, Method> getters = new HashMap<>();
+    private final Map<String, Method> setters = new HashMap<>();
+    private final Constructor<?> constructor;
+    private final String[] constructorProperties;
+    private final Class<?>[] constructorTypes;
+    private final Type[] constructorGenericTypes;
+    private final Map<EventSchema, Method[]> readPlans = new ConcurrentHashMap<>();
+    private final Map<EventSchema, CreatePlan> createPlans = new ConcurrentHashMap<>();
+
+    private EventBinding(Class<?> type) {
+        this.type = type;
+        for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(type)) {
+            if (property.getReadMethod() != null) {
+                getters.put(property.getName(), property.getReadMethod());
+            }
+            if (property.getWriteMethod() != null) {
+                setters.put(property.getName(), property.getWriteMethod());
+            }
+        }
+        Constructor<?> creator = null;
+        for (Constructor<?> candidate : type.getConstructors()) {
+            if (candidate.isAnnotationPresent(JsonCreator.class)) {
+                creator = candidate;
+            }
+        }
+        if (creator == null) {
+            try {
+                creator = type.getConstructor();
+            } catch (NoSuchMethodException e) {
+                creator = null;
+            }
+        }
+        this.constructor = creator;
+        this.constructorProperties = creator == null ? new String[0] : propertyNames(creator);
+        this.constructorTypes = creator == null ? new Class<?>[0] : creator.getParameterTypes();
+        this.constructorGenericTypes = creator == null ? new Type[0] : creator.getGenericParameterTypes();
+    }
+
+    /**
+     * Get the binding of an event class
+     *
+     * @param type the event class
+     * @return the binding, resolved on first use
+     */
+    static EventBinding of(Class<?> type) {
+        return BINDINGS.get(type);
+    }
+
+    /**
+     * Read one property of an event object
+     *
+     * @param event the event object
+     * @param property the property name
+     * @return the value, or null if the class has no such property
+     */
+    Object get(Object event, String property) {
+        Method getter = getters.get(property);
+        return getter == null ? null : invoke(getter, event);
+    }
+
+    /**
+     * Read the fields of a schema from an event object
+     *
+     * @param event the event object
+     * @param schema the schema to read
+     * @return the field values in schema order, null for fields the class does not have
+     */
+    Object[] read(Object event, EventSchema schema) {
+        Method[] plan = readPlans.computeIfAbsent(schema, this::readPlan);
+        Object[] values = new Object[plan.length];
+        for (int i = 0; i < plan.length; i++) {
+            values[i] = plan[i] == null ? null : invoke(plan[i], event);
+        }
+        return values;
+    }
+
+    /**
+     * Create an event object from decoded field values
+     *
+     * @param schema the schema the values were decoded with
+     * @param values the field values in schema order
+     * @return the event object
+     * @throws IllegalArgumentException if the class cannot be created or a value does not fit its property
+     */
+    Object create(EventSchema schema, Object[] values) {
+        if (constructor == null) {
+            throw new IllegalArgumentException("No @JsonCreator or no-argument constructor on " + type.getName());
+        }
+        CreatePlan plan = createPlans.computeIfAbsent(schema, this::createPlan);
+        List<Field> fields = schema.getFields();
+        Object[] arguments = new Object[constructorTypes.length];
+        for (int i = 0; i < arguments.length; i++) {
+            int field = plan.argumentFields[i];
+            Object value = field < 0 ? null : convert(values[field], fields.get(field), constructorGenericTypes[i]);
+            arguments[i] = value == null && constructorTypes[i].isPrimitive()
+                    ? primitiveDefault(constructorTypes[i])
+                    : value;
+        }
+        Object event;
+        try {
+            event = constructor.newInstance(arguments);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Cannot create " + type.getName(), e);
+        }
+        for (int i = 0; i < plan.setters.length; i++) {
+            Method setter = plan.setters[i];
+            if (setter != null && values[i] != null) {
+                invoke(setter, event, convert(values[i], fields.get(i), plan.setterTypes[i]));
+            }
+        }
+        return event;
+    }
+
+    private Method[] readPlan(EventSchema schema) {
+        List<Field> fields = schema.getFields();
+        Method[] plan = new Method[fields.size()];
+        for (int i = 0; i < plan.length; i++) {
+            plan[i] = getters.get(fields.get(i).getName());
+        }
+        return plan;
+    }
+
+    private CreatePlan createPlan(EventSchema schema) {
+        List<Field> fields = schema.getFields();
+        int[] argumentFields = new int[constructorProperties.length];
+        for (int i = 0; i < argumentFields.length; i++) {
+            argumentFields[i] = -1;
+            for (int j = 0; j < fields.size(); j++) {
+                if (fields.get(j).getName().equals(constructorProperties[i])) {
+                    argumentFields[i] = j;
+                }
+            }
+        }
+        // Fields the constructor does not take are set afterwards, where the class has a setter
+        List<String> passed = List.of(constructorProperties);
+        Method[] fieldSetters = new Method[fields.size()];
+        Type[] setterTypes = new Type[fields.size()];
+        for (int j = 0; j < fields.size(); j++) {
+            Method setter = setters.get(fields.get(j).getName());
+            if (setter != null && !passed.contains(fields.get(j).getName())) {
+                fieldSetters[j] = setter;
+                setterTypes[j] = setter.getGenericParameterTypes()[0];
+            }
+        }
+        return new CreatePlan(argumentFields, fieldSetters, setterTypes);
+    }
+
+    private static Object convert(Object value, Field field, Type target) {
+        if (value == null) {
+            return null;
+        }
+        Class<?> raw = rawClass(target);
+        if (field.getType() == EventSchema.FieldType.RECORD_LIST) {
+            Type elementType = target instanceof ParameterizedType
+                    ? ((ParameterizedType) target).getActualTypeArguments()[0]
+                    : Object.class;
+            Class<?> elementClass = rawClass(elementType);
+            List<?> records = (List<?>) value;
+            List<Object> converted = new ArrayList<>(records.size());
+            for (Object record : records) {
+                converted.add(elementClass == Object.class || Map.class.isAssignableFrom(elementClass)
+                        ? BinaryEventCodec.toMap(field.getRecordSchema(), (Object[]) record)
+                        : of(elementClass).create(field.getRecordSchema(), (Object[]) record));
+            }
+            return converted;
+        }
+        if (raw.isInstance(value)) {
+            return value;
+        }
+        if (raw == String.class) {
+            return value instanceof LocalDateTime ? TIMESTAMP_FORMAT.format((LocalDateTime) value) : value.toString();
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (raw == Long.class || raw == long.class) {
+                return number.longValue();
+            }
+            if (raw == Integer.class || raw == int.class) {
+                return number.intValue();
+            }
+            if (raw == BigDecimal.class) {
+                return new BigDecimal(number.toString());
+            }
+            if (raw == Double.class || raw == double.class) {
+                return number.doubleValue();
+            }
+        }
+        if (raw.isEnum() && value instanceof String) {
+            return enumValue(raw, (String) value);
+        }
+        throw new IllegalArgumentException("Cannot convert " + field.getName() + " to " + raw.getName());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(Class<?> type, String name) {
+        return Enum.valueOf((Class<? extends Enum>) type, name);
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return Object.class;
+    }
+
+    private static Object primitiveDefault(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        return 0;
+    }
+
+    private static String[] propertyNames(Constructor<?> constructor) {
+        Parameter[] parameters = constructor.getParameters();
+        String[] names = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            JsonProperty property = parameters[i].getAnnotation(JsonProperty.class);
+            names[i] = property != null ? property.value() : parameters[i].getName();
+        }
+        return names;
+    }
+
+    private static Object invoke(Method method, Object target, Object... arguments) {
+        try {
+            return method.invoke(target, arguments);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Cannot call " + method.getName() + " on " + target.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * How to create the class from the fields of one schema
+     */
+    private static final class CreatePlan {
+        /** Schema field index of each constructor argument, -1 if the schema has no such field */
+        private final int[] argumentFields;
+        /** Setter of each schema field not passed to the constructor, or null */
+        private final Method[] setters;
+        /** Parameter type of each setter */
+        private final Type[] setterTypes;
+
+        private CreatePlan(int[] argumentFields, Method[] setters, Type[] setterTypes) {
+            this.argumentFields = argumentFields;
+            this.setters = setters;
+            this.setterTypes = setterTypes;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.bootcamp.events;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Event Schema
+ *
+ * Ordered list of typed fields that defines the binary layout of one
+ * event type. Field names are not written to the wire; the schema ID and
+ * version in the message header select the layout on the reading side.
+ * New versions may only append fields so that older layouts stay readable.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public final class EventSchema {
+
+    /**
+     * Wire types of schema fields
+     */
+    public enum FieldType {
+        /** UTF-8 string with a varint length prefix */
+        STRING,
+        /** Zig-zag varint */
+        LONG,
+        /** Zig-zag varint */
+        INT,
+        /** Varint scale followed by the length-prefixed unscaled two's-complement bytes */
+        DECIMAL,
+        /** LocalDateTime as varint epoch seconds (UTC) and varint nanoseconds */
+        TIMESTAMP,
+        /** Varint index into the field's symbol list */
+        ENUM,
+        /** Varint count followed by records of the nested schema */
+        RECORD_LIST
+    }
+
+    /**
+     * A named, typed field of a schema
+     */
+    public static final class Field {
+        private final String name;
+        private final FieldType type;
+        private final List<String> symbols;
+        private final EventSchema recordSchema;
+
+        private Field(String name, FieldType type, List<String> symbols, EventSchema recordSchema) {
+            this.name = name;
+            this.type = type;
+            this.symbols = symbols;
+            this.recordSchema = recordSchema;
+        }
+
+        public static Field of(String name, FieldType type) {
+            return new Field(name, type, Collections.emptyList(), null);
+        }
+
+        public static Field ofEnum(String name, String... symbols) {
+            return new Field(name, FieldType.ENUM, List.of(symbols), null);
+        }
+
+        public static Field ofRecordList(String name, EventSchema recordSchema) {
+            return new Field(name, FieldType.RECORD_LIST, Collections.emptyList(), recordSchema);
+        }
+
+        // Getters
+        public String getName() {
+            return name;
+        }
+
+        public FieldType getType() {
+            return type;
+        }
+
+        public List<String> getSymbols() {
+            return symbols;
+        }
+
+        public EventSchema getRecordSchema() {
+            return recordSchema;
+        }
+
+        @Override
+        public String toString() {
+            return name + ":" + type;
+        }
+    }
+
+    private final String name;
+    private final int id;
+    private final int version;
+    private final List<Field> fields;
+
+    public EventSchema(String name, int id, int version, Field... fields) {
+        if (fields.length > 63) {
+            throw new IllegalArgumentException("A schema supports at most 63 fields: " + name);
+        }
+        this.name = name;
+        this.id = id;
+        this.version = version;
+        this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    @Override
+    public String toString() {
+        return "EventSchema{" +
+                "name='" + name + '\'' +
+                ", id=" + id +
+                ", version=" + version +
+                ", fields=" + fields +
+                '}';
+    }
+}
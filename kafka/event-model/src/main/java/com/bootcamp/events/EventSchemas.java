@@ -0,0 +1,135 @@
+package com.bootcamp.events;
+
+import com.bootcamp.events.EventSchema.Field;
+import com.bootcamp.events.EventSchema.FieldType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Event Schemas
+ *
+ * Registry of the binary schemas of the domain events exchanged between
+ * services. Field names match the JSON property names, so an event decoded
+ * from the binary format yields the same structure as its JSON form.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public final class EventSchemas {
+
+    /** Order item as embedded in order created events */
+    public static final EventSchema ORDER_ITEM_V1 = new EventSchema("OrderItem", 0, 1,
+            Field.of("id", FieldType.LONG),
+            Field.of("orderId", FieldType.LONG),
+            Field.of("productId", FieldType.LONG),
+            Field.of("productName", FieldType.STRING),
+            Field.of("quantity", FieldType.INT),
+            Field.of("unitPrice", FieldType.DECIMAL),
+            Field.of("totalPrice", FieldType.DECIMAL));
+
+    public static final EventSchema ORDER_CREATED_V1 = new EventSchema("OrderCreated", 1, 1,
+            Field.ofEnum("eventType", "ORDER_CREATED"),
+            Field.of("orderId", FieldType.LONG),
+            Field.of("userId", FieldType.LONG),
+            Field.of("timestamp", FieldType.TIMESTAMP),
+            Field.of("totalAmount", FieldType.DECIMAL),
+            Field.ofRecordList("items", ORDER_ITEM_V1),
+            Field.of("shippingAddress", FieldType.STRING),
+            Field.of("notes", FieldType.STRING));
+
+    public static final EventSchema ORDER_STATUS_UPDATED_V1 = new EventSchema("OrderStatusUpdated", 2, 1,
+            Field.ofEnum("eventType", "ORDER_STATUS_UPDATED"),
+            Field.of("orderId", FieldType.LONG),
+            Field.of("userId", FieldType.LONG),
+            Field.of("timestamp", FieldType.TIMESTAMP),
+            Field.ofEnum("oldStatus", "PENDING", "CONFIRMED", "PROCESSING", "SHIPPED", "DELIVERED", "CANCELLED"),
+            Field.ofEnum("newStatus", "PENDING", "CONFIRMED", "PROCESSING", "SHIPPED", "DELIVERED", "CANCELLED"));
+
+    /** Adds the write model version of the order */
+    public static final EventSchema ORDER_CREATED_V2 = new EventSchema("OrderCreated", 1, 2,
+            Field.ofEnum("eventType", "ORDER_CREATED"),
+            Field.of("orderId", FieldType.LONG),
+            Field.of("userId", FieldType.LONG),
+            Field.of("timestamp", FieldType.TIMESTAMP),
+            Field.of("totalAmount", FieldType.DECIMAL),
+            Field.ofRecordList("items", ORDER_ITEM_V1),
+            Field.of("shippingAddress", FieldType.STRING),
+            Field.of("notes", FieldType.STRING),
+            Field.of("version", FieldType.LONG));
+
+    /** Adds the write model version of the order */
+    public static final EventSchema ORDER_STATUS_UPDATED_V2 = new EventSchema("OrderStatusUpdated", 2, 2,
+            Field.ofEnum("eventType", "ORDER_STATUS_UPDATED"),
+            Field.of("orderId", FieldType.LONG),
+            Field.of("userId", FieldType.LONG),
+            Field.of("timestamp", FieldType.TIMESTAMP),
+            Field.ofEnum("oldStatus", "PENDING", "CONFIRMED", "PROCESSING", "SHIPPED", "DELIVERED", "CANCELLED"),
+            Field.ofEnum("newStatus", "PENDING", "CONFIRMED", "PROCESSING", "SHIPPED", "DELIVERED", "CANCELLED"),
+            Field.of("version", FieldType.LONG));
+
+    public static final EventSchema ORDER_DELETED_V1 = new EventSchema("OrderDeleted", 3, 1,
+            Field.ofEnum("eventType", "ORDER_DELETED"),
+            Field.of("orderId", FieldType.LONG),
+            Field.of("userId", FieldType.LONG),
+            Field.of("timestamp", FieldType.TIMESTAMP));
+
+    public static final EventSchema USER_EVENT_V1 = new EventSchema("UserEvent", 4, 1,
+            Field.ofEnum("eventType", "USER_CREATED", "USER_UPDATED", "USER_DELETED", "USER_ACTIVATED", "USER_DEACTIVATED"),
+            Field.of("userId", FieldType.LONG),
+            Field.of("username", FieldType.STRING),
+            Field.of("email", FieldType.STRING),
+            Field.of("timestamp", FieldType.TIMESTAMP),
+            Field.of("data", FieldType.STRING));
+
+    private static final Map<String, EventSchema> BY_EVENT_TYPE = new HashMap<>();
+    private static final Map<Long, EventSchema> BY_ID_AND_VERSION = new HashMap<>();
+
+    static {
+        register(ORDER_CREATED_V1);
+        register(ORDER_CREATED_V2);
+        register(ORDER_STATUS_UPDATED_V1);
+        register(ORDER_STATUS_UPDATED_V2);
+        register(ORDER_DELETED_V1);
+        register(USER_EVENT_V1);
+    }
+
+    private EventSchemas() {
+    }
+
+    /**
+     * Get the current schema used to write an event type
+     *
+     * @param eventType the eventType property of the event
+     * @return the schema, or null if the event type has no binary schema
+     */
+    public static EventSchema forEventType(String eventType) {
+        return eventType == null ? null : BY_EVENT_TYPE.get(eventType);
+    }
+
+    /**
+     * Get the schema a binary message was written with
+     *
+     * @param id the schema ID from the message header
+     * @param version the schema version from the message header
+     * @return the schema, or null if it is unknown to this reader
+     */
+    public static EventSchema forIdAndVersion(int id, int version) {
+        return BY_ID_AND_VERSION.get(key(id, version));
+    }
+
+    private static void register(EventSchema schema) {
+        // The event type symbols of the first field select the schema for writing
+        for (String eventType : schema.getFields().get(0).getSymbols()) {
+            EventSchema current = BY_EVENT_TYPE.get(eventType);
+            if (current == null || current.getVersion() < schema.getVersion()) {
+                BY_EVENT_TYPE.put(eventType, schema);
+            }
+        }
+        BY_ID_AND_VERSION.put(key(schema.getId(), schema.getVersion()), schema);
+    }
+
+    private static long key(int id, int version) {
+        return ((long) id << 32) | version;
+    }
+}
@@ -0,0 +1,88 @@
+package com.bootcamp.events.kafka;
+
+import com.bootcamp.events.BinaryEventCodec;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka deserializer for domain events in either wire format
+ *
+ * JSON payloads are delegated to JsonDeserializer, so all spring.json.*
+ * properties keep working. Binary payloads are decoded with
+ * {@link BinaryEventCodec} straight into the class mapped to their
+ * eventType:
+ * <pre>
+ * events.binary.type.mapping: ORDER_CREATED:com.example.OrderCreatedEvent,ORDER_DELETED:com.example.OrderDeletedEvent
+ * events.binary.default.type: com.example.GenericEvent
+ * </pre>
+ * Without a matching class the decoded property map is returned.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+    /** Consumer property mapping event types to target classes for binary payloads */
+    public static final String TYPE_MAPPING_CONFIG = "events.binary.type.mapping";
+
+    /** Consumer property with the target class for binary payloads of unmapped event types */
+    public static final String DEFAULT_TYPE_CONFIG = "events.binary.default.type";
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+    private final Map<String, Class<?>> typeMapping = new HashMap<>();
+    private Class<?> defaultType;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+        Object mapping = configs.get(TYPE_MAPPING_CONFIG);
+        if (mapping != null) {
+            for (String entry : mapping.toString().split(",")) {
+                String[] parts = entry.trim().split(":");
+                if (parts.length == 2) {
+                    typeMapping.put(parts[0].trim(), loadClass(parts[1].trim()));
+                }
+            }
+        }
+        Object type = configs.get(DEFAULT_TYPE_CONFIG);
+        if (type != null) {
+            defaultType = loadClass(type.toString().trim());
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (!BinaryEventCodec.isBinary(data)) {
+            return headers != null ? jsonDeserializer.deserialize(topic, headers, data) : jsonDeserializer.deserialize(topic, data);
+        }
+        try {
+            return BinaryEventCodec.decode(data, eventType -> typeMapping.getOrDefault(eventType, defaultType));
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot deserialize binary event from topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+
+    private static Class<?> loadClass(String className) {
+        try {
+            return ClassUtils.forName(className, ClassUtils.getDefaultClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Event class not found: " + className, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.bootcamp.events.kafka;
+
+import com.bootcamp.events.BinaryEventCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kafka deserializer that always yields the JSON text of an event
+ *
+ * For consumers that parse event JSON themselves (String listeners and
+ * Kafka Streams topologies). JSON payloads are returned unchanged and
+ * binary payloads are converted to the equivalent JSON document.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class EventJsonDeserializer implements Deserializer<String> {
+
+    @Override
+    public String deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!BinaryEventCodec.isBinary(data)) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        try {
+            return EventObjectMapper.INSTANCE.writeValueAsString(BinaryEventCodec.decode(data));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new SerializationException("Cannot convert binary event from topic " + topic + " to JSON", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.bootcamp.events.kafka;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+/**
+ * String Serde that reads event topics in either wire format
+ *
+ * Drop-in replacement for Serdes.String() as the default value Serde of
+ * Kafka Streams applications that consume event topics as JSON text.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class EventJsonSerde extends Serdes.WrapperSerde<String> {
+
+    public EventJsonSerde() {
+        super(new StringSerializer(), new EventJsonDeserializer());
+    }
+}
@@ -0,0 +1,27 @@
+package com.bootcamp.events.kafka;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Object mapper used to write decoded binary events as JSON
+ *
+ * Produces the same document as the JSON wire format: ISO timestamps and
+ * exact decimals.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+final class EventObjectMapper {
+
+    static final ObjectMapper INSTANCE = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private EventObjectMapper() {
+    }
+}
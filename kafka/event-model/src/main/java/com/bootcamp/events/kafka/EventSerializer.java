@@ -0,0 +1,60 @@
+package com.bootcamp.events.kafka;
+
+import com.bootcamp.events.BinaryEventCodec;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Kafka serializer for domain events
+ *
+ * Writes events as JSON (the default, identical to JsonSerializer) or, with
+ * {@code events.wire-format=binary}, in the compact binary format of
+ * {@link BinaryEventCodec}. Events without a binary schema are always
+ * written as JSON.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    /** Producer property selecting the wire format: json or binary */
+    public static final String WIRE_FORMAT_CONFIG = "events.wire-format";
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+        Object wireFormat = configs.get(WIRE_FORMAT_CONFIG);
+        binary = wireFormat != null && "binary".equalsIgnoreCase(wireFormat.toString().trim());
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (binary) {
+            byte[] encoded = BinaryEventCodec.encode(data);
+            if (encoded != null) {
+                return encoded;
+            }
+        }
+        return headers != null ? jsonSerializer.serialize(topic, headers, data) : jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,217 @@
+package com.bootcamp.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryEventCodecTest {
+
+    @Test
+    void encode_ShouldRoundTripOrderCreatedEvent() {
+        // Given
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", 11L);
+        item.put("orderId", 42L);
+        item.put("productId", 1001L);
+        item.put("productName", "Laptop Gaming ñ");
+        item.put("quantity", 2);
+        item.put("unitPrice", new BigDecimal("599.99"));
+        item.put("totalPrice", new BigDecimal("1199.98"));
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("eventType", "ORDER_CREATED");
+        event.put("orderId", 42L);
+        event.put("userId", 7L);
+        event.put("timestamp", "2024-03-01T10:15:30.123456789");
+        event.put("totalAmount", new BigDecimal("1359.97"));
+        event.put("items", List.of(item));
+        event.put("shippingAddress", "123 Main St");
+        event.put("notes", null);
+        event.put("version", 3L);
+
+        // When
+        byte[] data = BinaryEventCodec.encode(event);
+        Map<String, Object> decoded = BinaryEventCodec.decode(data);
+
+        // Then
+        assertTrue(BinaryEventCodec.isBinary(data));
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void encode_ShouldRoundTripLongEdgeValues() {
+        for (long value : new long[] {0, 1, -1, 63, -64, 64, -65, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE}) {
+            // When
+            Map<String, Object> decoded = BinaryEventCodec.decode(BinaryEventCodec.encode(orderDeleted(value)));
+
+            // Then
+            assertEquals(value, decoded.get("orderId"), "orderId " + value);
+        }
+    }
+
+    @Test
+    void encode_ShouldUseOneVarintByteForSmallZigZagValues() {
+        // 63 and -64 zigzag to 126 and 127 (one byte), 64 and -65 to 128 and 129 (two bytes)
+        int oneByte = BinaryEventCodec.encode(orderDeleted(63)).length;
+
+        assertEquals(oneByte, BinaryEventCodec.encode(orderDeleted(-64)).length);
+        assertEquals(oneByte + 1, BinaryEventCodec.encode(orderDeleted(64)).length);
+        assertEquals(oneByte + 1, BinaryEventCodec.encode(orderDeleted(-65)).length);
+        assertEquals(oneByte + 9, BinaryEventCodec.encode(orderDeleted(Long.MIN_VALUE)).length);
+    }
+
+    @Test
+    void encode_ShouldRoundTripTimestampsBeforeEpochAndNegativeDecimals() {
+        // Given
+        Map<String, Object> event = orderDeleted(1);
+        event.put("timestamp", "1969-12-31T23:59:59.5");
+        Map<String, Object> created = new LinkedHashMap<>();
+        created.put("eventType", "ORDER_CREATED");
+        created.put("totalAmount", new BigDecimal("-12345678901234567890.123456"));
+
+        // When
+        Map<String, Object> decodedDeleted = BinaryEventCodec.decode(BinaryEventCodec.encode(event));
+        Map<String, Object> decodedCreated = BinaryEventCodec.decode(BinaryEventCodec.encode(created));
+
+        // Then
+        assertEquals("1969-12-31T23:59:59.5", decodedDeleted.get("timestamp"));
+        assertEquals(new BigDecimal("-12345678901234567890.123456"), decodedCreated.get("totalAmount"));
+        assertNull(decodedCreated.get("orderId"));
+    }
+
+    @Test
+    void encode_ShouldReturnNullForEventsWithoutSchema() {
+        Map<String, Object> event = orderDeleted(1);
+        event.put("eventType", "INVENTORY_ADJUSTED");
+
+        assertNull(BinaryEventCodec.encode(event));
+        assertNull(BinaryEventCodec.encode(new LinkedHashMap<>()));
+    }
+
+    @Test
+    void encode_ShouldReturnNullForEventsNotFittingTheirSchema() {
+        Map<String, Object> textId = orderDeleted(1);
+        textId.put("orderId", "abc");
+        Map<String, Object> unknownStatus = new LinkedHashMap<>();
+        unknownStatus.put("eventType", "ORDER_STATUS_UPDATED");
+        unknownStatus.put("newStatus", "RETURNED");
+
+        assertNull(BinaryEventCodec.encode(textId));
+        assertNull(BinaryEventCodec.encode(unknownStatus));
+    }
+
+    @Test
+    void encode_ShouldWriteEventObjectsLikeTheirPropertyMaps() {
+        // Given
+        SampleEvents.OrderCreated event = orderCreated();
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("productId", 1001L);
+        item.put("productName", "Laptop");
+        item.put("quantity", 2);
+        item.put("unitPrice", new BigDecimal("599.99"));
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("eventType", "ORDER_CREATED");
+        properties.put("orderId", 42L);
+        properties.put("userId", 7L);
+        properties.put("timestamp", "2024-03-01T10:15:30.5");
+        properties.put("totalAmount", new BigDecimal("1199.98"));
+        properties.put("items", List.of(item));
+        properties.put("version", 3L);
+
+        // When / Then
+        assertArrayEquals(BinaryEventCodec.encode(properties), BinaryEventCodec.encode(event));
+    }
+
+    @Test
+    void decode_ShouldCreateEventObjectsThroughTheirCreatorAndSetters() {
+        // Given
+        byte[] data = BinaryEventCodec.encode(orderCreated());
+
+        // When
+        Object decoded = BinaryEventCodec.decode(data, eventType -> SampleEvents.OrderCreated.class);
+
+        // Then
+        SampleEvents.OrderCreated event = assertInstanceOf(SampleEvents.OrderCreated.class, decoded);
+        assertEquals(42L, event.getOrderId());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 500_000_000), event.getTimestamp());
+        assertEquals(new BigDecimal("1199.98"), event.getTotalAmount());
+        assertNull(event.getNotes());
+        assertEquals(3L, event.getVersion());
+        SampleEvents.Item item = event.getItems().get(0);
+        assertEquals("Laptop", item.getProductName());
+        assertEquals(2, item.getQuantity());
+        assertEquals(new BigDecimal("599.99"), item.getUnitPrice());
+    }
+
+    @Test
+    void decode_ShouldConvertValuesToThePropertyTypesOfTheEventClass() {
+        // Given
+        SampleEvents.UserEvent event = new SampleEvents.UserEvent();
+        event.setEventType(SampleEvents.UserEventType.USER_UPDATED);
+        event.setUserId(9L);
+        event.setUsername("alice");
+        event.setTimestamp("2024-03-01T10:15:30");
+        byte[] data = BinaryEventCodec.encode(event);
+
+        // When
+        Object decoded = BinaryEventCodec.decode(data, eventType -> SampleEvents.UserEvent.class);
+
+        // Then - the enum comes back as an enum and the timestamp as text
+        SampleEvents.UserEvent user = assertInstanceOf(SampleEvents.UserEvent.class, decoded);
+        assertEquals(SampleEvents.UserEventType.USER_UPDATED, user.getEventType());
+        assertEquals(9L, user.getUserId());
+        assertEquals("alice", user.getUsername());
+        assertEquals("2024-03-01T10:15:30", user.getTimestamp());
+    }
+
+    @Test
+    void decode_ShouldReturnThePropertyMapWithoutAnEventClass() {
+        // Given
+        byte[] data = BinaryEventCodec.encode(orderDeleted(5));
+
+        // When / Then
+        assertEquals(BinaryEventCodec.decode(data), BinaryEventCodec.decode(data, eventType -> null));
+    }
+
+    @Test
+    void decode_ShouldRejectJsonPayloads() {
+        byte[] json = "{\"eventType\":\"ORDER_DELETED\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertFalse(BinaryEventCodec.isBinary(json));
+        assertThrows(IllegalArgumentException.class, () -> BinaryEventCodec.decode(json));
+    }
+
+    @Test
+    void decode_ShouldRejectTruncatedMessagesAndUnknownSchemas() {
+        byte[] data = BinaryEventCodec.encode(orderDeleted(Long.MAX_VALUE));
+        byte[] truncated = Arrays.copyOf(data, data.length - 1);
+        byte[] unknownSchema = {BinaryEventCodec.MAGIC, BinaryEventCodec.FORMAT_VERSION, 99, 1, 0};
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryEventCodec.decode(truncated));
+        assertThrows(IllegalArgumentException.class, () -> BinaryEventCodec.decode(unknownSchema));
+    }
+
+    private static SampleEvents.OrderCreated orderCreated() {
+        return new SampleEvents.OrderCreated(42L, 7L, LocalDateTime.of(2024, 3, 1, 10, 15, 30, 500_000_000),
+                new BigDecimal("1199.98"), List.of(new SampleEvents.Item(1001L, "Laptop", 2, new BigDecimal("599.99"))),
+                null, 3L);
+    }
+
+    private static Map<String, Object> orderDeleted(long orderId) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("eventType", "ORDER_DELETED");
+        event.put("orderId", orderId);
+        event.put("userId", 7L);
+        event.put("timestamp", "2024-03-01T10:15:30");
+        return event;
+    }
+}
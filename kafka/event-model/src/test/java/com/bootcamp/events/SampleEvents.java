@@ -0,0 +1,172 @@
+package com.bootcamp.events;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Event classes shaped like the ones the services publish and consume
+ */
+public final class SampleEvents {
+
+    private SampleEvents() {
+    }
+
+    /** Immutable event created through its @JsonCreator constructor, like the order events */
+    public static class OrderCreated {
+        private final Long orderId;
+        private final Long userId;
+        private final LocalDateTime timestamp;
+        private final BigDecimal totalAmount;
+        private final List<Item> items;
+        private final String notes;
+        private final Long version;
+
+        @JsonCreator
+        public OrderCreated(@JsonProperty("orderId") Long orderId,
+                            @JsonProperty("userId") Long userId,
+                            @JsonProperty("timestamp") LocalDateTime timestamp,
+                            @JsonProperty("totalAmount") BigDecimal totalAmount,
+                            @JsonProperty("items") List<Item> items,
+                            @JsonProperty("notes") String notes,
+                            @JsonProperty("version") Long version) {
+            this.orderId = orderId;
+            this.userId = userId;
+            this.timestamp = timestamp;
+            this.totalAmount = totalAmount;
+            this.items = items;
+            this.notes = notes;
+            this.version = version;
+        }
+
+        public String getEventType() {
+            return "ORDER_CREATED";
+        }
+
+        public Long getOrderId() {
+            return orderId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        public BigDecimal getTotalAmount() {
+            return totalAmount;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+
+        public String getNotes() {
+            return notes;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+    }
+
+    /** Mutable order item, like the order-service entity */
+    public static class Item {
+        private Long productId;
+        private String productName;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+
+        public Item() {
+        }
+
+        public Item(Long productId, String productName, Integer quantity, BigDecimal unitPrice) {
+            this.productId = productId;
+            this.productName = productName;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Long productId) {
+            this.productId = productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public void setProductName(String productName) {
+            this.productName = productName;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public BigDecimal getUnitPrice() {
+            return unitPrice;
+        }
+
+        public void setUnitPrice(BigDecimal unitPrice) {
+            this.unitPrice = unitPrice;
+        }
+    }
+
+    /** Event type values of the user events */
+    public enum UserEventType {
+        USER_CREATED, USER_UPDATED, USER_DELETED
+    }
+
+    /** Bean with setters that keeps the timestamp as text, like the notification consumer's user event */
+    public static class UserEvent {
+        private UserEventType eventType;
+        private Long userId;
+        private String username;
+        private String timestamp;
+
+        public UserEventType getEventType() {
+            return eventType;
+        }
+
+        public void setEventType(UserEventType eventType) {
+            this.eventType = eventType;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getTimestamp() {
+            return timestamp;
+        }
+
+        public void setTimestamp(String timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+}
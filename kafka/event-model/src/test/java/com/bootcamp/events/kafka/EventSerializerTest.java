@@ -0,0 +1,111 @@
+package com.bootcamp.events.kafka;
+
+import com.bootcamp.events.BinaryEventCodec;
+import com.bootcamp.events.SampleEvents;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EventJsonDeserializer jsonDeserializer = new EventJsonDeserializer();
+    private EventSerializer binarySerializer;
+
+    @BeforeEach
+    void setUp() {
+        binarySerializer = new EventSerializer();
+        binarySerializer.configure(Map.of(EventSerializer.WIRE_FORMAT_CONFIG, "binary"), false);
+    }
+
+    @Test
+    void serialize_ShouldWriteBinaryForEventsWithSchema() throws Exception {
+        // When
+        byte[] data = binarySerializer.serialize("order-events", orderDeleted());
+        JsonNode json = objectMapper.readTree(jsonDeserializer.deserialize("order-events", data));
+
+        // Then
+        assertTrue(BinaryEventCodec.isBinary(data));
+        assertEquals("ORDER_DELETED", json.get("eventType").asText());
+        assertEquals(5L, json.get("orderId").asLong());
+        assertEquals("2024-03-01T10:15:30", json.get("timestamp").asText());
+    }
+
+    @Test
+    void serialize_ShouldFallBackToJsonForEventsWithoutSchema() throws Exception {
+        // Given
+        Map<String, Object> event = orderDeleted();
+        event.put("eventType", "INVENTORY_ADJUSTED");
+
+        // When
+        byte[] data = binarySerializer.serialize("inventory-events", event);
+
+        // Then
+        assertFalse(BinaryEventCodec.isBinary(data));
+        assertEquals("INVENTORY_ADJUSTED", objectMapper.readTree(data).get("eventType").asText());
+    }
+
+    @Test
+    void serialize_ShouldFallBackToJsonForEventsNotFittingTheirSchema() throws Exception {
+        // Given
+        Map<String, Object> event = orderDeleted();
+        event.put("orderId", "not-a-number");
+
+        // When
+        byte[] data = binarySerializer.serialize("order-events", event);
+
+        // Then
+        assertFalse(BinaryEventCodec.isBinary(data));
+        assertEquals("not-a-number", objectMapper.readTree(data).get("orderId").asText());
+    }
+
+    @Test
+    void serialize_ShouldWriteJsonByDefault() {
+        // Given
+        EventSerializer serializer = new EventSerializer();
+        serializer.configure(Map.of(), false);
+
+        // When
+        byte[] data = serializer.serialize("order-events", orderDeleted());
+
+        // Then
+        assertFalse(BinaryEventCodec.isBinary(data));
+        assertEquals(new String(data, StandardCharsets.UTF_8), jsonDeserializer.deserialize("order-events", data));
+    }
+
+    @Test
+    void deserialize_ShouldDecodeBinaryStraightIntoTheMappedClass() {
+        // Given
+        SampleEvents.UserEvent event = new SampleEvents.UserEvent();
+        event.setEventType(SampleEvents.UserEventType.USER_CREATED);
+        event.setUserId(3L);
+        event.setUsername("bob");
+        EventDeserializer deserializer = new EventDeserializer();
+        deserializer.configure(Map.of(EventDeserializer.TYPE_MAPPING_CONFIG,
+                "USER_CREATED:" + SampleEvents.UserEvent.class.getName()), false);
+
+        // When
+        Object user = deserializer.deserialize("user-events", binarySerializer.serialize("user-events", event));
+        Object other = deserializer.deserialize("order-events", binarySerializer.serialize("order-events", orderDeleted()));
+
+        // Then - unmapped event types stay property maps
+        assertEquals("bob", assertInstanceOf(SampleEvents.UserEvent.class, user).getUsername());
+        assertEquals(5L, assertInstanceOf(Map.class, other).get("orderId"));
+    }
+
+    private static Map<String, Object> orderDeleted() {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("eventType", "ORDER_DELETED");
+        event.put("orderId", 5L);
+        event.put("userId", 7L);
+        event.put("timestamp", "2024-03-01T10:15:30");
+        return event;
+    }
+}
@@ -0,0 +1,38 @@
+package com.bootcamp.notification.channel;
+
+import com.bootcamp.notification.model.Notification;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Notification channel SPI
+ * 
+ * A way of delivering notifications to users (email, SMS, push, ...).
+ * Every Spring bean implementing this interface is registered with the
+ * dispatcher under its {@link #name()}; notifications are routed by
+ * {@link Notification#getChannel()}.
+ * 
+ * Implementations receive whole batches so that they can use the bulk APIs
+ * of their providers, and must not block the calling thread.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public interface NotificationChannel {
+
+    /**
+     * Get the channel name notifications are routed by
+     * 
+     * @return the channel name
+     */
+    String name();
+
+    /**
+     * Deliver a batch of notifications
+     * 
+     * @param batch notifications of this channel
+     * @return Mono completing when the batch is delivered, or failing if it was not
+     */
+    Mono<Void> send(List<Notification> batch);
+}
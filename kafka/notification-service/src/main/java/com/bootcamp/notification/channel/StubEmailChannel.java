@@ -0,0 +1,50 @@
+package com.bootcamp.notification.channel;
+
+import com.bootcamp.notification.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Local stub email channel
+ * 
+ * Stands in for an email provider (SendGrid, AWS SES, ...) in local runs and
+ * tests: each batch takes notification.channels.stub.latency-ms, like one
+ * call to a provider's bulk API, without blocking a thread, and its
+ * notifications are logged instead of delivered.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class StubEmailChannel implements NotificationChannel {
+
+    public static final String NAME = "email";
+
+    private static final Logger logger = LoggerFactory.getLogger(StubEmailChannel.class);
+
+    @Value("${notification.channels.stub.latency-ms:100}")
+    private long latencyMs;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Mono<Void> send(List<Notification> batch) {
+        return Mono.delay(Duration.ofMillis(latencyMs))
+                .doOnNext(tick -> {
+                    for (Notification notification : batch) {
+                        logger.debug("Notification sent - To: {}, Subject: {}, Message: {}",
+                                notification.getRecipient(), notification.getTitle(), notification.getMessage());
+                    }
+                })
+                .then();
+    }
+}
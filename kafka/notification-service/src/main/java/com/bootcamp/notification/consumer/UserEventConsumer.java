@@ -1,12 +1,20 @@
 package com.bootcamp.notification.consumer;
 
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationType;
 import com.bootcamp.notification.service.NotificationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
-import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * User Event Consumer
@@ -14,6 +22,13 @@ import reactor.core.publisher.Mono;
  * Consumes user events from Kafka and triggers appropriate notifications.
  * This demonstrates event-driven communication between microservices.
  * 
+ * Events are consumed in batches (bounded by max-poll-records). The
+ * notifications of a whole batch are recorded as PENDING with one insert
+ * and then queued for dispatch, or held to be coalesced with later ones,
+ * which happens in memory; the batch is acknowledged after that. Delivery
+ * is at most once: if the service stops before a notification is sent, it
+ * stays PENDING in the notifications table and is not sent.
+ * 
  * @author Bootcamp Instructor
  * @version 1.0
  */
@@ -26,89 +41,83 @@ public class UserEventConsumer {
     private NotificationService notificationService;
 
     /**
-     * Consume user events from Kafka topic
+     * Consume a batch of user events from Kafka topic
      * 
-     * @param userEvent the user event received from Kafka
+     * Notifications are recorded and queued on the listener thread, which
+     * blocks while the dispatch queue is full. If they cannot be recorded
+     * the whole batch is redelivered. If a notification cannot be queued,
+     * the events before its event are committed and the rest of the batch
+     * is redelivered; the notifications recorded for those events stay
+     * PENDING and are recorded again on redelivery.
+     * 
+     * @param userEvents the user events received from Kafka
+     * @param acknowledgment acknowledgment of the batch
+     * @throws BatchListenerFailedException if a notification could not be queued
      */
     @KafkaListener(topics = "user-events", groupId = "notification-service-group")
-    public void consumeUserEvent(UserEvent userEvent) {
-        logger.info("Received user event: {}", userEvent);
+    public void consumeUserEvents(List<UserEvent> userEvents, Acknowledgment acknowledgment) {
+        logger.debug("Received batch of {} user events", userEvents.size());
 
-        try {
-            switch (userEvent.getEventType()) {
-                case "USER_CREATED":
-                    handleUserCreated(userEvent);
-                    break;
-                case "USER_UPDATED":
-                    handleUserUpdated(userEvent);
-                    break;
-                case "USER_DELETED":
-                    handleUserDeleted(userEvent);
-                    break;
-                default:
-                    logger.warn("Unknown user event type: {}", userEvent.getEventType());
+        List<Notification> notifications = new ArrayList<>(userEvents.size());
+        List<Integer> eventIndexes = new ArrayList<>(userEvents.size());
+        for (int i = 0; i < userEvents.size(); i++) {
+            Notification notification = toNotification(userEvents.get(i));
+            if (notification != null) {
+                notifications.add(notification);
+                eventIndexes.add(i);
             }
-        } catch (Exception e) {
-            logger.error("Error processing user event: {}", e.getMessage(), e);
         }
-    }
 
-    /**
-     * Handle user created event reactively
-     * 
-     * @param userEvent the user created event
-     */
-    private void handleUserCreated(UserEvent userEvent) {
-        logger.info("Processing user created event for user: {}", userEvent.getUsername());
-        
-        // Send welcome notification reactively
-        notificationService.sendWelcomeNotification(
-            userEvent.getUserId(),
-            userEvent.getUsername(),
-            userEvent.getEmail()
-        )
-        .doOnSuccess(v -> logger.info("Welcome notification processed successfully for user: {}", userEvent.getUsername()))
-        .doOnError(error -> logger.error("Failed to process welcome notification for user: {}", userEvent.getUsername(), error))
-        .subscribe();
-    }
-
-    /**
-     * Handle user updated event reactively
-     * 
-     * @param userEvent the user updated event
-     */
-    private void handleUserUpdated(UserEvent userEvent) {
-        logger.info("Processing user updated event for user: {}", userEvent.getUsername());
-        
-        // Send profile update confirmation reactively
-        notificationService.sendProfileUpdateNotification(
-            userEvent.getUserId(),
-            userEvent.getUsername(),
-            userEvent.getEmail()
-        )
-        .doOnSuccess(v -> logger.info("Profile update notification processed successfully for user: {}", userEvent.getUsername()))
-        .doOnError(error -> logger.error("Failed to process profile update notification for user: {}", userEvent.getUsername(), error))
-        .subscribe();
+        try {
+            notificationService.recordPending(notifications).block();
+        } catch (DataAccessException e) {
+            logger.warn("Notifications of {} user events could not be recorded, will retry: {}",
+                    userEvents.size(), e.getMessage());
+            throw e;
+        }
+        for (int i = 0; i < notifications.size(); i++) {
+            try {
+                notificationService.queue(notifications.get(i));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Notification for user event could not be queued, will retry: {}", e.getMessage());
+                throw new BatchListenerFailedException("Notification could not be queued", e, eventIndexes.get(i));
+            }
+        }
+        acknowledgment.acknowledge();
     }
 
     /**
-     * Handle user deleted event reactively
+     * Render the notification of a user event
      * 
-     * @param userEvent the user deleted event
+     * @param userEvent the user event
+     * @return the notification, or null if the event does not notify anyone
      */
-    private void handleUserDeleted(UserEvent userEvent) {
-        logger.info("Processing user deleted event for user: {}", userEvent.getUsername());
-        
-        // Send account deletion confirmation reactively
-        notificationService.sendAccountDeletionNotification(
-            userEvent.getUserId(),
-            userEvent.getUsername(),
-            userEvent.getEmail()
-        )
-        .doOnSuccess(v -> logger.info("Account deletion notification processed successfully for user: {}", userEvent.getUsername()))
-        .doOnError(error -> logger.error("Failed to process account deletion notification for user: {}", userEvent.getUsername(), error))
-        .subscribe();
+    private Notification toNotification(UserEvent userEvent) {
+        if (userEvent == null || userEvent.getEventType() == null) {
+            logger.warn("Skipping user event without a type: {}", userEvent);
+            return null;
+        }
+        NotificationType type;
+        switch (userEvent.getEventType()) {
+            case "USER_CREATED":
+                type = NotificationType.WELCOME;
+                break;
+            case "USER_UPDATED":
+                type = NotificationType.PROFILE_UPDATE;
+                break;
+            case "USER_DELETED":
+                type = NotificationType.ACCOUNT_DELETION;
+                break;
+            default:
+                logger.warn("Unknown user event type: {}", userEvent.getEventType());
+                return null;
+        }
+        logger.info("Processing {} event for user: {}", userEvent.getEventType(), userEvent.getUsername());
+        try {
+            return notificationService.prepare(userEvent.getUserId(), type, userEvent.getEmail(), userEvent.getUsername());
+        } catch (Exception e) {
+            logger.error("Error processing user event: {}", e.getMessage(), e);
+            return null;
+        }
     }
 }
-
- 
\ No newline at end of file
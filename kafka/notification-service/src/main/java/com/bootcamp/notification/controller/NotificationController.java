@@ -0,0 +1,43 @@
+package com.bootcamp.notification.controller;
+
+import com.bootcamp.notification.dto.NotificationDto;
+import com.bootcamp.notification.service.NotificationStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+/**
+ * Notification Controller
+ * 
+ * REST API endpoints for the notification history.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/notifications")
+@CrossOrigin(origins = "*")
+public class NotificationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
+    private static final int MAX_LIMIT = 500;
+
+    @Autowired
+    private NotificationStore notificationStore;
+
+    /**
+     * Get the notifications of a user reactively
+     * 
+     * @param userId the user ID
+     * @param limit the maximum number of notifications to return (at most 500)
+     * @return Flux of the user's notifications with their delivery status, newest first
+     */
+    @GetMapping("/user/{userId}")
+    public Flux<NotificationDto> getNotificationsByUserId(@PathVariable Long userId,
+                                                          @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Received request to get notifications for user: {}", userId);
+        return notificationStore.findByUserId(userId, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+}
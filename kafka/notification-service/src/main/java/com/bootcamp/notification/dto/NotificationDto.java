@@ -0,0 +1,88 @@
+package com.bootcamp.notification.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification Data Transfer Object (DTO)
+ * 
+ * A recorded notification with its delivery status, as returned by the
+ * notification history endpoint.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class NotificationDto {
+
+    private final Long id;
+    private final Long userId;
+    private final String type;
+    private final String channel;
+    private final String title;
+    private final String message;
+    private final String status;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime sentAt;
+
+    public NotificationDto(Long id, Long userId, String type, String channel, String title, String message,
+                           String status, LocalDateTime createdAt, LocalDateTime sentAt) {
+        this.id = id;
+        this.userId = userId;
+        this.type = type;
+        this.channel = channel;
+        this.title = title;
+        this.message = message;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.sentAt = sentAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationDto{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", type='" + type + '\'' +
+                ", channel='" + channel + '\'' +
+                ", status='" + status + '\'' +
+                ", createdAt=" + createdAt +
+                ", sentAt=" + sentAt +
+                '}';
+    }
+}
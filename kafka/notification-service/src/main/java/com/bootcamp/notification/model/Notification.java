@@ -0,0 +1,83 @@
+package com.bootcamp.notification.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification
+ * 
+ * A rendered notification on its way to a user through one channel. The
+ * ID is assigned when the notification is recorded.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class Notification {
+
+    private Long id;
+    private final Long userId;
+    private final NotificationType type;
+    private final String channel;
+    private final String recipient;
+    private final String title;
+    private final String message;
+    private final LocalDateTime createdAt;
+
+    public Notification(Long userId, NotificationType type, String channel, String recipient, String title, String message) {
+        this.userId = userId;
+        this.type = type;
+        this.channel = channel;
+        this.recipient = recipient;
+        this.title = title;
+        this.message = message;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public NotificationType getType() {
+        return type;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Notification{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", type=" + type +
+                ", channel='" + channel + '\'' +
+                ", recipient='" + recipient + '\'' +
+                ", title='" + title + '\'' +
+                '}';
+    }
+}
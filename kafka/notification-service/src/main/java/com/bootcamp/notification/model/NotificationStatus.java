@@ -0,0 +1,19 @@
+package com.bootcamp.notification.model;
+
+/**
+ * Notification Status Enumeration
+ * 
+ * Delivery states of a recorded notification.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public enum NotificationStatus {
+    PENDING,
+    SENT,
+    FAILED,
+    /** Refused by the per-user rate limit and never sent */
+    RATE_LIMITED,
+    /** Replaced by a newer notification of the same type before it was sent */
+    COALESCED
+}
@@ -0,0 +1,30 @@
+package com.bootcamp.notification.model;
+
+import java.util.List;
+
+/**
+ * Notification Type Enumeration
+ * 
+ * Kinds of notifications sent to users, with the names of the parameters
+ * their message templates may use, in the order they are passed.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public enum NotificationType {
+    WELCOME("username"),
+    PROFILE_UPDATE("username"),
+    ACCOUNT_DELETION("username"),
+    ORDER_CONFIRMATION("username", "orderId", "totalAmount"),
+    ORDER_STATUS_UPDATE("username", "orderId", "status");
+
+    private final List<String> parameters;
+
+    NotificationType(String... parameters) {
+        this.parameters = List.of(parameters);
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+}
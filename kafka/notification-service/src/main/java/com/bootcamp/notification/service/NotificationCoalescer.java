@@ -0,0 +1,287 @@
+package com.bootcamp.notification.service;
+
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationStatus;
+import com.bootcamp.notification.model.NotificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification coalescer
+ *
+ * Sits in front of the {@link NotificationDispatcher}. Notifications of
+ * the types listed in notification.coalesce.types are held per user and
+ * type; a newer notification for the same user and type replaces the
+ * held one, and the latest is released once no new one arrived for
+ * notification.coalesce.quiet-period-ms, or at the latest
+ * notification.coalesce.max-delay-ms after the first. A user who edits
+ * their profile five times in a minute thus receives one notification.
+ * Notifications of other types are released right away.
+ *
+ * Every released notification then passes the {@link NotificationRateLimiter}:
+ * if its type is rate limited per user and its user exceeded the limit it
+ * is recorded as RATE_LIMITED instead of being sent; otherwise it is
+ * queued for dispatch, where its channel's rate limit is applied per batch.
+ *
+ * At most notification.coalesce.max-pending notifications are held. When
+ * the map is full, the oldest is released immediately on the caller's
+ * thread, so a burst falls back to the dispatcher's backpressure instead
+ * of growing the map or losing notifications.
+ *
+ * Notifications arrive already recorded as PENDING. A replaced one is
+ * recorded as COALESCED and a refused one as RATE_LIMITED. Held
+ * notifications live only in memory, like those in the dispatch queue: if
+ * the service stops while they are held they stay PENDING and are not
+ * sent, so delivery is at most once.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class NotificationCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationCoalescer.class);
+
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationRateLimiter rateLimiter;
+    private final NotificationStore notificationStore;
+    private final Set<NotificationType> coalescedTypes;
+    private final long quietNanos;
+    private final long maxDelayNanos;
+    private final long flushIntervalMs;
+    private final int maxPending;
+    private final Map<Key, Pending> pending = new LinkedHashMap<>();
+    private final Counter coalesced;
+    private final Counter dropped;
+    private ScheduledExecutorService flusher;
+
+    public NotificationCoalescer(NotificationDispatcher notificationDispatcher,
+                                 NotificationRateLimiter rateLimiter,
+                                 NotificationStore notificationStore,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${notification.coalesce.types:PROFILE_UPDATE}") Set<NotificationType> coalescedTypes,
+                                 @Value("${notification.coalesce.quiet-period-ms:5000}") long quietPeriodMs,
+                                 @Value("${notification.coalesce.max-delay-ms:60000}") long maxDelayMs,
+                                 @Value("${notification.coalesce.flush-interval-ms:100}") long flushIntervalMs,
+                                 @Value("${notification.coalesce.max-pending:10000}") int maxPending) {
+        this.notificationDispatcher = notificationDispatcher;
+        this.rateLimiter = rateLimiter;
+        this.notificationStore = notificationStore;
+        this.coalescedTypes = coalescedTypes.isEmpty()
+                ? EnumSet.noneOf(NotificationType.class)
+                : EnumSet.copyOf(coalescedTypes);
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(quietPeriodMs);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxPending = maxPending;
+        this.coalesced = Counter.builder("notification.coalesce.replaced")
+                .description("Held notifications replaced by a newer one for the same user and type")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("notification.coalesce.dropped")
+                .description("Released notifications that could not be queued for dispatch")
+                .register(meterRegistry);
+        Gauge.builder("notification.coalesce.pending", this, NotificationCoalescer::pendingCount)
+                .description("Notifications held for coalescing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hold or release a notification
+     *
+     * Blocks while a released notification waits for its channel rate
+     * limit or for room in the dispatch queue.
+     *
+     * @param notification the notification
+     * @throws RejectedExecutionException if a released notification could not be queued
+     */
+    public void offer(Notification notification) {
+        if (!coalescedTypes.contains(notification.getType())) {
+            release(notification);
+            return;
+        }
+        Notification overflow = null;
+        Notification replaced = null;
+        long now = System.nanoTime();
+        synchronized (pending) {
+            Key key = new Key(notification.getUserId(), notification.getType());
+            Pending held = pending.get(key);
+            if (held != null) {
+                replaced = held.notification;
+                held.notification = notification;
+                held.lastOfferedAt = now;
+                coalesced.increment();
+            } else {
+                pending.put(key, new Pending(notification, now));
+                if (pending.size() > maxPending) {
+                    Iterator<Pending> oldest = pending.values().iterator();
+                    overflow = oldest.next().notification;
+                    oldest.remove();
+                }
+            }
+        }
+        if (replaced != null) {
+            notificationStore.recordStatus(List.of(replaced), NotificationStatus.COALESCED).subscribe();
+        }
+        if (overflow != null) {
+            release(overflow);
+        }
+    }
+
+    /**
+     * Get the number of held notifications
+     *
+     * @return the number of held notifications
+     */
+    public int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Start releasing held notifications once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Notification coalescer started for types {}", coalescedTypes);
+    }
+
+    /**
+     * Stop releasing held notifications
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        int held = pendingCount();
+        if (held > 0) {
+            logger.warn("Notification coalescer stopped with {} notifications held; they stay PENDING", held);
+        }
+    }
+
+    /**
+     * Release the held notifications that are due
+     */
+    private void flush() {
+        flush(System.nanoTime());
+    }
+
+    /**
+     * Release the notifications that are due at a given time
+     *
+     * @param now the current System.nanoTime()
+     */
+    void flush(long now) {
+        List<Notification> due = new ArrayList<>();
+        synchronized (pending) {
+            Iterator<Pending> it = pending.values().iterator();
+            while (it.hasNext()) {
+                Pending held = it.next();
+                if (now - held.lastOfferedAt >= quietNanos || now - held.firstOfferedAt >= maxDelayNanos) {
+                    due.add(held.notification);
+                    it.remove();
+                }
+            }
+        }
+        for (Notification notification : due) {
+            try {
+                release(notification);
+            } catch (RejectedExecutionException e) {
+                dropped.increment();
+                logger.error("Dropped {} notification for user {}: {}",
+                        notification.getType(), notification.getUserId(), e.getMessage());
+                notificationStore.recordStatus(List.of(notification), NotificationStatus.FAILED).subscribe();
+            } catch (Exception e) {
+                dropped.increment();
+                logger.error("Failed to release notification: {}", e.getMessage(), e);
+                notificationStore.recordStatus(List.of(notification), NotificationStatus.FAILED).subscribe();
+            }
+        }
+    }
+
+    /**
+     * Apply the user rate limit and queue a notification for dispatch
+     */
+    private void release(Notification notification) {
+        if (!rateLimiter.tryAcquireUser(notification)) {
+            logger.info("Rate limit exceeded, not sending {} notification to user {}",
+                    notification.getType(), notification.getUserId());
+            notificationStore.recordStatus(List.of(notification), NotificationStatus.RATE_LIMITED).subscribe();
+            return;
+        }
+        notificationDispatcher.submit(notification);
+    }
+
+    /**
+     * Coalescing key: one held notification per user and type
+     */
+    private static final class Key {
+        private final Long userId;
+        private final NotificationType type;
+
+        Key(Long userId, NotificationType type) {
+            this.userId = userId;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(userId, key.userId) && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, type);
+        }
+    }
+
+    /**
+     * Latest notification held for a key
+     */
+    private static final class Pending {
+        private Notification notification;
+        private final long firstOfferedAt;
+        private long lastOfferedAt;
+
+        Pending(Notification notification, long offeredAt) {
+            this.notification = notification;
+            this.firstOfferedAt = offeredAt;
+            this.lastOfferedAt = offeredAt;
+        }
+    }
+}
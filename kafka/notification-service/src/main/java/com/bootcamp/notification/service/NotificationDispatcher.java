@@ -0,0 +1,267 @@
+package com.bootcamp.notification.service;
+
+import com.bootcamp.notification.channel.NotificationChannel;
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Notification dispatcher
+ *
+ * Delivers notifications through their channels in batches. Notifications
+ * are queued in a bounded queue; a single dispatcher thread drains it,
+ * waiting up to notification.dispatch.batch-linger-ms to fill a batch,
+ * groups the drained notifications by channel and hands each group to its
+ * channel as one batch. Notifications arrive already recorded as PENDING;
+ * each batch is recorded as SENT or FAILED once it was sent by the
+ * {@link NotificationStore}. A batch whose channel has not answered within
+ * notification.dispatch.send-timeout-ms is recorded as FAILED and frees
+ * its in-flight slot, so a hung provider cannot stall dispatch. Queued notifications live only in memory: if
+ * the service stops before they are sent they stay PENDING and are not
+ * retried, so delivery is at most once.
+ *
+ * Each batch first reserves its channel's rate limit tokens from the
+ * {@link NotificationRateLimiter}, one per notification, and is delayed
+ * until they are available, without blocking any thread.
+ *
+ * At most notification.dispatch.max-in-flight-batches batches are being
+ * delayed or sent at any time. When all are busy the dispatcher thread stops
+ * draining, the queue fills up, and {@link #submit} blocks the Kafka
+ * listener thread, which stops polling: a burst of events is absorbed by
+ * Kafka instead of by threads or memory in this service.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Map<String, NotificationChannel> channels = new LinkedHashMap<>();
+    private final BlockingQueue<Notification> queue;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long enqueueTimeoutMs;
+    private final Duration sendTimeout;
+    private final NotificationStore notificationStore;
+    private final NotificationRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> sentCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failedCounters = new ConcurrentHashMap<>();
+    private final AtomicLong sentSinceReport = new AtomicLong();
+    private volatile boolean running;
+    private Thread dispatcherThread;
+
+    public NotificationDispatcher(List<NotificationChannel> channels,
+                                  NotificationStore notificationStore,
+                                  NotificationRateLimiter rateLimiter,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.dispatch.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${notification.dispatch.batch-size:100}") int batchSize,
+                                  @Value("${notification.dispatch.batch-linger-ms:20}") long lingerMs,
+                                  @Value("${notification.dispatch.max-in-flight-batches:8}") int maxInFlight,
+                                  @Value("${notification.dispatch.enqueue-timeout-ms:60000}") long enqueueTimeoutMs,
+                                  @Value("${notification.dispatch.send-timeout-ms:10000}") long sendTimeoutMs) {
+        for (NotificationChannel channel : channels) {
+            this.channels.put(channel.name(), channel);
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.sendTimeout = Duration.ofMillis(sendTimeoutMs);
+        this.notificationStore = notificationStore;
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("notification.dispatch.queue.depth", queue, BlockingQueue::size)
+                .description("Notifications waiting to be dispatched")
+                .register(meterRegistry);
+        Gauge.builder("notification.dispatch.in-flight", this, dispatcher -> dispatcher.maxInFlight - dispatcher.inFlight.availablePermits())
+                .description("Notification batches being sent")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a notification for delivery
+     *
+     * Blocks while the queue is full.
+     *
+     * @param notification the notification
+     * @throws RejectedExecutionException if the channel is unknown, or the queue stayed full for
+     *         notification.dispatch.enqueue-timeout-ms
+     */
+    public void submit(Notification notification) {
+        if (!channels.containsKey(notification.getChannel())) {
+            throw new RejectedExecutionException("Unknown notification channel: " + notification.getChannel());
+        }
+        try {
+            if (!queue.offer(notification, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Notification queue full for " + enqueueTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing notification", e);
+        }
+    }
+
+    /**
+     * Get the number of queued notifications
+     *
+     * @return the queue depth
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Start the dispatcher thread once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        dispatcherThread = new Thread(this::dispatchLoop, "notification-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+        logger.info("Notification dispatcher started with channels {}", channels.keySet());
+    }
+
+    /**
+     * Stop the dispatcher thread
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (dispatcherThread != null) {
+            dispatcherThread.interrupt();
+        }
+    }
+
+    private void dispatchLoop() {
+        long lastReport = System.nanoTime();
+        while (running) {
+            try {
+                List<Notification> drained = drainBatch();
+                if (!drained.isEmpty()) {
+                    dispatch(drained);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Notification dispatcher error: {}", e.getMessage(), e);
+            }
+            long now = System.nanoTime();
+            if (now - lastReport >= REPORT_INTERVAL_NANOS) {
+                long sent = sentSinceReport.getAndSet(0);
+                if (sent > 0 || !queue.isEmpty()) {
+                    double seconds = (now - lastReport) / 1_000_000_000.0;
+                    logger.info("Notification dispatch: {} sent/s, queue depth {}, {} batches in flight",
+                            String.format("%.1f", sent / seconds), queue.size(), maxInFlight - inFlight.availablePermits());
+                }
+                lastReport = now;
+            }
+        }
+        logger.info("Notification dispatcher stopped with {} notifications queued", queue.size());
+    }
+
+    /**
+     * Take up to batch-size notifications, waiting at most the linger time for more once one arrived
+     */
+    private List<Notification> drainBatch() throws InterruptedException {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        Notification first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            Notification next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    /**
+     * Send drained notifications, one batch per channel
+     */
+    private void dispatch(List<Notification> drained) throws InterruptedException {
+        Map<String, List<Notification>> byChannel = new LinkedHashMap<>();
+        for (Notification notification : drained) {
+            byChannel.computeIfAbsent(notification.getChannel(), name -> new ArrayList<>()).add(notification);
+        }
+        for (Map.Entry<String, List<Notification>> entry : byChannel.entrySet()) {
+            String channelName = entry.getKey();
+            List<Notification> batch = entry.getValue();
+            inFlight.acquire();
+            NotificationChannel channel = channels.get(channelName);
+            Duration wait = rateLimiter.reserveChannel(channelName, batch.size());
+            Mono<Void> send = Mono.defer(() -> channel.send(batch)).timeout(sendTimeout);
+            (wait.isZero() ? send : Mono.delay(wait).then(send))
+                    .thenReturn(NotificationStatus.SENT)
+                    .onErrorResume(error -> {
+                        logger.error("Failed to send {} notifications through {}: {}",
+                                batch.size(), channelName, error.getMessage());
+                        return Mono.just(NotificationStatus.FAILED);
+                    })
+                    .flatMap(status -> {
+                        if (status == NotificationStatus.SENT) {
+                            sentSinceReport.addAndGet(batch.size());
+                            counter(sentCounters, "notification.dispatch.sent", "Notifications sent", channelName).increment(batch.size());
+                        } else {
+                            counter(failedCounters, "notification.dispatch.failed", "Notifications that failed to send", channelName).increment(batch.size());
+                        }
+                        return notificationStore.recordStatus(batch, status);
+                    })
+                    .doFinally(signal -> inFlight.release())
+                    .subscribe(null, error -> logger.error("Notification batch error: {}", error.getMessage(), error));
+        }
+    }
+
+    private Counter counter(Map<String, Counter> counters, String name, String description, String channel) {
+        return counters.computeIfAbsent(channel, key -> Counter.builder(name)
+                .description(description)
+                .tag("channel", key)
+                .register(meterRegistry));
+    }
+}
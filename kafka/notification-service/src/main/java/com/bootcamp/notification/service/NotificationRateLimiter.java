@@ -0,0 +1,200 @@
+package com.bootcamp.notification.service;
+
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification rate limiter
+ *
+ * Token buckets per user and per channel. A user bucket holds
+ * notification.rate-limit.user.capacity tokens and refills at
+ * notification.rate-limit.user.per-minute; a notification of one of the
+ * notification.rate-limit.user.types arriving at an empty user bucket is
+ * refused. Other types, such as order confirmations, are never refused
+ * and do not use the user's tokens. A channel bucket holds
+ * notification.rate-limit.channel.capacity tokens and refills at
+ * notification.rate-limit.channel.per-second; the dispatcher reserves one
+ * token per notification of a batch and delays the batch until the bucket
+ * has refilled, so a channel limit slows dispatch down instead of losing
+ * notifications, and no thread sleeps while waiting.
+ *
+ * User buckets are kept in a bounded LRU map of at most
+ * notification.rate-limit.user.max-users entries. The least recently
+ * notified users are evicted first; their buckets have usually refilled
+ * already, so evicting them does not loosen the limit. A rate of zero or
+ * less disables the corresponding limit.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class NotificationRateLimiter {
+
+    private final Map<Long, TokenBucket> userBuckets;
+    private final Map<String, TokenBucket> channelBuckets = new ConcurrentHashMap<>();
+    private final Set<NotificationType> userLimitedTypes;
+    private final double userCapacity;
+    private final double userRefillPerSecond;
+    private final double channelCapacity;
+    private final double channelRefillPerSecond;
+
+    private final Counter userLimited;
+    private final Counter evictions;
+    private final Timer channelWait;
+
+    public NotificationRateLimiter(MeterRegistry meterRegistry,
+                                   @Value("${notification.rate-limit.user.capacity:5}") int userCapacity,
+                                   @Value("${notification.rate-limit.user.per-minute:10}") double userPerMinute,
+                                   @Value("${notification.rate-limit.user.max-users:100000}") int maxUsers,
+                                   @Value("${notification.rate-limit.user.types:PROFILE_UPDATE}") Set<NotificationType> userLimitedTypes,
+                                   @Value("${notification.rate-limit.channel.capacity:100}") int channelCapacity,
+                                   @Value("${notification.rate-limit.channel.per-second:50}") double channelPerSecond) {
+        this.userCapacity = userCapacity;
+        this.userLimitedTypes = userLimitedTypes.isEmpty()
+                ? EnumSet.noneOf(NotificationType.class)
+                : EnumSet.copyOf(userLimitedTypes);
+        this.userRefillPerSecond = userPerMinute / 60;
+        this.channelCapacity = channelCapacity;
+        this.channelRefillPerSecond = channelPerSecond;
+        this.userBuckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TokenBucket> eldest) {
+                if (size() <= maxUsers) {
+                    return false;
+                }
+                evictions.increment();
+                return true;
+            }
+        };
+        this.userLimited = Counter.builder("notification.rate-limit.refused")
+                .description("Notifications refused because their user exceeded the rate limit")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("notification.rate-limit.evictions")
+                .description("User rate limit buckets evicted because the map was full")
+                .register(meterRegistry);
+        this.channelWait = Timer.builder("notification.rate-limit.channel.wait")
+                .description("Time notifications waited for their channel rate limit")
+                .register(meterRegistry);
+        Gauge.builder("notification.rate-limit.users", this, NotificationRateLimiter::trackedUsers)
+                .description("Users with a rate limit bucket")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take a token from the bucket of a notification's user
+     *
+     * @param notification the notification
+     * @return true if the notification may be sent, false if its user exceeded the rate limit
+     */
+    public boolean tryAcquireUser(Notification notification) {
+        if (userRefillPerSecond <= 0 || !userLimitedTypes.contains(notification.getType())) {
+            return true;
+        }
+        Long userId = notification.getUserId();
+        long now = System.nanoTime();
+        boolean acquired;
+        synchronized (userBuckets) {
+            TokenBucket bucket = userBuckets.computeIfAbsent(userId,
+                    id -> new TokenBucket(userCapacity, userRefillPerSecond, now));
+            acquired = bucket.tryTake(now) == 0;
+        }
+        if (!acquired) {
+            userLimited.increment();
+        }
+        return acquired;
+    }
+
+    /**
+     * Reserve one token of a channel's bucket per notification of a batch
+     *
+     * Never waits: the tokens are taken right away, leaving the bucket in
+     * debt if it did not hold enough, and the caller delays the batch by
+     * the returned time. Later batches then wait for the debt to be repaid.
+     *
+     * @param channel the channel name
+     * @param count the number of notifications in the batch
+     * @return how long to delay the batch, zero if it may be sent now
+     */
+    public Duration reserveChannel(String channel, int count) {
+        if (channelRefillPerSecond <= 0) {
+            return Duration.ZERO;
+        }
+        TokenBucket bucket = channelBuckets.computeIfAbsent(channel,
+                name -> new TokenBucket(channelCapacity, channelRefillPerSecond, System.nanoTime()));
+        long wait;
+        synchronized (bucket) {
+            wait = bucket.reserve(System.nanoTime(), count);
+        }
+        channelWait.record(wait, TimeUnit.NANOSECONDS);
+        return Duration.ofNanos(wait);
+    }
+
+    /**
+     * Get the number of users with a bucket
+     *
+     * @return the number of tracked users
+     */
+    public int trackedUsers() {
+        synchronized (userBuckets) {
+            return userBuckets.size();
+        }
+    }
+
+    /**
+     * Token bucket refilled lazily when a token is taken
+     *
+     * Not thread-safe; callers synchronize.
+     */
+    static final class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double capacity, double refillPerSecond, long now) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise the nanoseconds until the next token
+         */
+        long tryTake(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / refillPerNano));
+        }
+
+        /**
+         * Take tokens even if the bucket does not hold enough, going into debt
+         *
+         * @return 0 if the tokens were available, otherwise the nanoseconds until the debt is repaid
+         */
+        long reserve(long now, int count) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+            tokens -= count;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / refillPerNano);
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package com.bootcamp.notification.service;
 
+import com.bootcamp.notification.channel.StubEmailChannel;
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Notification Service
  * 
  * Contains business logic for notification operations.
- * Handles sending different types of notifications to users.
+ * Handles sending different types of notifications to users: each one is
+ * rendered from its precompiled template and handed to the {@link NotificationCoalescer},
+ * which merges repeated notifications and applies the rate limits before
+ * the {@link NotificationDispatcher} delivers it through its channel in batches.
  * 
  * @author Bootcamp Instructor
  * @version 1.0
@@ -20,25 +29,28 @@ public class NotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
+    @Autowired
+    private NotificationCoalescer notificationCoalescer;
+
+    @Autowired
+    private NotificationStore notificationStore;
+
+    @Autowired
+    private NotificationTemplates notificationTemplates;
+
     /**
      * Send welcome notification to new user reactively
      * 
      * @param userId the user ID
      * @param username the username
      * @param email the user email
-     * @return Mono<Void> indicating completion
+     * @return Mono<Void> completing once the notification is queued
      */
     public Mono<Void> sendWelcomeNotification(Long userId, String username, String email) {
         logger.info("Sending welcome notification to user: {} (ID: {})", username, userId);
         
-        String message = String.format(
-            "Welcome %s! Your account has been successfully created. " +
-            "You can now start using our services.", username
-        );
-        
-        return simulateNotificationSending(email, "Welcome to Our Platform", message)
-                .doOnSuccess(v -> logger.info("Welcome notification sent successfully to user: {}", username))
-                .subscribeOn(Schedulers.boundedElastic());
+        return dispatch(userId, NotificationType.WELCOME, email, username)
+                .doOnSuccess(v -> logger.debug("Welcome notification queued for user: {}", username));
     }
 
     /**
@@ -47,19 +59,13 @@ public class NotificationService {
      * @param userId the user ID
      * @param username the username
      * @param email the user email
-     * @return Mono<Void> indicating completion
+     * @return Mono<Void> completing once the notification is queued
      */
     public Mono<Void> sendProfileUpdateNotification(Long userId, String username, String email) {
         logger.info("Sending profile update notification to user: {} (ID: {})", username, userId);
         
-        String message = String.format(
-            "Hello %s! Your profile has been successfully updated. " +
-            "If you didn't make this change, please contact support immediately.", username
-        );
-        
-        return simulateNotificationSending(email, "Profile Updated", message)
-                .doOnSuccess(v -> logger.info("Profile update notification sent successfully to user: {}", username))
-                .subscribeOn(Schedulers.boundedElastic());
+        return dispatch(userId, NotificationType.PROFILE_UPDATE, email, username)
+                .doOnSuccess(v -> logger.debug("Profile update notification queued for user: {}", username));
     }
 
     /**
@@ -68,19 +74,13 @@ public class NotificationService {
      * @param userId the user ID
      * @param username the username
      * @param email the user email
-     * @return Mono<Void> indicating completion
+     * @return Mono<Void> completing once the notification is queued
      */
     public Mono<Void> sendAccountDeletionNotification(Long userId, String username, String email) {
         logger.info("Sending account deletion notification to user: {} (ID: {})", username, userId);
         
-        String message = String.format(
-            "Hello %s! Your account has been successfully deleted. " +
-            "We're sorry to see you go. You can always create a new account if you change your mind.", username
-        );
-        
-        return simulateNotificationSending(email, "Account Deleted", message)
-                .doOnSuccess(v -> logger.info("Account deletion notification sent successfully to user: {}", username))
-                .subscribeOn(Schedulers.boundedElastic());
+        return dispatch(userId, NotificationType.ACCOUNT_DELETION, email, username)
+                .doOnSuccess(v -> logger.debug("Account deletion notification queued for user: {}", username));
     }
 
     /**
@@ -91,21 +91,14 @@ public class NotificationService {
      * @param email the user email
      * @param orderId the order ID
      * @param totalAmount the order total amount
-     * @return Mono<Void> indicating completion
+     * @return Mono<Void> completing once the notification is queued
      */
     public Mono<Void> sendOrderConfirmationNotification(Long userId, String username, String email, 
                                                        Long orderId, String totalAmount) {
         logger.info("Sending order confirmation notification to user: {} for order: {}", username, orderId);
         
-        String message = String.format(
-            "Hello %s! Your order #%d has been confirmed. " +
-            "Total amount: %s. You will receive shipping updates soon.", 
-            username, orderId, totalAmount
-        );
-        
-        return simulateNotificationSending(email, "Order Confirmed", message)
-                .doOnSuccess(v -> logger.info("Order confirmation notification sent successfully to user: {}", username))
-                .subscribeOn(Schedulers.boundedElastic());
+        return dispatch(userId, NotificationType.ORDER_CONFIRMATION, email, username, orderId, totalAmount)
+                .doOnSuccess(v -> logger.debug("Order confirmation notification queued for user: {}", username));
     }
 
     /**
@@ -116,53 +109,63 @@ public class NotificationService {
      * @param email the user email
      * @param orderId the order ID
      * @param status the new order status
-     * @return Mono<Void> indicating completion
+     * @return Mono<Void> completing once the notification is queued
      */
     public Mono<Void> sendOrderStatusUpdateNotification(Long userId, String username, String email, 
                                                        Long orderId, String status) {
         logger.info("Sending order status update notification to user: {} for order: {}", username, orderId);
         
-        String message = String.format(
-            "Hello %s! Your order #%d status has been updated to: %s. " +
-            "Thank you for your patience.", username, orderId, status
-        );
-        
-        return simulateNotificationSending(email, "Order Status Updated", message)
-                .doOnSuccess(v -> logger.info("Order status update notification sent successfully to user: {}", username))
-                .subscribeOn(Schedulers.boundedElastic());
+        return dispatch(userId, NotificationType.ORDER_STATUS_UPDATE, email, username, orderId, status)
+                .doOnSuccess(v -> logger.debug("Order status update notification queued for user: {}", username));
     }
 
     /**
-     * Simulate sending a notification reactively
+     * Render a notification in the default language
      * 
-     * In a real application, this would integrate with:
-     * - Email service (SendGrid, AWS SES, etc.)
-     * - SMS service (Twilio, AWS SNS, etc.)
-     * - Push notification service (Firebase, etc.)
-     * - In-app notification system
+     * @param userId the user ID
+     * @param type the notification type
+     * @param email the user email
+     * @param args the values of the type's template parameters
+     * @return the notification, not yet recorded
+     */
+    public Notification prepare(Long userId, NotificationType type, String email, Object... args) {
+        Locale locale = notificationTemplates.getDefaultLocale();
+        return new Notification(userId, type, StubEmailChannel.NAME, email,
+                notificationTemplates.title(type, locale), notificationTemplates.message(type, locale, args));
+    }
+
+    /**
+     * Record notifications as PENDING with one insert
+     * 
+     * @param notifications the notifications of one batch of events
+     * @return Mono<Void> completing once every notification is recorded, failing if they could not be
+     */
+    public Mono<Void> recordPending(List<Notification> notifications) {
+        return notifications.isEmpty() ? Mono.empty() : notificationStore.recordPending(notifications);
+    }
+
+    /**
+     * Hand a recorded notification to the coalescer, which holds or
+     * rate-limits it before dispatch
+     * 
+     * Runs on the calling thread and blocks while the dispatch queue is
+     * full, so that a burst of events slows down the Kafka listener instead
+     * of piling up in memory.
      * 
-     * @param recipient the recipient email/phone
-     * @param subject the notification subject
-     * @param message the notification message
-     * @return Mono<Void> indicating completion
+     * @param notification the notification, recorded as PENDING
+     * @throws java.util.concurrent.RejectedExecutionException if the dispatch queue stayed full
+     */
+    public void queue(Notification notification) {
+        notificationCoalescer.offer(notification);
+    }
+
+    /**
+     * Render a notification in the default language and hand it to the dispatcher
      */
-    private Mono<Void> simulateNotificationSending(String recipient, String subject, String message) {
-        return Mono.fromRunnable(() -> {
-            try {
-                // Simulate network delay
-                Thread.sleep(100);
-                
-                logger.debug("Notification sent - To: {}, Subject: {}, Message: {}", 
-                            recipient, subject, message);
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("Notification sending interrupted: {}", e.getMessage());
-            } catch (Exception e) {
-                logger.error("Failed to send notification: {}", e.getMessage(), e);
-            }
-        })
-        .then()
-        .subscribeOn(Schedulers.boundedElastic());
+    private Mono<Void> dispatch(Long userId, NotificationType type, String email, Object... args) {
+        return Mono.defer(() -> {
+            Notification notification = prepare(userId, type, email, args);
+            return recordPending(List.of(notification)).then(Mono.fromRunnable(() -> queue(notification)));
+        });
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
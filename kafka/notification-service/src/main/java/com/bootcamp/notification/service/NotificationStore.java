@@ -0,0 +1,167 @@
+package com.bootcamp.notification.service;
+
+import com.bootcamp.notification.dto.NotificationDto;
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Notification store
+ *
+ * Records notifications and their delivery status in the notifications
+ * table. Notifications are inserted as PENDING when they are accepted,
+ * with one multi-row insert per consumed batch of events and before that
+ * batch is acknowledged; a failure to do so is propagated so the batch is
+ * redelivered. Status changes are written
+ * per dispatch batch, with one UPDATE that moves the whole batch to SENT
+ * or FAILED. Notifications that are never sent end up as COALESCED or
+ * RATE_LIMITED.
+ *
+ * Status update failures are logged and never prevent delivery.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class NotificationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStore.class);
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Record a batch of notifications as PENDING and assign their IDs
+     *
+     * @param batch the accepted notifications
+     * @return Mono indicating completion, failing if the notifications could not be recorded
+     */
+    public Mono<Void> recordPending(List<Notification> batch) {
+        return record(batch, NotificationStatus.PENDING);
+    }
+
+    /**
+     * Record a batch of notifications with a status and assign their IDs
+     *
+     * @param batch the notifications
+     * @param status the status to record them with
+     * @return Mono indicating completion, failing if the notifications could not be recorded
+     */
+    public Mono<Void> record(List<Notification> batch, NotificationStatus status) {
+        StringBuilder sql = new StringBuilder("INSERT INTO notifications ")
+                .append("(user_id, type, channel, title, message, status, created_at) VALUES ");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:userId").append(i)
+                    .append(", :type").append(i)
+                    .append(", :channel").append(i)
+                    .append(", :title").append(i)
+                    .append(", :message").append(i)
+                    .append(", :status, :createdAt").append(i)
+                    .append(")");
+        }
+
+        // Bound with one bindValues call; binding one parameter at a time copies
+        // the parameters bound so far on every call
+        Map<String, Object> values = new HashMap<>();
+        values.put("status", status.name());
+        for (int i = 0; i < batch.size(); i++) {
+            Notification notification = batch.get(i);
+            values.put("userId" + i, notification.getUserId());
+            values.put("type" + i, notification.getType().name());
+            values.put("channel" + i, notification.getChannel());
+            values.put("title" + i, notification.getTitle());
+            values.put("message" + i, notification.getMessage());
+            values.put("createdAt" + i, notification.getCreatedAt());
+        }
+
+        return databaseClient.sql(sql.toString())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bindValues(values)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .doOnNext(ids -> {
+                    if (ids.size() != batch.size()) {
+                        throw new IllegalStateException("Expected " + batch.size() + " generated notification IDs but got " + ids.size());
+                    }
+                    for (int i = 0; i < ids.size(); i++) {
+                        batch.get(i).setId(ids.get(i));
+                    }
+                })
+                .doOnError(error -> logger.error("Failed to record {} notifications as {}: {}",
+                        batch.size(), status, error.getMessage()))
+                .then();
+    }
+
+    /**
+     * Record the outcome of a batch of recorded notifications
+     *
+     * @param batch the notifications
+     * @param status the new status
+     * @return Mono indicating completion
+     */
+    public Mono<Void> recordStatus(List<Notification> batch, NotificationStatus status) {
+        List<Long> ids = batch.stream()
+                .map(Notification::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        "UPDATE notifications SET status = :status, sent_at = :sentAt WHERE id IN (:ids)")
+                .bind("status", status.name())
+                .bind("ids", ids);
+        spec = status == NotificationStatus.SENT
+                ? spec.bind("sentAt", LocalDateTime.now())
+                : spec.bindNull("sentAt", LocalDateTime.class);
+        return spec.fetch()
+                .rowsUpdated()
+                .onErrorResume(error -> {
+                    logger.error("Failed to record {} notifications as {}: {}", ids.size(), status, error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Get the most recent notifications of a user
+     *
+     * @param userId the user ID
+     * @param limit the maximum number of notifications to return
+     * @return Flux of notifications, newest first
+     */
+    public Flux<NotificationDto> findByUserId(Long userId, int limit) {
+        return databaseClient.sql("SELECT id, user_id, type, channel, title, message, status, created_at, sent_at " +
+                        "FROM notifications WHERE user_id = :userId ORDER BY id DESC LIMIT :limit")
+                .bind("userId", userId)
+                .bind("limit", limit)
+                .map((row, metadata) -> new NotificationDto(
+                        row.get("id", Long.class),
+                        row.get("user_id", Long.class),
+                        row.get("type", String.class),
+                        row.get("channel", String.class),
+                        row.get("title", String.class),
+                        row.get("message", String.class),
+                        row.get("status", String.class),
+                        row.get("created_at", LocalDateTime.class),
+                        row.get("sent_at", LocalDateTime.class)))
+                .all();
+    }
+}
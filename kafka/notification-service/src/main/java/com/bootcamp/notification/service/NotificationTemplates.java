@@ -0,0 +1,176 @@
+package com.bootcamp.notification.service;
+
+import com.bootcamp.notification.model.NotificationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Notification template registry
+ *
+ * Loads the notification titles and messages from the
+ * notification-templates resource bundle and parses every message once
+ * per language into literal segments and parameter positions. Rendering
+ * then only appends segments and arguments to a per-thread StringBuilder
+ * that is reused across calls, instead of parsing a format string on
+ * every notification as String.format does.
+ *
+ * Templates are resolved by language; a language without its own bundle,
+ * or a key missing from it, falls back to the base bundle.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class NotificationTemplates {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationTemplates.class);
+    private static final String BUNDLE = "notification-templates";
+    private static final int INITIAL_BUFFER_CAPACITY = 256;
+    private static final int MAX_POOLED_BUFFER_CAPACITY = 4096;
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_CAPACITY));
+
+    private final ConcurrentMap<Locale, Map<NotificationType, CompiledTemplate>> templates = new ConcurrentHashMap<>();
+    private final Locale defaultLocale;
+
+    public NotificationTemplates(@Value("${notification.templates.default-locale:en}") String defaultLocale) {
+        this.defaultLocale = Locale.forLanguageTag(defaultLocale);
+        // Compiled eagerly so that a broken template fails the startup
+        compiled(this.defaultLocale);
+    }
+
+    /**
+     * Get the default language of notifications
+     *
+     * @return the default locale
+     */
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    /**
+     * Get the title of a notification
+     *
+     * @param type the notification type
+     * @param locale the recipient's locale
+     * @return the title
+     */
+    public String title(NotificationType type, Locale locale) {
+        return compiled(locale).get(type).title;
+    }
+
+    /**
+     * Render the message of a notification
+     *
+     * @param type the notification type
+     * @param locale the recipient's locale
+     * @param args the values of the type's parameters, in declaration order
+     * @return the message
+     */
+    public String message(NotificationType type, Locale locale, Object... args) {
+        CompiledTemplate template = compiled(locale).get(type);
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        template.renderTo(buffer, args);
+        String message = buffer.toString();
+        if (buffer.capacity() > MAX_POOLED_BUFFER_CAPACITY) {
+            // Do not keep an unusually large buffer alive for the life of the thread
+            BUFFER.set(new StringBuilder(INITIAL_BUFFER_CAPACITY));
+        }
+        return message;
+    }
+
+    private Map<NotificationType, CompiledTemplate> compiled(Locale locale) {
+        Map<NotificationType, CompiledTemplate> compiled = templates.get(locale);
+        if (compiled == null) {
+            // Reducing the locale to its language costs more than rendering a short message,
+            // so every locale seen is mapped to its language's templates once
+            compiled = templates.computeIfAbsent(Locale.of(locale.getLanguage()), this::compileAll);
+            templates.putIfAbsent(locale, compiled);
+        }
+        return compiled;
+    }
+
+    private Map<NotificationType, CompiledTemplate> compileAll(Locale language) {
+        ResourceBundle bundle = ResourceBundle.getBundle(BUNDLE, language,
+                ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES));
+        Map<NotificationType, CompiledTemplate> compiled = new EnumMap<>(NotificationType.class);
+        for (NotificationType type : NotificationType.values()) {
+            compiled.put(type, CompiledTemplate.parse(type,
+                    bundle.getString(type.name() + ".title"),
+                    bundle.getString(type.name() + ".message")));
+        }
+        logger.info("Compiled {} notification templates for language '{}'", compiled.size(), language);
+        return compiled;
+    }
+
+    /**
+     * A message split into literal segments around its parameters
+     *
+     * The message is literals[0], args[parameters[0]], literals[1], ...,
+     * args[parameters[n - 1]], literals[n].
+     */
+    static final class CompiledTemplate {
+        private final String title;
+        private final String[] literals;
+        private final int[] parameters;
+
+        private CompiledTemplate(String title, String[] literals, int[] parameters) {
+            this.title = title;
+            this.literals = literals;
+            this.parameters = parameters;
+        }
+
+        /**
+         * Parse a message with {name} placeholders
+         *
+         * @throws IllegalStateException if a placeholder is not a parameter of the type
+         */
+        static CompiledTemplate parse(NotificationType type, String title, String message) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> parameters = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int i = 0;
+            while (i < message.length()) {
+                char c = message.charAt(i);
+                int end = c == '{' ? message.indexOf('}', i + 1) : -1;
+                if (end < 0) {
+                    literal.append(c);
+                    i++;
+                    continue;
+                }
+                String name = message.substring(i + 1, end);
+                int parameter = type.getParameters().indexOf(name);
+                if (parameter < 0) {
+                    throw new IllegalStateException("Unknown parameter {" + name + "} in " + type + " template; expected one of "
+                            + type.getParameters());
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                parameters.add(parameter);
+                i = end + 1;
+            }
+            literals.add(literal.toString());
+            return new CompiledTemplate(title, literals.toArray(new String[0]),
+                    parameters.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        void renderTo(StringBuilder buffer, Object[] args) {
+            for (int i = 0; i < parameters.length; i++) {
+                buffer.append(literals[i]).append(args[parameters[i]]);
+            }
+            buffer.append(literals[parameters.length]);
+        }
+    }
+}
@@ -5,8 +5,9 @@ CREATE TABLE IF NOT EXISTS notifications (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     user_id BIGINT NOT NULL,
     type VARCHAR(50) NOT NULL,
+    channel VARCHAR(20) NOT NULL,
     title VARCHAR(200) NOT NULL,
-    message TEXT NOT NULL,
+    message VARCHAR(2000) NOT NULL,
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
     sent_at TIMESTAMP,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
@@ -0,0 +1,118 @@
+package com.bootcamp.notification.consumer;
+
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationType;
+import com.bootcamp.notification.service.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserEventConsumerTest {
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    @InjectMocks
+    private UserEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(notificationService.prepare(anyLong(), any(NotificationType.class), anyString(), any()))
+                .thenAnswer(invocation -> new Notification(invocation.getArgument(0), invocation.getArgument(1),
+                        "EMAIL", invocation.getArgument(2), "title", "message"));
+        lenient().when(notificationService.recordPending(anyList())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void consumeUserEvents_ShouldRecordTheBatchOnceBeforeQueueingAndAcknowledging() {
+        // Given
+        List<UserEvent> events = List.of(event("USER_CREATED", 1L), event("USER_UPDATED", 2L),
+                event("SOMETHING_ELSE", 3L), event("USER_DELETED", 4L));
+
+        // When
+        consumer.consumeUserEvents(events, acknowledgment);
+
+        // Then - one insert for the three notifications, then queueing, then the acknowledgment
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> recorded = ArgumentCaptor.forClass(List.class);
+        InOrder inOrder = inOrder(notificationService, acknowledgment);
+        inOrder.verify(notificationService).recordPending(recorded.capture());
+        inOrder.verify(notificationService, times(3)).queue(any());
+        inOrder.verify(acknowledgment).acknowledge();
+        assertEquals(List.of(NotificationType.WELCOME, NotificationType.PROFILE_UPDATE, NotificationType.ACCOUNT_DELETION),
+                recorded.getValue().stream().map(Notification::getType).toList());
+    }
+
+    @Test
+    void consumeUserEvents_ShouldRedeliverTheBatchWhenItCannotBeRecorded() {
+        // Given
+        when(notificationService.recordPending(anyList()))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("database down")));
+
+        // When / Then
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> consumer.consumeUserEvents(List.of(event("USER_CREATED", 1L)), acknowledgment));
+        verify(notificationService, never()).queue(any());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void consumeUserEvents_ShouldReportTheEventWhoseNotificationCouldNotBeQueued() {
+        // Given - the third event has no notification, the fourth one's cannot be queued
+        List<UserEvent> events = List.of(event("USER_CREATED", 1L), event("USER_CREATED", 2L),
+                event("SOMETHING_ELSE", 3L), event("USER_CREATED", 4L));
+        doNothing().doNothing().doThrow(new RejectedExecutionException("queue full"))
+                .when(notificationService).queue(any());
+
+        // When
+        BatchListenerFailedException error = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.consumeUserEvents(events, acknowledgment));
+
+        // Then - the error handler commits the events before it
+        assertEquals(3, error.getIndex());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void consumeUserEvents_ShouldAcknowledgeABatchWithoutNotifications() {
+        // When
+        consumer.consumeUserEvents(List.of(event("SOMETHING_ELSE", 1L)), acknowledgment);
+
+        // Then
+        verify(notificationService).recordPending(eq(List.of()));
+        verify(acknowledgment).acknowledge();
+    }
+
+    private static UserEvent event(String type, Long userId) {
+        UserEvent event = new UserEvent();
+        event.setEventType(type);
+        event.setUserId(userId);
+        event.setUsername("user" + userId);
+        event.setEmail("user" + userId + "@example.com");
+        return event;
+    }
+}
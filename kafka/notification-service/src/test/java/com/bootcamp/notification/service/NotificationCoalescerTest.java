@@ -0,0 +1,181 @@
+package com.bootcamp.notification.service;
+
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationStatus;
+import com.bootcamp.notification.model.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationCoalescerTest {
+
+    private static final long QUIET_MS = 5_000;
+    private static final long MAX_DELAY_MS = 60_000;
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @Mock
+    private NotificationRateLimiter rateLimiter;
+
+    @Mock
+    private NotificationStore notificationStore;
+
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = coalescer(QUIET_MS, MAX_DELAY_MS, 2);
+        lenient().when(rateLimiter.tryAcquireUser(any())).thenReturn(true);
+        lenient().when(notificationStore.recordStatus(any(), any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void offer_ShouldReleaseOtherTypesRightAway() {
+        // Given
+        Notification confirmation = notification(1L, NotificationType.ORDER_CONFIRMATION);
+
+        // When
+        coalescer.offer(confirmation);
+
+        // Then
+        verify(notificationDispatcher).submit(confirmation);
+        assertEquals(0, coalescer.pendingCount());
+    }
+
+    @Test
+    void flush_ShouldHoldNotificationsUntilTheQuietPeriodElapsed() {
+        // Given
+        long before = System.nanoTime();
+        Notification update = notification(1L, NotificationType.PROFILE_UPDATE);
+        coalescer.offer(update);
+
+        // When
+        coalescer.flush(before + millis(QUIET_MS) - 1);
+
+        // Then
+        verify(notificationDispatcher, never()).submit(any());
+        assertEquals(1, coalescer.pendingCount());
+
+        // When
+        coalescer.flush(System.nanoTime() + millis(QUIET_MS));
+
+        // Then
+        verify(notificationDispatcher).submit(update);
+        assertEquals(0, coalescer.pendingCount());
+    }
+
+    @Test
+    void offer_ShouldReplaceTheHeldNotificationOfTheSameUserAndType() {
+        // Given
+        Notification first = notification(1L, NotificationType.PROFILE_UPDATE);
+        Notification second = notification(1L, NotificationType.PROFILE_UPDATE);
+        Notification otherUser = notification(2L, NotificationType.PROFILE_UPDATE);
+
+        // When
+        coalescer.offer(first);
+        coalescer.offer(second);
+        coalescer.offer(otherUser);
+        coalescer.flush(System.nanoTime() + millis(QUIET_MS));
+
+        // Then
+        verify(notificationStore).recordStatus(List.of(first), NotificationStatus.COALESCED);
+        verify(notificationDispatcher, never()).submit(first);
+        verify(notificationDispatcher).submit(second);
+        verify(notificationDispatcher).submit(otherUser);
+    }
+
+    @Test
+    void flush_ShouldReleaseAfterTheMaxDelayEvenIfTheQuietPeriodDidNotElapse() {
+        // Given: a quiet period longer than the maximum delay
+        coalescer = coalescer(MAX_DELAY_MS, QUIET_MS, 2);
+        long before = System.nanoTime();
+        Notification update = notification(1L, NotificationType.PROFILE_UPDATE);
+        coalescer.offer(update);
+        long after = System.nanoTime();
+
+        // When
+        coalescer.flush(before + millis(QUIET_MS) - 1);
+
+        // Then
+        verify(notificationDispatcher, never()).submit(any());
+
+        // When
+        coalescer.flush(after + millis(QUIET_MS));
+
+        // Then
+        verify(notificationDispatcher).submit(update);
+    }
+
+    @Test
+    void offer_ShouldReleaseTheOldestWhenTooManyAreHeld() {
+        // Given
+        Notification oldest = notification(1L, NotificationType.PROFILE_UPDATE);
+        coalescer.offer(oldest);
+        coalescer.offer(notification(2L, NotificationType.PROFILE_UPDATE));
+
+        // When
+        coalescer.offer(notification(3L, NotificationType.PROFILE_UPDATE));
+
+        // Then
+        verify(notificationDispatcher).submit(oldest);
+        assertEquals(2, coalescer.pendingCount());
+    }
+
+    @Test
+    void flush_ShouldRecordRateLimitedNotificationsInsteadOfSendingThem() {
+        // Given
+        Notification update = notification(1L, NotificationType.PROFILE_UPDATE);
+        when(rateLimiter.tryAcquireUser(update)).thenReturn(false);
+        coalescer.offer(update);
+
+        // When
+        coalescer.flush(System.nanoTime() + millis(QUIET_MS));
+
+        // Then
+        verify(notificationStore).recordStatus(List.of(update), NotificationStatus.RATE_LIMITED);
+        verify(notificationDispatcher, never()).submit(any());
+    }
+
+    @Test
+    void flush_ShouldRecordNotificationsThatCouldNotBeQueuedAsFailed() {
+        // Given
+        Notification update = notification(1L, NotificationType.PROFILE_UPDATE);
+        doThrow(new RejectedExecutionException("Notification queue full")).when(notificationDispatcher).submit(update);
+        coalescer.offer(update);
+
+        // When
+        coalescer.flush(System.nanoTime() + millis(QUIET_MS));
+
+        // Then
+        verify(notificationStore).recordStatus(List.of(update), NotificationStatus.FAILED);
+        assertEquals(0, coalescer.pendingCount());
+    }
+
+    private NotificationCoalescer coalescer(long quietPeriodMs, long maxDelayMs, int maxPending) {
+        return new NotificationCoalescer(notificationDispatcher, rateLimiter, notificationStore, new SimpleMeterRegistry(),
+                Set.of(NotificationType.PROFILE_UPDATE), quietPeriodMs, maxDelayMs, 100, maxPending);
+    }
+
+    private static long millis(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    private static Notification notification(Long userId, NotificationType type) {
+        return new Notification(userId, type, "EMAIL", "user@example.com", "Title", "Message");
+    }
+}
@@ -0,0 +1,175 @@
+package com.bootcamp.notification.service;
+
+import com.bootcamp.notification.channel.NotificationChannel;
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationStatus;
+import com.bootcamp.notification.model.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock
+    private NotificationStore notificationStore;
+
+    private final List<List<Notification>> emailBatches = new CopyOnWriteArrayList<>();
+    private final List<List<Notification>> smsBatches = new CopyOnWriteArrayList<>();
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(notificationStore.recordStatus(any(), any())).thenReturn(Mono.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void submit_ShouldSendOneBatchPerChannelAndRecordItAsSent() {
+        // Given
+        dispatcher = dispatcher(batch -> Mono.empty(), 1, 200);
+        Notification first = notification(1L, "EMAIL");
+        Notification second = notification(2L, "SMS");
+        Notification third = notification(3L, "EMAIL");
+
+        // When - queued before the dispatcher starts, so they are drained together
+        dispatcher.submit(first);
+        dispatcher.submit(second);
+        dispatcher.submit(third);
+        dispatcher.start();
+
+        // Then
+        verify(notificationStore, timeout(2000)).recordStatus(List.of(first, third), NotificationStatus.SENT);
+        verify(notificationStore, timeout(2000)).recordStatus(List.of(second), NotificationStatus.SENT);
+        assertEquals(List.of(List.of(first, third)), emailBatches);
+        assertEquals(List.of(List.of(second)), smsBatches);
+    }
+
+    @Test
+    void submit_ShouldRecordAFailedBatchAsFailed() {
+        // Given
+        dispatcher = dispatcher(batch -> Mono.error(new IllegalStateException("provider down")), 1, 200);
+        Notification notification = notification(1L, "EMAIL");
+
+        // When
+        dispatcher.start();
+        dispatcher.submit(notification);
+
+        // Then
+        verify(notificationStore, timeout(2000)).recordStatus(List.of(notification), NotificationStatus.FAILED);
+    }
+
+    @Test
+    void submit_ShouldRecordABatchThatTimesOutAsFailedAndFreeItsSlot() {
+        // Given - one in-flight batch at most, and the provider never answers the first one
+        dispatcher = dispatcher(batch -> emailBatches.size() == 1 ? Mono.never() : Mono.empty(), 1, 100);
+        Notification hung = notification(1L, "EMAIL");
+        Notification next = notification(2L, "EMAIL");
+
+        // When
+        dispatcher.start();
+        dispatcher.submit(hung);
+        verify(notificationStore, timeout(2000)).recordStatus(List.of(hung), NotificationStatus.FAILED);
+        dispatcher.submit(next);
+
+        // Then - the timed out batch no longer holds the only slot
+        verify(notificationStore, timeout(2000)).recordStatus(List.of(next), NotificationStatus.SENT);
+        verify(notificationStore, never()).recordStatus(eq(List.of(hung)), eq(NotificationStatus.SENT));
+    }
+
+    @Test
+    void submit_ShouldDelayABatchUntilItsChannelHasTokensWithoutBlockingTheSubmitter() {
+        // Given - 2 email tokens, refilled at 10 per second
+        dispatcher = dispatcher(batch -> Mono.empty(), 1, 1000, 2, 10);
+        Notification first = notification(1L, "EMAIL");
+        Notification second = notification(2L, "EMAIL");
+        Notification third = notification(3L, "EMAIL");
+        dispatcher.submit(first);
+        dispatcher.submit(second);
+        dispatcher.submit(third);
+
+        // When - one batch of three owes a token, then one more is submitted
+        long start = System.nanoTime();
+        dispatcher.start();
+        verify(notificationStore, timeout(2000)).recordStatus(List.of(first, second, third), NotificationStatus.SENT);
+        long firstBatch = System.nanoTime() - start;
+        Notification fourth = notification(4L, "EMAIL");
+        dispatcher.submit(fourth);
+        long submit = System.nanoTime() - start - firstBatch;
+
+        // Then - each batch waits about 100 ms for its token, the submitter not at all
+        assertTrue(firstBatch >= TimeUnit.MILLISECONDS.toNanos(90), "first batch sent after " + firstBatch + " ns");
+        assertTrue(submit < TimeUnit.MILLISECONDS.toNanos(50), "submit took " + submit + " ns");
+        verify(notificationStore, timeout(2000)).recordStatus(List.of(fourth), NotificationStatus.SENT);
+    }
+
+    @Test
+    void submit_ShouldRejectAnUnknownChannel() {
+        dispatcher = dispatcher(batch -> Mono.empty(), 1, 200);
+        assertThrows(RejectedExecutionException.class, () -> dispatcher.submit(notification(1L, "PIGEON")));
+    }
+
+    private NotificationDispatcher dispatcher(Function<List<Notification>, Mono<Void>> emailBehaviour,
+                                              int maxInFlight, long sendTimeoutMs) {
+        return dispatcher(emailBehaviour, maxInFlight, sendTimeoutMs, 100, 0);
+    }
+
+    private NotificationDispatcher dispatcher(Function<List<Notification>, Mono<Void>> emailBehaviour,
+                                              int maxInFlight, long sendTimeoutMs,
+                                              int channelCapacity, double channelPerSecond) {
+        NotificationChannel email = channel("EMAIL", batch -> {
+            emailBatches.add(batch);
+            return emailBehaviour.apply(batch);
+        });
+        NotificationChannel sms = channel("SMS", batch -> {
+            smsBatches.add(batch);
+            return Mono.empty();
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        NotificationRateLimiter rateLimiter = new NotificationRateLimiter(meterRegistry, 10, 1, 100,
+                Set.of(NotificationType.PROFILE_UPDATE), channelCapacity, channelPerSecond);
+        return new NotificationDispatcher(List.of(email, sms), notificationStore, rateLimiter, meterRegistry,
+                100, 10, 20, maxInFlight, 1000, sendTimeoutMs);
+    }
+
+    private static NotificationChannel channel(String name, Function<List<Notification>, Mono<Void>> send) {
+        return new NotificationChannel() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Mono<Void> send(List<Notification> batch) {
+                return send.apply(batch);
+            }
+        };
+    }
+
+    private static Notification notification(Long userId, String channel) {
+        return new Notification(userId, NotificationType.ORDER_CONFIRMATION, channel, "user@example.com", "title", "message");
+    }
+}
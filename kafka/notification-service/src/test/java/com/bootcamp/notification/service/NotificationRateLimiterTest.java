@@ -0,0 +1,136 @@
+package com.bootcamp.notification.service;
+
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryTake_ShouldSpendTheInitialCapacityThenReportTheWait() {
+        // Given
+        NotificationRateLimiter.TokenBucket bucket = new NotificationRateLimiter.TokenBucket(2, 1.0, 0);
+
+        // When / Then
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(SECOND, bucket.tryTake(0), 1);
+    }
+
+    @Test
+    void tryTake_ShouldRefillProportionallyToElapsedTime() {
+        // Given: 4 tokens per second, drained at time 0
+        NotificationRateLimiter.TokenBucket bucket = new NotificationRateLimiter.TokenBucket(1, 4.0, 0);
+        bucket.tryTake(0);
+
+        // When / Then: a quarter token after 62.5 ms, so another 187.5 ms to wait
+        assertEquals(SECOND * 3 / 16, bucket.tryTake(SECOND / 16), 1);
+        assertEquals(0, bucket.tryTake(SECOND / 4 + 1));
+    }
+
+    @Test
+    void tryTake_ShouldNotRefillBeyondCapacity() {
+        // Given
+        NotificationRateLimiter.TokenBucket bucket = new NotificationRateLimiter.TokenBucket(2, 1.0, 0);
+        bucket.tryTake(0);
+        bucket.tryTake(0);
+
+        // When: idle far longer than needed to refill
+        long later = 100 * SECOND;
+
+        // Then
+        assertEquals(0, bucket.tryTake(later));
+        assertEquals(0, bucket.tryTake(later));
+        assertTrue(bucket.tryTake(later) > 0);
+    }
+
+    @Test
+    void reserve_ShouldGoIntoDebtAndReportTheTimeToRepayIt() {
+        // Given
+        NotificationRateLimiter.TokenBucket bucket = new NotificationRateLimiter.TokenBucket(2, 1.0, 0);
+
+        // When / Then: a batch of 5 takes the 2 tokens held and owes 3
+        assertEquals(0, bucket.reserve(0, 2));
+        assertEquals(3 * SECOND, bucket.reserve(0, 3), 1);
+
+        // Then: the next batch waits behind the debt
+        assertEquals(3 * SECOND, bucket.reserve(SECOND, 1), 1);
+        assertEquals(0, bucket.reserve(10 * SECOND, 1));
+    }
+
+    @Test
+    void reserveChannel_ShouldDelayBatchesOnlyOnceTheChannelBucketIsEmpty() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        NotificationRateLimiter rateLimiter = new NotificationRateLimiter(meterRegistry, 2, 0.001, 100,
+                Set.of(NotificationType.PROFILE_UPDATE), 10, 0.001);
+
+        // When / Then
+        assertEquals(Duration.ZERO, rateLimiter.reserveChannel("EMAIL", 10));
+        assertTrue(rateLimiter.reserveChannel("EMAIL", 1).compareTo(Duration.ofMinutes(10)) > 0);
+        assertEquals(Duration.ZERO, rateLimiter.reserveChannel("SMS", 1));
+        assertEquals(3, meterRegistry.get("notification.rate-limit.channel.wait").timer().count());
+    }
+
+    @Test
+    void reserveChannel_ShouldNeverDelayWhenTheChannelLimitIsDisabled() {
+        // Given
+        NotificationRateLimiter rateLimiter = new NotificationRateLimiter(new SimpleMeterRegistry(), 2, 0.001, 100,
+                Set.of(NotificationType.PROFILE_UPDATE), 1, 0);
+
+        // When / Then
+        assertEquals(Duration.ZERO, rateLimiter.reserveChannel("EMAIL", 1000));
+    }
+
+    @Test
+    void tryAcquireUser_ShouldRefuseLimitedTypesOnceTheUserBucketIsEmpty() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        NotificationRateLimiter rateLimiter = new NotificationRateLimiter(meterRegistry, 2, 0.001, 100,
+                Set.of(NotificationType.PROFILE_UPDATE), 100, 50);
+
+        // When / Then
+        assertTrue(rateLimiter.tryAcquireUser(notification(1L, NotificationType.PROFILE_UPDATE)));
+        assertTrue(rateLimiter.tryAcquireUser(notification(1L, NotificationType.PROFILE_UPDATE)));
+        assertFalse(rateLimiter.tryAcquireUser(notification(1L, NotificationType.PROFILE_UPDATE)));
+        assertTrue(rateLimiter.tryAcquireUser(notification(2L, NotificationType.PROFILE_UPDATE)));
+        assertEquals(1.0, meterRegistry.get("notification.rate-limit.refused").counter().count());
+    }
+
+    @Test
+    void tryAcquireUser_ShouldNeverRefuseOtherTypes() {
+        // Given
+        NotificationRateLimiter rateLimiter = new NotificationRateLimiter(new SimpleMeterRegistry(), 1, 0.001, 100,
+                Set.of(NotificationType.PROFILE_UPDATE), 100, 50);
+
+        // When / Then
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquireUser(notification(1L, NotificationType.ORDER_CONFIRMATION)));
+        }
+        assertTrue(rateLimiter.tryAcquireUser(notification(1L, NotificationType.PROFILE_UPDATE)));
+        assertEquals(1, rateLimiter.trackedUsers());
+    }
+
+    @Test
+    void tryAcquireUser_ShouldBeDisabledByANonPositiveRate() {
+        NotificationRateLimiter rateLimiter = new NotificationRateLimiter(new SimpleMeterRegistry(), 1, 0, 100,
+                Set.of(NotificationType.PROFILE_UPDATE), 100, 50);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquireUser(notification(1L, NotificationType.PROFILE_UPDATE)));
+        }
+    }
+
+    private static Notification notification(Long userId, NotificationType type) {
+        return new Notification(userId, type, "EMAIL", "user@example.com", "Title", "Message");
+    }
+}
@@ -0,0 +1,108 @@
+package com.bootcamp.notification.service;
+
+import com.bootcamp.notification.model.Notification;
+import com.bootcamp.notification.model.NotificationStatus;
+import com.bootcamp.notification.model.NotificationType;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records notifications in an in-memory H2 database
+ */
+class NotificationStoreTest {
+
+    private DatabaseClient databaseClient;
+    private NotificationStore store;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("notifications-" + UUID.randomUUID());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+        databaseClient = DatabaseClient.create(connectionFactory);
+        store = new NotificationStore();
+        ReflectionTestUtils.setField(store, "databaseClient", databaseClient);
+    }
+
+    @Test
+    void recordPending_ShouldInsertTheBatchAndAssignIdsInOrder() {
+        // Given
+        List<Notification> batch = List.of(notification(1L, "first"), notification(2L, "second"), notification(3L, "third"));
+
+        // When
+        StepVerifier.create(store.recordPending(batch)).verifyComplete();
+
+        // Then
+        for (Notification notification : batch) {
+            assertEquals(notification.getTitle(), databaseClient.sql("SELECT title FROM notifications WHERE id = :id")
+                    .bind("id", notification.getId())
+                    .map((row, metadata) -> row.get("title", String.class))
+                    .one()
+                    .block());
+        }
+        assertEquals(3L, count("PENDING"));
+    }
+
+    @Test
+    void recordPending_ShouldFailWhenTheBatchCannotBeRecorded() {
+        // Given - a title longer than the column
+        List<Notification> batch = List.of(notification(1L, "ok"), notification(2L, "x".repeat(201)));
+
+        // When / Then - nothing is recorded
+        StepVerifier.create(store.recordPending(batch))
+                .expectError(DataAccessException.class)
+                .verify();
+        assertEquals(0L, count("PENDING"));
+    }
+
+    @Test
+    void recordStatus_ShouldMoveTheWholeBatch() {
+        // Given
+        List<Notification> sent = List.of(notification(1L, "a"), notification(2L, "b"));
+        List<Notification> failed = List.of(notification(3L, "c"));
+        store.recordPending(List.of(sent.get(0), sent.get(1), failed.get(0))).block();
+
+        // When
+        StepVerifier.create(store.recordStatus(sent, NotificationStatus.SENT)).verifyComplete();
+        StepVerifier.create(store.recordStatus(failed, NotificationStatus.FAILED)).verifyComplete();
+
+        // Then
+        assertEquals(2L, count("SENT"));
+        assertEquals(1L, count("FAILED"));
+        assertEquals(2L, databaseClient.sql("SELECT COUNT(*) AS total FROM notifications WHERE sent_at IS NOT NULL")
+                .map((row, metadata) -> row.get("total", Long.class))
+                .one()
+                .block());
+    }
+
+    @Test
+    void recordStatus_ShouldSkipNotificationsThatWereNeverRecorded() {
+        StepVerifier.create(store.recordStatus(List.of(notification(1L, "unrecorded")), NotificationStatus.SENT))
+                .verifyComplete();
+        assertEquals(0L, count("SENT"));
+    }
+
+    private long count(String status) {
+        return databaseClient.sql("SELECT COUNT(*) AS total FROM notifications WHERE status = :status")
+                .bind("status", status)
+                .map((row, metadata) -> row.get("total", Long.class))
+                .one()
+                .block();
+    }
+
+    private static Notification notification(Long userId, String title) {
+        return new Notification(userId, NotificationType.WELCOME, "EMAIL", "user@example.com", title, "Hello");
+    }
+}
@@ -0,0 +1,101 @@
+package com.bootcamp.notification.service;
+
+import com.bootcamp.notification.model.NotificationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationTemplatesTest {
+
+    @Test
+    void parse_ShouldRenderLiteralsAndParametersInOrder() {
+        // Given
+        NotificationTemplates.CompiledTemplate template = NotificationTemplates.CompiledTemplate.parse(
+                NotificationType.ORDER_CONFIRMATION, "Title", "{orderId}: {username} paid {totalAmount}.");
+
+        // When
+        String message = render(template, "john", 42L, "99.99");
+
+        // Then
+        assertEquals("42: john paid 99.99.", message);
+    }
+
+    @Test
+    void parse_ShouldAllowRepeatedPlaceholdersAndTemplatesWithoutPlaceholders() {
+        assertEquals("john, john!", render(NotificationTemplates.CompiledTemplate.parse(
+                NotificationType.WELCOME, "Title", "{username}, {username}!"), "john"));
+        assertEquals("Hello!", render(NotificationTemplates.CompiledTemplate.parse(
+                NotificationType.WELCOME, "Title", "Hello!"), "john"));
+        assertEquals("", render(NotificationTemplates.CompiledTemplate.parse(
+                NotificationType.WELCOME, "Title", ""), "john"));
+    }
+
+    @Test
+    void parse_ShouldKeepUnclosedBracesAsLiterals() {
+        assertEquals("Hi john {oops", render(NotificationTemplates.CompiledTemplate.parse(
+                NotificationType.WELCOME, "Title", "Hi {username} {oops"), "john"));
+    }
+
+    @Test
+    void parse_ShouldRejectUnknownPlaceholders() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> NotificationTemplates.CompiledTemplate.parse(NotificationType.WELCOME, "Title", "Order {orderId}"));
+
+        assertTrue(error.getMessage().contains("{orderId}"), error.getMessage());
+        assertTrue(error.getMessage().contains("WELCOME"), error.getMessage());
+    }
+
+    @Test
+    void message_ShouldRenderTheBundledTemplateOfTheLanguage() {
+        // Given
+        NotificationTemplates templates = new NotificationTemplates("en");
+
+        // When
+        String english = templates.message(NotificationType.ORDER_CONFIRMATION, Locale.ENGLISH, "john", 42L, "99.99");
+        String spanish = templates.message(NotificationType.ORDER_CONFIRMATION, Locale.forLanguageTag("es-MX"), "john", 42L, "99.99");
+
+        // Then
+        assertEquals("Hello john! Your order #42 has been confirmed. Total amount: 99.99. You will receive shipping updates soon.",
+                english);
+        assertTrue(spanish.startsWith("¡Hola john! Tu pedido #42"), spanish);
+        assertEquals("Pedido confirmado", templates.title(NotificationType.ORDER_CONFIRMATION, Locale.forLanguageTag("es")));
+    }
+
+    @Test
+    void message_ShouldFallBackToTheBaseBundleForOtherLanguages() {
+        NotificationTemplates templates = new NotificationTemplates("en");
+
+        assertEquals(templates.message(NotificationType.WELCOME, Locale.ENGLISH, "john"),
+                templates.message(NotificationType.WELCOME, Locale.FRENCH, "john"));
+    }
+
+    @Test
+    void message_ShouldShareTheLanguageTemplatesBetweenItsRegionalLocales() {
+        // Given
+        NotificationTemplates templates = new NotificationTemplates("en");
+
+        // When
+        templates.message(NotificationType.WELCOME, Locale.forLanguageTag("es-MX"), "john");
+        templates.message(NotificationType.WELCOME, Locale.forLanguageTag("es-AR"), "john");
+
+        // Then - compiled once for "es", looked up directly by the regional locales afterwards
+        Map<Locale, ?> compiled = templates(templates);
+        assertSame(compiled.get(Locale.of("es")), compiled.get(Locale.forLanguageTag("es-MX")));
+        assertSame(compiled.get(Locale.of("es")), compiled.get(Locale.forLanguageTag("es-AR")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Locale, ?> templates(NotificationTemplates templates) {
+        return (Map<Locale, ?>) ReflectionTestUtils.getField(templates, "templates");
+    }
+
+    private static String render(NotificationTemplates.CompiledTemplate template, Object... args) {
+        StringBuilder buffer = new StringBuilder();
+        template.renderTo(buffer, args);
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.bootcamp.order.client;
+
+import java.util.Arrays;
+
+/**
+ * Rolling latency percentile estimate
+ *
+ * Keeps the most recent call latencies in a fixed ring buffer and
+ * recomputes the configured percentile every few samples, so reading the
+ * estimate on the request path is a single volatile read.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+final class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] samples;
+    private final double percentile;
+    private int count;
+    private int next;
+    private volatile long percentileNanos;
+
+    /**
+     * @param size the number of recent samples considered
+     * @param percentile the percentile to estimate, between 0 and 1
+     */
+    LatencyTracker(int size, double percentile) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+    }
+
+    /**
+     * Record the latency of a completed call
+     *
+     * @param nanos the call latency in nanoseconds
+     */
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (next % RECOMPUTE_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            percentileNanos = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+        }
+    }
+
+    /**
+     * Get the current estimate
+     *
+     * @return the percentile latency in nanoseconds, or 0 until enough samples were recorded
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+}
@@ -1,19 +1,45 @@
 package com.bootcamp.order.client;
 
+import com.bootcamp.order.config.ResilienceConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
 /**
  * User Service Client
  * 
  * WebClient for making reactive HTTP calls to the User Service.
  * This enables service-to-service communication between Order Service and User Service.
+ * Calls are bounded by the user-service time limiter, bulkhead and circuit
+ * breaker from ResilienceConfig, so a slow user-service fails fast instead
+ * of stalling order creation and read model updates.
  * 
  * @author Bootcamp Instructor
  * @version 1.0
@@ -22,30 +48,108 @@ import reactor.core.publisher.Mono;
 public class UserServiceClient {
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceClient.class);
-    private static final String USER_SERVICE_NAME = "user-service";
+    private static final String USER_SERVICE_NAME = ResilienceConfig.USER_SERVICE;
 
     @Autowired
     @LoadBalanced
     private WebClient.Builder webClientBuilder;
 
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private TimeLimiterRegistry timeLimiterRegistry;
+
+    @Value("${order.bulk.user-lookup-concurrency:8}")
+    private int userLookupConcurrency;
+
+    @Value("${order.user-client.hedging.enabled:true}")
+    private boolean hedgingEnabled;
+
+    @Value("${order.user-client.hedging.min-delay-ms:20}")
+    private long hedgingMinDelayMs;
+
+    @Value("${order.user-client.hedging.max-delay-ms:500}")
+    private long hedgingMaxDelayMs;
+
+    private final LatencyTracker latencyTracker = new LatencyTracker(256, 0.95);
+    private final Map<Long, UserDto> userCache;
+    private final Counter hedgedRequests;
+    private final Counter cacheFallbacks;
+
+    public UserServiceClient(MeterRegistry meterRegistry,
+                             @Value("${order.user-client.cache.max-entries:10000}") int cacheMaxEntries) {
+        this.userCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserDto> eldest) {
+                return size() > cacheMaxEntries;
+            }
+        };
+        this.hedgedRequests = Counter.builder("order.downstream.hedged.requests")
+            .description("Hedged second requests sent to a downstream service")
+            .tag("downstream", USER_SERVICE_NAME)
+            .register(meterRegistry);
+        this.cacheFallbacks = Counter.builder("order.downstream.cache.fallbacks")
+            .description("Downstream failures answered from the last known response")
+            .tag("downstream", USER_SERVICE_NAME)
+            .register(meterRegistry);
+    }
+
     /**
      * Get user by ID reactively
      * 
+     * The call is hedged: if the first request has not answered after the
+     * recent p95 latency, a second one is sent and the first user returned
+     * wins. Each request is guarded on its own by the user-service time
+     * limiter, bulkhead and circuit breaker, so a hedge takes its own
+     * bulkhead permit and its own timeout. When every request fails, times
+     * out or is rejected, the last known copy of the user is served if there
+     * is one; a 404 is always passed on.
+     * 
      * @param id the user ID
      * @return Mono containing UserDto with user information
      */
     public Mono<UserDto> getUserById(Long id) {
         logger.debug("Fetching user with ID: {}", id);
-        
-        return webClientBuilder
-            .baseUrl(getUserServiceUrl())
-            .build()
-            .get()
-            .uri("/users/{id}", id)
-            .retrieve()
-            .bodyToMono(UserDto.class)
-            .doOnSuccess(user -> logger.debug("Successfully fetched user: {}", user.getUsername()))
-            .doOnError(error -> logger.error("Failed to fetch user with ID {}: {}", id, error.getMessage()));
+
+        return hedged(() -> guarded(fetchUserById(id)))
+            .doOnNext(this::cacheUser)
+            .doOnSuccess(user -> logger.debug("Successfully fetched user: {}", user != null ? user.getUsername() : null))
+            .onErrorResume(error -> !(error instanceof WebClientResponseException.NotFound), error -> {
+                UserDto cached = cachedUser(id);
+                if (cached == null) {
+                    logger.error("Failed to fetch user with ID {}: {}", id, error.getMessage());
+                    return Mono.error(error);
+                }
+                logger.warn("Serving cached user {} after user-service failure: {}", id, error.getMessage());
+                cacheFallbacks.increment();
+                return Mono.just(cached);
+            })
+            .doOnError(WebClientResponseException.NotFound.class, error -> logger.debug("User not found with ID: {}", id));
+    }
+
+    /**
+     * Get several users by ID reactively
+     * 
+     * Each distinct ID is fetched once, with at most
+     * order.bulk.user-lookup-concurrency requests in flight. Users that do
+     * not exist (404) are left out of the result; any other failure of a
+     * lookup fails the whole call, so that an unavailable user-service is
+     * never mistaken for missing users.
+     * 
+     * @param ids the user IDs (duplicates allowed)
+     * @return Mono containing the found users keyed by ID
+     */
+    public Mono<Map<Long, UserDto>> getUsersByIds(Collection<Long> ids) {
+        logger.debug("Fetching {} users by ID", ids.size());
+
+        return Flux.fromIterable(new LinkedHashSet<>(ids))
+            .flatMap(id -> getUserById(id).onErrorResume(WebClientResponseException.NotFound.class, error -> Mono.empty()),
+                userLookupConcurrency)
+            .collectMap(UserDto::getId);
     }
 
     /**
@@ -64,6 +168,7 @@ public class UserServiceClient {
             .uri("/users/username/{username}", username)
             .retrieve()
             .bodyToMono(UserDto.class)
+            .transform(this::guarded)
             .doOnSuccess(user -> logger.debug("Successfully fetched user: {}", user.getUsername()))
             .doOnError(error -> logger.error("Failed to fetch user with username {}: {}", username, error.getMessage()));
     }
@@ -87,6 +192,110 @@ public class UserServiceClient {
             .doOnError(error -> logger.error("Failed to check user service health: {}", error.getMessage()));
     }
 
+    /**
+     * Send one unguarded GET /users/{id} request and record its latency
+     * 
+     * @param id the user ID
+     * @return Mono containing the user
+     */
+    private Mono<UserDto> fetchUserById(Long id) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClientBuilder
+                .baseUrl(getUserServiceUrl())
+                .build()
+                .get()
+                .uri("/users/{id}", id)
+                .retrieve()
+                .bodyToMono(UserDto.class)
+                .doOnSuccess(user -> latencyTracker.record(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Apply the user-service time limiter, bulkhead and circuit breaker
+     * 
+     * The circuit breaker is outermost so that timeouts and bulkhead
+     * rejections count towards opening it.
+     * 
+     * @param call the downstream call
+     * @return the guarded call
+     */
+    private <T> Mono<T> guarded(Mono<T> call) {
+        return call
+            .transformDeferred(TimeLimiterOperator.of(timeLimiterRegistry.timeLimiter(USER_SERVICE_NAME, USER_SERVICE_NAME)))
+            .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(USER_SERVICE_NAME, USER_SERVICE_NAME)))
+            .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(USER_SERVICE_NAME, USER_SERVICE_NAME)));
+    }
+
+    /**
+     * Race a request against a delayed second copy of it
+     * 
+     * The hedge is sent after the recent p95 latency (clamped to the
+     * configured bounds), so only about one request in twenty is duplicated.
+     * The first request to return a value wins and the other one is
+     * cancelled; a failed request never wins while the other can still
+     * succeed. No hedge is sent once the first request got a definite
+     * answer (404) or was refused by the open circuit.
+     * 
+     * @param request supplier of the (idempotent, individually guarded) request
+     * @return Mono with the first value, or the first request's error if both failed
+     */
+    private <T> Mono<T> hedged(Supplier<Mono<T>> request) {
+        if (!hedgingEnabled) {
+            return request.get();
+        }
+        return Mono.defer(() -> {
+            long p95 = latencyTracker.percentileNanos();
+            Duration delay = p95 == 0
+                ? Duration.ofMillis(hedgingMaxDelayMs)
+                : Duration.ofNanos(Math.max(Duration.ofMillis(hedgingMinDelayMs).toNanos(),
+                    Math.min(Duration.ofMillis(hedgingMaxDelayMs).toNanos(), p95)));
+            AtomicBoolean settled = new AtomicBoolean();
+            Mono<T> primary = request.get()
+                .doOnError(error -> error instanceof WebClientResponseException.NotFound
+                    || error instanceof CallNotPermittedException, error -> settled.set(true));
+            Mono<T> hedge = Mono.delay(delay)
+                .filter(tick -> !settled.get())
+                .flatMap(tick -> {
+                    hedgedRequests.increment();
+                    return request.get();
+                });
+            return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(NoSuchElementException.class, UserServiceClient::firstFailure);
+        });
+    }
+
+    /**
+     * Unwrap the error of a race in which no request returned a value
+     * 
+     * @param error the race error, caused by a composite of one error per request in request order
+     * @return the first real failure; empty requests (a hedge that was not sent) are skipped
+     */
+    private static Throwable firstFailure(NoSuchElementException error) {
+        if (error.getCause() == null) {
+            return error;
+        }
+        for (Throwable failure : Exceptions.unwrapMultiple(error.getCause())) {
+            if (!(failure instanceof NoSuchElementException)) {
+                return failure;
+            }
+        }
+        return error;
+    }
+
+    private void cacheUser(UserDto user) {
+        synchronized (userCache) {
+            userCache.put(user.getId(), user);
+        }
+    }
+
+    private UserDto cachedUser(Long id) {
+        synchronized (userCache) {
+            return userCache.get(id);
+        }
+    }
+
     /**
      * Get the base URL for the user service using service discovery
      * 
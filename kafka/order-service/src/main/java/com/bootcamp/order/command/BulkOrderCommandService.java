@@ -0,0 +1,375 @@
+package com.bootcamp.order.command;
+
+import com.bootcamp.order.client.UserServiceClient;
+import com.bootcamp.order.dto.OrderRequest;
+import com.bootcamp.order.event.OrderCreatedEvent;
+import com.bootcamp.order.model.Order;
+import com.bootcamp.order.model.OrderItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Parameters;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Command service for bulk order ingestion
+ *
+ * Creates orders from a stream of NDJSON lines in chunks: users are
+ * validated once per distinct ID, orders and items are written with
+ * multi-row inserts in one transaction per chunk, and the chunk's events
+ * are handed to the producer together so they share producer batches. One
+ * result per request line is streamed back as soon as its chunk completes.
+ *
+ * A line that is not a valid order request, or names a user that does not
+ * exist, is REJECTED. If user-service cannot be reached, or the chunk
+ * cannot be written, the chunk's lines are FAILED and can be resubmitted.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Service
+public class BulkOrderCommandService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkOrderCommandService.class);
+    private static final String ORDER_EVENTS_TOPIC = "order-events";
+
+    @Autowired
+    private UserServiceClient userServiceClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${order.bulk.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${order.bulk.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    /**
+     * Execute the creation of a stream of orders
+     *
+     * @param lines the NDJSON lines, one order request per line
+     * @return Flux with one result per non-blank line, in line order
+     */
+    public Flux<BulkOrderResult> executeBulkCreateOrderCommand(Flux<String> lines) {
+        AtomicLong created = new AtomicLong();
+        AtomicLong processed = new AtomicLong();
+        long start = System.nanoTime();
+
+        return lines.index()
+                .filter(line -> !line.getT2().isBlank())
+                .map(line -> parse(line.getT1() + 1, line.getT2()))
+                // Fair backpressure: lines are only requested for chunks the writer can take,
+                // so a slow chunk pauses the upload instead of buffering it in memory
+                .bufferTimeout(chunkSize, Duration.ofMillis(flushIntervalMs), true)
+                .concatMap(this::processChunk)
+                .doOnNext(result -> {
+                    processed.incrementAndGet();
+                    if (BulkOrderResult.CREATED.equals(result.getStatus())) {
+                        created.incrementAndGet();
+                    }
+                })
+                .doOnComplete(() -> {
+                    double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+                    logger.info("Bulk order ingestion completed: {} lines, {} orders created, {} orders/s",
+                            processed.get(), created.get(), String.format("%.1f", created.get() / seconds));
+                });
+    }
+
+    /**
+     * Parse one NDJSON line
+     *
+     * @param number the one-based line number
+     * @param json the line
+     * @return the parsed line, carrying the parse error if it is malformed
+     */
+    private Line parse(long number, String json) {
+        try {
+            return new Line(number, objectMapper.readValue(json, OrderRequest.class), null);
+        } catch (JsonProcessingException e) {
+            return new Line(number, null, "Malformed order request: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Validate, insert and publish one chunk of requests
+     *
+     * @param chunk the lines of the chunk
+     * @return Flux with the results of the chunk, in line order
+     */
+    private Flux<BulkOrderResult> processChunk(List<Line> chunk) {
+        BulkOrderResult[] results = new BulkOrderResult[chunk.size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Line line = chunk.get(i);
+            String error = line.parseError != null ? line.parseError : validate(line.request);
+            if (error != null) {
+                results[i] = BulkOrderResult.rejected(line.number, error);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        List<Long> userIds = valid.stream()
+                .map(i -> chunk.get(i).request.getUserId())
+                .collect(Collectors.toList());
+
+        return userServiceClient.getUsersByIds(userIds)
+                .flatMap(users -> {
+                    List<Integer> accepted = new ArrayList<>();
+                    for (Integer i : valid) {
+                        Line line = chunk.get(i);
+                        if (users.containsKey(line.request.getUserId())) {
+                            accepted.add(i);
+                        } else {
+                            results[i] = BulkOrderResult.rejected(line.number,
+                                    "User not found with ID: " + line.request.getUserId());
+                        }
+                    }
+                    if (accepted.isEmpty()) {
+                        return Mono.empty();
+                    }
+
+                    List<OrderRequest> requests = accepted.stream()
+                            .map(i -> chunk.get(i).request)
+                            .collect(Collectors.toList());
+                    return insertOrders(requests)
+                            .flatMap(orders -> insertItems(orders, requests).thenReturn(orders))
+                            .as(transactionalOperator::transactional)
+                            .flatMap(orders -> publishOrderCreatedEvents(orders, requests).thenReturn(orders))
+                            .doOnNext(orders -> {
+                                for (int j = 0; j < orders.size(); j++) {
+                                    int i = accepted.get(j);
+                                    results[i] = BulkOrderResult.created(chunk.get(i).number, orders.get(j).getId());
+                                }
+                            })
+                            .onErrorResume(e -> {
+                                logger.error("Failed to insert bulk order chunk: {}", e.getMessage(), e);
+                                for (Integer i : accepted) {
+                                    results[i] = BulkOrderResult.failed(chunk.get(i).number, e.getMessage());
+                                }
+                                return Mono.empty();
+                            });
+                })
+                .onErrorResume(e -> {
+                    logger.error("Failed to validate users of bulk order chunk: {}", e.getMessage());
+                    for (Integer i : valid) {
+                        results[i] = BulkOrderResult.failed(chunk.get(i).number, "User service unavailable: " + e.getMessage());
+                    }
+                    return Mono.empty();
+                })
+                .thenMany(Flux.defer(() -> Flux.fromArray(results)));
+    }
+
+    /**
+     * Check the constraints that the single-order endpoint validates
+     *
+     * @param request the order request
+     * @return the validation errors, or null if the request is valid
+     */
+    private String validate(OrderRequest request) {
+        Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Insert the orders of a chunk with one multi-row statement
+     *
+     * @param requests the accepted requests
+     * @return Mono with the inserted orders, in request order, with their generated IDs
+     */
+    private Mono<List<Order>> insertOrders(List<OrderRequest> requests) {
+        List<Order> orders = new ArrayList<>(requests.size());
+        StringBuilder sql = new StringBuilder("INSERT INTO orders ")
+                .append("(user_id, total_amount, status, shipping_address, notes, created_at, updated_at) VALUES ");
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequest request = requests.get(i);
+            BigDecimal totalAmount = request.getItems().stream()
+                    .map(OrderItem::getTotalPrice)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            Order order = new Order(request.getUserId(), totalAmount);
+            order.setShippingAddress(request.getShippingAddress());
+            order.setNotes(request.getNotes());
+            orders.add(order);
+
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:userId").append(i)
+                    .append(", :totalAmount").append(i)
+                    .append(", :status").append(i)
+                    .append(", :shippingAddress").append(i)
+                    .append(", :notes").append(i)
+                    .append(", :createdAt").append(i)
+                    .append(", :updatedAt").append(i)
+                    .append(")");
+        }
+
+        // Bound with one bindValues call: each bind call copies the parameters bound
+        // so far, which made binding the 1,400 parameters of a 200-order chunk quadratic
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            values.put("userId" + i, order.getUserId());
+            values.put("totalAmount" + i, order.getTotalAmount());
+            values.put("status" + i, order.getStatus().name());
+            values.put("createdAt" + i, order.getCreatedAt());
+            values.put("updatedAt" + i, order.getUpdatedAt());
+            values.put("shippingAddress" + i, nullable(order.getShippingAddress()));
+            values.put("notes" + i, nullable(order.getNotes()));
+        }
+
+        return databaseClient.sql(sql.toString())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bindValues(values)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .map(ids -> {
+                    if (ids.size() != orders.size()) {
+                        throw new IllegalStateException("Expected " + orders.size() + " generated order IDs but got " + ids.size());
+                    }
+                    for (int i = 0; i < ids.size(); i++) {
+                        orders.get(i).setId(ids.get(i));
+                        orders.get(i).setVersion(0L);
+                    }
+                    return orders;
+                });
+    }
+
+    /**
+     * Insert the items of all orders of a chunk with one multi-row statement
+     *
+     * @param orders the inserted orders
+     * @param requests the requests the orders were created from, in the same order
+     * @return Mono indicating completion
+     */
+    private Mono<Void> insertItems(List<Order> orders, List<OrderRequest> requests) {
+        StringBuilder sql = new StringBuilder("INSERT INTO order_items ")
+                .append("(order_id, product_name, quantity, unit_price, total_price) VALUES ");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            for (OrderItem item : requests.get(i).getItems()) {
+                rows.add(new Object[] {orders.get(i).getId(), item.getProductName(), item.getQuantity(),
+                        item.getUnitPrice(), item.getTotalPrice()});
+            }
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:orderId").append(i)
+                    .append(", :productName").append(i)
+                    .append(", :quantity").append(i)
+                    .append(", :unitPrice").append(i)
+                    .append(", :totalPrice").append(i)
+                    .append(")");
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            values.put("orderId" + i, row[0]);
+            values.put("productName" + i, row[1]);
+            values.put("quantity" + i, row[2]);
+            values.put("unitPrice" + i, row[3]);
+            values.put("totalPrice" + i, row[4]);
+        }
+        return databaseClient.sql(sql.toString()).bindValues(values).fetch().rowsUpdated().then();
+    }
+
+    /**
+     * Send the created events of a chunk and wait until the producer has acknowledged them
+     *
+     * A publishing failure is logged and does not fail the already committed orders,
+     * as in the single-order command.
+     *
+     * @param orders the inserted orders
+     * @param requests the requests the orders were created from, in the same order
+     * @return Mono indicating completion
+     */
+    private Mono<Void> publishOrderCreatedEvents(List<Order> orders, List<OrderRequest> requests) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            OrderCreatedEvent event = new OrderCreatedEvent(
+                    order.getId(),
+                    order.getUserId(),
+                    order.getTotalAmount(),
+                    requests.get(i).getItems(),
+                    order.getShippingAddress(),
+                    order.getNotes(),
+                    order.getVersion()
+            );
+            sends.add(kafkaTemplate.send(ORDER_EVENTS_TOPIC, String.valueOf(order.getId()), event));
+        }
+        return Mono.fromFuture(CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])))
+                .doOnSuccess(v -> logger.info("Published {} order created events", orders.size()))
+                .onErrorResume(e -> {
+                    logger.error("Error publishing order created events: {}", e.getMessage(), e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Bind value of a nullable text column: the value, or a typed null
+     */
+    private static Object nullable(String value) {
+        return value != null ? value : Parameters.in(String.class);
+    }
+
+    /**
+     * One non-blank NDJSON line: either its parsed request or its parse error
+     */
+    private static final class Line {
+        private final long number;
+        private final OrderRequest request;
+        private final String parseError;
+
+        Line(long number, OrderRequest request, String parseError) {
+            this.number = number;
+            this.request = request;
+            this.parseError = parseError;
+        }
+    }
+}
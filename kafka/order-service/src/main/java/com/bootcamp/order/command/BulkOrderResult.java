@@ -0,0 +1,67 @@
+package com.bootcamp.order.command;
+
+/**
+ * Result of one line of a bulk order request
+ * 
+ * Streamed back to the client in the same order as the submitted lines.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class BulkOrderResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private final long line;
+    private final String status;
+    private final Long orderId;
+    private final String error;
+
+    private BulkOrderResult(long line, String status, Long orderId, String error) {
+        this.line = line;
+        this.status = status;
+        this.orderId = orderId;
+        this.error = error;
+    }
+
+    public static BulkOrderResult created(long line, Long orderId) {
+        return new BulkOrderResult(line, CREATED, orderId, null);
+    }
+
+    public static BulkOrderResult rejected(long line, String error) {
+        return new BulkOrderResult(line, REJECTED, null, error);
+    }
+
+    public static BulkOrderResult failed(long line, String error) {
+        return new BulkOrderResult(line, FAILED, null, error);
+    }
+
+    // Getters
+    public long getLine() {
+        return line;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkOrderResult{" +
+                "line=" + line +
+                ", status='" + status + '\'' +
+                ", orderId=" + orderId +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
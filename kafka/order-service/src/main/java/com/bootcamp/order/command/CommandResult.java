@@ -0,0 +1,74 @@
+package com.bootcamp.order.command;
+
+import java.util.function.Function;
+
+/**
+ * Result of an order command
+ * 
+ * Holds either the command's value or the {@link OrderError} it failed
+ * with, so expected failures are returned as values instead of being
+ * thrown through the reactive pipeline.
+ * 
+ * @param <T> the type of the successful value
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public final class CommandResult<T> {
+
+    private final T value;
+    private final OrderError error;
+
+    private CommandResult(T value, OrderError error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> CommandResult<T> success(T value) {
+        return new CommandResult<>(value, null);
+    }
+
+    public static <T> CommandResult<T> failure(OrderError error) {
+        return new CommandResult<>(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Transform the successful value, keeping a failure as is
+     * 
+     * @param mapper the transformation
+     * @param <R> the new value type
+     * @return the transformed result
+     */
+    public <R> CommandResult<R> map(Function<? super T, ? extends R> mapper) {
+        return isSuccess() ? success(mapper.apply(value)) : failure(error);
+    }
+
+    /**
+     * Collapse the result into a single value
+     * 
+     * @param onSuccess applied to the value of a successful result
+     * @param onFailure applied to the error of a failed result
+     * @param <R> the folded type
+     * @return the folded value
+     */
+    public <R> R fold(Function<? super T, ? extends R> onSuccess, Function<OrderError, ? extends R> onFailure) {
+        return isSuccess() ? onSuccess.apply(value) : onFailure.apply(error);
+    }
+
+    // Getters
+    public T getValue() {
+        return value;
+    }
+
+    public OrderError getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "CommandResult{value=" + value + '}' : "CommandResult{error=" + error + '}';
+    }
+}
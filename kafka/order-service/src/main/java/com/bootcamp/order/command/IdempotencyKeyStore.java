@@ -0,0 +1,341 @@
+package com.bootcamp.order.command;
+
+import com.bootcamp.order.model.Order;
+import com.bootcamp.order.model.OrderItem;
+import com.bootcamp.order.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency key store for create-order commands
+ *
+ * Remembers which order was created for each Idempotency-Key so that a
+ * retried request returns the original order instead of creating a new one.
+ * Keys are scoped to the user placing the order, so one client can never
+ * replay another client's key.
+ *
+ * A key is reserved in idempotency_keys before the command runs: the
+ * primary key on (user_id, idempotency_key) lets exactly one instance
+ * insert the in-progress row, and that instance records the created order
+ * on it afterwards. A request that loses the reservation waits for the
+ * order to be recorded and returns it, or is answered with a conflict if
+ * it is still in progress after order.idempotency.wait-timeout-ms. A failed
+ * command deletes its reservation so the client can retry it, and a
+ * reservation left behind by a crashed instance is taken over after
+ * order.idempotency.reservation-timeout-ms. Once the order exists the
+ * reservation is never released: if recording the order ID on it fails,
+ * the order is still returned and the reservation stays in place.
+ *
+ * Every key also stores a hash of the request it was first used with. A
+ * repeat of the key with a different request is rejected with
+ * IDEMPOTENCY_KEY_REUSED instead of returning the other request's order.
+ *
+ * Recent keys are also kept in a bounded in-memory map of cached Monos, so
+ * concurrent duplicates on one instance share the first execution without
+ * touching the database.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyStore.class);
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${order.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${order.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${order.idempotency.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    @Value("${order.idempotency.reservation-timeout-ms:60000}")
+    private long reservationTimeoutMs;
+
+    @Value("${order.idempotency.record-retries:3}")
+    private int recordRetries;
+
+    private final Map<String, RecentExecution> recentKeys;
+
+    public IdempotencyKeyStore(@Value("${order.idempotency.max-entries:10000}") int maxEntries) {
+        this.recentKeys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RecentExecution> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Execute a create command at most once per user and idempotency key
+     *
+     * @param createCommand the create command, whose user scopes the key
+     * @param key the client supplied idempotency key
+     * @param command supplier of the command execution, subscribed only for a new key
+     * @return Mono with the order created for the key, or an IDEMPOTENCY_KEY_REUSED
+     *         failure if the key was first used with a different request
+     */
+    public Mono<CommandResult<Order>> execute(CreateOrderCommand createCommand, String key,
+                                              Supplier<Mono<CommandResult<Order>>> command) {
+        Long userId = createCommand.getUserId();
+        String requestHash = requestHash(createCommand);
+        String scopedKey = userId + ":" + key;
+        synchronized (recentKeys) {
+            RecentExecution existing = recentKeys.get(scopedKey);
+            if (existing != null) {
+                if (!existing.requestHash.equals(requestHash)) {
+                    return Mono.just(CommandResult.failure(OrderError.idempotencyKeyReused(key)));
+                }
+                logger.info("Replaying idempotent request with key: {}", key);
+                return existing.execution;
+            }
+            long deadline = System.nanoTime() + Duration.ofMillis(waitTimeoutMs).toNanos();
+            Mono<CommandResult<Order>> execution = claim(userId, key, requestHash, command, deadline)
+                    .doOnNext(result -> {
+                        if (!result.isSuccess()) {
+                            forget(scopedKey);
+                        }
+                    })
+                    .doOnError(e -> forget(scopedKey))
+                    .cache();
+            recentKeys.put(scopedKey, new RecentExecution(requestHash, execution));
+            return execution;
+        }
+    }
+
+    /**
+     * Remove persisted keys older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        databaseClient.sql("DELETE FROM idempotency_keys WHERE created_at < :cutoff")
+                .bind("cutoff", cutoff)
+                .fetch()
+                .rowsUpdated()
+                .subscribe(count -> logger.info("Purged {} expired idempotency keys", count));
+    }
+
+    /**
+     * Run the command if this request wins the key, otherwise wait for the winner's order
+     */
+    private Mono<CommandResult<Order>> claim(Long userId, String key, String requestHash,
+                                             Supplier<Mono<CommandResult<Order>>> command, long deadline) {
+        return reserve(userId, key, requestHash)
+                .flatMap(reserved -> reserved
+                        ? runReserved(userId, key, command)
+                        : awaitStoredOrder(userId, key, requestHash, command, deadline));
+    }
+
+    private Mono<CommandResult<Order>> runReserved(Long userId, String key, Supplier<Mono<CommandResult<Order>>> command) {
+        return Mono.defer(command)
+                // Only a failed command releases the key; once the order exists the reservation is kept
+                .onErrorResume(e -> release(userId, key).then(Mono.error(e)))
+                .flatMap(result -> result.isSuccess()
+                        ? recordOrder(userId, key, result.getValue().getId()).thenReturn(result)
+                        : release(userId, key).thenReturn(result));
+    }
+
+    /**
+     * Poll the reservation held by another request until it records its order
+     */
+    private Mono<CommandResult<Order>> awaitStoredOrder(Long userId, String key, String requestHash,
+                                                        Supplier<Mono<CommandResult<Order>>> command, long deadline) {
+        return findReservation(userId, key)
+                .flatMap(reservation -> {
+                    if (!requestHash.equals(reservation.requestHash)) {
+                        return Mono.just(CommandResult.<Order>failure(OrderError.idempotencyKeyReused(key)));
+                    }
+                    if (reservation.orderId != null) {
+                        logger.info("Idempotency key {} already used for order {}", key, reservation.orderId);
+                        return orderRepository.findById(reservation.orderId)
+                                .map(CommandResult::success)
+                                .defaultIfEmpty(CommandResult.failure(OrderError.orderNotFound(reservation.orderId)));
+                    }
+                    if (reservation.createdAt.isBefore(LocalDateTime.now().minus(Duration.ofMillis(reservationTimeoutMs)))) {
+                        logger.warn("Taking over abandoned reservation of idempotency key {}", key);
+                        return deleteAbandoned(userId, key, reservation.createdAt)
+                                .then(Mono.defer(() -> claim(userId, key, requestHash, command, deadline)));
+                    }
+                    if (System.nanoTime() - deadline >= 0) {
+                        return Mono.just(CommandResult.<Order>failure(OrderError.conflict(
+                                "A request with Idempotency-Key " + key + " is still in progress")));
+                    }
+                    return Mono.delay(Duration.ofMillis(pollIntervalMs))
+                            .then(Mono.defer(() -> awaitStoredOrder(userId, key, requestHash, command, deadline)));
+                })
+                // The other request failed and released the key: try to win it again
+                .switchIfEmpty(Mono.defer(() -> claim(userId, key, requestHash, command, deadline)));
+    }
+
+    /**
+     * Insert the in-progress row of a key
+     *
+     * @return Mono with true if this request reserved the key, false if it was already reserved
+     */
+    private Mono<Boolean> reserve(Long userId, String key, String requestHash) {
+        return databaseClient.sql("INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, order_id, created_at) " +
+                        "VALUES (:userId, :key, :requestHash, NULL, :createdAt)")
+                .bind("userId", userId)
+                .bind("key", key)
+                .bind("requestHash", requestHash)
+                .bind("createdAt", LocalDateTime.now())
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(true)
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just(false));
+    }
+
+    private Mono<Reservation> findReservation(Long userId, String key) {
+        return databaseClient.sql("SELECT request_hash, order_id, created_at FROM idempotency_keys " +
+                        "WHERE user_id = :userId AND idempotency_key = :key")
+                .bind("userId", userId)
+                .bind("key", key)
+                .map((row, metadata) -> new Reservation(
+                        row.get("request_hash", String.class),
+                        row.get("order_id", Long.class),
+                        row.get("created_at", LocalDateTime.class)))
+                .one();
+    }
+
+    /**
+     * Record the created order on the reservation
+     *
+     * The order already exists, so a failure here must not fail the request
+     * or release the key. The reservation is left in progress instead, and
+     * repeats on this instance keep replaying the cached result.
+     */
+    private Mono<Void> recordOrder(Long userId, String key, Long orderId) {
+        return databaseClient.sql("UPDATE idempotency_keys SET order_id = :orderId " +
+                        "WHERE user_id = :userId AND idempotency_key = :key")
+                .bind("orderId", orderId)
+                .bind("userId", userId)
+                .bind("key", key)
+                .fetch()
+                .rowsUpdated()
+                .retryWhen(Retry.backoff(recordRetries, Duration.ofMillis(pollIntervalMs)))
+                .then()
+                .onErrorResume(e -> {
+                    logger.error("Failed to record order {} for idempotency key {}, keeping the reservation: {}",
+                            orderId, key, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> release(Long userId, String key) {
+        return databaseClient.sql("DELETE FROM idempotency_keys " +
+                        "WHERE user_id = :userId AND idempotency_key = :key AND order_id IS NULL")
+                .bind("userId", userId)
+                .bind("key", key)
+                .fetch()
+                .rowsUpdated()
+                .then()
+                .onErrorResume(e -> {
+                    logger.error("Failed to release idempotency key {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> deleteAbandoned(Long userId, String key, LocalDateTime reservedAt) {
+        return databaseClient.sql("DELETE FROM idempotency_keys WHERE user_id = :userId " +
+                        "AND idempotency_key = :key AND order_id IS NULL AND created_at = :reservedAt")
+                .bind("userId", userId)
+                .bind("key", key)
+                .bind("reservedAt", reservedAt)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    private void forget(String scopedKey) {
+        synchronized (recentKeys) {
+            recentKeys.remove(scopedKey);
+        }
+    }
+
+    /**
+     * Hash the fields of a create command that determine the created order
+     *
+     * Amounts are normalized, so 10.0 and 10.00 hash the same.
+     *
+     * @param command the create command
+     * @return hex encoded SHA-256 of the command
+     */
+    static String requestHash(CreateOrderCommand command) {
+        StringBuilder canonical = new StringBuilder()
+                .append(command.getUserId()).append('\n')
+                .append(command.getShippingAddress()).append('\n')
+                .append(command.getNotes()).append('\n');
+        if (command.getItems() != null) {
+            for (OrderItem item : command.getItems()) {
+                BigDecimal unitPrice = item.getUnitPrice();
+                canonical.append(item.getProductId()).append('\t')
+                        .append(item.getProductName()).append('\t')
+                        .append(item.getQuantity()).append('\t')
+                        .append(unitPrice != null ? unitPrice.stripTrailingZeros().toPlainString() : null).append('\n');
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Stored state of a key: the order ID is null while the command is in progress
+     */
+    private static final class Reservation {
+        private final String requestHash;
+        private final Long orderId;
+        private final LocalDateTime createdAt;
+
+        Reservation(String requestHash, Long orderId, LocalDateTime createdAt) {
+            this.requestHash = requestHash;
+            this.orderId = orderId;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Cached execution of a recent key with the hash of its request
+     */
+    private static final class RecentExecution {
+        private final String requestHash;
+        private final Mono<CommandResult<Order>> execution;
+
+        RecentExecution(String requestHash, Mono<CommandResult<Order>> execution) {
+            this.requestHash = requestHash;
+            this.execution = execution;
+        }
+    }
+}
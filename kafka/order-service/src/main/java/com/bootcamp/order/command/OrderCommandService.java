@@ -4,19 +4,25 @@ import com.bootcamp.order.client.UserServiceClient;
 import com.bootcamp.order.client.UserDto;
 import com.bootcamp.order.event.OrderCreatedEvent;
 import com.bootcamp.order.event.OrderDeletedEvent;
+import com.bootcamp.order.event.OrderEvent;
 import com.bootcamp.order.event.OrderStatusUpdatedEvent;
 import com.bootcamp.order.model.Order;
 import com.bootcamp.order.model.OrderItem;
 import com.bootcamp.order.model.OrderStatus;
+import com.bootcamp.order.model.OrderStatusTransitions;
 import com.bootcamp.order.repository.OrderRepository;
+import io.r2dbc.spi.Row;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -44,17 +50,24 @@ public class OrderCommandService {
     @Autowired
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Autowired
+    private DatabaseClient databaseClient;
+
     /**
      * Execute command to create a new order
      * 
      * @param command the creation command
-     * @return Mono with the created order
+     * @return Mono with the created order, or the reason it was not created
      */
-    public Mono<Order> executeCreateOrderCommand(CreateOrderCommand command) {
+    public Mono<CommandResult<Order>> executeCreateOrderCommand(CreateOrderCommand command) {
         logger.info("Executing order creation command: {}", command);
 
         return validateUser(command.getUserId())
-                .flatMap(user -> {
+                .flatMap(validation -> {
+                    if (!validation.isSuccess()) {
+                        return Mono.just(CommandResult.<Order>failure(validation.getError()));
+                    }
+
                     // Calculate total amount
                     BigDecimal totalAmount = command.getItems().stream()
                             .map(OrderItem::getTotalPrice)
@@ -65,72 +78,148 @@ public class OrderCommandService {
                     order.setShippingAddress(command.getShippingAddress());
                     order.setNotes(command.getNotes());
 
-                    return Mono.just(order);
-                })
-                .flatMap(orderRepository::save)
-                .doOnNext(savedOrder -> {
-                    logger.info("Order created successfully with ID: {}", savedOrder.getId());
-                    publishOrderCreatedEvent(savedOrder, command.getItems());
+                    return orderRepository.save(order)
+                            .doOnNext(savedOrder -> {
+                                logger.info("Order created successfully with ID: {}", savedOrder.getId());
+                                publishOrderCreatedEvent(savedOrder, command.getItems());
+                            })
+                            .map(CommandResult::success);
                 });
     }
 
     /**
      * Execute command to update order status
      * 
+     * The change is applied with a single conditional UPDATE that only
+     * matches when the order is in a status the new status may be reached
+     * from (and, if given, still has the expected version). The previous row
+     * is read back from the same statement, so a successful update costs one
+     * round-trip and concurrent updates cannot overwrite each other. The
+     * order is only read separately to explain a rejected update.
+     * 
      * @param command the status update command
-     * @return Mono with the updated order
+     * @return Mono with the updated order, or the reason it was not updated
      */
-    public Mono<Order> executeUpdateOrderStatusCommand(UpdateOrderStatusCommand command) {
+    public Mono<CommandResult<Order>> executeUpdateOrderStatusCommand(UpdateOrderStatusCommand command) {
         logger.info("Executing order status update command: {}", command);
 
-        return orderRepository.findById(command.getOrderId())
-                .switchIfEmpty(Mono.error(new RuntimeException("Order not found with ID: " + command.getOrderId())))
-                .map(order -> {
-                    String oldStatus = order.getStatus().toString();
-                    order.setStatus(OrderStatus.valueOf(command.getNewStatus().toUpperCase()));
-                    order.preUpdate();
-                    return new OrderStatusUpdateResult(order, oldStatus);
+        OrderStatus newStatus = OrderStatusTransitions.parse(command.getNewStatus());
+        if (newStatus == null) {
+            return Mono.just(CommandResult.failure(OrderError.invalidRequest("Unknown order status: " + command.getNewStatus())));
+        }
+        List<String> predecessors = OrderStatusTransitions.predecessorNames(newStatus);
+        if (predecessors.isEmpty()) {
+            return Mono.just(CommandResult.failure(OrderError.conflict("Orders cannot be moved to status " + newStatus)));
+        }
+
+        LocalDateTime updatedAt = LocalDateTime.now();
+        String sql = "SELECT * FROM OLD TABLE (UPDATE orders " +
+                "SET status = :newStatus, version = version + 1, updated_at = :updatedAt " +
+                "WHERE id = :id AND status IN (:predecessors)" +
+                (command.getExpectedVersion() != null ? " AND version = :version" : "") + ")";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .bind("newStatus", newStatus.name())
+                .bind("updatedAt", updatedAt)
+                .bind("id", command.getOrderId())
+                .bind("predecessors", predecessors);
+        if (command.getExpectedVersion() != null) {
+            spec = spec.bind("version", command.getExpectedVersion());
+        }
+
+        return spec.map((row, metadata) -> toOrder(row))
+                .one()
+                .map(previous -> {
+                    String oldStatus = previous.getStatus().toString();
+                    previous.setStatus(newStatus);
+                    previous.setVersion(previous.getVersion() + 1);
+                    previous.setUpdatedAt(updatedAt);
+                    logger.info("Order status updated successfully: {}", previous.getId());
+                    publishOrderStatusUpdatedEvent(previous, oldStatus);
+                    return CommandResult.success(previous);
                 })
-                .flatMap(result -> orderRepository.save(result.getOrder())
-                        .doOnNext(savedOrder -> {
-                            logger.info("Order status updated successfully: {}", savedOrder.getId());
-                            publishOrderStatusUpdatedEvent(savedOrder, result.getOldStatus());
-                        }));
+                .switchIfEmpty(Mono.defer(() -> rejectStatusUpdate(command, newStatus)));
     }
 
     /**
      * Execute command to delete an order
      * 
      * @param command the deletion command
-     * @return Mono<Void> indicating completion
+     * @return Mono with the deleted order, or the reason it was not deleted
      */
-    public Mono<Void> executeDeleteOrderCommand(DeleteOrderCommand command) {
+    public Mono<CommandResult<Order>> executeDeleteOrderCommand(DeleteOrderCommand command) {
         logger.info("Executing order deletion command: {}", command);
 
         return orderRepository.findById(command.getOrderId())
-                .switchIfEmpty(Mono.error(new RuntimeException("Order not found with ID: " + command.getOrderId())))
-                .doOnNext(order -> {
+                .flatMap(order -> {
                     logger.info("Order found for deletion: {}", order.getId());
                     publishOrderDeletedEvent(order);
+                    return orderRepository.deleteById(command.getOrderId())
+                            .doOnSuccess(v -> logger.info("Order deleted successfully with ID: {}", command.getOrderId()))
+                            .thenReturn(CommandResult.success(order));
                 })
-                .then(orderRepository.deleteById(command.getOrderId()))
-                .doOnSuccess(v -> logger.info("Order deleted successfully with ID: {}", command.getOrderId()));
+                .switchIfEmpty(Mono.fromSupplier(() -> CommandResult.failure(OrderError.orderNotFound(command.getOrderId()))));
     }
 
     /**
      * Validate that the user exists
      * 
+     * A 404 from user-service means the user does not exist; any other
+     * failure (timeouts, 5xx) is reported as the dependency being unavailable.
+     * 
      * @param userId the user ID to validate
-     * @return Mono with user information if valid
+     * @return Mono with user information if valid, or the validation failure
      */
-    private Mono<UserDto> validateUser(Long userId) {
+    private Mono<CommandResult<UserDto>> validateUser(Long userId) {
         return userServiceClient.getUserById(userId)
+                .map(CommandResult::success)
+                .switchIfEmpty(Mono.fromSupplier(() -> CommandResult.failure(OrderError.userNotFound(userId))))
                 .onErrorResume(e -> {
                     logger.error("Error validating user: {}", e.getMessage());
-                    return Mono.error(new RuntimeException("User not found with ID: " + userId));
+                    OrderError error = e instanceof WebClientResponseException.NotFound
+                            ? OrderError.userNotFound(userId)
+                            : OrderError.dependencyUnavailable("User service unavailable: " + e.getMessage());
+                    return Mono.just(CommandResult.failure(error));
                 });
     }
 
+    /**
+     * Explain why a conditional status update matched no row
+     * 
+     * @param command the status update command
+     * @param newStatus the requested status
+     * @return Mono with the failure
+     */
+    private Mono<CommandResult<Order>> rejectStatusUpdate(UpdateOrderStatusCommand command, OrderStatus newStatus) {
+        return orderRepository.findById(command.getOrderId())
+                .map(order -> {
+                    if (!OrderStatusTransitions.isAllowed(order.getStatus(), newStatus)) {
+                        return CommandResult.<Order>failure(OrderError.conflict(
+                                "Cannot change order status from " + order.getStatus() + " to " + newStatus));
+                    }
+                    return CommandResult.<Order>failure(OrderError.conflict(
+                            "Order " + order.getId() + " was modified concurrently (current version " + order.getVersion() + ")"));
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> CommandResult.failure(OrderError.orderNotFound(command.getOrderId()))));
+    }
+
+    /**
+     * Map a row of the orders table
+     * 
+     * @param row the row
+     * @return the order
+     */
+    private Order toOrder(Row row) {
+        Order order = new Order(row.get("user_id", Long.class), row.get("total_amount", BigDecimal.class));
+        order.setId(row.get("id", Long.class));
+        order.setStatus(OrderStatus.valueOf(row.get("status", String.class)));
+        order.setVersion(row.get("version", Long.class));
+        order.setShippingAddress(row.get("shipping_address", String.class));
+        order.setNotes(row.get("notes", String.class));
+        order.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        order.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return order;
+    }
+
     /**
      * Publish order created event
      * 
@@ -145,9 +234,10 @@ public class OrderCommandService {
                     order.getTotalAmount(),
                     items,
                     order.getShippingAddress(),
-                    order.getNotes()
+                    order.getNotes(),
+                    order.getVersion()
             );
-            kafkaTemplate.send(ORDER_EVENTS_TOPIC, event);
+            send(event);
             logger.info("Order created event published: {}", event);
         } catch (Exception e) {
             logger.error("Error publishing order created event: {}", e.getMessage(), e);
@@ -166,9 +256,10 @@ public class OrderCommandService {
                     order.getId(),
                     order.getUserId(),
                     oldStatus,
-                    order.getStatus().toString()
+                    order.getStatus().toString(),
+                    order.getVersion()
             );
-            kafkaTemplate.send(ORDER_EVENTS_TOPIC, event);
+            send(event);
             logger.info("Order status updated event published: {}", event);
         } catch (Exception e) {
             logger.error("Error publishing order status updated event: {}", e.getMessage(), e);
@@ -183,7 +274,7 @@ public class OrderCommandService {
     private void publishOrderDeletedEvent(Order order) {
         try {
             OrderDeletedEvent event = new OrderDeletedEvent(order.getId(), order.getUserId());
-            kafkaTemplate.send(ORDER_EVENTS_TOPIC, event);
+            send(event);
             logger.info("Order deleted event published: {}", event);
         } catch (Exception e) {
             logger.error("Error publishing order deleted event: {}", e.getMessage(), e);
@@ -191,23 +282,25 @@ public class OrderCommandService {
     }
 
     /**
-     * Helper class to maintain previous state during update
+     * Send an order event keyed by order ID
+     * 
+     * The key keeps all events of an order on one partition, in order.
+     * Completion is handled asynchronously; the send latency is recorded
+     * by the template's spring.kafka.template timer.
+     * 
+     * @param event the order event
      */
-    private static class OrderStatusUpdateResult {
-        private final Order order;
-        private final String oldStatus;
-
-        public OrderStatusUpdateResult(Order order, String oldStatus) {
-            this.order = order;
-            this.oldStatus = oldStatus;
-        }
-
-        public Order getOrder() {
-            return order;
-        }
-
-        public String getOldStatus() {
-            return oldStatus;
-        }
+    private void send(OrderEvent event) {
+        kafkaTemplate.send(ORDER_EVENTS_TOPIC, String.valueOf(event.getOrderId()), event)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        logger.error("Failed to publish {} event for order {}: {}",
+                                event.getEventType(), event.getOrderId(), error.getMessage());
+                    } else {
+                        logger.debug("Published {} event for order {} to partition {} at offset {}",
+                                event.getEventType(), event.getOrderId(),
+                                result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+                    }
+                });
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.bootcamp.order.command;
+
+/**
+ * Order domain error
+ * 
+ * Typed failure of an order command. It is a RuntimeException only so it
+ * can also travel as a reactive error signal; it captures no stack trace
+ * and no suppressed exceptions, so creating one on an expected path
+ * (unknown order, invalid request) costs no more than a plain object.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public final class OrderError extends RuntimeException {
+
+    /**
+     * Kinds of order command failures
+     */
+    public enum Kind {
+        /** The order does not exist */
+        ORDER_NOT_FOUND,
+        /** The user placing the order does not exist */
+        USER_NOT_FOUND,
+        /** The request is malformed (for example an unknown status) */
+        INVALID_REQUEST,
+        /** The request conflicts with the current order state */
+        CONFLICT,
+        /** An idempotency key was reused with a different request */
+        IDEMPOTENCY_KEY_REUSED,
+        /** A dependency (user-service) failed or timed out */
+        DEPENDENCY_UNAVAILABLE
+    }
+
+    private final Kind kind;
+
+    private OrderError(Kind kind, String message) {
+        super(message, null, false, false);
+        this.kind = kind;
+    }
+
+    public static OrderError orderNotFound(Long orderId) {
+        return new OrderError(Kind.ORDER_NOT_FOUND, "Order not found with ID: " + orderId);
+    }
+
+    public static OrderError userNotFound(Long userId) {
+        return new OrderError(Kind.USER_NOT_FOUND, "User not found with ID: " + userId);
+    }
+
+    public static OrderError invalidRequest(String message) {
+        return new OrderError(Kind.INVALID_REQUEST, message);
+    }
+
+    public static OrderError conflict(String message) {
+        return new OrderError(Kind.CONFLICT, message);
+    }
+
+    public static OrderError idempotencyKeyReused(String key) {
+        return new OrderError(Kind.IDEMPOTENCY_KEY_REUSED,
+                "Idempotency-Key " + key + " was already used with a different request");
+    }
+
+    public static OrderError dependencyUnavailable(String message) {
+        return new OrderError(Kind.DEPENDENCY_UNAVAILABLE, message);
+    }
+
+    // Getters
+    public Kind getKind() {
+        return kind;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderError{" +
+                "kind=" + kind +
+                ", message='" + getMessage() + '\'' +
+                '}';
+    }
+}
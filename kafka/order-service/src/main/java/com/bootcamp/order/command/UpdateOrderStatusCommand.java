@@ -13,10 +13,16 @@ public class UpdateOrderStatusCommand {
     
     private final Long orderId;
     private final String newStatus;
+    private final Long expectedVersion;
     
     public UpdateOrderStatusCommand(Long orderId, String newStatus) {
+        this(orderId, newStatus, null);
+    }
+    
+    public UpdateOrderStatusCommand(Long orderId, String newStatus, Long expectedVersion) {
         this.orderId = orderId;
         this.newStatus = newStatus;
+        this.expectedVersion = expectedVersion;
     }
     
     // Getters
@@ -28,11 +34,16 @@ public class UpdateOrderStatusCommand {
         return newStatus;
     }
     
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+    
     @Override
     public String toString() {
         return "UpdateOrderStatusCommand{" +
                 "orderId=" + orderId +
                 ", newStatus='" + newStatus + '\'' +
+                ", expectedVersion=" + expectedVersion +
                 '}';
     }
 } 
\ No newline at end of file
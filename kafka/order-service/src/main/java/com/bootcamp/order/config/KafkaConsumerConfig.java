@@ -0,0 +1,89 @@
+package com.bootcamp.order.config;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+/**
+ * Kafka Consumer Configuration
+ *
+ * Provides the listener container factory used by the read model
+ * projection. Records are delivered in batches (bounded by max-poll-records)
+ * and offsets are acknowledged manually once the batch has been applied.
+ *
+ * When the listener reports the record that failed (with a
+ * BatchListenerFailedException), the records before it are committed and
+ * only the failed record is retried with exponential backoff. A record that
+ * still fails after order.read-model.retry.max-retries attempts, or that
+ * can never succeed (IllegalArgumentException, such as an unknown status),
+ * is published to order.read-model.dead-letter-topic and the batch
+ * continues after it, so one bad event never discards its batch.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${order.read-model.dead-letter-topic:order-events-dlt}")
+    private String deadLetterTopic;
+
+    @Value("${order.read-model.retry.max-retries:6}")
+    private int maxRetries;
+
+    @Value("${order.read-model.retry.initial-interval-ms:500}")
+    private long initialIntervalMs;
+
+    @Value("${order.read-model.retry.max-interval-ms:10000}")
+    private long maxIntervalMs;
+
+    /**
+     * Create the batch listener container factory for order events
+     *
+     * @param configurer Spring Boot configurer that applies spring.kafka.listener.* properties
+     * @param consumerFactory the auto-configured consumer factory
+     * @param orderEventErrorHandler the error handler for failed order events
+     * @return container factory with batch delivery and manual acknowledgment
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> orderEventListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            DefaultErrorHandler orderEventErrorHandler) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(orderEventErrorHandler);
+        return factory;
+    }
+
+    /**
+     * Create the error handler that retries a failed order event and then dead-letters it
+     *
+     * @param kafkaTemplate the auto-configured template used to publish dead letters
+     * @return error handler with backoff and a dead-letter recoverer
+     */
+    @Bean
+    public DefaultErrorHandler orderEventErrorHandler(KafkaTemplate<Object, Object> kafkaTemplate) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                // A negative partition lets the producer choose one, so the topic may have any partition count
+                (record, exception) -> new TopicPartition(deadLetterTopic, -1));
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(maxRetries);
+        backOff.setInitialInterval(initialIntervalMs);
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(maxIntervalMs);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+        return errorHandler;
+    }
+}
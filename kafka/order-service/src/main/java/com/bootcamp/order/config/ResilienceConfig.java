@@ -0,0 +1,106 @@
+package com.bootcamp.order.config;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Resilience Configuration
+ *
+ * Provides the Resilience4j registries that guard calls to downstream
+ * services. Each downstream gets a named configuration and instance (the
+ * downstream service name), so limits are tuned and metrics are tagged
+ * per downstream. Metrics are published as resilience4j.circuitbreaker.*,
+ * resilience4j.bulkhead.* and resilience4j.timelimiter.* with a name tag.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Configuration
+public class ResilienceConfig {
+
+    /** Downstream name of the user service, used for configurations, instances and metric tags */
+    public static final String USER_SERVICE = "user-service";
+
+    /**
+     * Circuit breakers per downstream
+     *
+     * A 404 is a valid answer (unknown user) and is not counted as a failure.
+     *
+     * @return the circuit breaker registry
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${order.user-client.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${order.user-client.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${order.user-client.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${order.user-client.circuit-breaker.slow-call-ms:1000}") long slowCallMs,
+            @Value("${order.user-client.circuit-breaker.open-state-ms:10000}") long openStateMs) {
+        CircuitBreakerConfig userService = CircuitBreakerConfig.custom()
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallMs))
+                .waitDurationInOpenState(Duration.ofMillis(openStateMs))
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .ignoreExceptions(WebClientResponseException.NotFound.class)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(Map.of(USER_SERVICE, userService));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Bulkheads per downstream
+     *
+     * Calls beyond the concurrency limit are rejected immediately instead
+     * of queueing behind a slow downstream.
+     *
+     * @return the bulkhead registry
+     */
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${order.user-client.max-concurrent-calls:32}") int maxConcurrentCalls) {
+        BulkheadConfig userService = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        BulkheadRegistry registry = BulkheadRegistry.of(Map.of(USER_SERVICE, userService));
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Time limiters per downstream
+     *
+     * @return the time limiter registry
+     */
+    @Bean
+    public TimeLimiterRegistry timeLimiterRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${order.user-client.timeout-ms:2000}") long timeoutMs) {
+        TimeLimiterConfig userService = TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(timeoutMs))
+                .build();
+        TimeLimiterRegistry registry = TimeLimiterRegistry.of(Map.of(USER_SERVICE, userService));
+        TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+}
@@ -1,25 +1,43 @@
 package com.bootcamp.order.controller;
 
+import com.bootcamp.order.command.BulkOrderCommandService;
+import com.bootcamp.order.command.BulkOrderResult;
+import com.bootcamp.order.command.CommandResult;
 import com.bootcamp.order.command.CreateOrderCommand;
 import com.bootcamp.order.command.DeleteOrderCommand;
+import com.bootcamp.order.command.IdempotencyKeyStore;
 import com.bootcamp.order.command.OrderCommandService;
+import com.bootcamp.order.command.OrderError;
 import com.bootcamp.order.command.UpdateOrderStatusCommand;
 import com.bootcamp.order.dto.OrderRequest;
 import com.bootcamp.order.dto.StatusRequest;
+import com.bootcamp.order.event.OrderEventProcessor;
+import com.bootcamp.order.event.OrderReadModelRebuilder;
 import com.bootcamp.order.model.Order;
+import com.bootcamp.order.model.OrderStatus;
+import com.bootcamp.order.model.OrderStatusTransitions;
+import com.bootcamp.order.query.OrderChange;
+import com.bootcamp.order.query.OrderChangeFeed;
+import com.bootcamp.order.query.OrderPage;
 import com.bootcamp.order.query.OrderQueryService;
 import com.bootcamp.order.query.OrderReadModel;
+import com.bootcamp.order.query.UserOrderSummary;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 /**
@@ -33,25 +51,49 @@ import java.time.LocalDateTime;
  */
 @RestController
 @RequestMapping("/orders")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = "Consistency-Token")
 public class OrderController {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
+    private static final String CONSISTENCY_TOKEN_HEADER = "Consistency-Token";
 
     @Autowired
     private OrderCommandService orderCommandService;
 
+    @Autowired
+    private BulkOrderCommandService bulkOrderCommandService;
+
     @Autowired
     private OrderQueryService orderQueryService;
 
+    @Autowired
+    private OrderEventProcessor orderEventProcessor;
+
+    @Autowired
+    private IdempotencyKeyStore idempotencyKeyStore;
+
+    @Autowired
+    private OrderChangeFeed orderChangeFeed;
+
+    @Value("${order.changes.heartbeat-interval-ms:15000}")
+    private long changesHeartbeatMs;
+
     /**
      * Create a new order reactively
      * 
+     * A request carrying an Idempotency-Key header is executed at most once
+     * per user; repeats with the same key return the order created by the
+     * first one, or 409 if it is still in progress. Reusing a key with a
+     * different request body is rejected with 422.
+     * 
      * @param orderRequest the order creation request
+     * @param idempotencyKey optional client supplied key for safe retries
      * @return ResponseEntity with the created order
      */
     @PostMapping
-    public Mono<ResponseEntity<Order>> createOrder(@Valid @RequestBody OrderRequest orderRequest) {
+    public Mono<ResponseEntity<Order>> createOrder(
+            @Valid @RequestBody OrderRequest orderRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         logger.info("Received request to create order for user: {}", orderRequest.getUserId());
 
         CreateOrderCommand command = new CreateOrderCommand(
@@ -61,40 +103,147 @@ public class OrderController {
                 orderRequest.getNotes()
         );
 
-        return orderCommandService.executeCreateOrderCommand(command)
-        .map(order -> {
+        Mono<CommandResult<Order>> createdOrder = idempotencyKey == null || idempotencyKey.isBlank()
+                ? orderCommandService.executeCreateOrderCommand(command)
+                : idempotencyKeyStore.execute(command, idempotencyKey, () -> orderCommandService.executeCreateOrderCommand(command));
+
+        return createdOrder
+        .map(result -> result.fold(order -> {
             logger.info("Order created successfully with ID: {}", order.getId());
-            return ResponseEntity.status(HttpStatus.CREATED).body(order);
-        })
-        .onErrorResume(RuntimeException.class, e -> {
-            logger.error("Failed to create order: {}", e.getMessage());
-            return Mono.just(ResponseEntity.badRequest().<Order>build());
-        });
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(CONSISTENCY_TOKEN_HEADER, String.valueOf(order.getVersion()))
+                    .body(order);
+        }, error -> {
+            logger.warn("Failed to create order: {}", error.getMessage());
+            return ResponseEntity.status(toHttpStatus(error)).<Order>build();
+        }));
     }
 
     /**
-     * Get all orders reactively using read model
+     * Create orders in bulk from an NDJSON stream
      * 
-     * @return Flux containing all active orders
+     * Each line is an order request. One result per line is streamed back
+     * as NDJSON, in the same order, as soon as the line's chunk is written;
+     * a malformed line is rejected on its own without ending the stream.
+     * 
+     * @param lines the NDJSON lines
+     * @return Flux with the result of each line
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkOrderResult> createOrdersBulk(@RequestBody Flux<String> lines) {
+        logger.info("Received bulk order creation request");
+        return bulkOrderCommandService.executeBulkCreateOrderCommand(lines);
+    }
+
+    /**
+     * Get a page of orders reactively using read model
+     * 
+     * @param cursor the cursor returned with the previous page (omit for the first page)
+     * @param limit the page size
+     * @return ResponseEntity with the page of active orders
      */
     @GetMapping
-    public Flux<OrderReadModel> getAllOrders() {
-        logger.info("Received request to get all orders");
+    public Mono<ResponseEntity<OrderPage>> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Received request to get orders page");
+        return toPageResponse(orderQueryService.getActiveOrdersPage(cursor, limit));
+    }
+
+    /**
+     * Stream all orders as NDJSON using read model
+     * 
+     * Rows are read from the database as the client consumes them.
+     * 
+     * @return Flux containing all active orders
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderReadModel> streamAllOrders() {
+        logger.info("Received request to stream all orders");
         return orderQueryService.getAllActiveOrders()
-                .doOnComplete(() -> logger.info("Retrieved all active orders"));
+                .doOnComplete(() -> logger.info("Streamed all active orders"));
+    }
+
+    /**
+     * Stream read model changes as server-sent events
+     * 
+     * Each event carries the change's resume token as its id, so browsers
+     * resume automatically through the Last-Event-ID header when they
+     * reconnect. A comment is sent periodically to keep idle connections open.
+     * 
+     * @param userId only changes of this user
+     * @param status only changes leaving the order in this status
+     * @param resumeToken token of the last change received
+     * @param lastEventId resume token sent by EventSource on reconnect
+     * @return Flux of change events
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<OrderChange>> streamChangeEvents(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String resumeToken,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.info("Received request to stream order change events (userId={}, status={})", userId, status);
+        Flux<ServerSentEvent<OrderChange>> changes = changes(userId, status, resumeToken != null ? resumeToken : lastEventId)
+                .map(change -> ServerSentEvent.builder(change)
+                        .id(change.getResumeToken())
+                        .event(change.getChangeType().name())
+                        .build());
+        Flux<ServerSentEvent<OrderChange>> heartbeats = Flux.interval(Duration.ofMillis(changesHeartbeatMs))
+                .map(tick -> ServerSentEvent.<OrderChange>builder().comment("heartbeat").build());
+        return Flux.merge(changes, heartbeats);
+    }
+
+    /**
+     * Stream read model changes as NDJSON
+     * 
+     * @param userId only changes of this user
+     * @param status only changes leaving the order in this status
+     * @param resumeToken token of the last change received
+     * @return Flux of changes
+     */
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderChange> streamChanges(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String resumeToken) {
+        logger.info("Received request to stream order changes (userId={}, status={})", userId, status);
+        return changes(userId, status, resumeToken);
+    }
+
+    private Flux<OrderChange> changes(Long userId, String status, String resumeToken) {
+        OrderStatus orderStatus = null;
+        if (status != null) {
+            orderStatus = OrderStatusTransitions.parse(status);
+            if (orderStatus == null) {
+                return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown order status: " + status));
+            }
+        }
+        return orderChangeFeed.changes(resumeToken, userId, orderStatus);
     }
 
     /**
      * Get order by ID reactively using read model
      * 
+     * A client that just created or updated the order can send the
+     * Consistency-Token of that response to read its own write, even if
+     * the read model has not caught up yet.
+     * 
      * @param id the order ID
+     * @param consistencyToken optional token from a command response
      * @return ResponseEntity with the order if found
      */
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<OrderReadModel>> getOrderById(@PathVariable Long id) {
+    public Mono<ResponseEntity<OrderReadModel>> getOrderById(
+            @PathVariable Long id,
+            @RequestHeader(value = CONSISTENCY_TOKEN_HEADER, required = false) Long consistencyToken) {
         logger.info("Received request to get order with ID: {}", id);
 
-        return orderQueryService.getOrderById(id)
+        Mono<OrderReadModel> lookup = consistencyToken == null
+                ? orderQueryService.getOrderById(id)
+                : orderQueryService.getOrderById(id, consistencyToken);
+
+        return lookup
                 .map(order -> {
                     logger.info("Order found with ID: {}", id);
                     return ResponseEntity.ok(order);
@@ -111,13 +260,44 @@ public class OrderController {
      * Get orders by user ID reactively using read model
      * 
      * @param userId the user ID
-     * @return Flux containing orders for the user
+     * @param cursor the cursor returned with the previous page (omit for the first page)
+     * @param limit the page size
+     * @return ResponseEntity with the page of orders for the user
      */
     @GetMapping("/user/{userId}")
-    public Flux<OrderReadModel> getOrdersByUserId(@PathVariable Long userId) {
+    public Mono<ResponseEntity<OrderPage>> getOrdersByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         logger.info("Received request to get orders for user: {}", userId);
+        return toPageResponse(orderQueryService.getOrdersByUserIdPage(userId, cursor, limit));
+    }
+
+    /**
+     * Get the order summary of a user
+     * 
+     * @param userId the user ID
+     * @return ResponseEntity with order count, lifetime value, last order time and counts by status
+     */
+    @GetMapping("/user/{userId}/summary")
+    public Mono<ResponseEntity<UserOrderSummary>> getUserOrderSummary(@PathVariable Long userId) {
+        logger.info("Received request to get order summary for user: {}", userId);
+        return orderQueryService.getUserOrderSummary(userId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stream orders by user ID as NDJSON using read model
+     * 
+     * @param userId the user ID
+     * @return Flux containing orders for the user
+     */
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderReadModel> streamOrdersByUserId(@PathVariable Long userId) {
+        logger.info("Received request to stream orders for user: {}", userId);
         return orderQueryService.getOrdersByUserId(userId)
-                .doOnComplete(() -> logger.info("Retrieved orders for user: {}", userId));
+                .doOnComplete(() -> logger.info("Streamed orders for user: {}", userId));
     }
 
     /**
@@ -131,17 +311,18 @@ public class OrderController {
     public Mono<ResponseEntity<Order>> updateOrderStatus(@PathVariable Long id, @Valid @RequestBody StatusRequest statusRequest) {
         logger.info("Received request to update order status for order: {} to: {}", id, statusRequest.getStatus());
 
-        UpdateOrderStatusCommand command = new UpdateOrderStatusCommand(id, statusRequest.getStatus());
+        UpdateOrderStatusCommand command = new UpdateOrderStatusCommand(id, statusRequest.getStatus(), statusRequest.getVersion());
 
         return orderCommandService.executeUpdateOrderStatusCommand(command)
-                .map(order -> {
+                .map(result -> result.fold(order -> {
                     logger.info("Order status updated successfully for order: {}", id);
-                    return ResponseEntity.ok(order);
-                })
-                .onErrorResume(RuntimeException.class, e -> {
-                    logger.error("Failed to update order status: {}", e.getMessage());
-                    return Mono.just(ResponseEntity.notFound().<Order>build());
-                });
+                    return ResponseEntity.ok()
+                            .header(CONSISTENCY_TOKEN_HEADER, String.valueOf(order.getVersion()))
+                            .body(order);
+                }, error -> {
+                    logger.warn("Order status update rejected: {}", error.getMessage());
+                    return ResponseEntity.status(toHttpStatus(error)).<Order>build();
+                }));
     }
 
     /**
@@ -157,25 +338,43 @@ public class OrderController {
         DeleteOrderCommand command = new DeleteOrderCommand(id);
 
         return orderCommandService.executeDeleteOrderCommand(command)
-                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
-                .doOnNext(response -> logger.info("Order deleted successfully with ID: {}", id))
-                .onErrorResume(RuntimeException.class, e -> {
-                    logger.error("Failed to delete order: {}", e.getMessage());
-                    return Mono.just(ResponseEntity.notFound().<Void>build());
-                });
+                .map(result -> result.fold(order -> {
+                    logger.info("Order deleted successfully with ID: {}", id);
+                    return ResponseEntity.noContent().<Void>build();
+                }, error -> {
+                    logger.warn("Failed to delete order: {}", error.getMessage());
+                    return ResponseEntity.status(toHttpStatus(error)).<Void>build();
+                }));
     }
 
     /**
      * Get orders by status using read model
      * 
      * @param status the order status
-     * @return Flux containing orders with the specified status
+     * @param cursor the cursor returned with the previous page (omit for the first page)
+     * @param limit the page size
+     * @return ResponseEntity with the page of orders with the specified status
      */
     @GetMapping("/status/{status}")
-    public Flux<OrderReadModel> getOrdersByStatus(@PathVariable String status) {
+    public Mono<ResponseEntity<OrderPage>> getOrdersByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         logger.info("Received request to get orders with status: {}", status);
+        return toPageResponse(orderQueryService.getOrdersByStatusPage(status, cursor, limit));
+    }
+
+    /**
+     * Stream orders by status as NDJSON using read model
+     * 
+     * @param status the order status
+     * @return Flux containing orders with the specified status
+     */
+    @GetMapping(value = "/status/{status}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderReadModel> streamOrdersByStatus(@PathVariable String status) {
+        logger.info("Received request to stream orders with status: {}", status);
         return orderQueryService.getOrdersByStatus(status)
-                .doOnComplete(() -> logger.info("Retrieved orders with status: {}", status));
+                .doOnComplete(() -> logger.info("Streamed orders with status: {}", status));
     }
 
     /**
@@ -246,13 +445,101 @@ public class OrderController {
      * Get orders with total amount greater than specified value
      * 
      * @param minAmount the minimum amount
-     * @return Flux containing orders with total amount greater than minAmount
+     * @param cursor the cursor returned with the previous page (omit for the first page)
+     * @param limit the page size
+     * @return ResponseEntity with the page of orders with total amount greater than minAmount, highest amount first
      */
     @GetMapping("/amount-greater-than")
-    public Flux<OrderReadModel> getOrdersByTotalAmountGreaterThan(@RequestParam BigDecimal minAmount) {
+    public Mono<ResponseEntity<OrderPage>> getOrdersByTotalAmountGreaterThan(
+            @RequestParam BigDecimal minAmount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         logger.info("Received request to get orders with amount greater than: {}", minAmount);
+        return toPageResponse(orderQueryService.getOrdersByTotalAmountGreaterThanPage(minAmount, cursor, limit));
+    }
+
+    /**
+     * Stream orders with total amount greater than specified value as NDJSON
+     * 
+     * @param minAmount the minimum amount
+     * @return Flux containing orders with total amount greater than minAmount
+     */
+    @GetMapping(value = "/amount-greater-than/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderReadModel> streamOrdersByTotalAmountGreaterThan(@RequestParam BigDecimal minAmount) {
+        logger.info("Received request to stream orders with amount greater than: {}", minAmount);
         return orderQueryService.getOrdersByTotalAmountGreaterThan(minAmount)
-                .doOnComplete(() -> logger.info("Retrieved orders with amount greater than: {}", minAmount));
+                .doOnComplete(() -> logger.info("Streamed orders with amount greater than: {}", minAmount));
+    }
+
+    /**
+     * Rebuild the complete read model from the event store
+     * 
+     * @return ResponseEntity with the rebuild throughput report
+     */
+    @PostMapping("/read-model/rebuild")
+    public Mono<ResponseEntity<OrderReadModelRebuilder.RebuildReport>> rebuildReadModel() {
+        logger.info("Received request to rebuild the read model");
+        return orderEventProcessor.rebuildAllReadModels()
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalStateException.class, e -> {
+                    logger.error("Failed to rebuild read model: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).<OrderReadModelRebuilder.RebuildReport>build());
+                });
+    }
+
+    /**
+     * Rebuild the read model of one order from the event store
+     * 
+     * @param id the order ID
+     * @return ResponseEntity with no content when done
+     */
+    @PostMapping("/{id}/read-model/rebuild")
+    public Mono<ResponseEntity<Void>> rebuildOrderReadModel(@PathVariable Long id) {
+        logger.info("Received request to rebuild the read model of order: {}", id);
+        return orderEventProcessor.rebuildReadModel(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+
+    /**
+     * Map a page query to a response, rejecting malformed cursors
+     * 
+     * @param page the page query
+     * @return ResponseEntity with the page, or bad request for an invalid cursor
+     */
+    private Mono<ResponseEntity<OrderPage>> toPageResponse(Mono<OrderPage> page) {
+        return page
+                .map(result -> {
+                    logger.info("Retrieved page of {} orders", result.getItems().size());
+                    return ResponseEntity.ok(result);
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    logger.warn("Invalid page request: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().<OrderPage>build());
+                });
+    }
+
+    /**
+     * Map a command failure to its HTTP status
+     * 
+     * @param error the command failure
+     * @return the response status
+     */
+    private HttpStatus toHttpStatus(OrderError error) {
+        switch (error.getKind()) {
+            case ORDER_NOT_FOUND:
+                return HttpStatus.NOT_FOUND;
+            case USER_NOT_FOUND:
+            case INVALID_REQUEST:
+                return HttpStatus.BAD_REQUEST;
+            case CONFLICT:
+                return HttpStatus.CONFLICT;
+            case IDEMPOTENCY_KEY_REUSED:
+                return HttpStatus.UNPROCESSABLE_ENTITY;
+            case DEPENDENCY_UNAVAILABLE:
+                return HttpStatus.SERVICE_UNAVAILABLE;
+            default:
+                return HttpStatus.INTERNAL_SERVER_ERROR;
+        }
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.bootcamp.order.dto;
 
 import com.bootcamp.order.model.OrderItem;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.NotEmpty;
 import java.util.List;
@@ -20,7 +21,7 @@ public class OrderRequest {
     private Long userId;
     
     @NotEmpty(message = "Order items are required")
-    private List<OrderItem> items;
+    private List<@Valid OrderItem> items;
     
     private String shippingAddress;
     
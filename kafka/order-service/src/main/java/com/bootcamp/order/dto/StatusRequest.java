@@ -19,6 +19,9 @@ public class StatusRequest {
              message = "Status must be one of: PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED")
     private String status;
 
+    /** Expected order version; when set, the update fails if the order was changed concurrently */
+    private Long version;
+
     // Default constructor
     public StatusRequest() {
     }
@@ -37,10 +40,19 @@ public class StatusRequest {
         this.status = status;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "StatusRequest{" +
                 "status='" + status + '\'' +
+                ", version=" + version +
                 '}';
     }
 } 
\ No newline at end of file
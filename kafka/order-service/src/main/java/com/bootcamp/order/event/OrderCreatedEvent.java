@@ -1,7 +1,10 @@
 package com.bootcamp.order.event;
 
 import com.bootcamp.order.model.OrderItem;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,14 +22,33 @@ public class OrderCreatedEvent extends OrderEvent {
     private final List<OrderItem> items;
     private final String shippingAddress;
     private final String notes;
+    private final Long version;
     
     public OrderCreatedEvent(Long orderId, Long userId, BigDecimal totalAmount, 
                            List<OrderItem> items, String shippingAddress, String notes) {
-        super("ORDER_CREATED", orderId, userId);
+        this(orderId, userId, totalAmount, items, shippingAddress, notes, null, null);
+    }
+    
+    public OrderCreatedEvent(Long orderId, Long userId, BigDecimal totalAmount, 
+                           List<OrderItem> items, String shippingAddress, String notes, Long version) {
+        this(orderId, userId, totalAmount, items, shippingAddress, notes, version, null);
+    }
+    
+    @JsonCreator
+    public OrderCreatedEvent(@JsonProperty("orderId") Long orderId,
+                           @JsonProperty("userId") Long userId,
+                           @JsonProperty("totalAmount") BigDecimal totalAmount,
+                           @JsonProperty("items") List<OrderItem> items,
+                           @JsonProperty("shippingAddress") String shippingAddress,
+                           @JsonProperty("notes") String notes,
+                           @JsonProperty("version") Long version,
+                           @JsonProperty("timestamp") LocalDateTime timestamp) {
+        super("ORDER_CREATED", orderId, userId, timestamp);
         this.totalAmount = totalAmount;
         this.items = items;
         this.shippingAddress = shippingAddress;
         this.notes = notes;
+        this.version = version;
     }
     
     // Getters
@@ -46,6 +68,10 @@ public class OrderCreatedEvent extends OrderEvent {
         return notes;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     @Override
     public String toString() {
         return "OrderCreatedEvent{" +
@@ -56,6 +82,7 @@ public class OrderCreatedEvent extends OrderEvent {
                 ", items=" + items +
                 ", shippingAddress='" + shippingAddress + '\'' +
                 ", notes='" + notes + '\'' +
+                ", version=" + version +
                 ", timestamp=" + getTimestamp() +
                 '}';
     }
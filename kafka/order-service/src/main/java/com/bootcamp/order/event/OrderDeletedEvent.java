@@ -1,5 +1,9 @@
 package com.bootcamp.order.event;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+
 /**
  * Event that is published when an order is deleted
  * 
@@ -12,7 +16,14 @@ package com.bootcamp.order.event;
 public class OrderDeletedEvent extends OrderEvent {
     
     public OrderDeletedEvent(Long orderId, Long userId) {
-        super("ORDER_DELETED", orderId, userId);
+        this(orderId, userId, null);
+    }
+    
+    @JsonCreator
+    public OrderDeletedEvent(@JsonProperty("orderId") Long orderId,
+                             @JsonProperty("userId") Long userId,
+                             @JsonProperty("timestamp") LocalDateTime timestamp) {
+        super("ORDER_DELETED", orderId, userId, timestamp);
     }
     
     @Override
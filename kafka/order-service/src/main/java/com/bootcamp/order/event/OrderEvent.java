@@ -20,10 +20,14 @@ public abstract class OrderEvent {
     private final LocalDateTime timestamp;
     
     public OrderEvent(String eventType, Long orderId, Long userId) {
+        this(eventType, orderId, userId, LocalDateTime.now());
+    }
+    
+    protected OrderEvent(String eventType, Long orderId, Long userId, LocalDateTime timestamp) {
         this.eventType = eventType;
         this.orderId = orderId;
         this.userId = userId;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp != null ? timestamp : LocalDateTime.now();
     }
     
     // Getters
@@ -2,16 +2,38 @@ package com.bootcamp.order.event;
 
 import com.bootcamp.order.client.UserServiceClient;
 import com.bootcamp.order.client.UserDto;
+import com.bootcamp.order.model.OrderStatus;
+import com.bootcamp.order.model.OrderStatusTransitions;
+import com.bootcamp.order.query.OrderChange;
+import com.bootcamp.order.query.OrderChangeFeed;
 import com.bootcamp.order.query.OrderReadModel;
 import com.bootcamp.order.query.OrderReadModelRepository;
+import com.bootcamp.order.query.OrderStatusCounters;
+import com.bootcamp.order.query.ReadModelVersionNotifier;
+import com.bootcamp.order.query.UserOrderSummaryProjection;
+import com.bootcamp.order.query.UsernameTrigramIndex;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Order event processor
@@ -21,6 +43,26 @@ import java.time.LocalDateTime;
  * responsible for synchronizing the write model with the
  * read model asynchronously.
  * 
+ * Events are consumed in batches by a single listener and
+ * dispatched by event type. Events for the same order are applied
+ * sequentially in offset order, while different orders are
+ * processed in parallel. The listener thread waits for the whole
+ * batch to be written before acknowledging, so the consumer only
+ * polls again once the read model has caught up.
+ * 
+ * A failed event stops the remaining events of its order, while other
+ * orders carry on. The listener then reports the lowest failed record
+ * to the container's error handler (see KafkaConsumerConfig), which
+ * commits the records before it and retries or dead-letters that record
+ * alone. Events applied after it are redelivered, and applying them
+ * again is a no-op: creations are keyed by order ID, deletions are
+ * skipped for deleted orders and status updates are skipped unless
+ * their version is newer than the stored one.
+ * 
+ * Each event's read model write and its projections (username
+ * trigrams, user summaries) are committed in one transaction, so a
+ * redelivered event finds either all of them applied or none.
+ * 
  * @author Bootcamp Instructor
  * @version 1.0
  */
@@ -35,71 +77,257 @@ public class OrderEventProcessor {
     @Autowired
     private UserServiceClient userServiceClient;
 
+    @Autowired
+    private OrderEventStore orderEventStore;
+
+    @Autowired
+    private OrderReadModelRebuilder orderReadModelRebuilder;
+
+    @Autowired
+    private OrderStatusCounters orderStatusCounters;
+
+    @Autowired
+    private UsernameTrigramIndex usernameTrigramIndex;
+
+    @Autowired
+    private UserOrderSummaryProjection userOrderSummaryProjection;
+
+    @Autowired
+    private ReadModelVersionNotifier readModelVersionNotifier;
+
+    @Autowired
+    private OrderChangeFeed orderChangeFeed;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Value("${order.read-model.processing-concurrency:16}")
+    private int processingConcurrency;
+
+    @Value("${order.read-model.batch-timeout-ms:30000}")
+    private long batchTimeoutMs;
+
+    /**
+     * Process a batch of order events
+     * 
+     * The batch is first appended to the event store. Offsets are only
+     * acknowledged after every event in the batch has been applied to the
+     * read model. If an event fails, a BatchListenerFailedException with
+     * the index of the lowest failed record is thrown instead.
+     * 
+     * @param records the polled order event records
+     * @param acknowledgment handle used to commit the batch offsets
+     * @throws BatchListenerFailedException if an event could not be applied
+     */
+    @KafkaListener(id = OrderReadModelRebuilder.READ_MODEL_LISTENER_ID, topics = "order-events",
+                   groupId = "order-read-model-group", containerFactory = "orderEventListenerContainerFactory")
+    public void handleOrderEvents(List<ConsumerRecord<String, OrderEvent>> records, Acknowledgment acknowledgment) {
+        logger.info("Processing batch of {} order events", records.size());
+
+        // Group record indexes by order ID keeping offset order within each group
+        Map<Long, List<Integer>> indexesByOrder = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            OrderEvent event = records.get(i).value();
+            if (event != null && event.getOrderId() != null) {
+                indexesByOrder.computeIfAbsent(event.getOrderId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        try {
+            orderEventStore.append(records).block(Duration.ofMillis(batchTimeoutMs));
+        } catch (RuntimeException e) {
+            throw new BatchListenerFailedException("Failed to append order events to the event store", e, 0);
+        }
+        FailedEvent failed = Flux.fromIterable(indexesByOrder.values())
+                .flatMap(indexes -> applyInOrder(records, indexes), processingConcurrency)
+                .reduce((a, b) -> a.index <= b.index ? a : b)
+                .block(Duration.ofMillis(batchTimeoutMs));
+
+        if (failed != null) {
+            logger.error("Order event at offset {} failed: {}", records.get(failed.index).offset(), failed.error.getMessage());
+            throw new BatchListenerFailedException("Failed to apply order event", failed.error, failed.index);
+        }
+        acknowledgment.acknowledge();
+        logger.info("Order events batch applied for {} orders", indexesByOrder.size());
+    }
+
+    /**
+     * Apply the events of one order in offset order, stopping at the first failure
+     * 
+     * @param records the batch
+     * @param indexes the indexes of the order's records in the batch
+     * @return Mono with the failed event, empty if all events were applied
+     */
+    private Mono<FailedEvent> applyInOrder(List<ConsumerRecord<String, OrderEvent>> records, List<Integer> indexes) {
+        return Flux.fromIterable(indexes)
+                .concatMap(index -> {
+                    OrderEvent event = records.get(index).value();
+                    return dispatch(event)
+                            .doOnSuccess(v -> notifyVersionApplied(event))
+                            .then(Mono.<FailedEvent>empty())
+                            .onErrorResume(error -> Mono.just(new FailedEvent(index, error)));
+                })
+                .next();
+    }
+
+    /**
+     * Route an event to its handler by event type
+     * 
+     * @param event the order event
+     * @return Mono indicating completion of the read model write
+     */
+    private Mono<Void> dispatch(OrderEvent event) {
+        switch (event.getEventType()) {
+            case "ORDER_CREATED":
+                return handleOrderCreatedEvent((OrderCreatedEvent) event);
+            case "ORDER_STATUS_UPDATED":
+                return handleOrderStatusUpdatedEvent((OrderStatusUpdatedEvent) event);
+            case "ORDER_DELETED":
+                return handleOrderDeletedEvent((OrderDeletedEvent) event);
+            default:
+                logger.warn("Unknown order event type: {}", event.getEventType());
+                return Mono.empty();
+        }
+    }
+
+    /**
+     * Release queries waiting for the version an applied event produced
+     * 
+     * @param event the applied event
+     */
+    private void notifyVersionApplied(OrderEvent event) {
+        if (event instanceof OrderCreatedEvent) {
+            Long version = ((OrderCreatedEvent) event).getVersion();
+            readModelVersionNotifier.versionApplied(event.getOrderId(), version != null ? version : 0L);
+        } else if (event instanceof OrderStatusUpdatedEvent) {
+            Long version = ((OrderStatusUpdatedEvent) event).getVersion();
+            if (version != null) {
+                readModelVersionNotifier.versionApplied(event.getOrderId(), version);
+            }
+        } else if (event instanceof OrderDeletedEvent) {
+            readModelVersionNotifier.versionApplied(event.getOrderId(), ReadModelVersionNotifier.DELETED);
+        }
+    }
+
     /**
      * Process order created event
      * 
      * @param event the order created event
+     * @return Mono indicating completion
      */
-    @KafkaListener(topics = "order-events", groupId = "order-read-model-group")
-    public void handleOrderCreatedEvent(OrderCreatedEvent event) {
+    private Mono<Void> handleOrderCreatedEvent(OrderCreatedEvent event) {
         logger.info("Processing order created event: {}", event);
 
-        // Get user information to enrich the read model
-        userServiceClient.getUserById(event.getUserId())
-                .flatMap(user -> createOrderReadModel(event, user))
-                .flatMap(orderReadModelRepository::save)
-                .doOnSuccess(savedModel -> logger.info("Read model created for order: {}", savedModel.getId()))
+        // Get user information to enrich the read model; a user that no longer exists leaves it unenriched
+        return userServiceClient.getUserById(event.getUserId())
+                .map(Optional::of)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    logger.warn("User {} of order {} not found, projecting without user details",
+                            event.getUserId(), event.getOrderId());
+                    return Mono.just(Optional.empty());
+                })
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(user -> createOrderReadModel(event, user.orElse(null)))
+                .flatMap(readModel -> orderReadModelRepository.save(readModel)
+                        .flatMap(savedModel -> usernameTrigramIndex.index(savedModel.getUserUsername())
+                                .then(userOrderSummaryProjection.orderCreated(savedModel))
+                                .thenReturn(savedModel))
+                        .as(transactionalOperator::transactional))
+                .doOnNext(savedModel -> {
+                    logger.info("Read model created for order: {}", savedModel.getId());
+                    orderStatusCounters.increment(savedModel.getStatus());
+                    orderChangeFeed.publish(OrderChange.Type.CREATED, savedModel);
+                })
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    // Redelivered event: the read model and its projections were committed before the offset commit
+                    logger.info("Read model already exists for order: {}", event.getOrderId());
+                    return Mono.empty();
+                })
                 .doOnError(error -> logger.error("Error processing order created event: {}", error.getMessage()))
-                .subscribe();
+                .then();
     }
 
     /**
      * Process order status updated event
      * 
      * @param event the status update event
+     * @return Mono indicating completion
      */
-    @KafkaListener(topics = "order-events", groupId = "order-read-model-group")
-    public void handleOrderStatusUpdatedEvent(OrderStatusUpdatedEvent event) {
+    private Mono<Void> handleOrderStatusUpdatedEvent(OrderStatusUpdatedEvent event) {
         logger.info("Processing order status updated event: {}", event);
 
-        orderReadModelRepository.findById(event.getOrderId())
-                .map(readModel -> {
-                    readModel.setStatus(com.bootcamp.order.model.OrderStatus.valueOf(event.getNewStatus()));
+        OrderStatus newStatus = OrderStatusTransitions.parse(event.getNewStatus());
+        if (newStatus == null) {
+            return Mono.error(new IllegalArgumentException("Unknown order status " + event.getNewStatus()
+                    + " in event for order " + event.getOrderId()));
+        }
+        return orderReadModelRepository.findById(event.getOrderId())
+                .filter(readModel -> {
+                    boolean stale = event.getVersion() != null && readModel.getOrderVersion() != null
+                            && event.getVersion() <= readModel.getOrderVersion();
+                    if (stale) {
+                        logger.info("Ignoring status event version {} for order {} at version {}",
+                                event.getVersion(), event.getOrderId(), readModel.getOrderVersion());
+                    }
+                    return !stale;
+                })
+                .flatMap(readModel -> {
+                    OrderStatus previousStatus = readModel.getStatus();
+                    readModel.setStatus(newStatus);
                     readModel.setUpdatedAt(LocalDateTime.now());
-                    return readModel;
+                    if (event.getVersion() != null) {
+                        readModel.setOrderVersion(event.getVersion());
+                    }
+                    return orderReadModelRepository.save(readModel)
+                            .filter(updatedModel -> !Boolean.TRUE.equals(updatedModel.getIsDeleted()))
+                            .flatMap(updatedModel -> userOrderSummaryProjection
+                                    .statusChanged(updatedModel.getUserId(), previousStatus, updatedModel.getStatus())
+                                    .thenReturn(updatedModel))
+                            .as(transactionalOperator::transactional)
+                            .doOnNext(updatedModel -> {
+                                orderStatusCounters.move(previousStatus, updatedModel.getStatus());
+                                orderChangeFeed.publish(OrderChange.Type.STATUS_UPDATED, updatedModel);
+                            })
+                            .defaultIfEmpty(readModel);
                 })
-                .flatMap(orderReadModelRepository::save)
-                .doOnSuccess(updatedModel -> logger.info("Read model updated for order: {}", updatedModel.getId()))
+                .doOnNext(updatedModel -> logger.info("Read model updated for order: {}", updatedModel.getId()))
                 .doOnError(error -> logger.error("Error processing order status updated event: {}", error.getMessage()))
-                .subscribe();
+                .then();
     }
 
     /**
      * Process order deleted event
      * 
      * @param event the order deleted event
+     * @return Mono indicating completion
      */
-    @KafkaListener(topics = "order-events", groupId = "order-read-model-group")
-    public void handleOrderDeletedEvent(OrderDeletedEvent event) {
+    private Mono<Void> handleOrderDeletedEvent(OrderDeletedEvent event) {
         logger.info("Processing order deleted event: {}", event);
 
-        orderReadModelRepository.findById(event.getOrderId())
+        return orderReadModelRepository.findById(event.getOrderId())
+                .filter(readModel -> !Boolean.TRUE.equals(readModel.getIsDeleted()))
                 .map(readModel -> {
                     readModel.setIsDeleted(true);
                     readModel.setUpdatedAt(LocalDateTime.now());
                     return readModel;
                 })
-                .flatMap(orderReadModelRepository::save)
-                .doOnSuccess(updatedModel -> logger.info("Read model marked as deleted for order: {}", updatedModel.getId()))
+                .flatMap(readModel -> orderReadModelRepository.save(readModel)
+                        .flatMap(updatedModel -> userOrderSummaryProjection.orderDeleted(updatedModel).thenReturn(updatedModel))
+                        .as(transactionalOperator::transactional))
+                .doOnNext(updatedModel -> {
+                    logger.info("Read model marked as deleted for order: {}", updatedModel.getId());
+                    orderStatusCounters.decrement(updatedModel.getStatus());
+                    orderChangeFeed.publish(OrderChange.Type.DELETED, updatedModel);
+                })
                 .doOnError(error -> logger.error("Error processing order deleted event: {}", error.getMessage()))
-                .subscribe();
+                .then();
     }
 
     /**
      * Create read model from order created event
      * 
      * @param event the order created event
-     * @param user the user information
+     * @param user the user information, or null if the user does not exist
      * @return Mono with the created read model
      */
     private Mono<OrderReadModel> createOrderReadModel(OrderCreatedEvent event, UserDto user) {
@@ -113,31 +341,58 @@ public class OrderEventProcessor {
         readModel.setNotes(event.getNotes());
         readModel.setCreatedAt(event.getTimestamp());
         readModel.setUpdatedAt(event.getTimestamp());
-        readModel.setUserUsername(user.getUsername());
-        readModel.setUserEmail(user.getEmail());
+        if (user != null) {
+            readModel.setUserUsername(user.getUsername());
+            readModel.setUserEmail(user.getEmail());
+        }
         readModel.setItemsCount(event.getItems().size());
         readModel.setIsDeleted(false);
+        readModel.setOrderVersion(event.getVersion() != null ? event.getVersion() : 0L);
 
-        return Mono.just(readModel);
+        return Mono.just(readModel.markNew());
     }
 
     /**
      * Recovery method to rebuild the read model
      * in case of inconsistencies
      * 
+     * Replays the order's events from the event store
+     * and upserts the result into the read model.
+     * 
      * @param orderId the order ID
      * @return Mono indicating completion
      */
     public Mono<Void> rebuildReadModel(Long orderId) {
         logger.info("Rebuilding read model for order: {}", orderId);
-        
-        // In a complete implementation, all events would be read
-        // from the event store to rebuild the complete state
-        // For simplicity, we just log the action
-        
-        return Mono.empty()
+
+        return orderReadModelRebuilder.rebuildOrder(orderId)
                 .doOnSuccess(v -> logger.info("Read model rebuilt for order: {}", orderId))
-                .doOnError(error -> logger.error("Error rebuilding read model: {}", error.getMessage()))
-                .then();
+                .doOnError(error -> logger.error("Error rebuilding read model: {}", error.getMessage()));
+    }
+
+    /**
+     * Rebuild the whole read model from the event store
+     * 
+     * The status counters, username trigrams and user summaries are rebuilt
+     * by the rebuilder before the projection resumes.
+     * 
+     * @return Mono with the rebuild throughput report
+     */
+    public Mono<OrderReadModelRebuilder.RebuildReport> rebuildAllReadModels() {
+        logger.info("Rebuilding the complete read model");
+        return orderReadModelRebuilder.rebuildAll();
+    }
+
+    /**
+     * An event that could not be applied, with its index in the batch
+     */
+    private static final class FailedEvent {
+        private final int index;
+        private final Throwable error;
+
+        FailedEvent(int index, Throwable error) {
+            this.index = index;
+            this.error = error;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+package com.bootcamp.order.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.Row;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Order event store
+ *
+ * Append-only log of every order event applied by the read model
+ * projection. Each event is stored with its Kafka partition and offset
+ * so that redelivered batches do not create duplicates. The store is the
+ * source for rebuilding the read model.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class OrderEventStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventStore.class);
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Append a batch of consumed records with a single multi-row statement
+     *
+     * @param records the consumed order event records
+     * @return Mono indicating completion
+     */
+    public Mono<Void> append(List<ConsumerRecord<String, OrderEvent>> records) {
+        List<ConsumerRecord<String, OrderEvent>> events = records.stream()
+                .filter(record -> record.value() != null && record.value().getOrderId() != null)
+                .collect(Collectors.toList());
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+
+        StringBuilder sql = new StringBuilder("MERGE INTO order_events ")
+                .append("(kafka_partition, kafka_offset, order_id, user_id, event_type, payload, event_timestamp) ")
+                .append("KEY (kafka_partition, kafka_offset) VALUES ");
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:partition").append(i)
+                    .append(", :offset").append(i)
+                    .append(", :orderId").append(i)
+                    .append(", :userId").append(i)
+                    .append(", :eventType").append(i)
+                    .append(", :payload").append(i)
+                    .append(", :timestamp").append(i)
+                    .append(")");
+        }
+
+        // Bound with one bindValues call; binding one parameter at a time copies
+        // the parameters bound so far on every call
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            ConsumerRecord<String, OrderEvent> record = events.get(i);
+            OrderEvent event = record.value();
+            values.put("partition" + i, record.partition());
+            values.put("offset" + i, record.offset());
+            values.put("orderId" + i, event.getOrderId());
+            values.put("eventType" + i, event.getEventType());
+            values.put("payload" + i, toJson(event));
+            values.put("timestamp" + i, event.getTimestamp());
+            values.put("userId" + i, event.getUserId() != null ? event.getUserId() : Parameters.in(Long.class));
+        }
+
+        return databaseClient.sql(sql.toString())
+                .bindValues(values)
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(count -> logger.debug("Appended {} events to the order event store", count))
+                .then();
+    }
+
+    /**
+     * Read all events of one order in the order they were stored
+     *
+     * @param orderId the order ID
+     * @return Flux of the order's events
+     */
+    public Flux<OrderEvent> findByOrderId(Long orderId) {
+        return databaseClient.sql("SELECT event_type, payload FROM order_events WHERE order_id = :orderId ORDER BY id")
+                .bind("orderId", orderId)
+                .map((row, metadata) -> fromRow(row))
+                .all();
+    }
+
+    /**
+     * Stream the events of an order ID range, grouped by order and in stored order
+     *
+     * @param fromOrderId lowest order ID (inclusive)
+     * @param toOrderId highest order ID (inclusive)
+     * @return Flux of events ordered by order ID and then by append order
+     */
+    public Flux<OrderEvent> streamOrderRange(long fromOrderId, long toOrderId) {
+        return databaseClient.sql("SELECT event_type, payload FROM order_events " +
+                        "WHERE order_id BETWEEN :fromOrderId AND :toOrderId ORDER BY order_id, id")
+                .bind("fromOrderId", fromOrderId)
+                .bind("toOrderId", toOrderId)
+                .map((row, metadata) -> fromRow(row))
+                .all();
+    }
+
+    /**
+     * Get the lowest and highest stored order IDs
+     *
+     * @return Mono with a two-element array [min, max], empty if the store is empty
+     */
+    public Mono<long[]> findOrderIdBounds() {
+        return databaseClient.sql("SELECT MIN(order_id) AS min_id, MAX(order_id) AS max_id FROM order_events")
+                .map((row, metadata) -> {
+                    Long min = row.get("min_id", Long.class);
+                    Long max = row.get("max_id", Long.class);
+                    return min == null ? new long[0] : new long[] {min, max};
+                })
+                .one()
+                .filter(bounds -> bounds.length == 2);
+    }
+
+    private String toJson(OrderEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order event: " + event, e);
+        }
+    }
+
+    private OrderEvent fromRow(Row row) {
+        String eventType = row.get("event_type", String.class);
+        String payload = row.get("payload", String.class);
+        try {
+            return objectMapper.readValue(payload, eventClass(eventType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize stored order event of type " + eventType, e);
+        }
+    }
+
+    private Class<? extends OrderEvent> eventClass(String eventType) {
+        switch (eventType) {
+            case "ORDER_CREATED":
+                return OrderCreatedEvent.class;
+            case "ORDER_STATUS_UPDATED":
+                return OrderStatusUpdatedEvent.class;
+            case "ORDER_DELETED":
+                return OrderDeletedEvent.class;
+            default:
+                throw new IllegalStateException("Unknown stored order event type: " + eventType);
+        }
+    }
+}
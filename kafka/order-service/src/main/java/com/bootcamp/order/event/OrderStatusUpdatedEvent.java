@@ -1,5 +1,9 @@
 package com.bootcamp.order.event;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+
 /**
  * Event that is published when the status of an order is updated
  * 
@@ -13,11 +17,27 @@ public class OrderStatusUpdatedEvent extends OrderEvent {
     
     private final String oldStatus;
     private final String newStatus;
+    private final Long version;
     
     public OrderStatusUpdatedEvent(Long orderId, Long userId, String oldStatus, String newStatus) {
-        super("ORDER_STATUS_UPDATED", orderId, userId);
+        this(orderId, userId, oldStatus, newStatus, null, null);
+    }
+    
+    public OrderStatusUpdatedEvent(Long orderId, Long userId, String oldStatus, String newStatus, Long version) {
+        this(orderId, userId, oldStatus, newStatus, version, null);
+    }
+    
+    @JsonCreator
+    public OrderStatusUpdatedEvent(@JsonProperty("orderId") Long orderId,
+                                   @JsonProperty("userId") Long userId,
+                                   @JsonProperty("oldStatus") String oldStatus,
+                                   @JsonProperty("newStatus") String newStatus,
+                                   @JsonProperty("version") Long version,
+                                   @JsonProperty("timestamp") LocalDateTime timestamp) {
+        super("ORDER_STATUS_UPDATED", orderId, userId, timestamp);
         this.oldStatus = oldStatus;
         this.newStatus = newStatus;
+        this.version = version;
     }
     
     // Getters
@@ -29,6 +49,10 @@ public class OrderStatusUpdatedEvent extends OrderEvent {
         return newStatus;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     @Override
     public String toString() {
         return "OrderStatusUpdatedEvent{" +
@@ -37,6 +61,7 @@ public class OrderStatusUpdatedEvent extends OrderEvent {
                 ", userId=" + getUserId() +
                 ", oldStatus='" + oldStatus + '\'' +
                 ", newStatus='" + newStatus + '\'' +
+                ", version=" + version +
                 ", timestamp=" + getTimestamp() +
                 '}';
     }
@@ -1,6 +1,7 @@
 package com.bootcamp.order.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 import jakarta.validation.constraints.NotNull;
@@ -48,6 +49,10 @@ public class Order {
     @Column("notes")
     private String notes;
 
+    @Version
+    @Column("version")
+    private Long version;
+
     // Default constructor
     public Order() {
         this.createdAt = LocalDateTime.now();
@@ -127,6 +132,14 @@ public class Order {
         this.notes = notes;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
     }
@@ -138,6 +151,7 @@ public class Order {
                 ", userId=" + userId +
                 ", totalAmount=" + totalAmount +
                 ", status=" + status +
+                ", version=" + version +
                 ", createdAt=" + createdAt +
                 '}';
     }
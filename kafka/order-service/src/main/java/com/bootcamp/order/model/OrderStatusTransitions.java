@@ -0,0 +1,87 @@
+package com.bootcamp.order.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Order status state machine
+ * 
+ * Precomputed transition table for order statuses. For every target
+ * status it also holds the statuses it may be reached from, so a status
+ * change can be applied with one conditional UPDATE instead of reading
+ * the order first.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public final class OrderStatusTransitions {
+
+    private static final Map<OrderStatus, Set<OrderStatus>> SUCCESSORS = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, List<String>> PREDECESSOR_NAMES = new EnumMap<>(OrderStatus.class);
+
+    static {
+        SUCCESSORS.put(OrderStatus.PENDING, EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.CANCELLED));
+        SUCCESSORS.put(OrderStatus.CONFIRMED, EnumSet.of(OrderStatus.PROCESSING, OrderStatus.SHIPPED, OrderStatus.CANCELLED));
+        SUCCESSORS.put(OrderStatus.PROCESSING, EnumSet.of(OrderStatus.SHIPPED, OrderStatus.CANCELLED));
+        SUCCESSORS.put(OrderStatus.SHIPPED, EnumSet.of(OrderStatus.DELIVERED));
+        SUCCESSORS.put(OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        SUCCESSORS.put(OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+        for (OrderStatus target : OrderStatus.values()) {
+            List<String> predecessors = SUCCESSORS.entrySet().stream()
+                    .filter(entry -> entry.getValue().contains(target))
+                    .map(entry -> entry.getKey().name())
+                    .collect(Collectors.toUnmodifiableList());
+            PREDECESSOR_NAMES.put(target, predecessors);
+        }
+    }
+
+    private OrderStatusTransitions() {
+    }
+
+    /**
+     * Parse a status name without relying on exceptions from valueOf
+     * 
+     * @param status the status name (case insensitive)
+     * @return the status, or null if the name is not a known status
+     */
+    public static OrderStatus parse(String status) {
+        if (status == null) {
+            return null;
+        }
+        String name = status.trim().toUpperCase(Locale.ROOT);
+        for (OrderStatus candidate : OrderStatus.values()) {
+            if (candidate.name().equals(name)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check whether an order may move from one status to another
+     * 
+     * @param from the current status
+     * @param to the requested status
+     * @return true if the transition is allowed
+     */
+    public static boolean isAllowed(OrderStatus from, OrderStatus to) {
+        return SUCCESSORS.get(from).contains(to);
+    }
+
+    /**
+     * Get the names of the statuses a target status may be reached from
+     * 
+     * @param target the requested status
+     * @return the predecessor status names, empty if the status cannot be reached
+     */
+    public static List<String> predecessorNames(OrderStatus target) {
+        return PREDECESSOR_NAMES.getOrDefault(target, Collections.emptyList());
+    }
+}
@@ -0,0 +1,86 @@
+package com.bootcamp.order.query;
+
+import com.bootcamp.order.model.OrderStatus;
+
+/**
+ * Order change
+ *
+ * One entry of the order change feed: the read model of an order right
+ * after a create, status update or delete was applied to it. The resume
+ * token identifies the position of the change in the feed; a client that
+ * reconnects with it continues after this change.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class OrderChange {
+
+    /**
+     * Kinds of feed entries
+     */
+    public enum Type {
+        CREATED,
+        STATUS_UPDATED,
+        DELETED,
+        /** The resume position is no longer retained; reload with the query endpoints */
+        RESYNC_REQUIRED
+    }
+
+    private final String resumeToken;
+    private final long sequence;
+    private final Type changeType;
+    private final Long orderId;
+    private final Long userId;
+    private final OrderStatus status;
+    private final OrderReadModel order;
+
+    public OrderChange(String resumeToken, long sequence, Type changeType, OrderReadModel order) {
+        this.resumeToken = resumeToken;
+        this.sequence = sequence;
+        this.changeType = changeType;
+        this.order = order;
+        this.orderId = order != null ? order.getId() : null;
+        this.userId = order != null ? order.getUserId() : null;
+        this.status = order != null ? order.getStatus() : null;
+    }
+
+    // Getters
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getChangeType() {
+        return changeType;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public OrderReadModel getOrder() {
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderChange{" +
+                "resumeToken='" + resumeToken + '\'' +
+                ", changeType=" + changeType +
+                ", orderId=" + orderId +
+                ", userId=" + userId +
+                ", status=" + status +
+                '}';
+    }
+}
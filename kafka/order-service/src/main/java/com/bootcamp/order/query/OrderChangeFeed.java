@@ -0,0 +1,119 @@
+package com.bootcamp.order.query;
+
+import com.bootcamp.order.model.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Order change feed
+ *
+ * In-memory multicast of read model changes. The event processor
+ * publishes every successful read model write; subscribers receive the
+ * changes that match their filters, each through its own bounded buffer
+ * that drops the oldest changes when the client falls behind, so a slow
+ * client never holds back the processor or other clients.
+ *
+ * The sink retains the most recent changes (order.changes.retained), so a
+ * client reconnecting with the resume token of the last change it saw
+ * continues from there without a database query. Tokens carry the feed's
+ * start time; tokens from a previous process, or positions that are no
+ * longer retained, start the feed with a RESYNC_REQUIRED entry instead.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class OrderChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderChangeFeed.class);
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Sinks.Many<OrderChange> sink;
+    private final int retained;
+    private final int subscriberBuffer;
+    private long sequence;
+    private volatile long lastSequence;
+
+    public OrderChangeFeed(@Value("${order.changes.retained:1024}") int retained,
+                           @Value("${order.changes.subscriber-buffer:256}") int subscriberBuffer) {
+        this.retained = retained;
+        this.subscriberBuffer = subscriberBuffer;
+        this.sink = Sinks.many().replay().limit(retained);
+    }
+
+    /**
+     * Publish a read model change
+     *
+     * Emissions are serialized because the event processor applies
+     * different orders in parallel.
+     *
+     * @param type the kind of change
+     * @param order the read model after the change
+     */
+    public synchronized void publish(OrderChange.Type type, OrderReadModel order) {
+        long next = sequence + 1;
+        Sinks.EmitResult result = sink.tryEmitNext(new OrderChange(token(next), next, type, order));
+        if (result.isFailure()) {
+            logger.warn("Failed to publish {} change for order {}: {}", type, order.getId(), result);
+            return;
+        }
+        sequence = next;
+        lastSequence = next;
+    }
+
+    /**
+     * Subscribe to changes
+     *
+     * @param resumeToken token of the last change the client received, or null to start with new changes
+     * @param userId only changes of this user, or null for all users
+     * @param status only changes leaving the order in this status, or null for all statuses
+     * @return Flux of matching changes, endless until the client disconnects
+     */
+    public Flux<OrderChange> changes(String resumeToken, Long userId, OrderStatus status) {
+        return Flux.defer(() -> {
+            long current = lastSequence;
+            long after = resumePosition(resumeToken, current);
+            long start = after < 0 ? current : after;
+            Flux<OrderChange> feed = sink.asFlux()
+                    .filter(change -> change.getSequence() > start)
+                    .filter(change -> userId == null || userId.equals(change.getUserId()))
+                    .filter(change -> status == null || status == change.getStatus());
+            if (after < 0) {
+                feed = feed.startWith(new OrderChange(token(current), current, OrderChange.Type.RESYNC_REQUIRED, null));
+            }
+            return feed.onBackpressureBuffer(subscriberBuffer,
+                    dropped -> logger.debug("Dropped change {} for a slow subscriber", dropped.getResumeToken()),
+                    BufferOverflowStrategy.DROP_OLDEST);
+        });
+    }
+
+    /**
+     * Resolve a resume token to the sequence to continue after
+     *
+     * @return the sequence, or -1 if the client must resync
+     */
+    private long resumePosition(String resumeToken, long current) {
+        if (resumeToken == null || resumeToken.isBlank()) {
+            return current;
+        }
+        String prefix = epoch + "-";
+        if (!resumeToken.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            long position = Long.parseLong(resumeToken.substring(prefix.length()));
+            return position > current || position < current - retained ? -1 : position;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String token(long position) {
+        return epoch + "-" + position;
+    }
+}
@@ -0,0 +1,152 @@
+package com.bootcamp.order.query;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page of orders from the read model
+ * 
+ * Pages are navigated with an opaque keyset cursor that encodes the
+ * (created_at, id) position of the last order returned, or its
+ * (total_amount, id) position for pages sorted by amount, so fetching any
+ * page costs the same index range scan regardless of table size.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class OrderPage {
+
+    private final List<OrderReadModel> items;
+    private final String nextCursor;
+
+    public OrderPage(List<OrderReadModel> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<OrderReadModel> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Build a page of orders sorted by creation time from a result fetched with one extra row
+     * 
+     * @param rows the rows fetched with limit + 1
+     * @param limit the requested page size
+     * @return the page, with a cursor to the next page if more rows exist
+     */
+    public static OrderPage of(List<OrderReadModel> rows, int limit) {
+        return of(rows, limit, OrderReadModel::getCreatedAt);
+    }
+
+    /**
+     * Build a page of orders sorted by total amount from a result fetched with one extra row
+     * 
+     * @param rows the rows fetched with limit + 1
+     * @param limit the requested page size
+     * @return the page, with a cursor to the next page if more rows exist
+     */
+    public static OrderPage byTotalAmount(List<OrderReadModel> rows, int limit) {
+        return of(rows, limit, OrderReadModel::getTotalAmount);
+    }
+
+    private static OrderPage of(List<OrderReadModel> rows, int limit, Function<OrderReadModel, ?> sortKey) {
+        if (rows.size() <= limit) {
+            return new OrderPage(rows, null);
+        }
+        List<OrderReadModel> items = rows.subList(0, limit);
+        OrderReadModel last = items.get(limit - 1);
+        return new OrderPage(items, encodeCursor(sortKey.apply(last), last.getId()));
+    }
+
+    /**
+     * Encode a keyset position as an opaque cursor
+     * 
+     * @param sortKey sort key of the last returned order (creation time or total amount)
+     * @param id ID of the last returned order
+     * @return URL-safe cursor string
+     */
+    public static String encodeCursor(Object sortKey, Long id) {
+        String position = sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor of a page sorted by creation time
+     * 
+     * @param cursor the cursor returned by a previous page
+     * @return the position after which the next page starts
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Cursor<LocalDateTime> decodeCursor(String cursor) {
+        return decodeCursor(cursor, LocalDateTime::parse);
+    }
+
+    /**
+     * Decode a cursor of a page sorted by total amount
+     * 
+     * @param cursor the cursor returned by a previous page
+     * @return the position after which the next page starts
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Cursor<BigDecimal> decodeAmountCursor(String cursor) {
+        return decodeCursor(cursor, BigDecimal::new);
+    }
+
+    private static <K> Cursor<K> decodeCursor(String cursor, Function<String, K> keyParser) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            return new Cursor<>(keyParser.apply(position.substring(0, separator)),
+                    Long.valueOf(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Keyset position of a cursor: the sort key and ID of the last returned order
+     */
+    public static class Cursor<K> {
+        /** Position before every stored order by creation time, used for the first page */
+        public static final Cursor<LocalDateTime> FIRST =
+                new Cursor<>(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+        /** Position before every stored order by total amount (DECIMAL(10,2)), used for the first page */
+        public static final Cursor<BigDecimal> FIRST_BY_TOTAL_AMOUNT =
+                new Cursor<>(new BigDecimal("100000000.00"), Long.MAX_VALUE);
+
+        private final K key;
+        private final Long id;
+
+        public Cursor(K key, Long id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        public K getKey() { return key; }
+        public Long getId() { return id; }
+    }
+
+    @Override
+    public String toString() {
+        return "OrderPage{" +
+                "items=" + items.size() +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -1,14 +1,19 @@
 package com.bootcamp.order.query;
 
+import com.bootcamp.order.model.OrderStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Query service for orders
@@ -24,10 +29,26 @@ import java.time.LocalDateTime;
 public class OrderQueryService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderQueryService.class);
+    private static final int MAX_PAGE_SIZE = 500;
 
     @Autowired
     private OrderReadModelRepository orderReadModelRepository;
 
+    @Autowired
+    private OrderStatusCounters orderStatusCounters;
+
+    @Autowired
+    private UserOrderSummaryProjection userOrderSummaryProjection;
+
+    @Autowired
+    private ReadModelVersionNotifier readModelVersionNotifier;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${order.read-model.consistency-wait-ms:500}")
+    private long consistencyWaitMs;
+
     /**
      * Get all active orders
      * 
@@ -53,6 +74,67 @@ public class OrderQueryService {
                 .doOnError(e -> logger.error("Error querying order: {}", e.getMessage()));
     }
 
+    /**
+     * Get order by ID as of at least a given write model version
+     * 
+     * Read-your-writes for clients holding the consistency token of a
+     * command response: if the read model has not applied that version yet,
+     * the query waits for the event processor to report it (up to
+     * order.read-model.consistency-wait-ms) and then reads again. If the
+     * projection is still behind, the order is served from the write model
+     * (without the user enrichment), so clients never need to poll.
+     * 
+     * @param id the order ID
+     * @param minVersion the write model version the client has observed
+     * @return Mono with the order if it exists and is not deleted
+     */
+    public Mono<OrderReadModel> getOrderById(Long id, long minVersion) {
+        logger.info("Querying order with ID: {} at version {} or later", id, minVersion);
+        return Mono.usingWhen(
+                Mono.fromSupplier(() -> readModelVersionNotifier.register(id, minVersion)),
+                waiter -> findAtVersion(id, minVersion)
+                        .switchIfEmpty(waiter.await(Duration.ofMillis(consistencyWaitMs))
+                                .then(Mono.defer(() -> findAtVersion(id, minVersion))))
+                        .switchIfEmpty(Mono.defer(() -> findInWriteModel(id, minVersion))),
+                waiter -> Mono.fromRunnable(() -> readModelVersionNotifier.release(waiter)))
+                .filter(order -> !order.getIsDeleted());
+    }
+
+    /**
+     * Read an order from the read model if it reflects a version (or was deleted)
+     */
+    private Mono<OrderReadModel> findAtVersion(Long id, long minVersion) {
+        return orderReadModelRepository.findById(id)
+                .filter(order -> order.getIsDeleted()
+                        || (order.getOrderVersion() != null ? order.getOrderVersion() >= minVersion : minVersion == 0));
+    }
+
+    /**
+     * Read an order from the write model in read model form
+     */
+    private Mono<OrderReadModel> findInWriteModel(Long id, long minVersion) {
+        return databaseClient.sql("SELECT o.*, (SELECT COUNT(*) FROM order_items i WHERE i.order_id = o.id) AS items_count " +
+                        "FROM orders o WHERE o.id = :id AND o.version >= :minVersion")
+                .bind("id", id)
+                .bind("minVersion", minVersion)
+                .map((row, metadata) -> {
+                    OrderReadModel order = new OrderReadModel(row.get("id", Long.class), row.get("user_id", Long.class),
+                            row.get("total_amount", BigDecimal.class));
+                    order.setStatus(OrderStatus.valueOf(row.get("status", String.class)));
+                    order.setCreatedAt(row.get("created_at", LocalDateTime.class));
+                    order.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+                    order.setShippingAddress(row.get("shipping_address", String.class));
+                    order.setNotes(row.get("notes", String.class));
+                    order.setItemsCount(row.get("items_count", Long.class).intValue());
+                    order.setIsDeleted(false);
+                    order.setOrderVersion(row.get("version", Long.class));
+                    return order;
+                })
+                .one()
+                .doOnNext(order -> logger.info("Read model of order {} is behind version {}, served from the write model",
+                        id, minVersion));
+    }
+
     /**
      * Get orders by user
      * 
@@ -86,7 +168,7 @@ public class OrderQueryService {
      */
     public Flux<OrderReadModel> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         logger.info("Querying orders by date range: {} - {}", startDate, endDate);
-        return orderReadModelRepository.findByDateRange(startDate.toString(), endDate.toString())
+        return orderReadModelRepository.findByDateRange(startDate, endDate)
                 .doOnComplete(() -> logger.info("Orders by date range query completed"));
     }
 
@@ -106,15 +188,30 @@ public class OrderQueryService {
     /**
      * Count orders by user
      * 
+     * Read from the per-user summary projection instead of counting rows.
+     * 
      * @param userId the user ID
-     * @return Mono with the number of orders for the user
+     * @return Mono with the number of active orders for the user
      */
     public Mono<Long> countOrdersByUserId(Long userId) {
         logger.info("Counting orders for user: {}", userId);
-        return orderReadModelRepository.countByUserId(userId)
+        return userOrderSummaryProjection.findByUserId(userId)
+                .map(UserOrderSummary::getOrderCount)
+                .defaultIfEmpty(0L)
                 .doOnNext(count -> logger.info("User {} has {} orders", userId, count));
     }
 
+    /**
+     * Get the order summary of a user
+     * 
+     * @param userId the user ID
+     * @return Mono with the summary, empty if the user has no orders
+     */
+    public Mono<UserOrderSummary> getUserOrderSummary(Long userId) {
+        logger.info("Querying order summary for user: {}", userId);
+        return userOrderSummaryProjection.findByUserId(userId);
+    }
+
     /**
      * Count orders by status
      * 
@@ -135,7 +232,7 @@ public class OrderQueryService {
      */
     public Flux<OrderReadModel> getOrdersByTotalAmountGreaterThan(BigDecimal minAmount) {
         logger.info("Querying orders with amount greater than: {}", minAmount);
-        return orderReadModelRepository.findByTotalAmountGreaterThan(minAmount.toString())
+        return orderReadModelRepository.findByTotalAmountGreaterThan(minAmount)
                 .doOnComplete(() -> logger.info("Orders by amount query completed"));
     }
 
@@ -147,31 +244,108 @@ public class OrderQueryService {
      */
     public Flux<OrderReadModel> searchOrdersByUsername(String username) {
         logger.info("Searching orders by username: {}", username);
-        return orderReadModelRepository.findByUserUsernameContaining(username)
-                .doOnComplete(() -> logger.info("Orders search by username completed"));
+        List<String> trigrams = UsernameTrigramIndex.trigrams(username);
+        Flux<OrderReadModel> orders = trigrams.isEmpty()
+                ? orderReadModelRepository.findByUserUsernameContaining(username)
+                : orderReadModelRepository.findByUserUsernameContainingIndexed(username, trigrams, trigrams.size());
+        return orders.doOnComplete(() -> logger.info("Orders search by username completed"));
+    }
+
+    /**
+     * Get a page of active orders
+     * 
+     * @param cursor the cursor of the previous page, or null for the first page
+     * @param limit the maximum number of orders to return
+     * @return Mono with the page of non-deleted orders, newest first
+     */
+    public Mono<OrderPage> getActiveOrdersPage(String cursor, int limit) {
+        logger.info("Querying page of active orders (limit {})", limit);
+        int pageSize = clampPageSize(limit);
+        return toPosition(cursor)
+                .flatMap(position -> orderReadModelRepository.findActivePage(position.getKey(), position.getId(), pageSize + 1)
+                        .collectList())
+                .map(rows -> OrderPage.of(rows, pageSize));
+    }
+
+    /**
+     * Get a page of a user's orders
+     * 
+     * @param userId the user ID
+     * @param cursor the cursor of the previous page, or null for the first page
+     * @param limit the maximum number of orders to return
+     * @return Mono with the page of the user's orders, newest first
+     */
+    public Mono<OrderPage> getOrdersByUserIdPage(Long userId, String cursor, int limit) {
+        logger.info("Querying page of orders for user: {} (limit {})", userId, limit);
+        int pageSize = clampPageSize(limit);
+        return toPosition(cursor)
+                .flatMap(position -> orderReadModelRepository.findByUserIdPage(userId, position.getKey(), position.getId(), pageSize + 1)
+                        .collectList())
+                .map(rows -> OrderPage.of(rows, pageSize));
+    }
+
+    /**
+     * Get a page of orders by status
+     * 
+     * @param status the order status
+     * @param cursor the cursor of the previous page, or null for the first page
+     * @param limit the maximum number of orders to return
+     * @return Mono with the page of orders with the status, newest first
+     */
+    public Mono<OrderPage> getOrdersByStatusPage(String status, String cursor, int limit) {
+        logger.info("Querying page of orders by status: {} (limit {})", status, limit);
+        int pageSize = clampPageSize(limit);
+        return toPosition(cursor)
+                .flatMap(position -> orderReadModelRepository.findByStatusPage(status, position.getKey(), position.getId(), pageSize + 1)
+                        .collectList())
+                .map(rows -> OrderPage.of(rows, pageSize));
+    }
+
+    /**
+     * Get a page of orders with total amount greater than specified
+     * 
+     * @param minAmount minimum amount
+     * @param cursor the cursor of the previous page, or null for the first page
+     * @param limit the maximum number of orders to return
+     * @return Mono with the page of orders that exceed the minimum amount, highest amount first
+     */
+    public Mono<OrderPage> getOrdersByTotalAmountGreaterThanPage(BigDecimal minAmount, String cursor, int limit) {
+        logger.info("Querying page of orders with amount greater than: {} (limit {})", minAmount, limit);
+        int pageSize = clampPageSize(limit);
+        return Mono.fromCallable(() -> cursor == null || cursor.isBlank()
+                        ? OrderPage.Cursor.FIRST_BY_TOTAL_AMOUNT
+                        : OrderPage.decodeAmountCursor(cursor))
+                .flatMap(position -> orderReadModelRepository.findByTotalAmountGreaterThanPage(minAmount, position.getKey(), position.getId(), pageSize + 1)
+                        .collectList())
+                .map(rows -> OrderPage.byTotalAmount(rows, pageSize));
+    }
+
+    private Mono<OrderPage.Cursor<LocalDateTime>> toPosition(String cursor) {
+        return Mono.fromCallable(() -> cursor == null || cursor.isBlank()
+                ? OrderPage.Cursor.FIRST
+                : OrderPage.decodeCursor(cursor));
+    }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
 
     /**
      * Get order statistics
      * 
+     * Served from the in-memory status counters maintained by the
+     * event processor, without querying the database.
+     * 
      * @return Mono with basic order statistics
      */
     public Mono<OrderStatistics> getOrderStatistics() {
-        logger.info("Calculating order statistics");
-        
-        return Mono.zip(
-                orderReadModelRepository.countByStatus("PENDING"),
-                orderReadModelRepository.countByStatus("CONFIRMED"),
-                orderReadModelRepository.countByStatus("SHIPPED"),
-                orderReadModelRepository.countByStatus("DELIVERED"),
-                orderReadModelRepository.countByStatus("CANCELLED")
-        ).map(tuple -> new OrderStatistics(
-                tuple.getT1(), // pending
-                tuple.getT2(), // confirmed
-                tuple.getT3(), // shipped
-                tuple.getT4(), // delivered
-                tuple.getT5()  // cancelled
-        )).doOnNext(stats -> logger.info("Statistics calculated: {}", stats));
+        return Mono.fromSupplier(() -> new OrderStatistics(
+                orderStatusCounters.get(OrderStatus.PENDING),
+                orderStatusCounters.get(OrderStatus.CONFIRMED),
+                orderStatusCounters.get(OrderStatus.SHIPPED),
+                orderStatusCounters.get(OrderStatus.DELIVERED),
+                orderStatusCounters.get(OrderStatus.CANCELLED)
+        )).doOnNext(stats -> logger.debug("Statistics served from counters: {}", stats));
     }
 
     /**
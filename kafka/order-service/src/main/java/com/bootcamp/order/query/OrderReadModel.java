@@ -2,7 +2,10 @@ package com.bootcamp.order.query;
 
 import com.bootcamp.order.model.OrderItem;
 import com.bootcamp.order.model.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -17,11 +20,15 @@ import java.util.List;
  * Maintains eventual consistency with the write model
  * through asynchronous events.
  * 
+ * The ID is assigned from the order ID rather than generated, so
+ * {@link #markNew()} must be called before saving a newly projected
+ * order to get an INSERT instead of an UPDATE.
+ * 
  * @author Bootcamp Instructor
  * @version 1.0
  */
 @Table("order_read_models")
-public class OrderReadModel {
+public class OrderReadModel implements Persistable<Long> {
 
     @Id
     private Long id;
@@ -60,6 +67,12 @@ public class OrderReadModel {
     @Column("items_count")
     private Integer itemsCount;
 
+    @Column("order_version")
+    private Long orderVersion;
+
+    @Transient
+    private boolean newEntity;
+
     // Constructor por defecto
     public OrderReadModel() {
         this.createdAt = LocalDateTime.now();
@@ -77,6 +90,7 @@ public class OrderReadModel {
     }
 
     // Getters y Setters
+    @Override
     public Long getId() {
         return id;
     }
@@ -173,6 +187,30 @@ public class OrderReadModel {
         this.itemsCount = itemsCount;
     }
 
+    public Long getOrderVersion() {
+        return orderVersion;
+    }
+
+    public void setOrderVersion(Long orderVersion) {
+        this.orderVersion = orderVersion;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    /**
+     * Mark this read model as not yet persisted so the next save is an INSERT
+     * 
+     * @return this read model
+     */
+    public OrderReadModel markNew() {
+        this.newEntity = true;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "OrderReadModel{" +
@@ -188,6 +226,7 @@ public class OrderReadModel {
                 ", userUsername='" + userUsername + '\'' +
                 ", userEmail='" + userEmail + '\'' +
                 ", itemsCount=" + itemsCount +
+                ", orderVersion=" + orderVersion +
                 '}';
     }
 } 
\ No newline at end of file
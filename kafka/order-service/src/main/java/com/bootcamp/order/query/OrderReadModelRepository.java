@@ -6,6 +6,10 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Repository for the order read model
  * 
@@ -39,8 +43,8 @@ public interface OrderReadModelRepository extends ReactiveCrudRepository<OrderRe
     /**
      * Find orders by date range (non-deleted)
      */
-    @Query("SELECT * FROM order_read_models WHERE created_at BETWEEN :startDate AND :endDate AND is_deleted = false ORDER BY created_at DESC")
-    Flux<OrderReadModel> findByDateRange(String startDate, String endDate);
+    @Query("SELECT * FROM order_read_models WHERE is_deleted = false AND created_at BETWEEN :startDate AND :endDate ORDER BY created_at DESC")
+    Flux<OrderReadModel> findByDateRange(LocalDateTime startDate, LocalDateTime endDate);
 
     /**
      * Find orders by user and status (non-deleted)
@@ -63,12 +67,64 @@ public interface OrderReadModelRepository extends ReactiveCrudRepository<OrderRe
     /**
      * Find orders with total amount greater than specified (non-deleted)
      */
-    @Query("SELECT * FROM order_read_models WHERE total_amount > :minAmount AND is_deleted = false ORDER BY total_amount DESC")
-    Flux<OrderReadModel> findByTotalAmountGreaterThan(String minAmount);
+    @Query("SELECT * FROM order_read_models WHERE is_deleted = false AND total_amount > :minAmount ORDER BY total_amount DESC, id DESC")
+    Flux<OrderReadModel> findByTotalAmountGreaterThan(BigDecimal minAmount);
 
     /**
      * Find orders by username (non-deleted)
+     * 
+     * Full scan with a leading wildcard; only used for search terms
+     * shorter than a trigram.
      */
     @Query("SELECT * FROM order_read_models WHERE user_username LIKE CONCAT('%', :username, '%') AND is_deleted = false ORDER BY created_at DESC")
     Flux<OrderReadModel> findByUserUsernameContaining(String username);
-} 
\ No newline at end of file
+
+    /**
+     * Find orders by username substring using the trigram index (non-deleted)
+     * 
+     * Candidate usernames must contain every trigram of the search term;
+     * the LIKE then only verifies the candidates.
+     */
+    @Query("SELECT * FROM order_read_models WHERE user_username IN (" +
+           "SELECT username FROM order_username_trigrams WHERE trigram IN (:trigrams) " +
+           "GROUP BY username HAVING COUNT(*) = :trigramCount) " +
+           "AND user_username LIKE CONCAT('%', :username, '%') AND is_deleted = false ORDER BY created_at DESC")
+    Flux<OrderReadModel> findByUserUsernameContainingIndexed(String username, List<String> trigrams, int trigramCount);
+
+    /**
+     * Find a keyset page of non-deleted orders after the given (created_at, id) position
+     *
+     * The page queries lead their ORDER BY with the columns fixed by equality,
+     * so it matches the index column order and H2 reads the page straight off
+     * the index instead of sorting every matching row.
+     */
+    @Query("SELECT * FROM order_read_models WHERE is_deleted = false " +
+           "AND (created_at, id) < (:createdAt, :id) " +
+           "ORDER BY is_deleted DESC, created_at DESC, id DESC LIMIT :limit")
+    Flux<OrderReadModel> findActivePage(LocalDateTime createdAt, Long id, int limit);
+
+    /**
+     * Find a keyset page of a user's orders (non-deleted)
+     */
+    @Query("SELECT * FROM order_read_models WHERE user_id = :userId AND is_deleted = false " +
+           "AND (created_at, id) < (:createdAt, :id) " +
+           "ORDER BY user_id DESC, is_deleted DESC, created_at DESC, id DESC LIMIT :limit")
+    Flux<OrderReadModel> findByUserIdPage(Long userId, LocalDateTime createdAt, Long id, int limit);
+
+    /**
+     * Find a keyset page of orders by status (non-deleted)
+     */
+    @Query("SELECT * FROM order_read_models WHERE status = :status AND is_deleted = false " +
+           "AND (created_at, id) < (:createdAt, :id) " +
+           "ORDER BY status DESC, is_deleted DESC, created_at DESC, id DESC LIMIT :limit")
+    Flux<OrderReadModel> findByStatusPage(String status, LocalDateTime createdAt, Long id, int limit);
+
+    /**
+     * Find a keyset page of orders with total amount greater than specified (non-deleted)
+     * after the given (total_amount, id) position, highest amount first
+     */
+    @Query("SELECT * FROM order_read_models WHERE total_amount > :minAmount AND is_deleted = false " +
+           "AND (total_amount, id) < (:totalAmount, :id) " +
+           "ORDER BY is_deleted DESC, total_amount DESC, id DESC LIMIT :limit")
+    Flux<OrderReadModel> findByTotalAmountGreaterThanPage(BigDecimal minAmount, BigDecimal totalAmount, Long id, int limit);
+}
@@ -0,0 +1,139 @@
+package com.bootcamp.order.query;
+
+import com.bootcamp.order.model.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory order counters by status
+ * 
+ * Holds the number of active (non-deleted) orders per status so that
+ * statistics can be served without querying the read model. The counters
+ * are updated incrementally by the event processor after each read model
+ * write, and periodically reconciled with a single GROUP BY query to
+ * correct any drift (for example after a rebuild or a restart).
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class OrderStatusCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusCounters.class);
+
+    private final Map<OrderStatus, LongAdder> counters = new EnumMap<>(OrderStatus.class);
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public OrderStatusCounters() {
+        for (OrderStatus status : OrderStatus.values()) {
+            counters.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * Record a new active order
+     * 
+     * @param status the status of the new order
+     */
+    public void increment(OrderStatus status) {
+        counters.get(status).increment();
+    }
+
+    /**
+     * Record an active order leaving the counters (deleted)
+     * 
+     * @param status the status the order had
+     */
+    public void decrement(OrderStatus status) {
+        counters.get(status).decrement();
+    }
+
+    /**
+     * Record a status transition of an active order
+     * 
+     * @param from the previous status
+     * @param to the new status
+     */
+    public void move(OrderStatus from, OrderStatus to) {
+        if (from != to) {
+            counters.get(from).decrement();
+            counters.get(to).increment();
+        }
+    }
+
+    /**
+     * Get the current count of active orders with a status
+     * 
+     * @param status the order status
+     * @return the number of active orders
+     */
+    public long get(OrderStatus status) {
+        return counters.get(status).sum();
+    }
+
+    /**
+     * Reconcile the counters when the application starts
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile().subscribe();
+    }
+
+    /**
+     * Periodically reconcile the counters with the read model
+     */
+    @Scheduled(fixedDelayString = "${order.statistics.reconcile-interval-ms:60000}",
+               initialDelayString = "${order.statistics.reconcile-interval-ms:60000}")
+    public void scheduledReconcile() {
+        reconcile().subscribe();
+    }
+
+    /**
+     * Correct the counters with the counts from one GROUP BY status query
+     * 
+     * The counters are snapshotted before the query and each one is then
+     * adjusted by the difference between its database count and its
+     * snapshot, never reset, so increments applied while the query runs
+     * are kept. An increment whose write the query already saw is counted
+     * twice until the next reconciliation removes it again.
+     * 
+     * @return Mono indicating completion
+     */
+    public Mono<Void> reconcile() {
+        return Mono.defer(() -> {
+                    Map<OrderStatus, Long> snapshot = new EnumMap<>(OrderStatus.class);
+                    for (OrderStatus status : OrderStatus.values()) {
+                        snapshot.put(status, get(status));
+                    }
+                    return databaseClient.sql("SELECT status, COUNT(*) AS total FROM order_read_models " +
+                                    "WHERE is_deleted = false GROUP BY status")
+                            .map((row, metadata) -> Map.entry(
+                                    OrderStatus.valueOf(row.get("status", String.class)),
+                                    row.get("total", Long.class)))
+                            .all()
+                            .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                            .doOnNext(counts -> {
+                                for (OrderStatus status : OrderStatus.values()) {
+                                    counters.get(status).add(counts.getOrDefault(status, 0L) - snapshot.get(status));
+                                }
+                                logger.debug("Order status counters reconciled: {}", counts);
+                            });
+                })
+                .doOnError(error -> logger.error("Error reconciling order status counters: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+}
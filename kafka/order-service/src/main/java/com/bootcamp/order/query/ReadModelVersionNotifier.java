@@ -0,0 +1,112 @@
+package com.bootcamp.order.query;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory notifications of read model progress
+ *
+ * Queries that must observe a given write model version of an order
+ * register a waiter here; the event processor reports every version it
+ * applies, which releases the waiters of that order. Nothing is kept for
+ * orders nobody is waiting on, so reporting costs one map lookup.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class ReadModelVersionNotifier {
+
+    /** Version reported for deletions; releases every waiter of the order */
+    public static final long DELETED = Long.MAX_VALUE;
+
+    private final ConcurrentMap<Long, List<Waiter>> waiters = new ConcurrentHashMap<>();
+
+    /**
+     * Register interest in an order version
+     *
+     * Register before reading the read model, so that a version applied
+     * between the read and the wait is not missed.
+     *
+     * @param orderId the order ID
+     * @param minVersion the version the caller needs to observe
+     * @return the waiter, to be released with {@link #release(Waiter)}
+     */
+    public Waiter register(Long orderId, long minVersion) {
+        Waiter waiter = new Waiter(orderId, minVersion);
+        waiters.compute(orderId, (id, list) -> {
+            List<Waiter> result = list != null ? list : new ArrayList<>(2);
+            result.add(waiter);
+            return result;
+        });
+        return waiter;
+    }
+
+    /**
+     * Release a waiter that is no longer needed
+     *
+     * @param waiter the waiter
+     */
+    public void release(Waiter waiter) {
+        waiters.computeIfPresent(waiter.orderId, (id, list) -> {
+            list.remove(waiter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Report that the read model of an order now reflects a version
+     *
+     * @param orderId the order ID
+     * @param version the applied write model version
+     */
+    public void versionApplied(Long orderId, long version) {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        List<Waiter> ready = new ArrayList<>(2);
+        waiters.computeIfPresent(orderId, (id, list) -> {
+            list.removeIf(waiter -> {
+                if (waiter.minVersion <= version) {
+                    ready.add(waiter);
+                    return true;
+                }
+                return false;
+            });
+            return list.isEmpty() ? null : list;
+        });
+        // Signalled outside the map lock: subscribers may re-enter the notifier
+        ready.forEach(waiter -> waiter.applied.tryEmitEmpty());
+    }
+
+    /**
+     * A registered interest in one order version
+     */
+    public static final class Waiter {
+        private final Long orderId;
+        private final long minVersion;
+        private final Sinks.Empty<Void> applied = Sinks.empty();
+
+        private Waiter(Long orderId, long minVersion) {
+            this.orderId = orderId;
+            this.minVersion = minVersion;
+        }
+
+        /**
+         * Wait until the version is applied
+         *
+         * @param timeout the maximum wait
+         * @return Mono completing when the version is applied or the timeout elapses
+         */
+        public Mono<Void> await(Duration timeout) {
+            return applied.asMono().timeout(timeout, Mono.empty());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bootcamp.order.query;
+
+import com.bootcamp.order.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Per-user order summary
+ * 
+ * Aggregated view of a user's active (non-deleted) orders, read from
+ * the order_user_summaries projection.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class UserOrderSummary {
+
+    private final Long userId;
+    private final Long orderCount;
+    private final BigDecimal lifetimeValue;
+    private final LocalDateTime lastOrderAt;
+    private final Map<OrderStatus, Long> ordersByStatus;
+
+    public UserOrderSummary(Long userId, Long orderCount, BigDecimal lifetimeValue,
+                            LocalDateTime lastOrderAt, Map<OrderStatus, Long> ordersByStatus) {
+        this.userId = userId;
+        this.orderCount = orderCount;
+        this.lifetimeValue = lifetimeValue;
+        this.lastOrderAt = lastOrderAt;
+        this.ordersByStatus = ordersByStatus;
+    }
+
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getLifetimeValue() {
+        return lifetimeValue;
+    }
+
+    public LocalDateTime getLastOrderAt() {
+        return lastOrderAt;
+    }
+
+    public Map<OrderStatus, Long> getOrdersByStatus() {
+        return ordersByStatus;
+    }
+
+    @Override
+    public String toString() {
+        return "UserOrderSummary{" +
+                "userId=" + userId +
+                ", orderCount=" + orderCount +
+                ", lifetimeValue=" + lifetimeValue +
+                ", lastOrderAt=" + lastOrderAt +
+                ", ordersByStatus=" + ordersByStatus +
+                '}';
+    }
+}
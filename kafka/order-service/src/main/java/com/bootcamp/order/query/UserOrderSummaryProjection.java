@@ -0,0 +1,174 @@
+package com.bootcamp.order.query;
+
+import com.bootcamp.order.model.OrderStatus;
+import io.r2dbc.spi.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Per-user order summary projection
+ *
+ * Maintains order_user_summaries incrementally from the read model
+ * writes of the event processor: every change is a single upsert or
+ * update keyed by user ID that adjusts the counters in place, so the
+ * summary never needs a per-user scan of order_read_models. Only active
+ * (non-deleted) orders are counted.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class UserOrderSummaryProjection {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserOrderSummaryProjection.class);
+
+    private static final Map<OrderStatus, String> STATUS_COLUMNS = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, String> CREATED_SQL = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, String> DELETED_SQL = new EnumMap<>(OrderStatus.class);
+    private static final String REBUILD_SQL;
+
+    static {
+        for (OrderStatus status : OrderStatus.values()) {
+            String column = status.name().toLowerCase(Locale.ROOT) + "_count";
+            STATUS_COLUMNS.put(status, column);
+            CREATED_SQL.put(status, "MERGE INTO order_user_summaries s " +
+                    "USING (VALUES (CAST(:userId AS BIGINT), CAST(:amount AS DECIMAL(14,2)), CAST(:createdAt AS TIMESTAMP))) " +
+                    "AS v(user_id, amount, created_at) ON s.user_id = v.user_id " +
+                    "WHEN MATCHED THEN UPDATE SET order_count = s.order_count + 1, " +
+                    "lifetime_value = s.lifetime_value + v.amount, " +
+                    "last_order_at = GREATEST(COALESCE(s.last_order_at, v.created_at), v.created_at), " +
+                    column + " = s." + column + " + 1, updated_at = CURRENT_TIMESTAMP " +
+                    "WHEN NOT MATCHED THEN INSERT (user_id, order_count, lifetime_value, last_order_at, " + column + ") " +
+                    "VALUES (v.user_id, 1, v.amount, v.created_at, 1)");
+            DELETED_SQL.put(status, "UPDATE order_user_summaries SET order_count = order_count - 1, " +
+                    "lifetime_value = lifetime_value - :amount, " +
+                    column + " = " + column + " - 1, updated_at = CURRENT_TIMESTAMP WHERE user_id = :userId");
+        }
+
+        String statusColumns = Stream.of(OrderStatus.values())
+                .map(STATUS_COLUMNS::get)
+                .collect(Collectors.joining(", "));
+        String statusSums = Stream.of(OrderStatus.values())
+                .map(status -> "SUM(CASE WHEN status = '" + status.name() + "' THEN 1 ELSE 0 END)")
+                .collect(Collectors.joining(", "));
+        REBUILD_SQL = "INSERT INTO order_user_summaries (user_id, order_count, lifetime_value, last_order_at, " + statusColumns + ") " +
+                "SELECT user_id, COUNT(*), SUM(total_amount), MAX(created_at), " + statusSums + " " +
+                "FROM order_read_models WHERE is_deleted = false GROUP BY user_id";
+    }
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Add a newly projected order to its user's summary
+     *
+     * @param readModel the created read model
+     * @return Mono indicating completion
+     */
+    public Mono<Void> orderCreated(OrderReadModel readModel) {
+        return databaseClient.sql(CREATED_SQL.get(readModel.getStatus()))
+                .bind("userId", readModel.getUserId())
+                .bind("amount", readModel.getTotalAmount())
+                .bind("createdAt", readModel.getCreatedAt())
+                .fetch()
+                .rowsUpdated()
+                // Two first orders of the same user may race to insert the row
+                .retryWhen(Retry.max(1).filter(DataIntegrityViolationException.class::isInstance))
+                .then();
+    }
+
+    /**
+     * Move an active order between status counters
+     *
+     * @param userId the user ID
+     * @param from the previous status
+     * @param to the new status
+     * @return Mono indicating completion
+     */
+    public Mono<Void> statusChanged(Long userId, OrderStatus from, OrderStatus to) {
+        if (from == to) {
+            return Mono.empty();
+        }
+        String fromColumn = STATUS_COLUMNS.get(from);
+        String toColumn = STATUS_COLUMNS.get(to);
+        return databaseClient.sql("UPDATE order_user_summaries SET " +
+                        fromColumn + " = " + fromColumn + " - 1, " +
+                        toColumn + " = " + toColumn + " + 1, updated_at = CURRENT_TIMESTAMP WHERE user_id = :userId")
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    /**
+     * Remove a deleted order from its user's summary
+     *
+     * @param readModel the read model marked as deleted
+     * @return Mono indicating completion
+     */
+    public Mono<Void> orderDeleted(OrderReadModel readModel) {
+        return databaseClient.sql(DELETED_SQL.get(readModel.getStatus()))
+                .bind("userId", readModel.getUserId())
+                .bind("amount", readModel.getTotalAmount())
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    /**
+     * Recompute every summary from the read model
+     *
+     * Used after a full read model rebuild.
+     *
+     * @return Mono indicating completion
+     */
+    public Mono<Void> rebuild() {
+        return databaseClient.sql("DELETE FROM order_user_summaries")
+                .fetch()
+                .rowsUpdated()
+                .then(databaseClient.sql(REBUILD_SQL).fetch().rowsUpdated())
+                .doOnNext(count -> logger.info("User order summaries rebuilt for {} users", count))
+                .then();
+    }
+
+    /**
+     * Read a user's summary with one primary-key lookup
+     *
+     * @param userId the user ID
+     * @return Mono with the summary, empty if the user has no projected orders
+     */
+    public Mono<UserOrderSummary> findByUserId(Long userId) {
+        return databaseClient.sql("SELECT * FROM order_user_summaries WHERE user_id = :userId")
+                .bind("userId", userId)
+                .map((row, metadata) -> toSummary(row))
+                .one();
+    }
+
+    private UserOrderSummary toSummary(Row row) {
+        Map<OrderStatus, Long> ordersByStatus = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, row.get(STATUS_COLUMNS.get(status), Long.class));
+        }
+        return new UserOrderSummary(
+                row.get("user_id", Long.class),
+                row.get("order_count", Long.class),
+                row.get("lifetime_value", BigDecimal.class),
+                row.get("last_order_at", LocalDateTime.class),
+                ordersByStatus
+        );
+    }
+}
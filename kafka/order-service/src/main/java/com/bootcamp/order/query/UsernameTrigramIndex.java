@@ -0,0 +1,105 @@
+package com.bootcamp.order.query;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Trigram index over the usernames of the read model
+ * 
+ * Maintains order_username_trigrams, which maps every lower-cased
+ * three-character substring of a username to that username. Substring
+ * searches intersect the query's trigrams through the primary key instead
+ * of scanning order_read_models with a leading-wildcard LIKE.
+ * 
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class UsernameTrigramIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameTrigramIndex.class);
+
+    /** Usernames indexed per statement when reindexing */
+    private static final int REINDEX_BATCH_SIZE = 200;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Split a text into its distinct lower-cased trigrams
+     * 
+     * @param text the text to split
+     * @return the trigrams in order of appearance, empty if the text is shorter than three characters
+     */
+    public static List<String> trigrams(String text) {
+        if (text == null || text.length() < 3) {
+            return List.of();
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            trigrams.add(normalized.substring(i, i + 3));
+        }
+        return new ArrayList<>(trigrams);
+    }
+
+    /**
+     * Add a username to the index (idempotent)
+     * 
+     * @param username the username
+     * @return Mono indicating completion
+     */
+    public Mono<Void> index(String username) {
+        return indexAll(username == null ? List.of() : List.of(username));
+    }
+
+    /**
+     * Rebuild the index from the usernames currently in the read model
+     * 
+     * @return Mono indicating completion
+     */
+    public Mono<Void> reindex() {
+        return databaseClient.sql("SELECT DISTINCT user_username FROM order_read_models WHERE user_username IS NOT NULL")
+                .map((row, metadata) -> row.get("user_username", String.class))
+                .all()
+                .buffer(REINDEX_BATCH_SIZE)
+                .concatMap(this::indexAll)
+                .then()
+                .doOnSuccess(v -> logger.info("Username trigram index rebuilt"));
+    }
+
+    private Mono<Void> indexAll(List<String> usernames) {
+        List<String[]> rows = new ArrayList<>();
+        for (String username : usernames) {
+            for (String trigram : trigrams(username)) {
+                rows.add(new String[] {trigram, username});
+            }
+        }
+        if (rows.isEmpty()) {
+            return Mono.empty();
+        }
+
+        StringBuilder sql = new StringBuilder("MERGE INTO order_username_trigrams (trigram, username) KEY (trigram, username) VALUES ");
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:trigram").append(i).append(", :username").append(i).append(")");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < rows.size(); i++) {
+            spec = spec.bind("trigram" + i, rows.get(i)[0]).bind("username" + i, rows.get(i)[1]);
+        }
+        return spec.fetch().rowsUpdated().then();
+    }
+}
@@ -2,6 +2,7 @@ package com.bootcamp.order.service;
 
 import com.bootcamp.order.client.UserServiceClient;
 import com.bootcamp.order.client.UserDto;
+import com.bootcamp.order.command.OrderError;
 import com.bootcamp.order.model.Order;
 import com.bootcamp.order.model.OrderItem;
 import com.bootcamp.order.model.OrderStatus;
@@ -112,7 +113,7 @@ public class OrderService {
         logger.info("Updating order status for order: {} to: {}", id, status);
 
         return orderRepository.findById(id)
-                .switchIfEmpty(Mono.error(new RuntimeException("Order not found with ID: " + id)))
+                .switchIfEmpty(Mono.error(() -> OrderError.orderNotFound(id)))
                 .map(order -> {
                     order.setStatus(OrderStatus.valueOf(status.toUpperCase()));
                     order.preUpdate();
@@ -132,7 +133,7 @@ public class OrderService {
         logger.info("Deleting order with ID: {}", id);
 
         return orderRepository.findById(id)
-                .switchIfEmpty(Mono.error(new RuntimeException("Order not found with ID: " + id)))
+                .switchIfEmpty(Mono.error(() -> OrderError.orderNotFound(id)))
                 .then(orderRepository.deleteById(id))
                 .doOnSuccess(v -> logger.info("Order deleted successfully with ID: {}", id));
     }
@@ -147,7 +148,7 @@ public class OrderService {
         return userServiceClient.getUserById(userId)
                 .onErrorResume(e -> {
                     logger.error("Failed to validate user: {}", e.getMessage());
-                    return Mono.error(new RuntimeException("User not found with ID: " + userId));
+                    return Mono.error(OrderError.userNotFound(userId));
                 });
     }
 }
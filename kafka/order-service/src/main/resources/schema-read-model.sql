@@ -1,7 +1,14 @@
 -- Schema for order read model (CQRS)
 -- This table maintains eventual consistency with the main orders table
+--
+-- order_read_models is a synonym for one of two identical physical tables,
+-- order_read_models_1 and order_read_models_2. Full rebuilds load the other
+-- table and then repoint the synonym with one CREATE OR REPLACE SYNONYM
+-- statement, so readers see either the old or the rebuilt read model and
+-- never a missing table. Queries through the synonym use the indexes of
+-- the table it points to.
 
-CREATE TABLE IF NOT EXISTS order_read_models (
+CREATE TABLE IF NOT EXISTS order_read_models_1 (
     id BIGINT PRIMARY KEY,
     user_id BIGINT NOT NULL,
     total_amount DECIMAL(10,2) NOT NULL,
@@ -16,28 +23,125 @@ CREATE TABLE IF NOT EXISTS order_read_models (
     user_username VARCHAR(100),
     user_email VARCHAR(255),
     items_count INTEGER DEFAULT 0,
-    
-    -- Indexes to optimize queries
-    INDEX idx_user_id (user_id),
-    INDEX idx_status (status),
-    INDEX idx_created_at (created_at),
-    INDEX idx_user_status (user_id, status),
-    INDEX idx_is_deleted (is_deleted),
-    INDEX idx_user_username (user_username),
-    INDEX idx_total_amount (total_amount)
+
+    -- Write model version this row reflects (read-your-writes token)
+    order_version BIGINT
+);
+
+-- Indexes to optimize queries.
+-- Every list query filters on is_deleted and orders by created_at, so the
+-- composite indexes below serve both the filter and the sort. They also
+-- match the keyset pagination order (created_at DESC, id DESC).
+-- Check plans with e.g.:
+--   EXPLAIN SELECT * FROM order_read_models WHERE is_deleted = false
+--       AND created_at BETWEEN TIMESTAMP '2024-01-01 00:00:00' AND TIMESTAMP '2024-02-01 00:00:00'
+--       ORDER BY created_at DESC;
+CREATE INDEX IF NOT EXISTS idx_active_created_1 ON order_read_models_1(is_deleted, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_user_active_created_1 ON order_read_models_1(user_id, is_deleted, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_status_active_created_1 ON order_read_models_1(status, is_deleted, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_user_status_1 ON order_read_models_1(user_id, status);
+CREATE INDEX IF NOT EXISTS idx_active_total_amount_1 ON order_read_models_1(is_deleted, total_amount, id);
+CREATE INDEX IF NOT EXISTS idx_user_username_1 ON order_read_models_1(user_username);
+
+-- Second physical table, loaded by full rebuilds while order_read_models
+-- points to the first one (and the other way round). It must keep the
+-- same columns and indexes.
+CREATE TABLE IF NOT EXISTS order_read_models_2 (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    shipping_address TEXT,
+    notes TEXT,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    user_username VARCHAR(100),
+    user_email VARCHAR(255),
+    items_count INTEGER DEFAULT 0,
+    order_version BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_active_created_2 ON order_read_models_2(is_deleted, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_user_active_created_2 ON order_read_models_2(user_id, is_deleted, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_status_active_created_2 ON order_read_models_2(status, is_deleted, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_user_status_2 ON order_read_models_2(user_id, status);
+CREATE INDEX IF NOT EXISTS idx_active_total_amount_2 ON order_read_models_2(is_deleted, total_amount, id);
+CREATE INDEX IF NOT EXISTS idx_user_username_2 ON order_read_models_2(user_username);
+
+CREATE SYNONYM IF NOT EXISTS order_read_models FOR order_read_models_1;
+
+-- Trigram index over usernames for substring search.
+-- One row per (trigram, username); lookups intersect the query's trigrams
+-- instead of scanning order_read_models with LIKE '%x%'.
+CREATE TABLE IF NOT EXISTS order_username_trigrams (
+    trigram VARCHAR(3) NOT NULL,
+    username VARCHAR(100) NOT NULL,
+    PRIMARY KEY (trigram, username)
+);
+
+-- Append-only order event store.
+-- Events are recorded by the read model projection together with their
+-- Kafka position, which makes appends idempotent on redelivery.
+CREATE TABLE IF NOT EXISTS order_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    kafka_partition INT NOT NULL,
+    kafka_offset BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    user_id BIGINT,
+    event_type VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    event_timestamp TIMESTAMP NOT NULL,
+    stored_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_order_events_position UNIQUE (kafka_partition, kafka_offset)
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_events_order_id ON order_events(order_id, id);
+
+-- Per-user order summary projection (active orders only)
+CREATE TABLE IF NOT EXISTS order_user_summaries (
+    user_id BIGINT PRIMARY KEY,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    lifetime_value DECIMAL(14,2) NOT NULL DEFAULT 0,
+    last_order_at TIMESTAMP,
+    pending_count BIGINT NOT NULL DEFAULT 0,
+    confirmed_count BIGINT NOT NULL DEFAULT 0,
+    processing_count BIGINT NOT NULL DEFAULT 0,
+    shipped_count BIGINT NOT NULL DEFAULT 0,
+    delivered_count BIGINT NOT NULL DEFAULT 0,
+    cancelled_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
 -- Table comments
-COMMENT ON TABLE order_read_models IS 'Optimized read model for order queries (CQRS)';
-COMMENT ON COLUMN order_read_models.id IS 'Unique order ID';
-COMMENT ON COLUMN order_read_models.user_id IS 'ID of the user who placed the order';
-COMMENT ON COLUMN order_read_models.total_amount IS 'Total order amount';
-COMMENT ON COLUMN order_read_models.status IS 'Current order status';
-COMMENT ON COLUMN order_read_models.created_at IS 'Order creation date and time';
-COMMENT ON COLUMN order_read_models.updated_at IS 'Last update date and time';
-COMMENT ON COLUMN order_read_models.shipping_address IS 'Shipping address';
-COMMENT ON COLUMN order_read_models.notes IS 'Additional order notes';
-COMMENT ON COLUMN order_read_models.is_deleted IS 'Indicates if the order is marked as deleted';
-COMMENT ON COLUMN order_read_models.user_username IS 'Username (denormalized for queries)';
-COMMENT ON COLUMN order_read_models.user_email IS 'User email (denormalized for queries)';
-COMMENT ON COLUMN order_read_models.items_count IS 'Number of items in the order (denormalized for queries)'; 
\ No newline at end of file
+-- Read model comments go on both physical tables; H2 does not accept COMMENT ON through a synonym.
+COMMENT ON TABLE order_read_models_1 IS 'Optimized read model for order queries (CQRS)';
+COMMENT ON COLUMN order_read_models_1.id IS 'Unique order ID';
+COMMENT ON COLUMN order_read_models_1.user_id IS 'ID of the user who placed the order';
+COMMENT ON COLUMN order_read_models_1.total_amount IS 'Total order amount';
+COMMENT ON COLUMN order_read_models_1.status IS 'Current order status';
+COMMENT ON COLUMN order_read_models_1.created_at IS 'Order creation date and time';
+COMMENT ON COLUMN order_read_models_1.updated_at IS 'Last update date and time';
+COMMENT ON COLUMN order_read_models_1.shipping_address IS 'Shipping address';
+COMMENT ON COLUMN order_read_models_1.notes IS 'Additional order notes';
+COMMENT ON COLUMN order_read_models_1.is_deleted IS 'Indicates if the order is marked as deleted';
+COMMENT ON COLUMN order_read_models_1.user_username IS 'Username (denormalized for queries)';
+COMMENT ON COLUMN order_read_models_1.user_email IS 'User email (denormalized for queries)';
+COMMENT ON COLUMN order_read_models_1.items_count IS 'Number of items in the order (denormalized for queries)';
+
+COMMENT ON TABLE order_read_models_2 IS 'Optimized read model for order queries (CQRS)';
+COMMENT ON COLUMN order_read_models_2.id IS 'Unique order ID';
+COMMENT ON COLUMN order_read_models_2.user_id IS 'ID of the user who placed the order';
+COMMENT ON COLUMN order_read_models_2.total_amount IS 'Total order amount';
+COMMENT ON COLUMN order_read_models_2.status IS 'Current order status';
+COMMENT ON COLUMN order_read_models_2.created_at IS 'Order creation date and time';
+COMMENT ON COLUMN order_read_models_2.updated_at IS 'Last update date and time';
+COMMENT ON COLUMN order_read_models_2.shipping_address IS 'Shipping address';
+COMMENT ON COLUMN order_read_models_2.notes IS 'Additional order notes';
+COMMENT ON COLUMN order_read_models_2.is_deleted IS 'Indicates if the order is marked as deleted';
+COMMENT ON COLUMN order_read_models_2.user_username IS 'Username (denormalized for queries)';
+COMMENT ON COLUMN order_read_models_2.user_email IS 'User email (denormalized for queries)';
+COMMENT ON COLUMN order_read_models_2.items_count IS 'Number of items in the order (denormalized for queries)';
+
+COMMENT ON TABLE order_events IS 'Append-only store of order events used to rebuild the read model';
+COMMENT ON TABLE order_user_summaries IS 'Per-user order count, lifetime value and counts by status, maintained incrementally from order events';
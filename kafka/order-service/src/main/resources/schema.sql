@@ -8,6 +8,7 @@ CREATE TABLE IF NOT EXISTS orders (
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
     shipping_address TEXT,
     notes TEXT,
+    version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
@@ -27,4 +28,19 @@ CREATE TABLE IF NOT EXISTS order_items (
 -- Create indexes
 CREATE INDEX IF NOT EXISTS idx_orders_user_id ON orders(user_id);
 CREATE INDEX IF NOT EXISTS idx_orders_status ON orders(status);
-CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items(order_id); 
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items(order_id); 
+
+-- Idempotency keys of create-order commands, scoped to the ordering user.
+-- A key is reserved with a NULL order_id before the command runs and gets
+-- the created order's ID once it succeeded. request_hash is the SHA-256 of
+-- the first request, so a reused key with a different body is rejected.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    order_id BIGINT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys(created_at);
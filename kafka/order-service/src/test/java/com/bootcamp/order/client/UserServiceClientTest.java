@@ -0,0 +1,165 @@
+package com.bootcamp.order.client;
+
+import com.bootcamp.order.config.ResilienceConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises hedging and the per-request guards against a scripted exchange function
+ */
+class UserServiceClientTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResilienceConfig resilienceConfig = new ResilienceConfig();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<Response> script = new ArrayList<>();
+
+    private UserServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = newClient(32);
+    }
+
+    @Test
+    void getUserById_ShouldReturnHedgeWhenFirstRequestIsSlow() {
+        // Given
+        script.add(new Response(HttpStatus.OK, Duration.ofSeconds(1)));
+        script.add(new Response(HttpStatus.OK, Duration.ZERO));
+
+        // When / Then
+        StepVerifier.create(client.getUserById(1L))
+                .assertNext(user -> assertEquals("alice", user.getUsername()))
+                .expectComplete()
+                .verify(Duration.ofMillis(800));
+        assertEquals(2, requests.get());
+        assertEquals(1.0, meterRegistry.counter("order.downstream.hedged.requests", "downstream", "user-service").count());
+    }
+
+    @Test
+    void getUserById_ShouldNotLetAFailedFirstRequestWinTheRace() {
+        // Given - the first request fails before the hedge is sent
+        script.add(new Response(HttpStatus.INTERNAL_SERVER_ERROR, Duration.ZERO));
+        script.add(new Response(HttpStatus.OK, Duration.ZERO));
+
+        // When / Then
+        StepVerifier.create(client.getUserById(1L))
+                .assertNext(user -> assertEquals("alice", user.getUsername()))
+                .verifyComplete();
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void getUserById_ShouldNotHedgeANotFound() throws InterruptedException {
+        // Given
+        script.add(new Response(HttpStatus.NOT_FOUND, Duration.ZERO));
+        script.add(new Response(HttpStatus.OK, Duration.ZERO));
+
+        // When / Then
+        StepVerifier.create(client.getUserById(1L))
+                .expectError(WebClientResponseException.NotFound.class)
+                .verify();
+        Thread.sleep(150);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void getUserById_ShouldTakeOneBulkheadPermitPerRequest() {
+        // Given - one permit, held by the slow first request, so the hedge is rejected before it is sent
+        client = newClient(1);
+        script.add(new Response(HttpStatus.OK, Duration.ofMillis(300)));
+        script.add(new Response(HttpStatus.OK, Duration.ZERO));
+
+        // When / Then - the rejected hedge does not fail the call
+        StepVerifier.create(client.getUserById(1L))
+                .assertNext(user -> assertEquals("alice", user.getUsername()))
+                .verifyComplete();
+        assertEquals(1, requests.get());
+        assertEquals(1.0, meterRegistry.counter("order.downstream.hedged.requests", "downstream", "user-service").count());
+    }
+
+    @Test
+    void getUserById_ShouldServeLastKnownUserWhenEveryRequestFails() {
+        // Given
+        script.add(new Response(HttpStatus.OK, Duration.ZERO));
+        client.getUserById(1L).block();
+        script.add(new Response(HttpStatus.SERVICE_UNAVAILABLE, Duration.ZERO));
+        script.add(new Response(HttpStatus.SERVICE_UNAVAILABLE, Duration.ZERO));
+
+        // When / Then
+        StepVerifier.create(client.getUserById(1L))
+                .assertNext(user -> assertEquals("alice", user.getUsername()))
+                .verifyComplete();
+        assertEquals(1.0, meterRegistry.counter("order.downstream.cache.fallbacks", "downstream", "user-service").count());
+    }
+
+    @Test
+    void getUserById_ShouldPassOnFirstErrorWhenNothingIsCached() {
+        // Given
+        script.add(new Response(HttpStatus.SERVICE_UNAVAILABLE, Duration.ZERO));
+        script.add(new Response(HttpStatus.INTERNAL_SERVER_ERROR, Duration.ZERO));
+
+        // When / Then
+        StepVerifier.create(client.getUserById(1L))
+                .expectError(WebClientResponseException.ServiceUnavailable.class)
+                .verify();
+    }
+
+    private UserServiceClient newClient(int maxConcurrentCalls) {
+        IntFunction<Response> responses = index -> index < script.size()
+                ? script.get(index)
+                : new Response(HttpStatus.INTERNAL_SERVER_ERROR, Duration.ZERO);
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            Response response = responses.apply(requests.getAndIncrement());
+            return Mono.delay(response.latency).map(tick -> ClientResponse.create(response.status)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(response.status.is2xxSuccessful()
+                            ? "{\"id\":1,\"username\":\"alice\",\"email\":\"alice@example.com\"}"
+                            : "{}")
+                    .build());
+        });
+
+        UserServiceClient userServiceClient = new UserServiceClient(meterRegistry, 100);
+        ReflectionTestUtils.setField(userServiceClient, "webClientBuilder", builder);
+        ReflectionTestUtils.setField(userServiceClient, "circuitBreakerRegistry",
+                resilienceConfig.circuitBreakerRegistry(meterRegistry, 50, 20, 50, 1000, 10000));
+        ReflectionTestUtils.setField(userServiceClient, "bulkheadRegistry",
+                resilienceConfig.bulkheadRegistry(meterRegistry, maxConcurrentCalls));
+        ReflectionTestUtils.setField(userServiceClient, "timeLimiterRegistry",
+                resilienceConfig.timeLimiterRegistry(meterRegistry, 2000));
+        ReflectionTestUtils.setField(userServiceClient, "userLookupConcurrency", 8);
+        ReflectionTestUtils.setField(userServiceClient, "hedgingEnabled", true);
+        ReflectionTestUtils.setField(userServiceClient, "hedgingMinDelayMs", 20L);
+        ReflectionTestUtils.setField(userServiceClient, "hedgingMaxDelayMs", 50L);
+        return userServiceClient;
+    }
+
+    private static final class Response {
+        private final HttpStatus status;
+        private final Duration latency;
+
+        Response(HttpStatus status, Duration latency) {
+            this.status = status;
+            this.latency = latency;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.bootcamp.order.command;
+
+import com.bootcamp.order.client.UserDto;
+import com.bootcamp.order.client.UserServiceClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs bulk order ingestion against an in-memory H2 database
+ */
+@ExtendWith(MockitoExtension.class)
+class BulkOrderCommandServiceTest {
+
+    private static final String VALID = "{\"userId\":1,\"items\":[{\"productName\":\"Book\",\"quantity\":2,\"unitPrice\":5.00}]}";
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private DatabaseClient databaseClient;
+    private BulkOrderCommandService service;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("bulk-" + UUID.randomUUID());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+        databaseClient = DatabaseClient.create(connectionFactory);
+
+        service = new BulkOrderCommandService();
+        ReflectionTestUtils.setField(service, "userServiceClient", userServiceClient);
+        ReflectionTestUtils.setField(service, "databaseClient", databaseClient);
+        ReflectionTestUtils.setField(service, "transactionalOperator",
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+        ReflectionTestUtils.setField(service, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 50L);
+
+        lenient().when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void executeBulkCreateOrderCommand_ShouldReturnOneResultPerLineInOrder() {
+        // Given
+        when(userServiceClient.getUsersByIds(anyCollection()))
+                .thenReturn(Mono.just(Map.of(1L, new UserDto(1L, "alice", "alice@example.com", "Alice", "A", "ACTIVE"))));
+        Flux<String> lines = Flux.just(
+                VALID,
+                "{not json",
+                "",
+                "{\"userId\":1,\"items\":[{\"productName\":\"Book\",\"quantity\":-1,\"unitPrice\":5.00}]}",
+                "{\"userId\":2,\"items\":[{\"productName\":\"Pen\",\"quantity\":1,\"unitPrice\":1.50}]}",
+                VALID);
+
+        // When / Then - the blank line gets no result, the others keep their line numbers
+        StepVerifier.create(service.executeBulkCreateOrderCommand(lines))
+                .assertNext(result -> assertCreated(result, 1))
+                .assertNext(result -> assertRejected(result, 2, "Malformed order request"))
+                .assertNext(result -> assertRejected(result, 4, "Quantity must be positive"))
+                .assertNext(result -> assertRejected(result, 5, "User not found with ID: 2"))
+                .assertNext(result -> assertCreated(result, 6))
+                .verifyComplete();
+
+        assertEquals(2L, count("SELECT COUNT(*) AS total FROM orders"));
+        assertEquals(2L, count("SELECT COUNT(*) AS total FROM order_items"));
+        verify(kafkaTemplate, times(2)).send(eq("order-events"), anyString(), any());
+    }
+
+    @Test
+    void executeBulkCreateOrderCommand_ShouldFailChunkWhenUserServiceIsDown() {
+        // Given
+        when(userServiceClient.getUsersByIds(anyCollection()))
+                .thenReturn(Mono.error(new IllegalStateException("connection refused")));
+
+        // When / Then
+        StepVerifier.create(service.executeBulkCreateOrderCommand(Flux.just(VALID)))
+                .assertNext(result -> {
+                    assertEquals(BulkOrderResult.FAILED, result.getStatus());
+                    assertTrue(result.getError().contains("User service unavailable"));
+                })
+                .verifyComplete();
+        assertEquals(0L, count("SELECT COUNT(*) AS total FROM orders"));
+    }
+
+    @Test
+    void executeBulkCreateOrderCommand_ShouldWriteOneChunkPerChunkSizeLines() {
+        // Given
+        when(userServiceClient.getUsersByIds(anyCollection()))
+                .thenReturn(Mono.just(Map.of(1L, new UserDto(1L, "alice", "alice@example.com", "Alice", "A", "ACTIVE"))));
+
+        // When
+        StepVerifier.create(service.executeBulkCreateOrderCommand(Flux.just(VALID, VALID, VALID, VALID, VALID)))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        // Then - chunks of 2, 2 and 1
+        verify(userServiceClient, times(3)).getUsersByIds(anyCollection());
+        assertEquals(5L, count("SELECT COUNT(*) AS total FROM orders"));
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql).map((row, metadata) -> row.get("total", Long.class)).one().block();
+    }
+
+    private static void assertCreated(BulkOrderResult result, long line) {
+        assertEquals(line, result.getLine());
+        assertEquals(BulkOrderResult.CREATED, result.getStatus());
+        assertNotNull(result.getOrderId());
+    }
+
+    private static void assertRejected(BulkOrderResult result, long line, String error) {
+        assertEquals(line, result.getLine());
+        assertEquals(BulkOrderResult.REJECTED, result.getStatus());
+        assertTrue(result.getError().contains(error), result.getError());
+    }
+}
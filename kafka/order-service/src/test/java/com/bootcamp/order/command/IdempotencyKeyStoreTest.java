@@ -0,0 +1,193 @@
+package com.bootcamp.order.command;
+
+import com.bootcamp.order.model.Order;
+import com.bootcamp.order.model.OrderItem;
+import com.bootcamp.order.repository.OrderRepository;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the idempotency key store against an in-memory H2 database
+ *
+ * Two store instances share the database to stand in for two service instances.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyKeyStoreTest {
+
+    private static final String KEY = "key-1";
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private DatabaseClient databaseClient;
+    private IdempotencyKeyStore firstInstance;
+    private IdempotencyKeyStore secondInstance;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("idempotency-" + UUID.randomUUID());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+        databaseClient = DatabaseClient.create(connectionFactory);
+        firstInstance = newStore();
+        secondInstance = newStore();
+    }
+
+    @Test
+    void execute_ShouldRunCommandOnceForConcurrentDuplicatesOnTwoInstances() {
+        // Given
+        Order order = order(42L);
+        when(orderRepository.findById(42L)).thenReturn(Mono.just(order));
+        CreateOrderCommand command = command("Main St 1", "10.00");
+
+        // When
+        Mono<List<Long>> both = Mono.zip(
+                        firstInstance.execute(command, KEY, () -> createOrder(42L, Duration.ofMillis(200))),
+                        secondInstance.execute(command, KEY, () -> createOrder(42L, Duration.ofMillis(200))))
+                .map(results -> List.of(results.getT1().getValue().getId(), results.getT2().getValue().getId()));
+
+        // Then
+        StepVerifier.create(both)
+                .expectNext(List.of(42L, 42L))
+                .verifyComplete();
+        assertEquals(1, executions.get());
+        assertEquals(42L, storedOrderId());
+    }
+
+    @Test
+    void execute_ShouldRejectSameKeyWithDifferentRequest() {
+        // Given
+        CreateOrderCommand original = command("Main St 1", "10.00");
+        CreateOrderCommand changed = command("Other St 2", "10.00");
+        firstInstance.execute(original, KEY, () -> createOrder(42L, Duration.ZERO)).block();
+
+        // When / Then - on the instance that ran it and on another one
+        StepVerifier.create(firstInstance.execute(changed, KEY, () -> createOrder(43L, Duration.ZERO)))
+                .assertNext(result -> assertEquals(OrderError.Kind.IDEMPOTENCY_KEY_REUSED, result.getError().getKind()))
+                .verifyComplete();
+        StepVerifier.create(secondInstance.execute(changed, KEY, () -> createOrder(43L, Duration.ZERO)))
+                .assertNext(result -> assertEquals(OrderError.Kind.IDEMPOTENCY_KEY_REUSED, result.getError().getKind()))
+                .verifyComplete();
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldKeepReservationWhenOnlyRecordingTheOrderFails() {
+        // Given - the command succeeds, then recording its order on the key is rejected by the database
+        CreateOrderCommand command = command("Main St 1", "10.00");
+        Supplier<Mono<CommandResult<Order>>> createThenBreakRecording = () -> databaseClient
+                .sql("ALTER TABLE idempotency_keys ADD CONSTRAINT chk_no_order CHECK (order_id IS NULL)")
+                .fetch()
+                .rowsUpdated()
+                .then(createOrder(42L, Duration.ZERO));
+
+        // When
+        StepVerifier.create(firstInstance.execute(command, KEY, createThenBreakRecording))
+                .assertNext(result -> assertEquals(42L, result.getValue().getId()))
+                .verifyComplete();
+
+        // Then - the key is still reserved, so a retry elsewhere neither runs the command nor takes the key
+        assertEquals(1L, reservationCount());
+        StepVerifier.create(secondInstance.execute(command, KEY, () -> createOrder(43L, Duration.ZERO)))
+                .assertNext(result -> assertEquals(OrderError.Kind.CONFLICT, result.getError().getKind()))
+                .verifyComplete();
+        StepVerifier.create(firstInstance.execute(command, KEY, () -> createOrder(43L, Duration.ZERO)))
+                .assertNext(result -> assertEquals(42L, result.getValue().getId()))
+                .verifyComplete();
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ShouldReleaseKeyWhenCommandFails() {
+        // Given
+        CreateOrderCommand command = command("Main St 1", "10.00");
+
+        // When
+        StepVerifier.create(firstInstance.execute(command, KEY, () -> Mono.error(new IllegalStateException("database down"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        // Then - the retry runs the command again
+        assertEquals(0L, reservationCount());
+        StepVerifier.create(firstInstance.execute(command, KEY, () -> createOrder(42L, Duration.ZERO)))
+                .assertNext(result -> assertEquals(42L, result.getValue().getId()))
+                .verifyComplete();
+        assertEquals(42L, storedOrderId());
+    }
+
+    @Test
+    void requestHash_ShouldIgnoreTrailingZerosButNotOtherChanges() {
+        assertEquals(IdempotencyKeyStore.requestHash(command("Main St 1", "10.0")),
+                IdempotencyKeyStore.requestHash(command("Main St 1", "10.00")));
+        assertNotEquals(IdempotencyKeyStore.requestHash(command("Main St 1", "10.00")),
+                IdempotencyKeyStore.requestHash(command("Main St 1", "11.00")));
+    }
+
+    private IdempotencyKeyStore newStore() {
+        IdempotencyKeyStore store = new IdempotencyKeyStore(100);
+        ReflectionTestUtils.setField(store, "databaseClient", databaseClient);
+        ReflectionTestUtils.setField(store, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(store, "retentionHours", 24L);
+        ReflectionTestUtils.setField(store, "waitTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(store, "pollIntervalMs", 20L);
+        ReflectionTestUtils.setField(store, "reservationTimeoutMs", 60000L);
+        ReflectionTestUtils.setField(store, "recordRetries", 1);
+        return store;
+    }
+
+    private Mono<CommandResult<Order>> createOrder(Long orderId, Duration latency) {
+        return Mono.delay(latency)
+                .then(Mono.fromCallable(() -> {
+                    executions.incrementAndGet();
+                    return CommandResult.success(order(orderId));
+                }));
+    }
+
+    private Long storedOrderId() {
+        return databaseClient.sql("SELECT order_id FROM idempotency_keys WHERE idempotency_key = :key")
+                .bind("key", KEY)
+                .map((row, metadata) -> row.get("order_id", Long.class))
+                .one()
+                .block();
+    }
+
+    private long reservationCount() {
+        return databaseClient.sql("SELECT COUNT(*) AS total FROM idempotency_keys WHERE idempotency_key = :key")
+                .bind("key", KEY)
+                .map((row, metadata) -> row.get("total", Long.class))
+                .one()
+                .block();
+    }
+
+    private static Order order(Long id) {
+        Order order = new Order(7L, new BigDecimal("10.00"));
+        order.setId(id);
+        return order;
+    }
+
+    private static CreateOrderCommand command(String shippingAddress, String unitPrice) {
+        return new CreateOrderCommand(7L, List.of(new OrderItem("Book", 1L, 1, new BigDecimal(unitPrice))),
+                shippingAddress, null);
+    }
+}
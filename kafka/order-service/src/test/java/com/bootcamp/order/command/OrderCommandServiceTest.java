@@ -0,0 +1,84 @@
+package com.bootcamp.order.command;
+
+import com.bootcamp.order.client.UserServiceClient;
+import com.bootcamp.order.model.OrderItem;
+import com.bootcamp.order.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks that expected command failures come back as results, not error signals
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderCommandServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    private OrderCommandService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new OrderCommandService();
+        ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(service, "userServiceClient", userServiceClient);
+    }
+
+    @Test
+    void executeDeleteOrderCommand_ShouldReturnOrderNotFoundForAMissingOrder() {
+        // Given
+        when(orderRepository.findById(42L)).thenReturn(Mono.empty());
+
+        // When / Then
+        StepVerifier.create(service.executeDeleteOrderCommand(new DeleteOrderCommand(42L)))
+                .assertNext(result -> {
+                    assertFalse(result.isSuccess());
+                    assertEquals(OrderError.Kind.ORDER_NOT_FOUND, result.getError().getKind());
+                })
+                .verifyComplete();
+        verify(orderRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+    void executeCreateOrderCommand_ShouldTellAnUnknownUserFromAnUnavailableUserService() {
+        // Given
+        WebClientResponseException notFound = WebClientResponseException.create(404, "Not Found", null, new byte[0], StandardCharsets.UTF_8);
+        when(userServiceClient.getUserById(1L)).thenReturn(Mono.error(notFound));
+        when(userServiceClient.getUserById(2L)).thenReturn(Mono.error(new IllegalStateException("connection refused")));
+
+        // When / Then
+        StepVerifier.create(service.executeCreateOrderCommand(command(1L)))
+                .assertNext(result -> assertEquals(OrderError.Kind.USER_NOT_FOUND, result.getError().getKind()))
+                .verifyComplete();
+        StepVerifier.create(service.executeCreateOrderCommand(command(2L)))
+                .assertNext(result -> assertEquals(OrderError.Kind.DEPENDENCY_UNAVAILABLE, result.getError().getKind()))
+                .verifyComplete();
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void orderError_ShouldNotCaptureAStackTrace() {
+        assertEquals(0, OrderError.orderNotFound(42L).getStackTrace().length);
+    }
+
+    private static CreateOrderCommand command(Long userId) {
+        return new CreateOrderCommand(userId, List.of(new OrderItem("Book", 1L, 2, new BigDecimal("5.00"))), "Street 1", null);
+    }
+}
@@ -0,0 +1,213 @@
+package com.bootcamp.order.event;
+
+import com.bootcamp.order.client.UserDto;
+import com.bootcamp.order.client.UserServiceClient;
+import com.bootcamp.order.model.OrderStatus;
+import com.bootcamp.order.query.OrderChangeFeed;
+import com.bootcamp.order.query.OrderReadModel;
+import com.bootcamp.order.query.OrderReadModelRepository;
+import com.bootcamp.order.query.OrderStatusCounters;
+import com.bootcamp.order.query.ReadModelVersionNotifier;
+import com.bootcamp.order.query.UserOrderSummaryProjection;
+import com.bootcamp.order.query.UsernameTrigramIndex;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEventProcessorTest {
+
+    @Mock
+    private OrderReadModelRepository orderReadModelRepository;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private OrderEventStore orderEventStore;
+
+    @Mock
+    private OrderReadModelRebuilder orderReadModelRebuilder;
+
+    @Mock
+    private OrderStatusCounters orderStatusCounters;
+
+    @Mock
+    private UsernameTrigramIndex usernameTrigramIndex;
+
+    @Mock
+    private UserOrderSummaryProjection userOrderSummaryProjection;
+
+    @Mock
+    private ReadModelVersionNotifier readModelVersionNotifier;
+
+    @Mock
+    private OrderChangeFeed orderChangeFeed;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    @InjectMocks
+    private OrderEventProcessor orderEventProcessor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderEventProcessor, "processingConcurrency", 4);
+        ReflectionTestUtils.setField(orderEventProcessor, "batchTimeoutMs", 5000L);
+        lenient().when(orderEventStore.append(any())).thenReturn(Mono.empty());
+        lenient().when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(orderReadModelRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        lenient().when(usernameTrigramIndex.index(any())).thenReturn(Mono.empty());
+        lenient().when(userOrderSummaryProjection.orderCreated(any())).thenReturn(Mono.empty());
+        lenient().when(userOrderSummaryProjection.statusChanged(any(), any(), any())).thenReturn(Mono.empty());
+        lenient().when(userServiceClient.getUserById(any()))
+                .thenReturn(Mono.just(new UserDto(7L, "john_doe", "john@example.com", "John", "Doe", "ACTIVE")));
+    }
+
+    @Test
+    void handleOrderEvents_ShouldApplyTheBatchAndAcknowledgeIt() {
+        // When
+        orderEventProcessor.handleOrderEvents(records(created(1L), created(2L)), acknowledgment);
+
+        // Then
+        verify(orderReadModelRepository, times(2)).save(any());
+        verify(orderStatusCounters, times(2)).increment(OrderStatus.PENDING);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void handleOrderEvents_ShouldReportTheLowestFailedRecordAndStopOnlyItsOrder() {
+        // Given: the second record has an unknown status
+        List<ConsumerRecord<String, OrderEvent>> records = records(
+                created(1L),
+                new OrderStatusUpdatedEvent(2L, 7L, "PENDING", "TELEPORTED", 2L),
+                new OrderStatusUpdatedEvent(2L, 7L, "PENDING", "CONFIRMED", 3L),
+                created(3L));
+
+        // When
+        BatchListenerFailedException error = assertThrows(BatchListenerFailedException.class,
+                () -> orderEventProcessor.handleOrderEvents(records, acknowledgment));
+
+        // Then
+        assertEquals(1, error.getIndex());
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        verify(orderReadModelRepository, never()).findById(2L);
+        verify(orderReadModelRepository, times(2)).save(any());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void handleOrderEvents_ShouldProjectWithoutUserDetailsWhenTheUserDoesNotExist() {
+        // Given
+        when(userServiceClient.getUserById(7L))
+                .thenReturn(Mono.error(WebClientResponseException.create(404, "Not Found", null, null, null)));
+        ArgumentCaptor<OrderReadModel> saved = ArgumentCaptor.forClass(OrderReadModel.class);
+
+        // When
+        orderEventProcessor.handleOrderEvents(records(created(1L)), acknowledgment);
+
+        // Then
+        verify(orderReadModelRepository).save(saved.capture());
+        assertEquals(1L, saved.getValue().getId());
+        assertNull(saved.getValue().getUserUsername());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void handleOrderEvents_ShouldFailTheRecordWhenUserServiceIsUnavailable() {
+        // Given
+        when(userServiceClient.getUserById(7L)).thenReturn(Mono.error(new WebClientRequestException(
+                new ConnectException("Connection refused"), HttpMethod.GET,
+                URI.create("http://user-service/users/7"), new HttpHeaders())));
+
+        // When
+        BatchListenerFailedException error = assertThrows(BatchListenerFailedException.class,
+                () -> orderEventProcessor.handleOrderEvents(records(created(1L)), acknowledgment));
+
+        // Then
+        assertEquals(0, error.getIndex());
+        verify(orderReadModelRepository, never()).save(any());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void handleOrderEvents_ShouldIgnoreStatusEventsNotNewerThanTheStoredVersion() {
+        // Given
+        when(orderReadModelRepository.findById(1L)).thenReturn(Mono.just(readModel(1L, OrderStatus.CONFIRMED, 3L)));
+
+        // When
+        orderEventProcessor.handleOrderEvents(
+                records(new OrderStatusUpdatedEvent(1L, 7L, "PENDING", "CONFIRMED", 3L)), acknowledgment);
+
+        // Then
+        verify(orderReadModelRepository, never()).save(any());
+        verify(orderStatusCounters, never()).move(any(), any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void handleOrderEvents_ShouldApplyNewerStatusEvents() {
+        // Given
+        when(orderReadModelRepository.findById(1L)).thenReturn(Mono.just(readModel(1L, OrderStatus.CONFIRMED, 3L)));
+        ArgumentCaptor<OrderReadModel> saved = ArgumentCaptor.forClass(OrderReadModel.class);
+
+        // When
+        orderEventProcessor.handleOrderEvents(
+                records(new OrderStatusUpdatedEvent(1L, 7L, "CONFIRMED", "SHIPPED", 4L)), acknowledgment);
+
+        // Then
+        verify(orderReadModelRepository).save(saved.capture());
+        assertEquals(OrderStatus.SHIPPED, saved.getValue().getStatus());
+        assertEquals(4L, saved.getValue().getOrderVersion());
+        verify(orderStatusCounters).move(OrderStatus.CONFIRMED, OrderStatus.SHIPPED);
+        verify(readModelVersionNotifier).versionApplied(1L, 4L);
+        verify(acknowledgment).acknowledge();
+    }
+
+    private static OrderCreatedEvent created(Long orderId) {
+        return new OrderCreatedEvent(orderId, 7L, new BigDecimal("99.90"), List.of(), "123 Main St", null, 0L);
+    }
+
+    private static OrderReadModel readModel(Long id, OrderStatus status, Long version) {
+        OrderReadModel readModel = new OrderReadModel(id, 7L, new BigDecimal("99.90"));
+        readModel.setStatus(status);
+        readModel.setOrderVersion(version);
+        readModel.setIsDeleted(false);
+        return readModel;
+    }
+
+    private static List<ConsumerRecord<String, OrderEvent>> records(OrderEvent... events) {
+        List<ConsumerRecord<String, OrderEvent>> records = new ArrayList<>();
+        for (int i = 0; i < events.length; i++) {
+            records.add(new ConsumerRecord<>("order-events", 0, 100 + i, String.valueOf(events[i].getOrderId()), events[i]));
+        }
+        return records;
+    }
+}
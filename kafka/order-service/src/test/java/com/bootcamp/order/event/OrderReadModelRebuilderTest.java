@@ -0,0 +1,243 @@
+package com.bootcamp.order.event;
+
+import com.bootcamp.order.client.UserDto;
+import com.bootcamp.order.client.UserServiceClient;
+import com.bootcamp.order.model.OrderStatus;
+import com.bootcamp.order.query.OrderStatusCounters;
+import com.bootcamp.order.query.UserOrderSummary;
+import com.bootcamp.order.query.UserOrderSummaryProjection;
+import com.bootcamp.order.query.UsernameTrigramIndex;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the rebuilder against an in-memory H2 database with the real read model schema
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderReadModelRebuilderTest {
+
+    @Mock
+    private OrderEventStore orderEventStore;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    private DatabaseClient databaseClient;
+    private OrderStatusCounters orderStatusCounters;
+    private UserOrderSummaryProjection userOrderSummaryProjection;
+    private OrderReadModelRebuilder rebuilder;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("rebuilder-" + UUID.randomUUID());
+        new ResourceDatabasePopulator(new ClassPathResource("schema-read-model.sql")).populate(connectionFactory).block();
+        databaseClient = DatabaseClient.create(connectionFactory);
+
+        orderStatusCounters = new OrderStatusCounters();
+        ReflectionTestUtils.setField(orderStatusCounters, "databaseClient", databaseClient);
+        UsernameTrigramIndex usernameTrigramIndex = new UsernameTrigramIndex();
+        ReflectionTestUtils.setField(usernameTrigramIndex, "databaseClient", databaseClient);
+        userOrderSummaryProjection = new UserOrderSummaryProjection();
+        ReflectionTestUtils.setField(userOrderSummaryProjection, "databaseClient", databaseClient);
+
+        rebuilder = new OrderReadModelRebuilder();
+        ReflectionTestUtils.setField(rebuilder, "orderEventStore", orderEventStore);
+        ReflectionTestUtils.setField(rebuilder, "databaseClient", databaseClient);
+        ReflectionTestUtils.setField(rebuilder, "userServiceClient", userServiceClient);
+        ReflectionTestUtils.setField(rebuilder, "kafkaListenerEndpointRegistry", kafkaListenerEndpointRegistry);
+        ReflectionTestUtils.setField(rebuilder, "orderStatusCounters", orderStatusCounters);
+        ReflectionTestUtils.setField(rebuilder, "usernameTrigramIndex", usernameTrigramIndex);
+        ReflectionTestUtils.setField(rebuilder, "userOrderSummaryProjection", userOrderSummaryProjection);
+        ReflectionTestUtils.setField(rebuilder, "configuredPartitions", 2);
+        ReflectionTestUtils.setField(rebuilder, "batchSize", 500);
+        ReflectionTestUtils.setField(rebuilder, "userLookupConcurrency", 2);
+
+        lenient().when(kafkaListenerEndpointRegistry.getListenerContainer(OrderReadModelRebuilder.READ_MODEL_LISTENER_ID))
+                .thenReturn(container);
+        lenient().when(container.isContainerPaused()).thenReturn(true);
+    }
+
+    @Test
+    void rebuildAll_ShouldSwapSynonymAndRebuildDerivedProjectionsBeforeResuming() {
+        // Given - order 1 predates the event store, orders 2 and 3 are replayed
+        insertLiveRow(1L, 10L, "PENDING", false, "alice");
+        List<OrderEvent> events = List.of(
+                created(2L, 10L, "20.00"),
+                new OrderStatusUpdatedEvent(2L, 10L, "PENDING", "CONFIRMED", 2L),
+                created(3L, 20L, "30.00"));
+        when(orderEventStore.findOrderIdBounds()).thenReturn(Mono.just(new long[] {2L, 3L}));
+        when(orderEventStore.streamOrderRange(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            return Flux.fromIterable(events).filter(e -> e.getOrderId() >= from && e.getOrderId() <= to);
+        });
+        when(userServiceClient.getUserById(10L)).thenReturn(Mono.just(user(10L, "alice")));
+        when(userServiceClient.getUserById(20L)).thenReturn(Mono.just(user(20L, "bob")));
+
+        Map<OrderStatus, Long> countersAtResume = new EnumMap<>(OrderStatus.class);
+        long[] summaryOrdersAtResume = new long[1];
+        doAnswer(invocation -> {
+            for (OrderStatus status : OrderStatus.values()) {
+                countersAtResume.put(status, orderStatusCounters.get(status));
+            }
+            summaryOrdersAtResume[0] = userOrderSummaryProjection.findByUserId(10L)
+                    .map(UserOrderSummary::getOrderCount).defaultIfEmpty(0L).toFuture().join();
+            return null;
+        }).when(container).resume();
+
+        // When
+        OrderReadModelRebuilder.RebuildReport report = rebuilder.rebuildAll().block();
+
+        // Then
+        assertNotNull(report);
+        assertEquals(2, report.getOrdersRebuilt());
+        assertEquals("ORDER_READ_MODELS_2", synonymTarget());
+        assertEquals(3L, count("SELECT COUNT(*) AS total FROM order_read_models"));
+        assertEquals(0L, count("SELECT COUNT(*) AS total FROM order_read_models_1"));
+        assertEquals("bob", queryString("SELECT user_username AS v FROM order_read_models WHERE id = 3"));
+        assertEquals(1L, count("SELECT COUNT(*) AS total FROM order_username_trigrams WHERE username = 'bob'"));
+
+        verify(container).pause();
+        verify(container).resume();
+        assertEquals(2L, countersAtResume.get(OrderStatus.PENDING));
+        assertEquals(1L, countersAtResume.get(OrderStatus.CONFIRMED));
+        assertEquals(2L, summaryOrdersAtResume[0]);
+    }
+
+    @Test
+    void rebuildAll_ShouldSwapBackOnTheNextRebuild() {
+        // Given
+        when(orderEventStore.findOrderIdBounds()).thenReturn(Mono.empty());
+
+        // When
+        rebuilder.rebuildAll().block();
+        rebuilder.rebuildAll().block();
+
+        // Then
+        assertEquals("ORDER_READ_MODELS_1", synonymTarget());
+    }
+
+    @Test
+    void rebuildOrder_ShouldMoveCountersAndSummaryFromThePreviousRow() {
+        // Given - the live row and the derived projections still say PENDING
+        insertLiveRow(5L, 10L, "PENDING", false, "alice");
+        orderStatusCounters.increment(OrderStatus.PENDING);
+        userOrderSummaryProjection.rebuild().block();
+        when(orderEventStore.findByOrderId(5L)).thenReturn(Flux.just(
+                created(5L, 10L, "20.00"),
+                new OrderStatusUpdatedEvent(5L, 10L, "PENDING", "SHIPPED", 3L)));
+
+        // When
+        rebuilder.rebuildOrder(5L).block();
+
+        // Then
+        assertEquals("SHIPPED", queryString("SELECT status AS v FROM order_read_models WHERE id = 5"));
+        assertEquals("alice", queryString("SELECT user_username AS v FROM order_read_models WHERE id = 5"));
+        assertEquals(0L, orderStatusCounters.get(OrderStatus.PENDING));
+        assertEquals(1L, orderStatusCounters.get(OrderStatus.SHIPPED));
+        Map<OrderStatus, Long> byStatus = userOrderSummaryProjection.findByUserId(10L).block().getOrdersByStatus();
+        assertEquals(0L, byStatus.get(OrderStatus.PENDING));
+        assertEquals(1L, byStatus.get(OrderStatus.SHIPPED));
+        verify(userServiceClient, never()).getUserById(anyLong());
+    }
+
+    @Test
+    void rebuildOrder_ShouldAddMissingOrderToCountersSummaryAndTrigrams() {
+        // Given
+        when(orderEventStore.findByOrderId(7L)).thenReturn(Flux.just(created(7L, 20L, "30.00")));
+        when(userServiceClient.getUserById(20L)).thenReturn(Mono.just(user(20L, "bob")));
+
+        // When
+        rebuilder.rebuildOrder(7L).block();
+
+        // Then
+        assertEquals(1L, orderStatusCounters.get(OrderStatus.PENDING));
+        assertEquals(1L, userOrderSummaryProjection.findByUserId(20L).block().getOrderCount());
+        assertEquals(1L, count("SELECT COUNT(*) AS total FROM order_username_trigrams WHERE username = 'bob'"));
+    }
+
+    @Test
+    void rebuildOrder_ShouldRemoveDeletedOrderFromCountersAndSummary() {
+        // Given
+        insertLiveRow(8L, 10L, "CONFIRMED", false, "alice");
+        orderStatusCounters.increment(OrderStatus.CONFIRMED);
+        userOrderSummaryProjection.rebuild().block();
+        when(orderEventStore.findByOrderId(8L)).thenReturn(Flux.just(
+                created(8L, 10L, "20.00"),
+                new OrderStatusUpdatedEvent(8L, 10L, "PENDING", "CONFIRMED", 2L),
+                new OrderDeletedEvent(8L, 10L)));
+
+        // When
+        rebuilder.rebuildOrder(8L).block();
+
+        // Then
+        assertEquals(0L, orderStatusCounters.get(OrderStatus.CONFIRMED));
+        assertEquals(0L, userOrderSummaryProjection.findByUserId(10L).block().getOrderCount());
+    }
+
+    private void insertLiveRow(Long id, Long userId, String status, boolean deleted, String username) {
+        databaseClient.sql("INSERT INTO order_read_models (id, user_id, total_amount, status, created_at, updated_at, " +
+                        "is_deleted, user_username, user_email, items_count, order_version) " +
+                        "VALUES (:id, :userId, 20.00, :status, :now, :now, :deleted, :username, :email, 1, 1)")
+                .bind("id", id)
+                .bind("userId", userId)
+                .bind("status", status)
+                .bind("now", LocalDateTime.now())
+                .bind("deleted", deleted)
+                .bind("username", username)
+                .bind("email", username + "@example.com")
+                .fetch()
+                .rowsUpdated()
+                .block();
+    }
+
+    private String synonymTarget() {
+        return queryString("SELECT SYNONYM_FOR AS v FROM INFORMATION_SCHEMA.SYNONYMS WHERE SYNONYM_NAME = 'ORDER_READ_MODELS'");
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql).map((row, metadata) -> row.get("total", Long.class)).one().block();
+    }
+
+    private String queryString(String sql) {
+        return databaseClient.sql(sql).map((row, metadata) -> row.get("v", String.class)).one().block();
+    }
+
+    private static OrderCreatedEvent created(Long orderId, Long userId, String amount) {
+        return new OrderCreatedEvent(orderId, userId, new BigDecimal(amount), List.of(), "Main St 1", null, 1L);
+    }
+
+    private static UserDto user(Long id, String username) {
+        return new UserDto(id, username, username + "@example.com", "First", "Last", "ACTIVE");
+    }
+}
@@ -0,0 +1,69 @@
+package com.bootcamp.order.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatusTransitionsTest {
+
+    private static final Map<OrderStatus, Set<OrderStatus>> EXPECTED_SUCCESSORS = Map.of(
+            OrderStatus.PENDING, EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.CANCELLED),
+            OrderStatus.CONFIRMED, EnumSet.of(OrderStatus.PROCESSING, OrderStatus.SHIPPED, OrderStatus.CANCELLED),
+            OrderStatus.PROCESSING, EnumSet.of(OrderStatus.SHIPPED, OrderStatus.CANCELLED),
+            OrderStatus.SHIPPED, EnumSet.of(OrderStatus.DELIVERED),
+            OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class),
+            OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+    @Test
+    void isAllowed_ShouldFollowTheTransitionTable() {
+        for (OrderStatus from : OrderStatus.values()) {
+            for (OrderStatus to : OrderStatus.values()) {
+                assertEquals(EXPECTED_SUCCESSORS.get(from).contains(to), OrderStatusTransitions.isAllowed(from, to),
+                        from + " -> " + to);
+            }
+        }
+    }
+
+    @Test
+    void isAllowed_ShouldRejectStayingInTheSameStatus() {
+        for (OrderStatus status : OrderStatus.values()) {
+            assertFalse(OrderStatusTransitions.isAllowed(status, status), status.name());
+        }
+    }
+
+    @Test
+    void predecessorNames_ShouldListStatusesTheTargetCanBeReachedFrom() {
+        assertEquals(List.of(), OrderStatusTransitions.predecessorNames(OrderStatus.PENDING));
+        assertEquals(List.of("PENDING"), OrderStatusTransitions.predecessorNames(OrderStatus.CONFIRMED));
+        assertEquals(List.of("CONFIRMED"), OrderStatusTransitions.predecessorNames(OrderStatus.PROCESSING));
+        assertEquals(List.of("CONFIRMED", "PROCESSING"), OrderStatusTransitions.predecessorNames(OrderStatus.SHIPPED));
+        assertEquals(List.of("SHIPPED"), OrderStatusTransitions.predecessorNames(OrderStatus.DELIVERED));
+        assertEquals(List.of("PENDING", "CONFIRMED", "PROCESSING"),
+                OrderStatusTransitions.predecessorNames(OrderStatus.CANCELLED));
+    }
+
+    @Test
+    void predecessorNames_ShouldMatchIsAllowed() {
+        for (OrderStatus target : OrderStatus.values()) {
+            for (OrderStatus from : OrderStatus.values()) {
+                assertEquals(OrderStatusTransitions.isAllowed(from, target),
+                        OrderStatusTransitions.predecessorNames(target).contains(from.name()),
+                        from + " -> " + target);
+            }
+        }
+    }
+
+    @Test
+    void parse_ShouldAcceptKnownNamesIgnoringCaseAndWhitespace() {
+        assertEquals(OrderStatus.SHIPPED, OrderStatusTransitions.parse("SHIPPED"));
+        assertEquals(OrderStatus.CANCELLED, OrderStatusTransitions.parse(" cancelled "));
+        assertNull(OrderStatusTransitions.parse("RETURNED"));
+        assertNull(OrderStatusTransitions.parse(""));
+        assertNull(OrderStatusTransitions.parse(null));
+    }
+}
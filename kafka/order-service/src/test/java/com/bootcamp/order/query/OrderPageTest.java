@@ -0,0 +1,127 @@
+package com.bootcamp.order.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderPageTest {
+
+    @Test
+    void decodeCursor_ShouldReturnTheEncodedPosition() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+
+        // When
+        OrderPage.Cursor<LocalDateTime> cursor = OrderPage.decodeCursor(OrderPage.encodeCursor(createdAt, 42L));
+
+        // Then
+        assertEquals(createdAt, cursor.getKey());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void decodeAmountCursor_ShouldReturnTheEncodedPosition() {
+        // When
+        OrderPage.Cursor<BigDecimal> cursor = OrderPage.decodeAmountCursor(
+                OrderPage.encodeCursor(new BigDecimal("1359.90"), Long.MAX_VALUE));
+
+        // Then
+        assertEquals(new BigDecimal("1359.90"), cursor.getKey());
+        assertEquals(Long.MAX_VALUE, cursor.getId());
+    }
+
+    @Test
+    void encodeCursor_ShouldBeUrlSafe() {
+        String cursor = OrderPage.encodeCursor(LocalDateTime.of(2024, 3, 1, 10, 15, 30), 42L);
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+    }
+
+    @Test
+    void decodeCursor_ShouldRejectMalformedCursors() {
+        String noSeparator = opaque("2024-03-01T10:15");
+        String badId = opaque("2024-03-01T10:15|x");
+        String amountCursor = OrderPage.encodeCursor(new BigDecimal("10.00"), 1L);
+
+        assertThrows(IllegalArgumentException.class, () -> OrderPage.decodeCursor("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> OrderPage.decodeCursor(noSeparator));
+        assertThrows(IllegalArgumentException.class, () -> OrderPage.decodeCursor(badId));
+        assertThrows(IllegalArgumentException.class, () -> OrderPage.decodeCursor(amountCursor));
+        assertThrows(IllegalArgumentException.class, () -> OrderPage.decodeAmountCursor(
+                OrderPage.encodeCursor(LocalDateTime.of(2024, 3, 1, 10, 15), 1L)));
+    }
+
+    @Test
+    void of_ShouldReturnLastPageWithoutCursor() {
+        // Given
+        List<OrderReadModel> rows = orders(3);
+
+        // When
+        OrderPage page = OrderPage.of(rows, 3);
+
+        // Then
+        assertEquals(3, page.getItems().size());
+        assertNull(page.getNextCursor());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void of_ShouldDropTheExtraRowAndPointAtTheLastItem() {
+        // Given
+        List<OrderReadModel> rows = orders(4);
+
+        // When
+        OrderPage page = OrderPage.of(rows, 3);
+        OrderPage.Cursor<LocalDateTime> cursor = OrderPage.decodeCursor(page.getNextCursor());
+
+        // Then
+        assertEquals(3, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(rows.get(2).getCreatedAt(), cursor.getKey());
+        assertEquals(rows.get(2).getId(), cursor.getId());
+    }
+
+    @Test
+    void byTotalAmount_ShouldPointAtTheAmountOfTheLastItem() {
+        // Given
+        List<OrderReadModel> rows = orders(3);
+
+        // When
+        OrderPage page = OrderPage.byTotalAmount(rows, 2);
+        OrderPage.Cursor<BigDecimal> cursor = OrderPage.decodeAmountCursor(page.getNextCursor());
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        assertEquals(rows.get(1).getTotalAmount(), cursor.getKey());
+        assertEquals(rows.get(1).getId(), cursor.getId());
+    }
+
+    @Test
+    void firstPageCursors_ShouldSortBeforeEveryStoredOrder() {
+        assertTrue(OrderPage.Cursor.FIRST.getKey().isAfter(LocalDateTime.of(9999, 1, 1, 0, 0)));
+        // total_amount is DECIMAL(10,2): at most 99999999.99
+        assertTrue(OrderPage.Cursor.FIRST_BY_TOTAL_AMOUNT.getKey().compareTo(new BigDecimal("99999999.99")) > 0);
+        assertEquals(Long.MAX_VALUE, OrderPage.Cursor.FIRST_BY_TOTAL_AMOUNT.getId());
+    }
+
+    private static String opaque(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<OrderReadModel> orders(int count) {
+        List<OrderReadModel> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            OrderReadModel order = new OrderReadModel(100L - i, 1L, new BigDecimal("500.00").subtract(BigDecimal.valueOf(i)));
+            order.setCreatedAt(LocalDateTime.of(2024, 3, 1, 10, 0).minusMinutes(i));
+            rows.add(order);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,120 @@
+package com.bootcamp.order.query;
+
+import com.bootcamp.order.model.OrderStatus;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Exercises the read-your-writes path of the order query service
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderQueryServiceTest {
+
+    @Mock
+    private OrderReadModelRepository orderReadModelRepository;
+
+    private final ReadModelVersionNotifier readModelVersionNotifier = new ReadModelVersionNotifier();
+    private final AtomicReference<OrderReadModel> readModel = new AtomicReference<>();
+    private DatabaseClient databaseClient;
+    private OrderQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("query-" + UUID.randomUUID());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+        databaseClient = DatabaseClient.create(connectionFactory);
+
+        service = new OrderQueryService();
+        ReflectionTestUtils.setField(service, "orderReadModelRepository", orderReadModelRepository);
+        ReflectionTestUtils.setField(service, "readModelVersionNotifier", readModelVersionNotifier);
+        ReflectionTestUtils.setField(service, "databaseClient", databaseClient);
+        ReflectionTestUtils.setField(service, "consistencyWaitMs", 2000L);
+
+        lenient().when(orderReadModelRepository.findById(1L))
+                .thenAnswer(invocation -> Mono.justOrEmpty(readModel.get()));
+    }
+
+    @Test
+    void getOrderById_ShouldServeReadModelThatAlreadyHasTheVersion() {
+        // Given
+        readModel.set(readModel(3L, false));
+
+        // When / Then
+        StepVerifier.create(service.getOrderById(1L, 3L))
+                .assertNext(order -> assertEquals(3L, order.getOrderVersion()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getOrderById_ShouldWaitForTheProjectionToApplyTheVersion() {
+        // Given - the read model is one version behind until the projection reports the next one
+        readModel.set(readModel(2L, false));
+        Mono<Void> projection = Mono.delay(Duration.ofMillis(100), Schedulers.parallel())
+                .doOnNext(tick -> {
+                    readModel.set(readModel(3L, false));
+                    readModelVersionNotifier.versionApplied(1L, 3L);
+                })
+                .then();
+
+        // When / Then - answered from the read model well before the wait runs out
+        StepVerifier.create(service.getOrderById(1L, 3L).doOnSubscribe(subscription -> projection.subscribe()))
+                .assertNext(order -> assertEquals(3L, order.getOrderVersion()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void getOrderById_ShouldFallBackToWriteModelWhenProjectionStaysBehind() {
+        // Given
+        ReflectionTestUtils.setField(service, "consistencyWaitMs", 50L);
+        readModel.set(readModel(2L, false));
+        databaseClient.sql("INSERT INTO orders (id, user_id, total_amount, status, version) " +
+                        "VALUES (1, 7, 10.00, 'CONFIRMED', 3)")
+                .fetch().rowsUpdated().block();
+
+        // When / Then
+        StepVerifier.create(service.getOrderById(1L, 3L))
+                .assertNext(order -> {
+                    assertEquals(3L, order.getOrderVersion());
+                    assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getOrderById_ShouldBeEmptyOnceTheOrderIsDeleted() {
+        // Given - a deleted row satisfies any version
+        readModel.set(readModel(2L, true));
+
+        // When / Then
+        StepVerifier.create(service.getOrderById(1L, 10L))
+                .verifyComplete();
+    }
+
+    private static OrderReadModel readModel(long version, boolean deleted) {
+        OrderReadModel order = new OrderReadModel(1L, 7L, new BigDecimal("10.00"));
+        order.setIsDeleted(deleted);
+        order.setOrderVersion(version);
+        return order;
+    }
+}
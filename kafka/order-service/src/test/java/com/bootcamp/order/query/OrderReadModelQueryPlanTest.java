@@ -0,0 +1,164 @@
+package com.bootcamp.order.query;
+
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks with EXPLAIN that the read model queries use the indexes built for them
+ *
+ * The SQL is taken from the repository annotations, so a query and its
+ * index cannot drift apart unnoticed.
+ */
+class OrderReadModelQueryPlanTest {
+
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("plans-" + UUID.randomUUID());
+        new ResourceDatabasePopulator(new ClassPathResource("schema-read-model.sql")).populate(connectionFactory).block();
+        databaseClient = DatabaseClient.create(connectionFactory);
+
+        // 5,000 orders of 500 users, one every 5 minutes, every 20th deleted
+        execute("INSERT INTO order_read_models (id, user_id, total_amount, status, created_at, updated_at, " +
+                "is_deleted, user_username, items_count, order_version) " +
+                "SELECT x, MOD(x, 500), CAST(MOD(x * 31, 100000) AS DECIMAL(10,2)) / 100, " +
+                "CASEWHEN(MOD(x, 2) = 0, 'SHIPPED', 'PENDING'), " +
+                "DATEADD(MINUTE, x * 5, TIMESTAMP '2024-01-01 00:00:00'), " +
+                "DATEADD(MINUTE, x * 5, TIMESTAMP '2024-01-01 00:00:00'), " +
+                "MOD(x, 20) = 0, CONCAT('user', MOD(x, 500)), 1, 1 FROM SYSTEM_RANGE(1, 5000)");
+        execute("ANALYZE");
+    }
+
+    @Test
+    void findByDateRange_ShouldUseTheActiveCreatedIndexWithTypedBounds() throws Exception {
+        // Given
+        String sql = query("findByDateRange", LocalDateTime.class, LocalDateTime.class);
+        Map<String, Object> bindings = Map.of(
+                "startDate", LocalDateTime.of(2024, 1, 2, 0, 0),
+                "endDate", LocalDateTime.of(2024, 1, 3, 0, 0));
+
+        // When / Then - the inclusive day holds 289 orders, 14 of them deleted
+        assertTrue(explain(sql, bindings).contains("IDX_ACTIVE_CREATED_1: IS_DELETED = FALSE AND CREATED_AT >= ?1 AND CREATED_AT <= ?2"));
+        assertEquals(275L, count(sql, bindings));
+    }
+
+    @Test
+    void findByTotalAmountGreaterThan_ShouldUseTheActiveTotalAmountIndex() throws Exception {
+        String sql = query("findByTotalAmountGreaterThan", BigDecimal.class);
+
+        assertTrue(explain(sql, Map.of("minAmount", new BigDecimal("990")))
+                .contains("IDX_ACTIVE_TOTAL_AMOUNT_1: IS_DELETED = FALSE AND TOTAL_AMOUNT > ?1"));
+    }
+
+    @Test
+    void findByStatus_ShouldUseTheStatusActiveCreatedIndex() throws Exception {
+        String sql = query("findByStatus", String.class);
+
+        assertTrue(explain(sql, Map.of("status", "SHIPPED"))
+                .contains("IDX_STATUS_ACTIVE_CREATED_1: STATUS = ?1 AND IS_DELETED = FALSE"));
+    }
+
+    @Test
+    void findByUserUsernameContainingIndexed_ShouldLookUpCandidatesThroughTheTrigramKey() throws Exception {
+        String sql = query("findByUserUsernameContainingIndexed", String.class, List.class, int.class);
+        List<String> trigrams = UsernameTrigramIndex.trigrams("er12");
+
+        String plan = explain(sql, Map.of("username", "er12", "trigrams", trigrams, "trigramCount", trigrams.size()));
+
+        assertTrue(plan.contains("IDX_USER_USERNAME_1: USER_USERNAME IN("), plan);
+        assertTrue(plan.contains("ORDER_USERNAME_TRIGRAMS /* PUBLIC.PRIMARY_KEY"), plan);
+    }
+
+    @Test
+    void findActivePage_ShouldReadTheActiveCreatedIndexInOrderWithoutSorting() throws Exception {
+        String sql = query("findActivePage", LocalDateTime.class, Long.class, int.class);
+
+        String plan = explain(sql, Map.of("createdAt", LocalDateTime.of(2024, 1, 5, 0, 0), "id", 100L, "limit", 50));
+
+        assertTrue(plan.contains("IDX_ACTIVE_CREATED_1"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void findByStatusPage_ShouldReadTheStatusActiveCreatedIndexInOrderWithoutSorting() throws Exception {
+        String sql = query("findByStatusPage", String.class, LocalDateTime.class, Long.class, int.class);
+
+        String plan = explain(sql, Map.of("status", "SHIPPED",
+                "createdAt", LocalDateTime.of(2024, 1, 5, 0, 0), "id", 100L, "limit", 50));
+
+        assertTrue(plan.contains("IDX_STATUS_ACTIVE_CREATED_1"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void findByTotalAmountGreaterThanPage_ShouldReadTheActiveTotalAmountIndexInOrderWithoutSorting() throws Exception {
+        String sql = query("findByTotalAmountGreaterThanPage", BigDecimal.class, BigDecimal.class, Long.class, int.class);
+
+        String plan = explain(sql, Map.of("minAmount", new BigDecimal("100"),
+                "totalAmount", new BigDecimal("900"), "id", 100L, "limit", 50));
+
+        assertTrue(plan.contains("IDX_ACTIVE_TOTAL_AMOUNT_1"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void findActivePage_ShouldReturnTheNextRowsInCreatedOrder() throws Exception {
+        // Given - the cursor is the order created at 2024-01-01 08:20, id 100
+        String sql = query("findActivePage", LocalDateTime.class, Long.class, int.class);
+
+        // When
+        List<Long> ids = databaseClient.sql(sql)
+                .bind("createdAt", LocalDateTime.of(2024, 1, 1, 8, 20))
+                .bind("id", 100L)
+                .bind("limit", 5)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .block();
+
+        // Then
+        assertEquals(List.of(99L, 98L, 97L, 96L, 95L), ids);
+    }
+
+    private static String query(String method, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return OrderReadModelRepository.class.getMethod(method, parameterTypes).getAnnotation(Query.class).value();
+    }
+
+    private String explain(String sql, Map<String, Object> bindings) {
+        String plan = (String) bind(databaseClient.sql("EXPLAIN " + sql), bindings)
+                .map((row, metadata) -> row.get(0))
+                .one()
+                .block();
+        return plan.replaceAll("\\s+", " ");
+    }
+
+    private long count(String sql, Map<String, Object> bindings) {
+        return bind(databaseClient.sql(sql), bindings).fetch().all().count().block();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> bindings) {
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec;
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).fetch().rowsUpdated().block();
+    }
+}
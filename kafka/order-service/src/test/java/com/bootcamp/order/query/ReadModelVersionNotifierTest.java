@@ -0,0 +1,83 @@
+package com.bootcamp.order.query;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+class ReadModelVersionNotifierTest {
+
+    private final ReadModelVersionNotifier notifier = new ReadModelVersionNotifier();
+
+    @Test
+    void await_ShouldCompleteWhenVersionIsApplied() {
+        // Given
+        ReadModelVersionNotifier.Waiter waiter = notifier.register(1L, 3L);
+
+        // When / Then
+        StepVerifier.create(waiter.await(Duration.ofSeconds(5)))
+                .then(() -> notifier.versionApplied(1L, 3L))
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void await_ShouldCompleteWhenVersionWasAppliedBeforeSubscribing() {
+        // Given - the version lands between register and await
+        ReadModelVersionNotifier.Waiter waiter = notifier.register(1L, 3L);
+        notifier.versionApplied(1L, 4L);
+
+        // When / Then
+        StepVerifier.create(waiter.await(Duration.ofSeconds(5)))
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void await_ShouldKeepWaitingForLowerVersionsAndOtherOrders() {
+        // Given
+        ReadModelVersionNotifier.Waiter waiter = notifier.register(1L, 3L);
+
+        // When / Then - neither wakes the waiter, so it ends on its own timeout
+        StepVerifier.withVirtualTime(() -> waiter.await(Duration.ofMillis(500)))
+                .expectSubscription()
+                .then(() -> notifier.versionApplied(1L, 2L))
+                .then(() -> notifier.versionApplied(2L, 3L))
+                .expectNoEvent(Duration.ofMillis(499))
+                .thenAwait(Duration.ofMillis(1))
+                .verifyComplete();
+    }
+
+    @Test
+    void versionApplied_ShouldReleaseEveryWaiterOfADeletedOrder() {
+        // Given
+        ReadModelVersionNotifier.Waiter first = notifier.register(1L, 3L);
+        ReadModelVersionNotifier.Waiter second = notifier.register(1L, 100L);
+
+        // When
+        notifier.versionApplied(1L, ReadModelVersionNotifier.DELETED);
+
+        // Then
+        StepVerifier.create(first.await(Duration.ofSeconds(5))).expectComplete().verify(Duration.ofSeconds(1));
+        StepVerifier.create(second.await(Duration.ofSeconds(5))).expectComplete().verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void release_ShouldStopTheWaiterFromBeingSignalled() {
+        // Given
+        ReadModelVersionNotifier.Waiter released = notifier.register(1L, 3L);
+        ReadModelVersionNotifier.Waiter kept = notifier.register(1L, 3L);
+
+        // When
+        notifier.release(released);
+        notifier.versionApplied(1L, 3L);
+
+        // Then - only the registered waiter is woken
+        StepVerifier.create(kept.await(Duration.ofSeconds(5))).expectComplete().verify(Duration.ofSeconds(1));
+        StepVerifier.withVirtualTime(() -> released.await(Duration.ofMillis(500)))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(499))
+                .thenAwait(Duration.ofMillis(1))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,38 @@
+package com.bootcamp.order.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsernameTrigramIndexTest {
+
+    @Test
+    void trigrams_ShouldReturnEveryThreeCharacterSubstringInOrder() {
+        assertEquals(List.of("joh", "ohn", "hn_", "n_d", "_do", "doe"), UsernameTrigramIndex.trigrams("john_doe"));
+    }
+
+    @Test
+    void trigrams_ShouldLowerCaseTheText() {
+        assertEquals(UsernameTrigramIndex.trigrams("john"), UsernameTrigramIndex.trigrams("JoHN"));
+    }
+
+    @Test
+    void trigrams_ShouldDropDuplicates() {
+        assertEquals(List.of("aaa"), UsernameTrigramIndex.trigrams("aaaaa"));
+        assertEquals(List.of("aba", "bab"), UsernameTrigramIndex.trigrams("ababa"));
+    }
+
+    @Test
+    void trigrams_ShouldReturnOneTrigramForThreeCharacters() {
+        assertEquals(List.of("abc"), UsernameTrigramIndex.trigrams("abc"));
+    }
+
+    @Test
+    void trigrams_ShouldBeEmptyForShortOrMissingText() {
+        assertTrue(UsernameTrigramIndex.trigrams(null).isEmpty());
+        assertTrue(UsernameTrigramIndex.trigrams("").isEmpty());
+        assertTrue(UsernameTrigramIndex.trigrams("ab").isEmpty());
+    }
+}
@@ -1,17 +1,27 @@
 package com.bootcamp.user.controller;
 
+import com.bootcamp.user.dto.BulkUserImportResult;
 import com.bootcamp.user.dto.UserDto;
+import com.bootcamp.user.dto.UserPage;
+import com.bootcamp.user.service.BulkUserImportService;
+import com.bootcamp.user.service.UserError;
 import com.bootcamp.user.service.UserService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Objects;
+
 /**
  * User Controller
  * 
@@ -31,6 +41,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private BulkUserImportService bulkUserImportService;
+
     /**
      * Create a new user reactively
      * 
@@ -46,39 +59,123 @@ public class UserController {
                     logger.info("User created successfully with ID: {}", createdUser.getId());
                     return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
                 })
-                .onErrorResume(RuntimeException.class, e -> {
-                    logger.error("Failed to create user: {}", e.getMessage());
-                    return Mono.just(ResponseEntity.badRequest().<UserDto>build());
+                .onErrorResume(UserError.class, e -> {
+                    logger.warn("Failed to create user: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(toHttpStatus(e)).<UserDto>build());
                 });
     }
 
     /**
-     * Get all users reactively
+     * Import users in bulk from an NDJSON stream
+     * 
+     * Each line is a user. One result per line is streamed back as NDJSON,
+     * in the same order, as soon as the line's chunk is written.
+     * 
+     * @param users the users to create
+     * @return Flux with the result of each line
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkUserImportResult> importUsers(@RequestBody Flux<UserDto> users) {
+        logger.info("Received bulk user import request (NDJSON)");
+        return bulkUserImportService.importUsers(users);
+    }
+
+    /**
+     * Import users in bulk from a CSV stream
+     * 
+     * The first line is a header with the username, email, firstName and
+     * lastName columns. One result per data line is streamed back as NDJSON.
+     * 
+     * @param lines the CSV lines
+     * @return Flux with the result of each data line
+     */
+    @PostMapping(value = "/import", consumes = "text/csv", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkUserImportResult> importUsersCsv(@RequestBody Flux<String> lines) {
+        logger.info("Received bulk user import request (CSV)");
+        return bulkUserImportService.importCsv(lines)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * Get a page of users reactively
      * 
-     * @return ResponseEntity with Flux of all users
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param limit the maximum number of users to return (at most 500)
+     * @param fields comma-separated fields to return, omitted for all fields
+     * @return ResponseEntity with the page of users
      */
     @GetMapping
-    public Flux<UserDto> getAllUsers() {
-        logger.info("Received request to get all users");
+    public Mono<ResponseEntity<UserPage>> getUsers(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int limit,
+                                                   @RequestParam(required = false) String fields) {
+        logger.info("Received request to get users (cursor: {}, limit: {})", cursor, limit);
+        
+        return userService.getUsersPage(cursor, limit, fields)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    logger.warn("Invalid users page request: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().<UserPage>build());
+                });
+    }
+
+    /**
+     * Stream all users reactively
+     * 
+     * Users are written as newline-delimited JSON and read from the database
+     * only as fast as the client consumes them.
+     * 
+     * @param fields comma-separated fields to return, omitted for all fields
+     * @return Flux of all users
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserDto> streamUsers(@RequestParam(required = false) String fields) {
+        logger.info("Received request to stream all users");
+        
+        return userService.streamUsers(fields)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .doOnComplete(() -> logger.info("Streamed all users"));
+    }
+
+    /**
+     * Search users reactively
+     * 
+     * @param q whitespace-separated terms of at least two characters, each matching the start of the username, email, first or last name
+     * @param status only users in this status, omitted for all statuses
+     * @param limit the maximum number of users to return (at most 100)
+     * @return Flux of the best matching users, best first
+     */
+    @GetMapping("/search")
+    public Flux<UserDto> searchUsers(@RequestParam String q,
+                                     @RequestParam(required = false) String status,
+                                     @RequestParam(defaultValue = "20") int limit) {
+        logger.debug("Received request to search users for '{}'", q);
         
-        return userService.getAllUsers()
-                .doOnComplete(() -> logger.info("Retrieved all users"));
+        return userService.searchUsers(q, status, limit)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
     }
 
     /**
      * Get user by ID reactively
      * 
+     * The response carries an ETag; a request whose If-None-Match matches
+     * it is answered with 304 Not Modified and no body.
+     * 
      * @param id the user ID
+     * @param ifNoneMatch ETags of the copies the caller already has
      * @return ResponseEntity with the user if found
      */
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<UserDto>> getUserById(@PathVariable Long id) {
-        logger.info("Received request to get user with ID: {}", id);
+    public Mono<ResponseEntity<UserDto>> getUserById(@PathVariable Long id,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Received request to get user with ID: {}", id);
         
         return userService.getUserById(id)
                 .map(user -> {
-                    logger.info("User found with ID: {}", id);
-                    return ResponseEntity.ok(user);
+                    logger.debug("User found with ID: {}", id);
+                    return conditionalResponse(user, ifNoneMatch);
                 })
                 .defaultIfEmpty(ResponseEntity.notFound().build())
                 .doOnNext(response -> {
@@ -91,17 +188,21 @@ public class UserController {
     /**
      * Get user by username reactively
      * 
+     * Supports If-None-Match like {@link #getUserById}.
+     * 
      * @param username the username to search for
+     * @param ifNoneMatch ETags of the copies the caller already has
      * @return ResponseEntity with the user if found
      */
     @GetMapping("/username/{username}")
-    public Mono<ResponseEntity<UserDto>> getUserByUsername(@PathVariable String username) {
-        logger.info("Received request to get user with username: {}", username);
+    public Mono<ResponseEntity<UserDto>> getUserByUsername(@PathVariable String username,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Received request to get user with username: {}", username);
         
         return userService.getUserByUsername(username)
                 .map(user -> {
-                    logger.info("User found with username: {}", username);
-                    return ResponseEntity.ok(user);
+                    logger.debug("User found with username: {}", username);
+                    return conditionalResponse(user, ifNoneMatch);
                 })
                 .defaultIfEmpty(ResponseEntity.notFound().build())
                 .doOnNext(response -> {
@@ -127,9 +228,9 @@ public class UserController {
                     logger.info("User updated successfully with ID: {}", id);
                     return ResponseEntity.ok(updatedUser);
                 })
-                .onErrorResume(RuntimeException.class, e -> {
-                    logger.error("Failed to update user: {}", e.getMessage());
-                    return Mono.just(ResponseEntity.notFound().<UserDto>build());
+                .onErrorResume(UserError.class, e -> {
+                    logger.warn("Failed to update user: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(toHttpStatus(e)).<UserDto>build());
                 });
     }
 
@@ -146,12 +247,65 @@ public class UserController {
         return userService.deleteUser(id)
                 .then(Mono.just(ResponseEntity.noContent().<Void>build()))
                 .doOnNext(response -> logger.info("User deleted successfully with ID: {}", id))
-                .onErrorResume(RuntimeException.class, e -> {
-                    logger.error("Failed to delete user: {}", e.getMessage());
-                    return Mono.just(ResponseEntity.notFound().<Void>build());
+                .onErrorResume(UserError.class, e -> {
+                    logger.warn("Failed to delete user: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(toHttpStatus(e)).<Void>build());
                 });
     }
 
+    /**
+     * Build a user response that honours If-None-Match
+     * 
+     * @param user the current user
+     * @param ifNoneMatch the If-None-Match request header, or null
+     * @return 304 without a body if the caller's copy is current, otherwise 200 with the user
+     */
+    private ResponseEntity<UserDto> conditionalResponse(UserDto user, String ifNoneMatch) {
+        String etag = etag(user);
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(user);
+    }
+
+    /**
+     * Compute the entity tag of a user representation
+     * 
+     * @param user the user
+     * @return the quoted entity tag, derived from the user's ID and content
+     */
+    private static String etag(UserDto user) {
+        int contentHash = Objects.hash(user.getUsername(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                user.getCreatedAt(), user.getUpdatedAt(), user.getStatus());
+        return "\"" + user.getId() + "-" + Integer.toHexString(contentHash) + "\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Map a user operation failure to its HTTP status
+     * 
+     * @param error the failure
+     * @return the response status
+     */
+    private HttpStatus toHttpStatus(UserError error) {
+        return error.getKind() == UserError.Kind.NOT_FOUND ? HttpStatus.NOT_FOUND : HttpStatus.CONFLICT;
+    }
+
     /**
      * Health check endpoint reactively
      * 
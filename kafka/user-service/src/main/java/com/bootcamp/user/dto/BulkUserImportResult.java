@@ -0,0 +1,67 @@
+package com.bootcamp.user.dto;
+
+/**
+ * Result of one record of a bulk user import
+ *
+ * Streamed back to the client in the same order as the submitted records.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class BulkUserImportResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private final long line;
+    private final String status;
+    private final Long userId;
+    private final String error;
+
+    private BulkUserImportResult(long line, String status, Long userId, String error) {
+        this.line = line;
+        this.status = status;
+        this.userId = userId;
+        this.error = error;
+    }
+
+    public static BulkUserImportResult created(long line, Long userId) {
+        return new BulkUserImportResult(line, CREATED, userId, null);
+    }
+
+    public static BulkUserImportResult rejected(long line, String error) {
+        return new BulkUserImportResult(line, REJECTED, null, error);
+    }
+
+    public static BulkUserImportResult failed(long line, String error) {
+        return new BulkUserImportResult(line, FAILED, null, error);
+    }
+
+    // Getters
+    public long getLine() {
+        return line;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkUserImportResult{" +
+                "line=" + line +
+                ", status='" + status + '\'' +
+                ", userId=" + userId +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -1,5 +1,6 @@
 package com.bootcamp.user.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -11,10 +12,12 @@ import java.time.LocalDateTime;
  * 
  * Used for transferring user data between layers and services.
  * Contains validation annotations for input validation.
+ * Fields left out of a projection are null and omitted from the JSON.
  * 
  * @author Bootcamp Instructor
  * @version 1.0
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserDto {
 
     private Long id;
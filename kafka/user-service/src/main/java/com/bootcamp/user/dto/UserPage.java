@@ -0,0 +1,87 @@
+package com.bootcamp.user.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Page of users
+ *
+ * Pages are navigated with an opaque keyset cursor that encodes the ID of
+ * the last user returned, so fetching any page costs the same primary key
+ * range scan regardless of table size.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public class UserPage {
+
+    private final List<UserDto> items;
+    private final String nextCursor;
+
+    public UserPage(List<UserDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<UserDto> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Build a page from a result fetched with one extra row
+     *
+     * @param rows the rows fetched with limit + 1, ordered by ID
+     * @param limit the requested page size
+     * @return the page, with a cursor to the next page if more rows exist
+     */
+    public static UserPage of(List<UserDto> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new UserPage(rows, null);
+        }
+        List<UserDto> items = rows.subList(0, limit);
+        return new UserPage(items, encodeCursor(items.get(limit - 1).getId()));
+    }
+
+    /**
+     * Encode a keyset position as an opaque cursor
+     *
+     * @param id ID of the last returned user
+     * @return URL-safe cursor string
+     */
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor into its keyset position
+     *
+     * @param cursor the cursor returned by a previous page
+     * @return the ID after which the next page starts
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "UserPage{" +
+                "items=" + items.size() +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
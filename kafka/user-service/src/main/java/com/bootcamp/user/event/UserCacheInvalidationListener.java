@@ -0,0 +1,71 @@
+package com.bootcamp.user.event;
+
+import com.bootcamp.user.service.UserCache;
+import com.bootcamp.user.service.UserSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * User Cache Invalidation Listener
+ *
+ * Consumes user-events to drop users changed by other user-service
+ * instances from this instance's near-cache, and to apply their changes
+ * to this instance's search index. Every instance joins its own consumer
+ * group and starts at the latest offset, so each one sees every new event
+ * without replaying history.
+ *
+ * The search index reloads the user from the database rather than using
+ * the event's fields, which do not include every indexed field. Events
+ * are applied one at a time on the listener thread, so an older reload
+ * never overwrites a newer one. An instance also receives its own events;
+ * reloading a user it already indexed is harmless.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class UserCacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCacheInvalidationListener.class);
+
+    private static final Duration INDEX_REFRESH_TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    /**
+     * Invalidate the cached copy of an updated or deleted user and update its search index entry
+     *
+     * @param userEvent the user event received from Kafka
+     */
+    @KafkaListener(topics = "user-events", groupId = "user-service-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void onUserEvent(UserEvent userEvent) {
+        Long userId = userEvent.getUserId();
+        if (userId == null) {
+            return;
+        }
+        if (!UserEventType.USER_CREATED.toString().equals(userEvent.getEventType())) {
+            logger.debug("Invalidating cached user {} after {}", userId, userEvent.getEventType());
+            userCache.invalidate(userId);
+        }
+        try {
+            if (UserEventType.USER_DELETED.toString().equals(userEvent.getEventType())) {
+                userSearchIndex.remove(userId);
+            } else {
+                userSearchIndex.refresh(userId).block(INDEX_REFRESH_TIMEOUT);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to apply {} of user {} to the search index: {}",
+                    userEvent.getEventType(), userId, e.getMessage());
+        }
+    }
+}
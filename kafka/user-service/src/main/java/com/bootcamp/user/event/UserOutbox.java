@@ -0,0 +1,78 @@
+package com.bootcamp.user.event;
+
+import com.bootcamp.user.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * User event outbox
+ *
+ * Records user events in the user_outbox table. Callers append within the
+ * transaction that changes the user, so an event is stored if and only if
+ * its change is committed; {@link UserOutboxRelay} then publishes it to
+ * Kafka outside of the request path.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class UserOutbox {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Append the event of one user change
+     *
+     * @param eventType the type of event
+     * @param user the user after the change
+     * @return Mono indicating completion
+     */
+    public Mono<Void> append(UserEventType eventType, User user) {
+        return appendAll(eventType, List.of(user));
+    }
+
+    /**
+     * Append events of the same type for several users with one multi-row statement
+     *
+     * @param eventType the type of event
+     * @param users the users after the change
+     * @return Mono indicating completion
+     */
+    public Mono<Void> appendAll(UserEventType eventType, List<User> users) {
+        if (users.isEmpty()) {
+            return Mono.empty();
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO user_outbox ")
+                .append("(event_type, user_id, username, email, created_at) VALUES ");
+        for (int i = 0; i < users.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:eventType, :userId").append(i)
+                    .append(", :username").append(i)
+                    .append(", :email").append(i)
+                    .append(", :createdAt)");
+        }
+
+        // Bound with one bindValues call; binding one parameter at a time copies
+        // the parameters bound so far on every call
+        Map<String, Object> values = new HashMap<>();
+        values.put("eventType", eventType.toString());
+        values.put("createdAt", LocalDateTime.now());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            values.put("userId" + i, user.getId());
+            values.put("username" + i, user.getUsername());
+            values.put("email" + i, user.getEmail());
+        }
+        return databaseClient.sql(sql.toString()).bindValues(values).fetch().rowsUpdated().then();
+    }
+}
@@ -0,0 +1,210 @@
+package com.bootcamp.user.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * User outbox relay
+ *
+ * Publishes the events recorded in user_outbox to the user-events topic.
+ * Rows are read in batches in insertion order, sent keyed by user ID so
+ * each user's events stay ordered on one partition, and deleted only once
+ * the producer has acknowledged the whole batch. A failed batch stays in
+ * the outbox and is retried on the next pass, so events are delivered at
+ * least once and never lost.
+ *
+ * A pass runs when a write wakes the relay up, and every
+ * user.outbox.poll-interval-ms as a fallback. Passes never overlap; a
+ * wake-up during a pass triggers another one when it ends.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class UserOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserOutboxRelay.class);
+    private static final String USER_EVENTS_TOPIC = "user-events";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private KafkaTemplate<String, UserEvent> kafkaTemplate;
+
+    @Value("${user.outbox.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final Counter published;
+    private volatile long backlog;
+    private volatile LocalDateTime oldestPending;
+
+    public UserOutboxRelay(MeterRegistry meterRegistry) {
+        this.published = Counter.builder("user.outbox.published")
+                .description("User events published from the outbox")
+                .register(meterRegistry);
+        Gauge.builder("user.outbox.pending", this, relay -> relay.backlog)
+                .description("User events waiting in the outbox")
+                .register(meterRegistry);
+        Gauge.builder("user.outbox.lag", this, UserOutboxRelay::lagSeconds)
+                .description("Age of the oldest user event waiting in the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Periodically drain the outbox
+     */
+    @Scheduled(fixedDelayString = "${user.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /**
+     * Request a relay pass
+     *
+     * Cheap enough for the request path: starts a pass on the bounded
+     * elastic scheduler unless one is running, in which case that pass is
+     * followed by another. The caller never runs any of the pass itself.
+     */
+    public void wakeUp() {
+        pending.set(true);
+        if (running.compareAndSet(false, true)) {
+            drain()
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doFinally(signal -> {
+                        running.set(false);
+                        if (pending.get()) {
+                            wakeUp();
+                        }
+                    })
+                    .subscribe();
+        }
+    }
+
+    /**
+     * Publish batches until the outbox is empty or a batch fails
+     */
+    private Mono<Void> drain() {
+        return Mono.defer(() -> {
+                    pending.set(false);
+                    return relayBatch();
+                })
+                .expand(count -> count == batchSize ? relayBatch() : Mono.empty())
+                .then(refreshBacklog())
+                .onErrorResume(error -> {
+                    logger.error("Failed to relay user events, will retry: {}", error.getMessage());
+                    return refreshBacklog();
+                });
+    }
+
+    /**
+     * Publish and delete the oldest batch of outbox rows
+     *
+     * @return Mono with the number of rows relayed
+     */
+    private Mono<Integer> relayBatch() {
+        return databaseClient.sql("SELECT id, event_type, user_id, username, email, created_at " +
+                        "FROM user_outbox ORDER BY id LIMIT :limit")
+                .bind("limit", batchSize)
+                .map((row, metadata) -> new OutboxRow(
+                        row.get("id", Long.class),
+                        row.get("event_type", String.class),
+                        row.get("user_id", Long.class),
+                        row.get("username", String.class),
+                        row.get("email", String.class),
+                        row.get("created_at", LocalDateTime.class)))
+                .all()
+                .collectList()
+                .flatMap(rows -> rows.isEmpty()
+                        ? Mono.just(0)
+                        : send(rows).then(delete(rows)).thenReturn(rows.size()));
+    }
+
+    /**
+     * Send a batch and wait until the producer has acknowledged all of it
+     */
+    private Mono<Void> send(List<OutboxRow> rows) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            UserEvent event = new UserEvent(row.eventType, row.userId, row.username, row.email);
+            event.setTimestamp(row.createdAt);
+            sends.add(kafkaTemplate.send(USER_EVENTS_TOPIC, String.valueOf(row.userId), event));
+        }
+        // Continue off the producer's network thread, which completes the futures
+        return Mono.fromFuture(CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnSuccess(v -> {
+                    published.increment(rows.size());
+                    logger.debug("Published {} user events from the outbox", rows.size());
+                })
+                .then();
+    }
+
+    private Mono<Void> delete(List<OutboxRow> rows) {
+        return databaseClient.sql("DELETE FROM user_outbox WHERE id IN (:ids)")
+                .bind("ids", rows.stream().map(row -> row.id).collect(Collectors.toList()))
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    private Mono<Void> refreshBacklog() {
+        return databaseClient.sql("SELECT COUNT(*) AS pending, MIN(created_at) AS oldest FROM user_outbox")
+                .map((row, metadata) -> {
+                    backlog = row.get("pending", Long.class);
+                    oldestPending = row.get("oldest", LocalDateTime.class);
+                    return backlog;
+                })
+                .one()
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private double lagSeconds() {
+        LocalDateTime oldest = oldestPending;
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    /**
+     * One outbox row
+     */
+    private static final class OutboxRow {
+        private final Long id;
+        private final String eventType;
+        private final Long userId;
+        private final String username;
+        private final String email;
+        private final LocalDateTime createdAt;
+
+        OutboxRow(Long id, String eventType, Long userId, String username, String email, LocalDateTime createdAt) {
+            this.id = id;
+            this.eventType = eventType;
+            this.userId = userId;
+            this.username = username;
+            this.email = email;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.bootcamp.user.service;
+
+import com.bootcamp.user.dto.BulkUserImportResult;
+import com.bootcamp.user.dto.UserDto;
+import com.bootcamp.user.event.UserEventType;
+import com.bootcamp.user.event.UserOutbox;
+import com.bootcamp.user.event.UserOutboxRelay;
+import com.bootcamp.user.model.User;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service for bulk user imports
+ *
+ * Creates users from a stream of records in chunks: records are validated
+ * and de-duplicated against the rest of the import, taken usernames and
+ * emails are looked up for the whole chunk with one query, the chunk is
+ * inserted with one multi-row statement, and its USER_CREATED events are
+ * written to the outbox with another in the same transaction, from where
+ * the relay publishes them in producer batches. One result per record is
+ * streamed back as soon as its chunk completes.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Service
+public class BulkUserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserImportService.class);
+    private static final List<String> CSV_COLUMNS = List.of("username", "email", "firstname", "lastname");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private UserOutbox userOutbox;
+
+    @Autowired
+    private UserOutboxRelay userOutboxRelay;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${user.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${user.import.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    /**
+     * Import a stream of users
+     *
+     * @param users the users to create, one per record
+     * @return Flux with one result per record, in record order
+     */
+    public Flux<BulkUserImportResult> importUsers(Flux<UserDto> users) {
+        return Flux.defer(() -> {
+            ImportProgress progress = new ImportProgress();
+            return users.index()
+                    // Fair backpressure: records are only requested for chunks the writer can take,
+                    // so a slow chunk pauses the upload instead of buffering it in memory
+                    .bufferTimeout(chunkSize, Duration.ofMillis(flushIntervalMs), true)
+                    .concatMap(chunk -> processChunk(chunk, progress))
+                    .doOnComplete(() -> logger.info("Bulk user import completed: {}", progress));
+        });
+    }
+
+    /**
+     * Import users from CSV lines
+     *
+     * The first line is a header naming the username, email, firstName and
+     * lastName columns, in any order. Fields may be quoted; quoted fields
+     * cannot span lines.
+     *
+     * @param lines the CSV lines, header first
+     * @return Flux with one result per data line, in line order; fails with
+     *         IllegalArgumentException if the header lacks a required column
+     */
+    public Flux<BulkUserImportResult> importCsv(Flux<String> lines) {
+        return importUsers(lines
+                .filter(line -> !line.isBlank())
+                .switchOnFirst((first, records) -> {
+                    if (!first.hasValue()) {
+                        return records.cast(UserDto.class);
+                    }
+                    Map<String, Integer> columns = csvColumns(first.get());
+                    return records.skip(1).map(line -> toUserDto(parseCsvLine(line), columns));
+                }));
+    }
+
+    /**
+     * Validate, insert and publish one chunk of records
+     *
+     * @param chunk the records of the chunk with their zero-based index
+     * @param progress the state of the whole import
+     * @return Flux with the results of the chunk, in record order
+     */
+    private Flux<BulkUserImportResult> processChunk(List<Tuple2<Long, UserDto>> chunk, ImportProgress progress) {
+        BulkUserImportResult[] results = new BulkUserImportResult[chunk.size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            UserDto user = chunk.get(i).getT2();
+            String error = validate(user);
+            if (error == null) {
+                error = progress.claim(user);
+            }
+            if (error != null) {
+                results[i] = BulkUserImportResult.rejected(lineNumber(chunk, i), error);
+            } else {
+                valid.add(i);
+            }
+        }
+        if (valid.isEmpty()) {
+            return completeChunk(results, progress);
+        }
+
+        return findTaken(valid.stream().map(i -> chunk.get(i).getT2()).collect(Collectors.toList()))
+                .flatMap(taken -> {
+                    List<Integer> accepted = new ArrayList<>();
+                    for (Integer i : valid) {
+                        UserDto user = chunk.get(i).getT2();
+                        if (taken.usernames.contains(user.getUsername())) {
+                            results[i] = BulkUserImportResult.rejected(lineNumber(chunk, i), "Username already exists");
+                        } else if (taken.emails.contains(user.getEmail())) {
+                            results[i] = BulkUserImportResult.rejected(lineNumber(chunk, i), "Email already exists");
+                        } else {
+                            accepted.add(i);
+                        }
+                    }
+                    if (accepted.isEmpty()) {
+                        return Mono.<List<User>>empty();
+                    }
+
+                    List<User> users = accepted.stream()
+                            .map(i -> chunk.get(i).getT2())
+                            .map(dto -> new User(dto.getUsername(), dto.getEmail(), dto.getFirstName(), dto.getLastName()))
+                            .collect(Collectors.toList());
+                    return insertUsers(users)
+                            .flatMap(saved -> userOutbox.appendAll(UserEventType.USER_CREATED, saved).thenReturn(saved))
+                            .as(transactionalOperator::transactional)
+                            .doOnNext(saved -> {
+                                userOutboxRelay.wakeUp();
+                                for (int j = 0; j < saved.size(); j++) {
+                                    int i = accepted.get(j);
+                                    results[i] = BulkUserImportResult.created(lineNumber(chunk, i), saved.get(j).getId());
+                                    userSearchIndex.put(UserService.convertToDto(saved.get(j)));
+                                }
+                            })
+                            .onErrorResume(DataIntegrityViolationException.class, e -> {
+                                // A concurrent signup took a username or email after the lookup
+                                logger.warn("Bulk user chunk conflicted, creating its users one by one: {}", e.getMessage());
+                                return createIndividually(chunk, accepted, results).then(Mono.<List<User>>empty());
+                            })
+                            .onErrorResume(e -> {
+                                logger.error("Failed to insert bulk user chunk: {}", e.getMessage(), e);
+                                for (Integer i : accepted) {
+                                    results[i] = BulkUserImportResult.failed(lineNumber(chunk, i), e.getMessage());
+                                }
+                                return Mono.<List<User>>empty();
+                            });
+                })
+                .thenMany(Flux.defer(() -> completeChunk(results, progress)));
+    }
+
+    /**
+     * Check the constraints that the single-user endpoint validates
+     *
+     * @param user the user record
+     * @return the validation errors, or null if the record is valid
+     */
+    private String validate(UserDto user) {
+        Set<ConstraintViolation<UserDto>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Find which usernames and emails of a chunk are already taken
+     *
+     * @param users the users of the chunk
+     * @return Mono with the taken usernames and emails
+     */
+    private Mono<TakenKeys> findTaken(List<UserDto> users) {
+        return databaseClient.sql("SELECT username, email FROM users WHERE username IN (:usernames) OR email IN (:emails)")
+                .bind("usernames", users.stream().map(UserDto::getUsername).collect(Collectors.toList()))
+                .bind("emails", users.stream().map(UserDto::getEmail).collect(Collectors.toList()))
+                .map((row, metadata) -> new String[] {row.get("username", String.class), row.get("email", String.class)})
+                .all()
+                .collect(TakenKeys::new, (taken, row) -> {
+                    taken.usernames.add(row[0]);
+                    taken.emails.add(row[1]);
+                });
+    }
+
+    /**
+     * Insert the users of a chunk with one multi-row statement
+     *
+     * @param users the users to insert
+     * @return Mono with the inserted users, in input order, with their generated IDs
+     */
+    private Mono<List<User>> insertUsers(List<User> users) {
+        StringBuilder sql = new StringBuilder("INSERT INTO users ")
+                .append("(username, email, first_name, last_name, status, created_at, updated_at) VALUES ");
+        for (int i = 0; i < users.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:username").append(i)
+                    .append(", :email").append(i)
+                    .append(", :firstName").append(i)
+                    .append(", :lastName").append(i)
+                    .append(", :status").append(i)
+                    .append(", :createdAt").append(i)
+                    .append(", :updatedAt").append(i)
+                    .append(")");
+        }
+
+        // Bound with one bindValues call: binding the 3,500 parameters of a
+        // 500-user chunk one at a time is quadratic, as every bind copies the
+        // parameters bound so far
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            values.put("username" + i, user.getUsername());
+            values.put("email" + i, user.getEmail());
+            values.put("firstName" + i, user.getFirstName());
+            values.put("lastName" + i, user.getLastName());
+            values.put("status" + i, user.getStatus().name());
+            values.put("createdAt" + i, user.getCreatedAt());
+            values.put("updatedAt" + i, user.getUpdatedAt());
+        }
+
+        return databaseClient.sql(sql.toString())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bindValues(values)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .map(ids -> {
+                    if (ids.size() != users.size()) {
+                        throw new IllegalStateException("Expected " + users.size() + " generated user IDs but got " + ids.size());
+                    }
+                    for (int i = 0; i < ids.size(); i++) {
+                        users.get(i).setId(ids.get(i));
+                    }
+                    return users;
+                });
+    }
+
+    /**
+     * Create the accepted users of a chunk one at a time
+     *
+     * Used when the multi-row insert hit a unique constraint, so that only
+     * the conflicting records are rejected.
+     *
+     * @return Mono indicating completion
+     */
+    private Mono<Void> createIndividually(List<Tuple2<Long, UserDto>> chunk, List<Integer> accepted,
+                                          BulkUserImportResult[] results) {
+        return Flux.fromIterable(accepted)
+                .concatMap(i -> userService.createUser(chunk.get(i).getT2())
+                        .doOnNext(created -> results[i] = BulkUserImportResult.created(lineNumber(chunk, i), created.getId()))
+                        .onErrorResume(UserError.class, error -> {
+                            results[i] = BulkUserImportResult.rejected(lineNumber(chunk, i), error.getMessage());
+                            return Mono.empty();
+                        })
+                        .onErrorResume(error -> {
+                            results[i] = BulkUserImportResult.failed(lineNumber(chunk, i), error.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private Flux<BulkUserImportResult> completeChunk(BulkUserImportResult[] results, ImportProgress progress) {
+        progress.record(results);
+        logger.info("Bulk user import progress: {}", progress);
+        return Flux.fromArray(results);
+    }
+
+    /**
+     * Map the CSV header to column positions
+     *
+     * Column names are matched ignoring case and underscores, so first_name
+     * and firstName are both accepted.
+     */
+    private static Map<String, Integer> csvColumns(String header) {
+        String[] names = parseCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("CSV header must contain the columns username, email, firstName and lastName");
+            }
+        }
+        return columns;
+    }
+
+    private static UserDto toUserDto(String[] fields, Map<String, Integer> columns) {
+        UserDto user = new UserDto();
+        user.setUsername(csvField(fields, columns.get("username")));
+        user.setEmail(csvField(fields, columns.get("email")));
+        user.setFirstName(csvField(fields, columns.get("firstname")));
+        user.setLastName(csvField(fields, columns.get("lastname")));
+        return user;
+    }
+
+    private static String csvField(String[] fields, int index) {
+        if (index >= fields.length) {
+            return null;
+        }
+        String value = fields[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Split one CSV line into its fields
+     *
+     * @param line the line, without its line break
+     * @return the unquoted fields
+     */
+    private static String[] parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static long lineNumber(List<Tuple2<Long, UserDto>> chunk, int index) {
+        return chunk.get(index).getT1() + 1;
+    }
+
+    /**
+     * Usernames and emails of a chunk that already exist
+     */
+    private static final class TakenKeys {
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> emails = new HashSet<>();
+    }
+
+    /**
+     * State of one import
+     *
+     * Chunks are processed one after the other, so no synchronization is needed.
+     */
+    private static final class ImportProgress {
+        private final long start = System.nanoTime();
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> emails = new HashSet<>();
+        private long records;
+        private long created;
+        private long rejected;
+        private long failed;
+
+        /**
+         * Reserve a record's username and email for this import
+         *
+         * @return an error if an earlier record of the import uses either, otherwise null
+         */
+        String claim(UserDto user) {
+            if (!usernames.add(user.getUsername())) {
+                return "Duplicate username in import: " + user.getUsername();
+            }
+            if (!emails.add(user.getEmail())) {
+                usernames.remove(user.getUsername());
+                return "Duplicate email in import: " + user.getEmail();
+            }
+            return null;
+        }
+
+        void record(BulkUserImportResult[] results) {
+            for (BulkUserImportResult result : results) {
+                records++;
+                switch (result.getStatus()) {
+                    case BulkUserImportResult.CREATED -> created++;
+                    case BulkUserImportResult.REJECTED -> rejected++;
+                    default -> failed++;
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+            return records + " records, " + created + " created, " + rejected + " rejected, " + failed + " failed, "
+                    + String.format("%.1f", records / seconds) + " records/s";
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.bootcamp.user.service;
+
+import com.bootcamp.user.dto.UserDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-process near-cache of users
+ *
+ * Bounded LRU cache of user DTOs keyed by ID, with a username index onto
+ * the same entries. Entries expire after user.cache.ttl-ms as a safety
+ * net; they are normally dropped much earlier by {@link #invalidate},
+ * which runs for local updates and deletions and for the user events of
+ * every other instance.
+ *
+ * A load that started before an invalidation of the same user does not
+ * populate the cache, so a read racing with an update can never re-insert
+ * the old user. Invalidations are tracked per user ID, and only while a
+ * load that started before them is still running, so updates of other
+ * users never keep a load from being cached.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class UserCache {
+
+    private final Map<Long, Entry> byId;
+    private final Map<String, Long> idsByUsername = new LinkedHashMap<>();
+    private final long ttlNanos;
+    /** Invalidation sequence of recently invalidated users, oldest first */
+    private final Map<Long, Long> invalidatedAt = new LinkedHashMap<>();
+    /** Number of running loads per invalidation sequence at their start */
+    private final TreeMap<Long, Integer> loadsInFlight = new TreeMap<>();
+    private long invalidations;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer loadTimer;
+
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${user.cache.max-entries:10000}") int maxEntries,
+                     @Value("${user.cache.ttl-ms:300000}") long ttlMs) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= maxEntries) {
+                    return false;
+                }
+                idsByUsername.remove(eldest.getValue().user.getUsername());
+                evictions.increment();
+                return true;
+            }
+        };
+        this.hits = Counter.builder("user.cache.requests")
+                .description("User lookups answered by the near-cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("user.cache.requests")
+                .description("User lookups answered by the near-cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("user.cache.evictions")
+                .description("Users evicted from the near-cache because it was full")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("user.cache.load")
+                .description("Time to load a user missing from the near-cache")
+                .register(meterRegistry);
+        Gauge.builder("user.cache.size", this, UserCache::size)
+                .description("Users held in the near-cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a user by ID, loading it on a miss
+     *
+     * @param id the user ID
+     * @param loader loads the user from the database; empty if it does not exist
+     * @return Mono with the user, empty if it does not exist
+     */
+    public Mono<UserDto> getById(Long id, Supplier<Mono<UserDto>> loader) {
+        return Mono.defer(() -> {
+            UserDto cached = lookup(id);
+            return cached != null ? Mono.just(cached) : load(loader);
+        });
+    }
+
+    /**
+     * Get a user by username, loading it on a miss
+     *
+     * @param username the username
+     * @param loader loads the user from the database; empty if it does not exist
+     * @return Mono with the user, empty if it does not exist
+     */
+    public Mono<UserDto> getByUsername(String username, Supplier<Mono<UserDto>> loader) {
+        return Mono.defer(() -> {
+            UserDto cached;
+            synchronized (this) {
+                Long id = idsByUsername.get(username);
+                cached = id != null ? lookup(id) : null;
+            }
+            return cached != null ? Mono.just(cached) : load(loader);
+        });
+    }
+
+    /**
+     * Drop a user from the cache
+     *
+     * @param id the user ID
+     */
+    public synchronized void invalidate(Long id) {
+        invalidations++;
+        // Re-inserted so that the map stays ordered by sequence
+        invalidatedAt.remove(id);
+        if (!loadsInFlight.isEmpty()) {
+            invalidatedAt.put(id, invalidations);
+        }
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            idsByUsername.remove(entry.user.getUsername());
+        }
+    }
+
+    /**
+     * Get the number of cached users
+     *
+     * @return the cache size
+     */
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private synchronized UserDto lookup(Long id) {
+        Entry entry = byId.get(id);
+        if (entry != null && System.nanoTime() - entry.loadedAt > ttlNanos) {
+            byId.remove(id);
+            idsByUsername.remove(entry.user.getUsername());
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.user;
+    }
+
+    private Mono<UserDto> load(Supplier<Mono<UserDto>> loader) {
+        return Mono.defer(() -> {
+            long generation;
+            synchronized (this) {
+                generation = invalidations;
+                loadsInFlight.merge(generation, 1, Integer::sum);
+            }
+            long start = System.nanoTime();
+            return loader.get()
+                    .doOnNext(user -> put(user, generation))
+                    .doFinally(signal -> {
+                        finishLoad(generation);
+                        loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    });
+        });
+    }
+
+    private synchronized void put(UserDto user, long generation) {
+        Long invalidated = invalidatedAt.get(user.getId());
+        if (invalidated != null && invalidated > generation) {
+            return;
+        }
+        Entry previous = byId.put(user.getId(), new Entry(user, System.nanoTime()));
+        if (previous != null) {
+            idsByUsername.remove(previous.user.getUsername());
+        }
+        idsByUsername.put(user.getUsername(), user.getId());
+    }
+
+    /**
+     * Forget invalidations that no running load started before
+     */
+    private synchronized void finishLoad(long generation) {
+        loadsInFlight.computeIfPresent(generation, (key, count) -> count > 1 ? count - 1 : null);
+        long oldest = loadsInFlight.isEmpty() ? Long.MAX_VALUE : loadsInFlight.firstKey();
+        Iterator<Long> sequences = invalidatedAt.values().iterator();
+        while (sequences.hasNext() && sequences.next() <= oldest) {
+            sequences.remove();
+        }
+    }
+
+    /**
+     * Cached user and its load time
+     */
+    private static final class Entry {
+        private final UserDto user;
+        private final long loadedAt;
+
+        Entry(UserDto user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bootcamp.user.service;
+
+/**
+ * User domain error
+ *
+ * Typed failure of a user operation, signalled through the reactive error
+ * channel. It captures no stack trace and no suppressed exceptions, so an
+ * expected failure (unknown user, duplicate username) is cheap to create,
+ * and controllers map it by kind instead of catching every RuntimeException.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+public final class UserError extends RuntimeException {
+
+    /**
+     * Kinds of user operation failures
+     */
+    public enum Kind {
+        /** The user does not exist */
+        NOT_FOUND,
+        /** The username or email is already taken */
+        CONFLICT
+    }
+
+    private final Kind kind;
+
+    private UserError(Kind kind, String message) {
+        super(message, null, false, false);
+        this.kind = kind;
+    }
+
+    public static UserError notFound(Long userId) {
+        return new UserError(Kind.NOT_FOUND, "User not found with ID: " + userId);
+    }
+
+    public static UserError conflict(String message) {
+        return new UserError(Kind.CONFLICT, message);
+    }
+
+    // Getters
+    public Kind getKind() {
+        return kind;
+    }
+
+    @Override
+    public String toString() {
+        return "UserError{" +
+                "kind=" + kind +
+                ", message='" + getMessage() + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,364 @@
+package com.bootcamp.user.service;
+
+import com.bootcamp.user.dto.UserDto;
+import com.bootcamp.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index of users
+ *
+ * Keeps a sorted map from normalized tokens to user IDs, built from the
+ * username, email, first name and last name of every user. Each value is
+ * indexed whole and split into its words (john.smith@example.com yields
+ * "john.smith@example.com", "john", "smith", "example" and "com"), so a
+ * search term matches any token it is a prefix of with one range scan of
+ * the sorted map. Tokens are lower-cased and stripped of accents.
+ *
+ * Terms shorter than user.search.min-term-length are rejected, since they
+ * would scan a large part of the index, and only the best limit matches
+ * are kept while ranking.
+ *
+ * The index is built when the application starts and maintained by
+ * {@link UserService} and the bulk import after every committed change.
+ * Changes committed by other instances reach it through their user events,
+ * which every instance consumes (see UserCacheInvalidationListener).
+ * The startup build fills a separate index that replaces the live one
+ * when complete, so searches never see a partial index; changes made
+ * during the build are applied to both.
+ *
+ * @author Bootcamp Instructor
+ * @version 1.0
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${user.search.min-term-length:2}")
+    private int minTermLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    /** Latest version of each user changed while a build runs, null for removals */
+    private Map<Long, IndexedUser> changedDuringBuild;
+
+    /**
+     * Build the index from the users table when the application starts
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        build().subscribe(
+                count -> logger.info("User search index built with {} users", count),
+                error -> logger.error("Failed to build user search index: {}", error.getMessage(), error));
+    }
+
+    /**
+     * Build a new index from the users table and swap it in
+     *
+     * The live index keeps answering searches until the new one is
+     * complete.
+     *
+     * @return Mono with the number of users read
+     */
+    Mono<Long> build() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Index building = new Index();
+            lock.writeLock().lock();
+            try {
+                changedDuringBuild = new LinkedHashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return userRepository.findAll()
+                    .map(UserService::convertToDto)
+                    .doOnNext(user -> building.put(new IndexedUser(user, tokens(user))))
+                    .count()
+                    .doOnNext(count -> {
+                        swapIn(building);
+                        logger.debug("User search index of {} users swapped in after {} ms",
+                                count, (System.nanoTime() - start) / 1_000_000);
+                    })
+                    .doOnError(error -> stopRecordingChanges());
+        });
+    }
+
+    /**
+     * Add a user to the index, replacing its previous version
+     *
+     * @param user the user as committed
+     */
+    public void put(UserDto user) {
+        IndexedUser indexed = new IndexedUser(user, tokens(user));
+        lock.writeLock().lock();
+        try {
+            index.put(indexed);
+            if (changedDuringBuild != null) {
+                changedDuringBuild.put(user.getId(), indexed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reload a user from the database into the index
+     *
+     * Removes the user if it no longer exists.
+     *
+     * @param id the user ID
+     * @return Mono indicating completion
+     */
+    public Mono<Void> refresh(Long id) {
+        return userRepository.findById(id)
+                .map(UserService::convertToDto)
+                .doOnNext(this::put)
+                .switchIfEmpty(Mono.fromRunnable(() -> remove(id)))
+                .then();
+    }
+
+    /**
+     * Remove a user from the index
+     *
+     * @param id the user ID
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            index.remove(id);
+            if (changedDuringBuild != null) {
+                changedDuringBuild.put(id, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the users matching every term of a query
+     *
+     * Each whitespace-separated term must be a prefix of a token of the
+     * user. Exact token matches rank above prefix matches; ties are ordered
+     * by username.
+     *
+     * @param query the search terms
+     * @param status only users in this status, or null for all statuses
+     * @param limit the maximum number of users to return
+     * @return the best matches, best first
+     * @throws IllegalArgumentException if a term is shorter than user.search.min-term-length
+     */
+    public List<UserDto> search(String query, String status, int limit) {
+        List<String> terms = new ArrayList<>();
+        for (String term : normalize(query).split("\\s+")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (term.length() < minTermLength) {
+                throw new IllegalArgumentException(
+                        "Search terms must have at least " + minTermLength + " characters: " + term);
+            }
+            terms.add(term);
+        }
+        if (terms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            TreeMap<String, Set<Long>> postings = index.postings;
+            Map<Long, Integer> scores = null;
+            for (String term : terms) {
+                Map<Long, Integer> termScores = new HashMap<>();
+                for (Map.Entry<String, Set<Long>> posting
+                        : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                    int score = posting.getKey().equals(term) ? 2 : 1;
+                    for (Long id : posting.getValue()) {
+                        termScores.merge(id, score, Math::max);
+                    }
+                }
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Iterator<Map.Entry<Long, Integer>> it = scores.entrySet().iterator();
+                    while (it.hasNext()) {
+                        Map.Entry<Long, Integer> entry = it.next();
+                        Integer termScore = termScores.get(entry.getKey());
+                        if (termScore == null) {
+                            it.remove();
+                        } else {
+                            entry.setValue(entry.getValue() + termScore);
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            // Keep the best limit matches in a heap whose head is the worst of them
+            Map<Long, Integer> finalScores = scores;
+            Comparator<IndexedUser> ranking = Comparator
+                    .comparing((IndexedUser indexed) -> finalScores.get(indexed.user.getId())).reversed()
+                    .thenComparing(indexed -> indexed.user.getUsername());
+            PriorityQueue<IndexedUser> best = new PriorityQueue<>(Math.min(limit, scores.size()), ranking.reversed());
+            for (Long id : scores.keySet()) {
+                IndexedUser indexed = index.users.get(id);
+                if (status != null && !status.equals(indexed.user.getStatus())) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.offer(indexed);
+                } else if (ranking.compare(indexed, best.peek()) < 0) {
+                    best.poll();
+                    best.offer(indexed);
+                }
+            }
+            List<IndexedUser> ranked = new ArrayList<>(best);
+            ranked.sort(ranking);
+            return ranked.stream().map(indexed -> indexed.user).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of indexed users
+     *
+     * @return the index size
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.users.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void swapIn(Index built) {
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild.forEach((id, indexed) -> {
+                if (indexed != null) {
+                    built.put(indexed);
+                } else {
+                    built.remove(id);
+                }
+            });
+            index = built;
+            changedDuringBuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void stopRecordingChanges() {
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Set<String> tokens(UserDto user) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String value : new String[] {user.getUsername(), user.getEmail(), user.getFirstName(), user.getLastName()}) {
+            if (value == null) {
+                continue;
+            }
+            String normalized = normalize(value).trim();
+            if (!normalized.isEmpty()) {
+                tokens.add(normalized);
+            }
+            for (String word : WORD_SEPARATOR.split(normalized)) {
+                if (!word.isEmpty()) {
+                    tokens.add(word);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return ACCENTS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Postings and users of one index; guarded by the lock once live
+     */
+    private static final class Index {
+        private final TreeMap<String, Set<Long>> postings = new TreeMap<>();
+        private final Map<Long, IndexedUser> users = new HashMap<>();
+
+        void put(IndexedUser indexed) {
+            IndexedUser previous = users.put(indexed.user.getId(), indexed);
+            if (previous != null) {
+                removePostings(previous);
+            }
+            for (String token : indexed.tokens) {
+                postings.computeIfAbsent(token, key -> new HashSet<>(2)).add(indexed.user.getId());
+            }
+        }
+
+        void remove(Long id) {
+            IndexedUser previous = users.remove(id);
+            if (previous != null) {
+                removePostings(previous);
+            }
+        }
+
+        private void removePostings(IndexedUser indexed) {
+            for (String token : indexed.tokens) {
+                Set<Long> ids = postings.get(token);
+                if (ids != null && ids.remove(indexed.user.getId()) && ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexed user with the tokens it was indexed under
+     */
+    private static final class IndexedUser {
+        private final UserDto user;
+        private final Set<String> tokens;
+
+        IndexedUser(UserDto user, Set<String> tokens) {
+            this.user = user;
+            this.tokens = tokens;
+        }
+    }
+}
@@ -1,24 +1,39 @@
 package com.bootcamp.user.service;
 
 import com.bootcamp.user.dto.UserDto;
-import com.bootcamp.user.event.UserEvent;
+import com.bootcamp.user.dto.UserPage;
 import com.bootcamp.user.event.UserEventType;
+import com.bootcamp.user.event.UserOutbox;
+import com.bootcamp.user.event.UserOutboxRelay;
 import com.bootcamp.user.model.User;
+import com.bootcamp.user.model.UserStatus;
 import com.bootcamp.user.repository.UserRepository;
+import io.r2dbc.spi.ColumnMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * User Service
  * 
  * Contains business logic for user management operations.
- * Handles user CRUD operations and publishes events to Kafka for other services.
+ * Handles user CRUD operations and records user events in the outbox,
+ * from which they are published to Kafka for other services.
  * 
  * @author Bootcamp Instructor
  * @version 1.0
@@ -27,42 +42,78 @@ import reactor.core.scheduler.Schedulers;
 public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
-    private static final String USER_EVENTS_TOPIC = "user-events";
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    /** Selectable DTO fields and their columns */
+    private static final Map<String, String> FIELD_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        FIELD_COLUMNS.put("id", "id");
+        FIELD_COLUMNS.put("username", "username");
+        FIELD_COLUMNS.put("email", "email");
+        FIELD_COLUMNS.put("firstName", "first_name");
+        FIELD_COLUMNS.put("lastName", "last_name");
+        FIELD_COLUMNS.put("createdAt", "created_at");
+        FIELD_COLUMNS.put("updatedAt", "updated_at");
+        FIELD_COLUMNS.put("status", "status");
+    }
 
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private KafkaTemplate<String, UserEvent> kafkaTemplate;
+    private UserOutbox userOutbox;
+
+    @Autowired
+    private UserOutboxRelay userOutboxRelay;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Value("${user.stream-chunk-size:1000}")
+    private int streamChunkSize;
 
     /**
      * Create a new user reactively
      * 
+     * The user is inserted directly: the unique constraints on username
+     * and email reject duplicates atomically, also under concurrent
+     * signups. The USER_CREATED event is written to the outbox in the same
+     * transaction and published by the outbox relay.
+     * 
      * @param userDto the user data to create
-     * @return Mono containing the created user DTO
+     * @return Mono containing the created user DTO, or a CONFLICT UserError for a taken username or email
      */
     public Mono<UserDto> createUser(UserDto userDto) {
         logger.info("Creating new user with username: {}", userDto.getUsername());
 
-        return checkUserExists(userDto.getUsername(), userDto.getEmail())
-            .flatMap(exists -> {
-                if (exists) {
-                    return Mono.error(new RuntimeException("Username or email already exists"));
-                }
-                return Mono.just(userDto);
-            })
-            .map(dto -> new User(
-                dto.getUsername(),
-                dto.getEmail(),
-                dto.getFirstName(),
-                dto.getLastName()
-            ))
-            .flatMap(userRepository::save)
+        User user = new User(
+            userDto.getUsername(),
+            userDto.getEmail(),
+            userDto.getFirstName(),
+            userDto.getLastName()
+        );
+
+        return userRepository.save(user)
+            .flatMap(savedUser -> userOutbox.append(UserEventType.USER_CREATED, savedUser).thenReturn(savedUser))
+            .as(transactionalOperator::transactional)
+            .onErrorMap(DataIntegrityViolationException.class, this::toConflict)
             .doOnNext(savedUser -> {
                 logger.info("User created successfully with ID: {}", savedUser.getId());
-                publishUserEvent(UserEventType.USER_CREATED.toString(), savedUser);
+                userOutboxRelay.wakeUp();
             })
-            .map(this::convertToDto);
+            .map(UserService::convertToDto)
+            .doOnNext(userSearchIndex::put);
     }
 
     /**
@@ -73,33 +124,93 @@ public class UserService {
     public Flux<UserDto> getAllUsers() {
         logger.info("Retrieving all users");
         return userRepository.findAll()
-                .map(this::convertToDto);
+                .map(UserService::convertToDto);
+    }
+
+    /**
+     * Get a page of users in ID order
+     * 
+     * @param cursor the cursor of the previous page, or null for the first page
+     * @param limit the maximum number of users to return
+     * @param fields comma-separated DTO fields to return, or null for all fields
+     * @return Mono with the page; fails with IllegalArgumentException for an invalid cursor or field
+     */
+    public Mono<UserPage> getUsersPage(String cursor, int limit, String fields) {
+        logger.info("Retrieving page of users (limit {})", limit);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return Mono.fromCallable(() -> new PageQuery(
+                        cursor == null || cursor.isBlank() ? 0L : UserPage.decodeCursor(cursor), selectColumns(fields)))
+                .flatMap(query -> fetchPage(query.columns, query.afterId, pageSize + 1).collectList())
+                .map(rows -> UserPage.of(rows, pageSize));
+    }
+
+    /**
+     * Stream every user in ID order
+     * 
+     * Users are read in keyset chunks of user.stream-chunk-size and the
+     * next chunk is only queried once the client has consumed the previous
+     * one, so memory stays bounded by one chunk whatever the table size.
+     * 
+     * @param fields comma-separated DTO fields to return, or null for all fields
+     * @return Flux of users; fails with IllegalArgumentException for an invalid field
+     */
+    public Flux<UserDto> streamUsers(String fields) {
+        logger.info("Streaming all users");
+        return Mono.fromCallable(() -> selectColumns(fields))
+                .flatMapMany(columns -> fetchPage(columns, 0L, streamChunkSize).collectList()
+                        .expand(chunk -> chunk.size() < streamChunkSize
+                                ? Mono.empty()
+                                : fetchPage(columns, chunk.get(chunk.size() - 1).getId(), streamChunkSize).collectList())
+                        .concatMapIterable(chunk -> chunk));
+    }
+
+    /**
+     * Search users by name, username or email prefix
+     * 
+     * Answered from the in-memory search index without a database query.
+     * 
+     * @param query whitespace-separated terms, each matching the start of a word of the user
+     * @param status only users in this status, or null for all statuses
+     * @param limit the maximum number of users to return
+     * @return Flux of the best matches, best first; fails with IllegalArgumentException for a blank query, a too short term or an unknown status
+     */
+    public Flux<UserDto> searchUsers(String query, String status, int limit) {
+        logger.debug("Searching users for '{}'", query);
+        return Flux.defer(() -> {
+            if (query == null || query.isBlank()) {
+                throw new IllegalArgumentException("Search query is required");
+            }
+            String statusName = status == null || status.isBlank() ? null : UserStatus.valueOf(status.toUpperCase(Locale.ROOT)).name();
+            return Flux.fromIterable(userSearchIndex.search(query, statusName, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS))));
+        });
     }
 
     /**
      * Get user by ID reactively
      * 
+     * Served from the near-cache when possible.
+     * 
      * @param id the user ID
      * @return Mono containing the user DTO if found
      */
     public Mono<UserDto> getUserById(Long id) {
-        logger.info("Retrieving user with ID: {}", id);
-        return userRepository.findById(id)
-                .map(this::convertToDto)
-                .switchIfEmpty(Mono.empty());
+        logger.debug("Retrieving user with ID: {}", id);
+        return userCache.getById(id, () -> userRepository.findById(id)
+                .map(UserService::convertToDto));
     }
 
     /**
      * Get user by username reactively
      * 
+     * Served from the near-cache when possible.
+     * 
      * @param username the username to search for
      * @return Mono containing the user DTO if found
      */
     public Mono<UserDto> getUserByUsername(String username) {
-        logger.info("Retrieving user with username: {}", username);
-        return userRepository.findByUsername(username)
-                .map(this::convertToDto)
-                .switchIfEmpty(Mono.empty());
+        logger.debug("Retrieving user with username: {}", username);
+        return userCache.getByUsername(username, () -> userRepository.findByUsername(username)
+                .map(UserService::convertToDto));
     }
 
     /**
@@ -113,7 +224,7 @@ public class UserService {
         logger.info("Updating user with ID: {}", id);
 
         return userRepository.findById(id)
-                .switchIfEmpty(Mono.error(new RuntimeException("User not found with ID: " + id)))
+                .switchIfEmpty(Mono.error(() -> UserError.notFound(id)))
                 .map(user -> {
                     // Update user fields
                     user.setFirstName(userDto.getFirstName());
@@ -123,11 +234,16 @@ public class UserService {
                     return user;
                 })
                 .flatMap(userRepository::save)
+                .flatMap(updatedUser -> userOutbox.append(UserEventType.USER_UPDATED, updatedUser).thenReturn(updatedUser))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, this::toConflict)
                 .doOnNext(updatedUser -> {
                     logger.info("User updated successfully with ID: {}", updatedUser.getId());
-                    publishUserEvent(UserEventType.USER_UPDATED.toString(), updatedUser);
+                    userCache.invalidate(updatedUser.getId());
+                    userOutboxRelay.wakeUp();
                 })
-                .map(this::convertToDto);
+                .map(UserService::convertToDto)
+                .doOnNext(userSearchIndex::put);
     }
 
     /**
@@ -140,13 +256,95 @@ public class UserService {
         logger.info("Deleting user with ID: {}", id);
 
         return userRepository.findById(id)
-                .switchIfEmpty(Mono.error(new RuntimeException("User not found with ID: " + id)))
-                .doOnNext(user -> {
-                    // Publish user deleted event to Kafka before deletion
-                    publishUserEvent(UserEventType.USER_DELETED.toString(), user);
+                .switchIfEmpty(Mono.error(() -> UserError.notFound(id)))
+                .flatMap(user -> userRepository.deleteById(id)
+                        .then(userOutbox.append(UserEventType.USER_DELETED, user)))
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(v -> {
+                    userCache.invalidate(id);
+                    userSearchIndex.remove(id);
+                    userOutboxRelay.wakeUp();
+                    logger.info("User deleted successfully with ID: {}", id);
+                });
+    }
+
+    /**
+     * Read users after an ID with only the selected columns
+     */
+    private Flux<UserDto> fetchPage(String columns, long afterId, int limit) {
+        return databaseClient.sql(pageQuery(columns))
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map((row, metadata) -> {
+                    UserDto dto = new UserDto();
+                    for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+                        switch (column.getName().toLowerCase(Locale.ROOT)) {
+                            case "id" -> dto.setId(row.get("id", Long.class));
+                            case "username" -> dto.setUsername(row.get("username", String.class));
+                            case "email" -> dto.setEmail(row.get("email", String.class));
+                            case "first_name" -> dto.setFirstName(row.get("first_name", String.class));
+                            case "last_name" -> dto.setLastName(row.get("last_name", String.class));
+                            case "created_at" -> dto.setCreatedAt(row.get("created_at", LocalDateTime.class));
+                            case "updated_at" -> dto.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+                            case "status" -> dto.setStatus(row.get("status", String.class));
+                            default -> { }
+                        }
+                    }
+                    return dto;
                 })
-                .then(userRepository.deleteById(id))
-                .doOnSuccess(v -> logger.info("User deleted successfully with ID: {}", id));
+                .all();
+    }
+
+    /**
+     * Build the keyset query of a page
+     * 
+     * A range scan of the primary key from the cursor, read in index order
+     * without a sort. Unlike OFFSET, it returns the same rows after
+     * concurrent inserts or deletes before the cursor.
+     * 
+     * @param columns the column list for the SELECT clause
+     * @return the SQL, with :afterId and :limit parameters
+     */
+    static String pageQuery(String columns) {
+        return "SELECT " + columns + " FROM users WHERE id > :afterId ORDER BY id LIMIT :limit";
+    }
+
+    /**
+     * Translate requested DTO fields into a column list
+     * 
+     * The ID is always selected because pages are keyed on it.
+     * 
+     * @param fields comma-separated DTO field names, or null for all fields
+     * @return the column list for the SELECT clause
+     * @throws IllegalArgumentException if a field is unknown
+     */
+    private static String selectColumns(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return String.join(", ", FIELD_COLUMNS.values());
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add("id");
+        for (String field : fields.split(",")) {
+            String column = FIELD_COLUMNS.get(field.trim());
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown user field: " + field.trim());
+            }
+            columns.add(column);
+        }
+        return String.join(", ", columns);
+    }
+
+    /**
+     * Decoded page request
+     */
+    private static class PageQuery {
+        private final long afterId;
+        private final String columns;
+
+        PageQuery(long afterId, String columns) {
+            this.afterId = afterId;
+            this.columns = columns;
+        }
     }
 
     /**
@@ -155,7 +353,7 @@ public class UserService {
      * @param user the user entity
      * @return the user DTO
      */
-    private UserDto convertToDto(User user) {
+    static UserDto convertToDto(User user) {
         return new UserDto(
             user.getId(),
             user.getUsername(),
@@ -169,34 +367,19 @@ public class UserService {
     }
 
     /**
-     * Check if user exists by username or email
-     * 
-     * @param username the username to check
-     * @param email the email to check
-     * @return Mono<Boolean> true if user exists, false otherwise
-     */
-    private Mono<Boolean> checkUserExists(String username, String email) {
-        return Mono.zip(
-            userRepository.existsByUsername(username),
-            userRepository.existsByEmail(email)
-        ).map(tuple -> tuple.getT1() || tuple.getT2());
-    }
-
-    /**
-     * Publish user event to Kafka
+     * Map a unique constraint violation to a typed conflict
      * 
-     * @param eventType the type of event
-     * @param user the user associated with the event
+     * @param e the violation reported by the database
+     * @return the conflict naming the taken field
      */
-    private void publishUserEvent(String eventType, User user) {
-        try {
-            UserEvent event = new UserEvent(eventType, user.getId(), user.getUsername(), user.getEmail());
-            kafkaTemplate.send(USER_EVENTS_TOPIC, event);
-            logger.info("Published {} event for user: {}", eventType, user.getUsername());
-        } catch (Exception e) {
-            logger.error("Failed to publish user event: {}", e.getMessage(), e);
-            // In a production environment, you might want to handle this differently
-            // For example, store failed events in a database for retry
+    private UserError toConflict(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMessage()).toUpperCase(Locale.ROOT);
+        if (message.contains("UK_USERS_USERNAME")) {
+            return UserError.conflict("Username already exists");
+        }
+        if (message.contains("UK_USERS_EMAIL")) {
+            return UserError.conflict("Email already exists");
         }
+        return UserError.conflict("Username or email already exists");
     }
-} 
\ No newline at end of file
+}
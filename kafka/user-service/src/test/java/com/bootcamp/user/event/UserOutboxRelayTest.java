@@ -0,0 +1,174 @@
+package com.bootcamp.user.event;
+
+import com.bootcamp.user.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Relays the user outbox of an in-memory H2 database to a mocked producer
+ */
+@ExtendWith(MockitoExtension.class)
+class UserOutboxRelayTest {
+
+    @Mock
+    private KafkaTemplate<String, UserEvent> kafkaTemplate;
+
+    private final List<CompletableFuture<SendResult<String, UserEvent>>> sends = new CopyOnWriteArrayList<>();
+    private final Set<String> sendingThreads = ConcurrentHashMap.newKeySet();
+    private DatabaseClient databaseClient;
+    private UserOutbox userOutbox;
+    private UserOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("outbox-" + UUID.randomUUID());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+        databaseClient = DatabaseClient.create(connectionFactory);
+
+        userOutbox = new UserOutbox();
+        ReflectionTestUtils.setField(userOutbox, "databaseClient", databaseClient);
+
+        relay = new UserOutboxRelay(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "databaseClient", databaseClient);
+        ReflectionTestUtils.setField(relay, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+
+        lenient().when(kafkaTemplate.send(anyString(), anyString(), any(UserEvent.class))).thenAnswer(invocation -> {
+            sendingThreads.add(Thread.currentThread().getName());
+            CompletableFuture<SendResult<String, UserEvent>> future = new CompletableFuture<>();
+            sends.add(future);
+            return future;
+        });
+    }
+
+    @Test
+    void wakeUp_ShouldDeleteRowsOnlyOnceTheProducerHasAcknowledgedThem() {
+        // Given
+        userOutbox.appendAll(UserEventType.USER_CREATED, List.of(user(1L, "alice"), user(2L, "bob"))).block();
+
+        // When
+        relay.wakeUp();
+        awaitTrue(() -> sends.size() == 2);
+
+        // Then - the rows stay while the batch is unacknowledged
+        sends.get(0).complete(null);
+        sleep(100);
+        assertEquals(2L, outboxSize());
+
+        sends.get(1).complete(null);
+        awaitTrue(() -> outboxSize() == 0L);
+    }
+
+    @Test
+    void wakeUp_ShouldKeepRowsOfAFailedBatchForTheNextPass() {
+        // Given
+        userOutbox.append(UserEventType.USER_UPDATED, user(1L, "alice")).block();
+
+        // When - the first pass fails
+        relay.wakeUp();
+        awaitTrue(() -> sends.size() == 1);
+        sends.get(0).completeExceptionally(new IllegalStateException("broker down"));
+        awaitTrue(() -> !((AtomicBoolean) ReflectionTestUtils.getField(relay, "running")).get());
+
+        // Then - the row is still there and the next pass publishes it
+        assertEquals(1L, outboxSize());
+        relay.wakeUp();
+        awaitTrue(() -> sends.size() == 2);
+        sends.get(1).complete(null);
+        awaitTrue(() -> outboxSize() == 0L);
+    }
+
+    @Test
+    void wakeUp_ShouldPublishEveryBatchInOrderKeyedByUser() {
+        // Given - three rows, so two batches of two and one
+        userOutbox.appendAll(UserEventType.USER_CREATED,
+                List.of(user(1L, "alice"), user(2L, "bob"), user(3L, "carol"))).block();
+
+        // When
+        relay.wakeUp();
+        awaitTrue(() -> sends.size() == 2);
+        sends.forEach(future -> future.complete(null));
+        awaitTrue(() -> sends.size() == 3);
+        sends.get(2).complete(null);
+        awaitTrue(() -> outboxSize() == 0L);
+
+        // Then
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate, times(3)).send(eq("user-events"), keys.capture(), any(UserEvent.class));
+        assertEquals(List.of("1", "2", "3"), keys.getAllValues());
+    }
+
+    @Test
+    void wakeUp_ShouldNotRunThePassOnTheCallingThread() {
+        // Given
+        userOutbox.append(UserEventType.USER_CREATED, user(1L, "alice")).block();
+
+        // When
+        relay.wakeUp();
+        awaitTrue(() -> sends.size() == 1);
+
+        // Then
+        assertFalse(sendingThreads.contains(Thread.currentThread().getName()));
+        sends.get(0).complete(null);
+        awaitTrue(() -> outboxSize() == 0L);
+    }
+
+    private long outboxSize() {
+        return databaseClient.sql("SELECT COUNT(*) AS total FROM user_outbox")
+                .map((row, metadata) -> row.get("total", Long.class))
+                .one()
+                .block();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 seconds");
+            sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User(username, username + "@example.com", "First", "Last");
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,138 @@
+package com.bootcamp.user.service;
+
+import com.bootcamp.user.dto.BulkUserImportResult;
+import com.bootcamp.user.event.UserOutbox;
+import com.bootcamp.user.event.UserOutboxRelay;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs bulk user imports against an in-memory H2 database
+ */
+@ExtendWith(MockitoExtension.class)
+class BulkUserImportServiceTest {
+
+    private static final String HEADER = "username,email,first_name,last_name";
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserOutboxRelay userOutboxRelay;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    private DatabaseClient databaseClient;
+    private BulkUserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("import-" + UUID.randomUUID());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+        databaseClient = DatabaseClient.create(connectionFactory);
+
+        UserOutbox userOutbox = new UserOutbox();
+        ReflectionTestUtils.setField(userOutbox, "databaseClient", databaseClient);
+
+        service = new BulkUserImportService();
+        ReflectionTestUtils.setField(service, "userService", userService);
+        ReflectionTestUtils.setField(service, "databaseClient", databaseClient);
+        ReflectionTestUtils.setField(service, "transactionalOperator",
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+        ReflectionTestUtils.setField(service, "userOutbox", userOutbox);
+        ReflectionTestUtils.setField(service, "userOutboxRelay", userOutboxRelay);
+        ReflectionTestUtils.setField(service, "userSearchIndex", userSearchIndex);
+        ReflectionTestUtils.setField(service, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 50L);
+    }
+
+    @Test
+    void importCsv_ShouldCreateValidRowsAndRejectOthersInLineOrder() {
+        // Given - "taken" already exists
+        databaseClient.sql("INSERT INTO users (username, email, first_name, last_name) " +
+                        "VALUES ('taken', 'taken@example.com', 'T', 'T')")
+                .fetch().rowsUpdated().block();
+        Flux<String> lines = Flux.just(
+                HEADER,
+                "alice,alice@example.com,Alice,A",
+                "bob,not-an-email,Bob,B",
+                "alice,other@example.com,Alice,Again",
+                "taken,new@example.com,T,T",
+                "\"carol\",\"carol@example.com\",\"Carol, Jr\",C");
+
+        // When / Then
+        StepVerifier.create(service.importCsv(lines))
+                .assertNext(result -> assertEquals(BulkUserImportResult.CREATED, result.getStatus()))
+                .assertNext(result -> assertRejected(result, "Email should be valid"))
+                .assertNext(result -> assertRejected(result, "Duplicate username in import: alice"))
+                .assertNext(result -> assertRejected(result, "Username already exists"))
+                .assertNext(result -> assertEquals(BulkUserImportResult.CREATED, result.getStatus()))
+                .verifyComplete();
+
+        // Every created user has its USER_CREATED event in the outbox
+        assertEquals(3L, count("SELECT COUNT(*) AS total FROM users"));
+        assertEquals(2L, count("SELECT COUNT(*) AS total FROM user_outbox WHERE event_type = 'USER_CREATED'"));
+        assertEquals("Carol, Jr", databaseClient.sql("SELECT first_name FROM users WHERE username = 'carol'")
+                .map((row, metadata) -> row.get("first_name", String.class)).one().block());
+        verify(userSearchIndex, times(2)).put(any());
+        verify(userService, never()).createUser(any());
+    }
+
+    @Test
+    void importCsv_ShouldWakeTheRelayOncePerWrittenChunk() {
+        // Given - chunks of 2, 2 and 1
+        Flux<String> lines = Flux.just(HEADER,
+                "user1,user1@example.com,U,One",
+                "user2,user2@example.com,U,Two",
+                "user3,user3@example.com,U,Three",
+                "user4,user4@example.com,U,Four",
+                "user5,user5@example.com,U,Five");
+
+        // When
+        StepVerifier.create(service.importCsv(lines))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        // Then
+        verify(userOutboxRelay, times(3)).wakeUp();
+        assertEquals(5L, count("SELECT COUNT(*) AS total FROM user_outbox"));
+    }
+
+    @Test
+    void importCsv_ShouldFailWhenHeaderLacksAColumn() {
+        StepVerifier.create(service.importCsv(Flux.just("username,email", "alice,alice@example.com")))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql).map((row, metadata) -> row.get("total", Long.class)).one().block();
+    }
+
+    private static void assertRejected(BulkUserImportResult result, String error) {
+        assertEquals(BulkUserImportResult.REJECTED, result.getStatus());
+        assertTrue(result.getError().contains(error), result.getError());
+    }
+}
@@ -0,0 +1,116 @@
+package com.bootcamp.user.service;
+
+import com.bootcamp.user.dto.UserDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private final UserCache cache = new UserCache(new SimpleMeterRegistry(), 100, 60000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void getById_ShouldLoadOnceAndServeLaterLookupsFromCache() {
+        // When
+        cache.getById(1L, () -> load(user(1L, "alice"))).block();
+        UserDto cached = cache.getById(1L, () -> load(user(1L, "changed"))).block();
+
+        // Then
+        assertEquals("alice", cached.getUsername());
+        assertEquals("alice", cache.getByUsername("alice", () -> load(user(1L, "changed"))).block().getUsername());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getById_ShouldNotCacheALoadRacingWithAnInvalidationOfTheSameUser() {
+        // Given - a load is running
+        Sinks.One<UserDto> database = Sinks.one();
+        CompletableFuture<UserDto> read = cache.getById(1L, database::asMono).toFuture();
+
+        // When - the user is updated before the stale row arrives
+        cache.invalidate(1L);
+        database.tryEmitValue(user(1L, "stale"));
+
+        // Then - the stale row is returned to its reader, but not cached
+        assertEquals("stale", read.join().getUsername());
+        assertEquals(0, cache.size());
+        assertEquals("fresh", cache.getById(1L, () -> load(user(1L, "fresh"))).block().getUsername());
+    }
+
+    @Test
+    void getByUsername_ShouldNotCacheALoadRacingWithAnInvalidationOfTheSameUser() {
+        // Given
+        Sinks.One<UserDto> database = Sinks.one();
+        CompletableFuture<UserDto> read = cache.getByUsername("alice", database::asMono).toFuture();
+
+        // When
+        cache.invalidate(1L);
+        database.tryEmitValue(user(1L, "alice"));
+
+        // Then
+        assertNotNull(read.join());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void getById_ShouldCacheALoadRacingOnlyWithInvalidationsOfOtherUsers() {
+        // Given
+        Sinks.One<UserDto> database = Sinks.one();
+        CompletableFuture<UserDto> read = cache.getById(1L, database::asMono).toFuture();
+
+        // When - a busy system keeps updating other users
+        cache.invalidate(2L);
+        cache.invalidate(3L);
+        database.tryEmitValue(user(1L, "alice"));
+
+        // Then
+        assertNotNull(read.join());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void invalidate_ShouldOnlyRememberInvalidationsWhileOlderLoadsAreRunning() {
+        // Given
+        Sinks.One<UserDto> database = Sinks.one();
+        CompletableFuture<UserDto> read = cache.getById(1L, database::asMono).toFuture();
+
+        // When
+        cache.invalidate(1L);
+        cache.invalidate(2L);
+        assertEquals(2, invalidatedAt().size());
+        database.tryEmitValue(user(1L, "alice"));
+        assertNotNull(read.join());
+
+        // Then - nothing is kept once the load is done, and later invalidations are not recorded
+        assertTrue(invalidatedAt().isEmpty());
+        cache.invalidate(3L);
+        assertTrue(invalidatedAt().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> invalidatedAt() {
+        return (Map<Long, Long>) ReflectionTestUtils.getField(cache, "invalidatedAt");
+    }
+
+    private Mono<UserDto> load(UserDto user) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return user;
+        });
+    }
+
+    private static UserDto user(Long id, String username) {
+        return new UserDto(id, username, username + "@example.com", "First", "Last",
+                LocalDateTime.now(), LocalDateTime.now(), "ACTIVE");
+    }
+}
@@ -0,0 +1,192 @@
+package com.bootcamp.user.service;
+
+import com.bootcamp.user.dto.UserDto;
+import com.bootcamp.user.model.User;
+import com.bootcamp.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSearchIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserSearchIndex userSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userSearchIndex, "minTermLength", 2);
+        userSearchIndex.put(user(1L, "john_doe", "john.doe@example.com", "John", "Doe", "ACTIVE"));
+        userSearchIndex.put(user(2L, "johnny", "johnny@example.com", "Johnny", "Smith", "ACTIVE"));
+        userSearchIndex.put(user(3L, "jane_smith", "jane@example.org", "Jane", "Smith", "INACTIVE"));
+        userSearchIndex.put(user(4L, "jose", "jose@example.com", "José", "Núñez", "ACTIVE"));
+    }
+
+    @Test
+    void search_ShouldRankExactTokenMatchesAbovePrefixMatches() {
+        // "john" is a token of user 1 but only a prefix of user 2's tokens
+        assertEquals(List.of(1L, 2L), ids(userSearchIndex.search("john", null, 10)));
+    }
+
+    @Test
+    void search_ShouldOrderEqualScoresByUsername() {
+        assertEquals(List.of(1L, 2L, 4L), ids(userSearchIndex.search("jo", null, 10)));
+    }
+
+    @Test
+    void search_ShouldRequireEveryTerm() {
+        assertEquals(List.of(2L), ids(userSearchIndex.search("john smith", null, 10)));
+        assertEquals(List.of(), ids(userSearchIndex.search("john nobody", null, 10)));
+    }
+
+    @Test
+    void search_ShouldIgnoreCaseAndAccents() {
+        assertEquals(List.of(4L), ids(userSearchIndex.search("NUNEZ", null, 10)));
+        assertEquals(List.of(4L), ids(userSearchIndex.search("josé", null, 10)));
+    }
+
+    @Test
+    void search_ShouldFilterByStatusAndApplyTheLimit() {
+        assertEquals(List.of(3L), ids(userSearchIndex.search("smith", "INACTIVE", 10)));
+        assertEquals(1, userSearchIndex.search("example", null, 1).size());
+        assertEquals(List.of(), ids(userSearchIndex.search("   ", null, 10)));
+    }
+
+    @Test
+    void search_ShouldKeepOnlyTheBestMatchesUpToTheLimit() {
+        assertEquals(List.of(1L, 2L), ids(userSearchIndex.search("jo", null, 2)));
+        assertEquals(List.of(1L), ids(userSearchIndex.search("john", null, 1)));
+        assertEquals(List.of(3L), ids(userSearchIndex.search("smith", null, 1)));
+    }
+
+    @Test
+    void search_ShouldRejectTermsShorterThanTheMinimum() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> userSearchIndex.search("john s", null, 10));
+        assertTrue(error.getMessage().contains("at least 2 characters"));
+        assertThrows(IllegalArgumentException.class, () -> userSearchIndex.search("j", null, 10));
+    }
+
+    @Test
+    void build_ShouldAnswerFromTheOldIndexUntilTheNewOneIsComplete() {
+        // Given - the users table is read slowly
+        Sinks.Many<User> table = Sinks.many().unicast().onBackpressureBuffer();
+        when(userRepository.findAll()).thenReturn(table.asFlux());
+        userSearchIndex.build().subscribe();
+
+        // When - half the table has been read
+        table.tryEmitNext(entity(1L, "john_doe", "john.doe@example.com", "John", "Doe"));
+
+        // Then - searches still see the complete previous index
+        assertEquals(List.of(1L, 2L, 4L), ids(userSearchIndex.search("jo", null, 10)));
+        assertEquals(4, userSearchIndex.size());
+
+        // When - the read completes
+        table.tryEmitNext(entity(5L, "joanna", "joanna@example.com", "Joanna", "Lee"));
+        table.tryEmitComplete();
+
+        // Then
+        assertEquals(List.of(5L, 1L), ids(userSearchIndex.search("jo", null, 10)));
+        assertEquals(2, userSearchIndex.size());
+    }
+
+    @Test
+    void build_ShouldKeepChangesMadeWhileItRuns() {
+        // Given
+        Sinks.Many<User> table = Sinks.many().unicast().onBackpressureBuffer();
+        when(userRepository.findAll()).thenReturn(table.asFlux());
+        userSearchIndex.build().subscribe();
+        table.tryEmitNext(entity(1L, "john_doe", "john.doe@example.com", "John", "Doe"));
+        table.tryEmitNext(entity(2L, "johnny", "johnny@example.com", "Johnny", "Smith"));
+
+        // When - one user is renamed after it was read, another deleted, a third created
+        userSearchIndex.put(user(1L, "jdoe", "jdoe@example.com", "Jonathan", "Doe", "ACTIVE"));
+        userSearchIndex.remove(2L);
+        userSearchIndex.put(user(6L, "joel", "joel@example.com", "Joel", "Kim", "ACTIVE"));
+        table.tryEmitComplete();
+
+        // Then
+        assertEquals(List.of(1L), ids(userSearchIndex.search("jonathan", null, 10)));
+        assertEquals(List.of(), ids(userSearchIndex.search("johnny", null, 10)));
+        assertEquals(List.of(6L), ids(userSearchIndex.search("joel", null, 10)));
+        assertEquals(2, userSearchIndex.size());
+    }
+
+    @Test
+    void put_ShouldReplaceThePreviousTokensOfAUser() {
+        // When
+        userSearchIndex.put(user(1L, "jdoe", "jdoe@example.com", "Jonathan", "Doe", "ACTIVE"));
+
+        // Then
+        assertEquals(List.of(2L), ids(userSearchIndex.search("john", null, 10)));
+        assertEquals(List.of(1L), ids(userSearchIndex.search("jonathan", null, 10)));
+        assertEquals(4, userSearchIndex.size());
+    }
+
+    @Test
+    void remove_ShouldDropTheUserFromEveryToken() {
+        // When
+        userSearchIndex.remove(2L);
+
+        // Then
+        assertEquals(List.of(1L), ids(userSearchIndex.search("john", null, 10)));
+        assertEquals(List.of(3L), ids(userSearchIndex.search("smith", null, 10)));
+        assertEquals(3, userSearchIndex.size());
+    }
+
+    @Test
+    void refresh_ShouldReloadTheUserFromTheRepository() {
+        // Given
+        User renamed = new User("johnathan", "john.doe@example.com", "Johnathan", "Doe");
+        renamed.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Mono.just(renamed));
+
+        // When
+        userSearchIndex.refresh(1L).block();
+
+        // Then
+        assertEquals(List.of(1L), ids(userSearchIndex.search("johnathan", null, 10)));
+        assertEquals(List.of(2L), ids(userSearchIndex.search("johnny", null, 10)));
+    }
+
+    @Test
+    void refresh_ShouldRemoveUsersThatNoLongerExist() {
+        // Given
+        when(userRepository.findById(3L)).thenReturn(Mono.empty());
+
+        // When
+        userSearchIndex.refresh(3L).block();
+
+        // Then
+        assertEquals(List.of(), ids(userSearchIndex.search("jane", null, 10)));
+        assertEquals(3, userSearchIndex.size());
+    }
+
+    private static User entity(Long id, String username, String email, String firstName, String lastName) {
+        User user = new User(username, email, firstName, lastName);
+        user.setId(id);
+        return user;
+    }
+
+    private static UserDto user(Long id, String username, String email, String firstName, String lastName, String status) {
+        return new UserDto(id, username, email, firstName, lastName, null, null, status);
+    }
+
+    private static List<Long> ids(List<UserDto> users) {
+        return users.stream().map(UserDto::getId).toList();
+    }
+}
@@ -0,0 +1,221 @@
+package com.bootcamp.user.service;
+
+import com.bootcamp.user.dto.UserDto;
+import com.bootcamp.user.dto.UserPage;
+import com.bootcamp.user.event.UserOutbox;
+import com.bootcamp.user.event.UserOutboxRelay;
+import com.bootcamp.user.repository.UserRepository;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Creates users against an in-memory H2 database
+ *
+ * The connection factory counts the statements sent to the database, so the
+ * tests also pin down the round-trips of a signup.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    private static final int SIGNUPS = 20;
+
+    @Mock
+    private UserOutboxRelay userOutboxRelay;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private DatabaseClient databaseClient;
+    private UserService service;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory h2 = H2ConnectionFactory.inMemory("users-" + UUID.randomUUID());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(h2).block();
+        ConnectionFactory connectionFactory = countingStatements(h2);
+        databaseClient = DatabaseClient.create(connectionFactory);
+
+        UserOutbox userOutbox = new UserOutbox();
+        ReflectionTestUtils.setField(userOutbox, "databaseClient", databaseClient);
+
+        service = new UserService();
+        ReflectionTestUtils.setField(service, "userRepository", new R2dbcRepositoryFactory(
+                new R2dbcEntityTemplate(connectionFactory)).getRepository(UserRepository.class));
+        ReflectionTestUtils.setField(service, "userOutbox", userOutbox);
+        ReflectionTestUtils.setField(service, "userOutboxRelay", userOutboxRelay);
+        ReflectionTestUtils.setField(service, "transactionalOperator",
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+        ReflectionTestUtils.setField(service, "databaseClient", databaseClient);
+        ReflectionTestUtils.setField(service, "userCache", userCache);
+        ReflectionTestUtils.setField(service, "userSearchIndex", userSearchIndex);
+    }
+
+    @Test
+    void createUser_ShouldInsertUserAndItsEventWithTwoStatements() {
+        // When
+        StepVerifier.create(service.createUser(new UserDto("alice", "alice@example.com", "Alice", "A")))
+                .assertNext(user -> {
+                    assertNotNull(user.getId());
+                    assertEquals("alice", user.getUsername());
+                })
+                .verifyComplete();
+
+        // Then - no existence checks before the insert
+        assertEquals(2, statements.get());
+        assertEquals(1L, count("SELECT COUNT(*) AS total FROM user_outbox WHERE event_type = 'USER_CREATED'"));
+        verify(userOutboxRelay).wakeUp();
+        verify(userSearchIndex).put(any());
+    }
+
+    @Test
+    void createUser_ShouldReportTakenUsernameAndEmailAsConflicts() {
+        // Given
+        service.createUser(new UserDto("alice", "alice@example.com", "Alice", "A")).block();
+
+        // When / Then
+        StepVerifier.create(service.createUser(new UserDto("alice", "other@example.com", "Alice", "B")))
+                .expectErrorSatisfies(error -> assertConflict(error, "Username already exists"))
+                .verify();
+        StepVerifier.create(service.createUser(new UserDto("alicia", "alice@example.com", "Alicia", "A")))
+                .expectErrorSatisfies(error -> assertConflict(error, "Email already exists"))
+                .verify();
+        assertEquals(1L, count("SELECT COUNT(*) AS total FROM user_outbox"));
+    }
+
+    @Test
+    void createUser_ShouldLetExactlyOneOfConcurrentSignupsForAUsernameWin() {
+        // Given
+        statements.set(0);
+
+        // When
+        List<String> outcomes = Flux.range(0, SIGNUPS)
+                .flatMap(i -> service.createUser(new UserDto("taken", "user" + i + "@example.com", "U", "U"))
+                        .map(user -> "created")
+                        .onErrorResume(UserError.class, error -> Mono.just(error.getMessage())), SIGNUPS)
+                .collectList()
+                .block();
+
+        // Then - one insert per signup, plus the outbox insert of the winner
+        assertEquals(1, outcomes.stream().filter("created"::equals).count());
+        assertEquals(SIGNUPS - 1, outcomes.stream().filter("Username already exists"::equals).count());
+        assertEquals(SIGNUPS + 1, statements.get());
+        assertEquals(1L, count("SELECT COUNT(*) AS total FROM users"));
+        assertEquals(1L, count("SELECT COUNT(*) AS total FROM user_outbox"));
+    }
+
+    @Test
+    void getUsersPage_ShouldWalkEveryUserOnceWithCursors() {
+        // Given
+        insertUsers(120);
+
+        // When
+        UserPage first = service.getUsersPage(null, 50, null).block();
+        UserPage second = service.getUsersPage(first.getNextCursor(), 50, "username").block();
+        UserPage last = service.getUsersPage(second.getNextCursor(), 50, null).block();
+
+        // Then
+        assertEquals(List.of(50, 50, 20), List.of(first.getItems().size(), second.getItems().size(), last.getItems().size()));
+        assertEquals(51L, second.getItems().get(0).getId());
+        assertEquals("user51", second.getItems().get(0).getUsername());
+        assertNull(second.getItems().get(0).getEmail());
+        assertEquals(120L, last.getItems().get(19).getId());
+        assertFalse(last.isHasMore());
+    }
+
+    @Test
+    void pageQuery_ShouldScanThePrimaryKeyFromTheCursorWithoutSorting() {
+        // Given
+        insertUsers(1000);
+
+        // When
+        String plan = databaseClient.sql("EXPLAIN " + UserService.pageQuery("id, username"))
+                .bind("afterId", 500L)
+                .bind("limit", 51)
+                .map((row, metadata) -> row.get(0, String.class))
+                .one()
+                .block()
+                .replaceAll("\\s+", " ");
+
+        // Then
+        assertTrue(plan.contains("PRIMARY_KEY"), plan);
+        assertTrue(plan.contains("\"ID\" > ?1"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    private void insertUsers(int users) {
+        databaseClient.sql("INSERT INTO users (username, email, first_name, last_name) " +
+                        "SELECT CONCAT('user', x), CONCAT('user', x, '@example.com'), 'First', 'Last' FROM SYSTEM_RANGE(1, " + users + ")")
+                .fetch().rowsUpdated().block();
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql).map((row, metadata) -> row.get("total", Long.class)).one().block();
+    }
+
+    private static void assertConflict(Throwable error, String message) {
+        UserError userError = assertInstanceOf(UserError.class, error);
+        assertEquals(UserError.Kind.CONFLICT, userError.getKind());
+        assertEquals(message, userError.getMessage());
+    }
+
+    private ConnectionFactory countingStatements(ConnectionFactory delegate) {
+        return (ConnectionFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {ConnectionFactory.class}, (proxy, method, args) -> {
+                    Object result = invoke(delegate, method, args);
+                    return method.getName().equals("create")
+                            ? Mono.from((Publisher<?>) result).map(this::countingStatements)
+                            : result;
+                });
+    }
+
+    private Connection countingStatements(Object connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("createStatement")) {
+                        statements.incrementAndGet();
+                    }
+                    return invoke(connection, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}